@@ -0,0 +1,150 @@
+package edu.byu.cs.tweeter.client.model.net;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.net.TweeterRemoteException;
+import edu.byu.cs.tweeter.model.net.request.BatchOperation;
+import edu.byu.cs.tweeter.model.net.request.BatchRequest;
+import edu.byu.cs.tweeter.model.net.request.Request;
+import edu.byu.cs.tweeter.model.net.response.BatchResponse;
+import edu.byu.cs.tweeter.model.net.response.Response;
+
+/**
+ * Groups requests made within a short window of each other into a single batch request, so a
+ * screen that asks for several resources at once makes one round trip instead of one for each.
+ * Callers block until their batch has been answered, so this should only be used from
+ * background tasks.
+ */
+class RequestCoalescer {
+
+    /**
+     * How long the first request of a batch waits for others to join it.
+     */
+    private static final long WINDOW_MILLIS = 20;
+
+    /**
+     * The most requests sent in one batch. Matches the server's limit.
+     */
+    private static final int MAX_OPERATIONS = 25;
+
+    private final ClientCommunicator clientCommunicator;
+    private final String urlPath;
+
+    /**
+     * The batch each auth token's requests are currently joining.
+     */
+    private final Map<String, Batch> openBatches = new HashMap<>();
+
+    RequestCoalescer(ClientCommunicator clientCommunicator, String urlPath) {
+        this.clientCommunicator = clientCommunicator;
+        this.urlPath = urlPath;
+    }
+
+    /**
+     * The requests collected for one auth token and, once sent, their results.
+     */
+    private static class Batch {
+        private final AuthToken authToken;
+        private final List<BatchOperation> operations = new ArrayList<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private BatchResponse response;
+        private Exception exception;
+
+        Batch(AuthToken authToken) {
+            this.authToken = authToken;
+        }
+    }
+
+    /**
+     * Sends the request as part of a batch and waits for its response.
+     *
+     * @param operation the name of the operation, one of the {@link BatchOperation} constants.
+     * @param request the request. Its auth token is replaced by the batch's.
+     * @param authToken the auth token the request is made with.
+     * @param returnType the type of the operation's response.
+     * @return the operation's response.
+     */
+    <T extends Response> T submit(String operation, Request request, AuthToken authToken, Class<T> returnType)
+            throws IOException, TweeterRemoteException {
+        String key = authToken.getToken();
+        Batch batch;
+        int index;
+        boolean sender;
+        synchronized (this) {
+            batch = openBatches.get(key);
+            sender = batch == null;
+            if (sender) {
+                batch = new Batch(authToken);
+                openBatches.put(key, batch);
+            }
+            index = batch.operations.size();
+            batch.operations.add(new BatchOperation(operation, JsonSerializer.serialize(request)));
+            if (batch.operations.size() >= MAX_OPERATIONS) {
+                openBatches.remove(key);
+            }
+        }
+
+        if (sender) {
+            send(key, batch);
+        }
+
+        try {
+            batch.done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for batch", e);
+        }
+
+        if (batch.exception instanceof IOException) throw (IOException) batch.exception;
+        if (batch.exception instanceof TweeterRemoteException) throw (TweeterRemoteException) batch.exception;
+        if (batch.exception != null) throw new IOException(batch.exception);
+
+        if (!batch.response.isSuccess()) {
+            return failure(batch.response.getMessage(), returnType);
+        }
+        return JsonSerializer.deserialize(batch.response.getResults().get(index), returnType);
+    }
+
+    /**
+     * Waits for the window to close and sends the batch.
+     */
+    private void send(String key, Batch batch) {
+        try {
+            Thread.sleep(WINDOW_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<BatchOperation> operations;
+        synchronized (this) {
+            if (openBatches.get(key) == batch) {
+                openBatches.remove(key);
+            }
+            operations = new ArrayList<>(batch.operations);
+        }
+
+        try {
+            batch.response = clientCommunicator.doPost(urlPath, new BatchRequest(operations, batch.authToken), null, BatchResponse.class);
+        } catch (Exception e) {
+            batch.exception = e;
+        } finally {
+            batch.done.countDown();
+        }
+    }
+
+    /**
+     * Builds an unsuccessful response of the given type, for when the whole batch failed.
+     */
+    private <T extends Response> T failure(String message, Class<T> returnType) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return JsonSerializer.deserialize(JsonSerializer.serialize(response), returnType);
+    }
+}
@@ -2,6 +2,7 @@ package edu.byu.cs.tweeter.client.model.net;
 
 import java.io.IOException;
 
+import edu.byu.cs.tweeter.model.domain.AuthToken;
 import edu.byu.cs.tweeter.model.domain.Status;
 import edu.byu.cs.tweeter.model.net.TweeterRemoteException;
 import edu.byu.cs.tweeter.model.net.request.*;
@@ -15,8 +16,15 @@ public class ServerFacade {
 
     private static final String SERVER_URL = "https://2a3in8zs3g.execute-api.us-west-1.amazonaws.com/stage_8";
 
+    private static final String BATCH_URL_PATH = "/batch";
+
     private final ClientCommunicator clientCommunicator = new ClientCommunicator(SERVER_URL);
 
+    /**
+     * Shared by every ServerFacade so requests from different tasks can join the same batch.
+     */
+    private static final RequestCoalescer coalescer = new RequestCoalescer(new ClientCommunicator(SERVER_URL), BATCH_URL_PATH);
+
     /**
      * Performs a login and if successful, returns the logged in user and an auth token.
      *
@@ -55,6 +63,17 @@ public class ServerFacade {
         return clientCommunicator.doPost(urlPath, request, null, IsFollowerResponse.class);
     }
 
+    /**
+     * Gets a user, their follower and following counts and whether the current user follows
+     * them, in place of separate user, count and is-follower requests.
+     *
+     * @param request contains all information needed to get the profile.
+     * @return the profile response.
+     */
+    public GetProfileResponse getProfile(GetProfileRequest request, String urlPath) throws IOException, TweeterRemoteException {
+        return clientCommunicator.doPost(urlPath, request, null, GetProfileResponse.class);
+    }
+
     public GetFollowersResponse getFollowers(GetFollowersRequest request, String urlPath) throws IOException, TweeterRemoteException {
         return clientCommunicator.doPost(urlPath, request, null, GetFollowersResponse.class);
     }
@@ -78,4 +97,19 @@ public class ServerFacade {
     public GetFollowingCountResponse getFollowingCount(GetFollowingCountRequest request, String urlPath) throws IOException, TweeterRemoteException {
         return clientCommunicator.doPost(urlPath, request, null, GetFollowingCountResponse.class);
     }
+
+    /**
+     * Sends a read request as part of a batch with any other requests made at about the same time
+     * with the same auth token. Blocks until the batch has been answered.
+     *
+     * @param operation the name of the operation, one of the {@link BatchOperation} constants.
+     * @param request the request.
+     * @param authToken the auth token the request is made with.
+     * @param returnType the type of the operation's response.
+     * @return the operation's response.
+     */
+    public <T extends Response> T coalesce(String operation, Request request, AuthToken authToken, Class<T> returnType)
+            throws IOException, TweeterRemoteException {
+        return coalescer.submit(operation, request, authToken, returnType);
+    }
 }
@@ -7,6 +7,7 @@ import edu.byu.cs.tweeter.client.model.service.backgroundTask.GetFollowersCountT
 import edu.byu.cs.tweeter.client.model.service.backgroundTask.GetFollowersTask;
 import edu.byu.cs.tweeter.client.model.service.backgroundTask.GetFollowingCountTask;
 import edu.byu.cs.tweeter.client.model.service.backgroundTask.GetFollowingTask;
+import edu.byu.cs.tweeter.client.model.service.backgroundTask.GetProfileTask;
 import edu.byu.cs.tweeter.client.model.service.backgroundTask.IsFollowerTask;
 import edu.byu.cs.tweeter.client.model.service.backgroundTask.UnfollowTask;
 import edu.byu.cs.tweeter.client.model.service.handler.PagedServiceHandler;
@@ -26,6 +27,7 @@ public class FollowService extends Service {
     public interface UnfollowObserver extends ServiceObserver { void handleSuccess(); }
     public interface GetFollowersCountObserver extends ServiceObserver { void handleSuccess(int count); }
     public interface GetFollowingCountObserver extends ServiceObserver { void handleSuccess(int count); }
+    public interface GetProfileObserver extends ServiceObserver { void handleSuccess(User user, int followersCount, int followingCount, boolean isFollower); }
 
     public void getFollowing(AuthToken currUserAuthToken, User user, int pageSize, User lastFollowee,
                              GetFollowingObserver getFollowingObserver) {
@@ -57,6 +59,10 @@ public class FollowService extends Service {
         executeTask(new GetFollowingCountTask(currUserAuthToken, selectedUser, new GetFollowingCountHandler(observer)));
     }
 
+    public void getProfile(AuthToken currUserAuthToken, User currUser, User selectedUser, MainPresenter.GetProfileObserver observer) {
+        executeTask(new GetProfileTask(currUserAuthToken, currUser, selectedUser, new GetProfileHandler(observer)));
+    }
+
     /**
      * Message handler (i.e., observer) for GetFollowingTask.
      */
@@ -128,4 +134,19 @@ public class FollowService extends Service {
             ((GetFollowingCountObserver) observer).handleSuccess(count);
         }
     }
+
+    private static class GetProfileHandler extends ServiceHandler {
+        public GetProfileHandler(GetProfileObserver observer) {
+            super(observer);
+        }
+
+        @Override
+        public void handleSuccess(Message msg) {
+            User user = (User) msg.getData().getSerializable(GetProfileTask.USER_KEY);
+            int followersCount = msg.getData().getInt(GetProfileTask.FOLLOWERS_COUNT_KEY);
+            int followingCount = msg.getData().getInt(GetProfileTask.FOLLOWING_COUNT_KEY);
+            boolean isFollower = msg.getData().getBoolean(GetProfileTask.IS_FOLLOWER_KEY);
+            ((GetProfileObserver) observer).handleSuccess(user, followersCount, followingCount, isFollower);
+        }
+    }
 }
@@ -8,8 +8,10 @@ import java.io.IOException;
 import edu.byu.cs.tweeter.model.domain.AuthToken;
 import edu.byu.cs.tweeter.model.domain.User;
 import edu.byu.cs.tweeter.model.net.TweeterRemoteException;
+import edu.byu.cs.tweeter.model.net.request.BatchOperation;
 import edu.byu.cs.tweeter.model.net.request.GetFollowersCountRequest;
 import edu.byu.cs.tweeter.model.net.response.CountResponse;
+import edu.byu.cs.tweeter.model.net.response.GetFollowersCountResponse;
 
 /**
  * Background task that queries how many followers a user has.
@@ -17,7 +19,6 @@ import edu.byu.cs.tweeter.model.net.response.CountResponse;
 public class GetFollowersCountTask extends GetCountTask {
 
     private static final String LOG_TAG = "GetFollowersCountTask";
-    private static final String URL_PATH = "/follow/followers/count";
 
     public GetFollowersCountTask(AuthToken authToken, User targetUser, Handler messageHandler) {
         super(authToken, targetUser, messageHandler);
@@ -25,7 +26,8 @@ public class GetFollowersCountTask extends GetCountTask {
 
     @Override
     protected CountResponse runCountTask() throws IOException, TweeterRemoteException {
-        return getServerFacade().getFollowersCount(new GetFollowersCountRequest(targetUser, authToken), URL_PATH);
+        return getServerFacade().coalesce(BatchOperation.GET_FOLLOWERS_COUNT,
+                new GetFollowersCountRequest(targetUser, authToken), authToken, GetFollowersCountResponse.class);
     }
 
     @Override
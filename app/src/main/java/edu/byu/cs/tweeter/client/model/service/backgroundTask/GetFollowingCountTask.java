@@ -8,8 +8,10 @@ import java.io.IOException;
 import edu.byu.cs.tweeter.model.domain.AuthToken;
 import edu.byu.cs.tweeter.model.domain.User;
 import edu.byu.cs.tweeter.model.net.TweeterRemoteException;
+import edu.byu.cs.tweeter.model.net.request.BatchOperation;
 import edu.byu.cs.tweeter.model.net.request.GetFollowingCountRequest;
 import edu.byu.cs.tweeter.model.net.response.CountResponse;
+import edu.byu.cs.tweeter.model.net.response.GetFollowingCountResponse;
 
 /**
  * Background task that queries how many other users a specified user is following.
@@ -17,7 +19,6 @@ import edu.byu.cs.tweeter.model.net.response.CountResponse;
 public class GetFollowingCountTask extends GetCountTask {
 
     private static final String LOG_TAG = "GetFollowingCountTask";
-    private static final String URL_PATH = "/follow/following/count";
 
     public GetFollowingCountTask(AuthToken authToken, User targetUser, Handler messageHandler) {
         super(authToken, targetUser, messageHandler);
@@ -25,7 +26,8 @@ public class GetFollowingCountTask extends GetCountTask {
 
     @Override
     protected CountResponse runCountTask() throws IOException, TweeterRemoteException {
-        return getServerFacade().getFollowingCount(new GetFollowingCountRequest(targetUser, authToken), URL_PATH);
+        return getServerFacade().coalesce(BatchOperation.GET_FOLLOWING_COUNT,
+                new GetFollowingCountRequest(targetUser, authToken), authToken, GetFollowingCountResponse.class);
     }
 
     @Override
@@ -0,0 +1,77 @@
+package edu.byu.cs.tweeter.client.model.service.backgroundTask;
+
+import android.os.Bundle;
+import android.os.Handler;
+import android.util.Log;
+
+import java.io.IOException;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.net.TweeterRemoteException;
+import edu.byu.cs.tweeter.model.net.request.GetProfileRequest;
+import edu.byu.cs.tweeter.model.net.response.GetProfileResponse;
+
+/**
+ * Background task that gets a user's profile, their follower and following counts and whether
+ * the current user follows them, in one request.
+ */
+public class GetProfileTask extends AuthenticatedTask {
+
+    private static final String LOG_TAG = "GetProfileTask";
+    private static final String URL_PATH = "/profile";
+    public static final String USER_KEY = "user";
+    public static final String FOLLOWERS_COUNT_KEY = "followers-count";
+    public static final String FOLLOWING_COUNT_KEY = "following-count";
+    public static final String IS_FOLLOWER_KEY = "is-follower";
+
+    /**
+     * The logged in user.
+     */
+    private final User currUser;
+
+    /**
+     * The user whose profile is being retrieved.
+     */
+    private final User targetUser;
+
+    private User user;
+    private int followersCount;
+    private int followingCount;
+    private boolean isFollower;
+
+    public GetProfileTask(AuthToken authToken, User currUser, User targetUser, Handler messageHandler) {
+        super(authToken, messageHandler);
+        this.currUser = currUser;
+        this.targetUser = targetUser;
+    }
+
+    @Override
+    protected void runTask() {
+        try {
+            GetProfileResponse response = getServerFacade().getProfile(new GetProfileRequest(this.currUser, this.targetUser, this.authToken), URL_PATH);
+            if (response.isSuccess()) {
+                this.user = response.getUser();
+                this.followersCount = response.getFollowersCount();
+                this.followingCount = response.getFollowingCount();
+                this.isFollower = response.getIsFollower();
+                sendSuccessMessage();
+            }
+            else {
+                sendFailedMessage(response.getMessage());
+            }
+        }
+        catch (IOException | TweeterRemoteException e) {
+            Log.e(LOG_TAG, "Unable to get profile due to exception: " + e.getMessage());
+            sendExceptionMessage(e);
+        }
+    }
+
+    @Override
+    protected void loadSuccessBundle(Bundle msgBundle) {
+        msgBundle.putSerializable(USER_KEY, user);
+        msgBundle.putInt(FOLLOWERS_COUNT_KEY, followersCount);
+        msgBundle.putInt(FOLLOWING_COUNT_KEY, followingCount);
+        msgBundle.putBoolean(IS_FOLLOWER_KEY, isFollower);
+    }
+}
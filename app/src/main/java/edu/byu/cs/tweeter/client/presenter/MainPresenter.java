@@ -46,6 +46,15 @@ public class MainPresenter extends Presenter {
                 selectedUser, new IsFollowerObserver());
     }
 
+    /**
+     * Loads the selected user's counts and, unless they are the current user, whether the
+     * current user follows them, in one request.
+     */
+    public void loadProfile(User selectedUser) {
+        followService.getProfile(Cache.getInstance().getCurrUserAuthToken(), Cache.getInstance().getCurrUser(),
+                selectedUser, new GetProfileObserver());
+    }
+
     public void follow(User selectedUser) {
         view.displayMessage("Adding " + selectedUser.getName() + "...");
         followService.follow(Cache.getInstance().getCurrUser(),
@@ -267,4 +276,25 @@ public class MainPresenter extends Presenter {
             view.displayMessage("Failed to get following count because of exception: " + ex.getMessage());
         }
     }
+
+    public class GetProfileObserver implements FollowService.GetProfileObserver {
+        @Override
+        public void handleSuccess(User user, int followersCount, int followingCount, boolean isFollower) {
+            ((MainView) view).updateFollowersCount(followersCount);
+            ((MainView) view).updateFollowingCount(followingCount);
+            if (user.compareTo(Cache.getInstance().getCurrUser()) != 0) {
+                ((MainView) view).updateFollowButton(isFollower);
+            }
+        }
+
+        @Override
+        public void handleFailure(String message) {
+            view.displayMessage("Failed to get profile: " + message);
+        }
+
+        @Override
+        public void handleException(Exception ex) {
+            view.displayMessage("Failed to get profile because of exception: " + ex.getMessage());
+        }
+    }
 }
@@ -72,8 +72,6 @@ public class MainActivity extends AppCompatActivity implements StatusDialogFragm
             }
         });
 
-        updateSelectedUserFollowingAndFollowers();
-
         TextView userName = findViewById(R.id.userName);
         userName.setText(selectedUser.getName());
 
@@ -95,9 +93,11 @@ public class MainActivity extends AppCompatActivity implements StatusDialogFragm
             followButton.setVisibility(View.GONE);
         } else {
             followButton.setVisibility(View.VISIBLE);
-            presenter.isFollower(selectedUser);
         }
 
+        // One request for both counts and the follow state
+        presenter.loadProfile(selectedUser);
+
         followButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
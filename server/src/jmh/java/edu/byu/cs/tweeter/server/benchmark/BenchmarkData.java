@@ -0,0 +1,102 @@
+package edu.byu.cs.tweeter.server.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.local.LocalFollowDAO;
+import edu.byu.cs.tweeter.server.dao.local.LocalStatusDAO;
+import edu.byu.cs.tweeter.server.dao.local.LocalStore;
+import edu.byu.cs.tweeter.server.dao.local.LocalUserDAO;
+
+/**
+ * A local store in a temporary directory filled with users, follows, stories and feeds for the
+ * benchmarks to read. The reader follows FOLLOWEES users who have each posted STORY_SIZE
+ * statuses, and the celebrity has FOLLOWERS followers.
+ */
+class BenchmarkData {
+
+    static final int USERS = 2_000;
+    static final int FOLLOWEES = 200;
+    static final int FOLLOWERS = 2_000;
+    static final int STORY_SIZE = 20;
+
+    static final User READER = user("@reader");
+    static final User CELEBRITY = user("@celebrity");
+    static final AuthToken AUTH_TOKEN = new AuthToken("benchmark-token", System.currentTimeMillis());
+
+    final File directory;
+    final LocalStore store;
+    final LocalUserDAO userDAO;
+    final LocalFollowDAO followDAO;
+    final LocalStatusDAO statusDAO;
+
+    BenchmarkData() throws IOException, DAOException {
+        directory = Files.createTempDirectory("tweeter-benchmark").toFile();
+        store = new LocalStore(directory);
+        userDAO = new LocalUserDAO(store);
+        followDAO = new LocalFollowDAO(store, userDAO);
+        statusDAO = new LocalStatusDAO(store);
+
+        userDAO.addUser(READER.getAlias(), "hash", "salt", "Reader", "User", "image", 0, FOLLOWEES);
+        userDAO.addUser(CELEBRITY.getAlias(), "hash", "salt", "Celebrity", "User", "image", FOLLOWERS, 0);
+        userDAO.putAuthToken(AUTH_TOKEN);
+
+        for (int i = 0; i < USERS; i++) {
+            String alias = alias(i);
+            userDAO.addUser(alias, "hash", "salt", "User", Integer.toString(i), "image", 0, 1);
+            followDAO.putFollower(CELEBRITY.getAlias(), alias);
+        }
+
+        // Statuses from every followee, interleaved in time, like a real feed
+        long datetime = 1_600_000_000_000L;
+        for (int s = 0; s < STORY_SIZE; s++) {
+            for (int i = 0; i < FOLLOWEES; i++) {
+                String statusID = datetime + "-" + i;
+                statusDAO.postStatusToStory(alias(i), "Post " + s + " from " + alias(i), "", "",
+                        Long.toString(datetime), statusID);
+                statusDAO.postStatusToFeeds(statusID, Collections.singletonList(READER.getAlias()), alias(i));
+                datetime++;
+            }
+        }
+        for (int i = 0; i < FOLLOWEES; i++) {
+            followDAO.putFollower(alias(i), READER.getAlias());
+        }
+    }
+
+    static String alias(int i) {
+        return "@user" + i;
+    }
+
+    static User user(String alias) {
+        return new User("First", "Last", alias, "image");
+    }
+
+    static Status status(int i) {
+        return new Status("Status number " + i + " with a @mention and https://example.com",
+                user(alias(i % USERS)), Long.toString(1_600_000_000_000L + i),
+                Collections.singletonList("https://example.com"), Collections.singletonList("@mention"),
+                String.format("%013d-%d", 1_600_000_000_000L + i, i));
+    }
+
+    static List<String> followers(int count) {
+        List<String> followers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            followers.add(alias(i));
+        }
+        return followers;
+    }
+
+    void delete() throws IOException {
+        Files.walk(directory.toPath()).sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile)
+                .forEach(File::delete);
+    }
+}
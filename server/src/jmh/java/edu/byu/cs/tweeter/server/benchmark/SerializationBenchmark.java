@@ -0,0 +1,110 @@
+package edu.byu.cs.tweeter.server.benchmark;
+
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.model.net.request.GetFeedRequest;
+import edu.byu.cs.tweeter.model.net.response.GetFeedResponse;
+import edu.byu.cs.tweeter.server.dao.model.DBStatus;
+import edu.byu.cs.tweeter.server.service.Service;
+
+/**
+ * Measures the per-item work every page pays: the mention and url list encoding, the JSON
+ * encoding of requests and responses, and sorting statuses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100"})
+    public int items;
+
+    private final Gson gson = new Gson();
+
+    private List<String> list;
+    private String serializedList;
+    private GetFeedRequest request;
+    private String requestJson;
+    private GetFeedResponse response;
+    private String responseJson;
+    private List<DBStatus> unsortedStatuses;
+
+    @Setup
+    public void setup() {
+        list = new ArrayList<>();
+        List<Status> statuses = new ArrayList<>();
+        unsortedStatuses = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            list.add(BenchmarkData.alias(i));
+            Status status = BenchmarkData.status(i);
+            statuses.add(status);
+            unsortedStatuses.add(new DBStatus(status, status.getUser().getAlias()));
+        }
+        Collections.shuffle(unsortedStatuses, new Random(42));
+        serializedList = Service.deserializeList(list);
+
+        request = new GetFeedRequest(BenchmarkData.READER, BenchmarkData.AUTH_TOKEN, items, statuses.get(0));
+        requestJson = gson.toJson(request);
+        response = new GetFeedResponse(statuses, true);
+        responseJson = gson.toJson(response);
+    }
+
+    @Benchmark
+    public String deserializeList() {
+        return Service.deserializeList(list);
+    }
+
+    @Benchmark
+    public List<String> serializeToList() {
+        return Service.serializeToList(serializedList);
+    }
+
+    @Benchmark
+    public String requestToJson() {
+        return gson.toJson(request);
+    }
+
+    @Benchmark
+    public GetFeedRequest requestFromJson() {
+        return gson.fromJson(requestJson, GetFeedRequest.class);
+    }
+
+    @Benchmark
+    public String responseToJson() {
+        return gson.toJson(response);
+    }
+
+    @Benchmark
+    public GetFeedResponse responseFromJson() {
+        return gson.fromJson(responseJson, GetFeedResponse.class);
+    }
+
+    @Benchmark
+    public List<DBStatus> sortStatuses() {
+        List<DBStatus> statuses = new ArrayList<>(unsortedStatuses);
+        statuses.sort(Collections.reverseOrder());
+        return statuses;
+    }
+}
@@ -0,0 +1,99 @@
+package edu.byu.cs.tweeter.server.benchmark;
+
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import edu.byu.cs.tweeter.model.net.request.GetFeedRequest;
+import edu.byu.cs.tweeter.model.net.request.GetFollowersRequest;
+import edu.byu.cs.tweeter.model.net.request.GetStoryRequest;
+import edu.byu.cs.tweeter.model.net.response.GetFeedResponse;
+import edu.byu.cs.tweeter.model.net.response.GetFollowersResponse;
+import edu.byu.cs.tweeter.model.net.response.GetStoryResponse;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.service.FeedService;
+import edu.byu.cs.tweeter.server.service.FollowService;
+import edu.byu.cs.tweeter.server.service.StatusService;
+import edu.byu.cs.tweeter.server.service.StoryService;
+import edu.byu.cs.tweeter.server.service.sqs.UpdateFeedSQSRequest;
+
+/**
+ * Measures the services behind the hot handlers against the local store, so the numbers
+ * reflect the services' own work rather than DynamoDB round trips.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    private BenchmarkData data;
+    private FeedService feedService;
+    private StoryService storyService;
+    private StatusService statusService;
+    private FollowService followService;
+    private String updateFeedsMessage;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, DAOException {
+        data = new BenchmarkData();
+        feedService = new FeedService(data.statusDAO, data.userDAO, data.followDAO);
+        storyService = new StoryService(data.statusDAO, data.userDAO);
+        // Updating feeds does not send messages, so there is no queue
+        statusService = new StatusService(data.statusDAO, data.userDAO, data.followDAO, null);
+        followService = new FollowService(data.followDAO, data.userDAO);
+
+        updateFeedsMessage = new Gson().toJson(
+                new UpdateFeedSQSRequest(BenchmarkData.status(0), BenchmarkData.followers(pageSize)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        data.delete();
+    }
+
+    @Benchmark
+    public GetFeedResponse getFeed() {
+        return feedService.getFeed(new GetFeedRequest(BenchmarkData.READER, BenchmarkData.AUTH_TOKEN, pageSize, null));
+    }
+
+    @Benchmark
+    public GetStoryResponse getStory() {
+        return storyService.getStory(new GetStoryRequest(BenchmarkData.user(BenchmarkData.alias(0)),
+                BenchmarkData.AUTH_TOKEN, pageSize, null));
+    }
+
+    /**
+     * Writes one status to pageSize feeds, as one update feed message does.
+     */
+    @Benchmark
+    public void updateFeeds() {
+        statusService.updateFeeds(updateFeedsMessage);
+    }
+
+    @Benchmark
+    public GetFollowersResponse getFollowers() {
+        return followService.getFollowers(new GetFollowersRequest(BenchmarkData.CELEBRITY,
+                BenchmarkData.AUTH_TOKEN, pageSize, null));
+    }
+}
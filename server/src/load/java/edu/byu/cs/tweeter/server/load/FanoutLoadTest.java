@@ -0,0 +1,314 @@
+package edu.byu.cs.tweeter.server.load;
+
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.net.request.PostStatusRequest;
+import edu.byu.cs.tweeter.model.net.response.PostStatusResponse;
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.FollowDAO;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.dao.local.LocalSQS;
+import edu.byu.cs.tweeter.server.dao.model.DBUser;
+import edu.byu.cs.tweeter.server.lambda.ApplicationContext;
+import edu.byu.cs.tweeter.server.lambda.PostStatusHandler;
+import edu.byu.cs.tweeter.server.lambda.PostUpdateFeedMessagesHandler;
+import edu.byu.cs.tweeter.server.lambda.UpdateFeedsHandler;
+import edu.byu.cs.tweeter.server.service.StatusService;
+import edu.byu.cs.tweeter.server.service.sqs.UpdateFeedSQSRequest;
+
+/**
+ * Measures how long a posted status takes to reach its followers' feeds. Statuses are posted
+ * through {@link PostStatusHandler} at a steady rate, and the queues are drained into
+ * {@link PostUpdateFeedMessagesHandler} and {@link UpdateFeedsHandler}, all in this JVM against
+ * the local storage backend and in-memory queues. The posters' follower counts follow a Zipf
+ * distribution, so a few posters have most of the followers.
+ *
+ * Settings are read like any other server setting:
+ * LOAD_USERS (10000) users follow LOAD_POSTERS (100) posters. The most followed poster has
+ * LOAD_MAX_FOLLOWERS (every user) followers and the poster ranked r has that divided by
+ * r^LOAD_ZIPF_EXPONENT (1.0). LOAD_POSTS_PER_SECOND (20) statuses are posted by random posters
+ * for LOAD_DURATION_SECONDS (30), then the queues get LOAD_DRAIN_SECONDS (60) to empty.
+ * LOAD_CONSUMERS (4) threads consume each queue. Server output is hidden unless LOAD_QUIET is
+ * false.
+ *
+ * The report gives the p50 and p99 latency of the posts themselves and the time from posting
+ * until the status is in every feed it fans out to, plus the write amplification: the feed
+ * rows and queue messages each post causes.
+ */
+public class FanoutLoadTest {
+
+    private static final String AUTH_TOKEN = "load-test-token";
+
+    private final int users = ServerConfig.getInt("LOAD_USERS", 10_000);
+    private final int posters = ServerConfig.getInt("LOAD_POSTERS", 100);
+    private final int maxFollowers = Math.min(users, ServerConfig.getInt("LOAD_MAX_FOLLOWERS", users));
+    private final double zipfExponent = Double.parseDouble(ServerConfig.getString("LOAD_ZIPF_EXPONENT", "1.0"));
+    private final int postsPerSecond = ServerConfig.getInt("LOAD_POSTS_PER_SECOND", 20);
+    private final int durationSeconds = ServerConfig.getInt("LOAD_DURATION_SECONDS", 30);
+    private final int drainSeconds = ServerConfig.getInt("LOAD_DRAIN_SECONDS", 60);
+    private final int consumers = ServerConfig.getInt("LOAD_CONSUMERS", 4);
+
+    // The same threshold the services read, to know which posters' statuses are not fanned out
+    private final int pullThreshold = ServerConfig.getInt("PULL_FEED_FOLLOWER_THRESHOLD", 5000);
+
+    private final Gson gson = new Gson();
+    private final FanoutTracker tracker = new FanoutTracker();
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final int[] followerCounts = new int[posters];
+
+    private LocalSQS sqs;
+
+    public static void main(String[] args) throws Exception {
+        useLocalBackend();
+
+        PrintStream out = System.out;
+        if (ServerConfig.getBoolean("LOAD_QUIET", true)) {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+        FanoutLoadTest test = new FanoutLoadTest();
+        try {
+            test.run(out);
+        } finally {
+            System.setOut(out);
+        }
+        out.println(test.report());
+        System.exit(0);
+    }
+
+    /**
+     * Points the server at the local backend and in-memory queues, in a new directory, unless
+     * they have been configured already. Must run before the application context is built.
+     */
+    private static void useLocalBackend() throws IOException {
+        setDefault("TWEETER_STORAGE", "local");
+        setDefault("LOCAL_QUEUES", "true");
+        setDefault("LOCAL_STORE_DIR", Files.createTempDirectory("tweeter-load").toString());
+        // Writing the whole store to disk every second would be measured along with the fan-out
+        setDefault("LOCAL_STORE_FLUSH_MILLIS", Long.toString(TimeUnit.DAYS.toMillis(1)));
+    }
+
+    private static void setDefault(String name, String value) {
+        if (ServerConfig.getString(name, null) == null) {
+            System.setProperty(name, value);
+        }
+    }
+
+    private void run(PrintStream out) throws DAOException, InterruptedException {
+        ApplicationContext context = ApplicationContext.forHandler(FanoutLoadTest.class);
+        sqs = context.getInstance(LocalSQS.class);
+
+        long seedStart = System.nanoTime();
+        seed(context.getInstance(UserDAO.class), context.getInstance(FollowDAO.class));
+        out.printf("Seeded %d users following %d posters (most followed has %d) in %.1f s%n", users, posters,
+                followerCounts[0], (System.nanoTime() - seedStart) / 1_000_000_000.0);
+
+        ExecutorService pumps = Executors.newFixedThreadPool(consumers * 2, daemon("load-consumer"));
+        for (int i = 0; i < consumers; i++) {
+            pumps.submit(this::consumePostStatusQueue);
+            pumps.submit(this::consumeUpdateFeedQueue);
+        }
+
+        out.printf("Posting %d statuses/sec for %d s...%n", postsPerSecond, durationSeconds);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(daemon("load-scheduler"));
+        ExecutorService posting = Executors.newCachedThreadPool(daemon("load-poster"));
+        scheduler.scheduleAtFixedRate(() -> posting.submit(this::post),
+                0, TimeUnit.SECONDS.toNanos(1) / Math.max(1, postsPerSecond), TimeUnit.NANOSECONDS);
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        scheduler.shutdownNow();
+        posting.shutdown();
+        posting.awaitTermination(drainSeconds, TimeUnit.SECONDS);
+
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainSeconds);
+        while (tracker.getIncomplete() > 0 && System.nanoTime() < drainDeadline) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        running.set(false);
+        pumps.shutdown();
+        pumps.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Adds the users and posters, and has the poster ranked r followed by the next
+     * maxFollowers / r^s users, starting from a random user.
+     */
+    private void seed(UserDAO userDAO, FollowDAO followDAO) throws DAOException {
+        List<DBUser> batch = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            batch.add(new DBUser(new User("Load", "User" + i, userAlias(i), "image"), "hash", "salt"));
+            if (batch.size() == 1_000 || i == users - 1) {
+                userDAO.batchAddUsers(batch);
+                batch.clear();
+            }
+        }
+
+        Random random = new Random(42);
+        for (int rank = 1; rank <= posters; rank++) {
+            int followers = Math.max(1, (int) Math.round(maxFollowers / Math.pow(rank, zipfExponent)));
+            followerCounts[rank - 1] = followers;
+            userDAO.addUser(posterAlias(rank - 1), "hash", "salt", "Poster", Integer.toString(rank), "image", followers, 0);
+
+            List<String> aliases = new ArrayList<>();
+            int first = random.nextInt(users);
+            for (int i = 0; i < followers; i++) {
+                aliases.add(userAlias((first + i) % users));
+                if (aliases.size() == 1_000 || i == followers - 1) {
+                    followDAO.batchPutFollowers(posterAlias(rank - 1), aliases);
+                    aliases.clear();
+                }
+            }
+        }
+
+        userDAO.putAuthToken(new AuthToken(AUTH_TOKEN, System.currentTimeMillis()));
+    }
+
+    private void post() {
+        int poster = ThreadLocalRandom.current().nextInt(posters);
+        Status status = new Status("Load test status", new User("Poster", Integer.toString(poster), posterAlias(poster), "image"),
+                Long.toString(System.currentTimeMillis()), Collections.emptyList(), Collections.emptyList());
+        // Authenticating moves the token's expiry forward, so one token lasts the whole run
+        PostStatusRequest request = new PostStatusRequest(status, new AuthToken(AUTH_TOKEN, System.currentTimeMillis()));
+
+        long start = System.nanoTime();
+        try {
+            PostStatusResponse response = new PostStatusHandler().handleRequest(request, null);
+            if (!response.isSuccess()) {
+                tracker.failed();
+                return;
+            }
+        } catch (RuntimeException e) {
+            tracker.failed();
+            return;
+        }
+        long end = System.nanoTime();
+
+        int followers = followerCounts[poster];
+        boolean pulled = pullThreshold > 0 && followers >= pullThreshold;
+        tracker.posted(status.getID(), pulled ? 0 : followers, start, end);
+    }
+
+    private void consumePostStatusQueue() {
+        PostUpdateFeedMessagesHandler handler = new PostUpdateFeedMessagesHandler();
+        while (running.get()) {
+            List<Message> messages = receive(StatusService.POST_STATUS_QUEUE_URL);
+            if (messages.isEmpty()) continue;
+            try {
+                handler.handleRequest(toEvent(messages), null);
+            } catch (RuntimeException e) {
+                resend(StatusService.POST_STATUS_QUEUE_URL, messages);
+            }
+        }
+    }
+
+    private void consumeUpdateFeedQueue() {
+        UpdateFeedsHandler handler = new UpdateFeedsHandler();
+        while (running.get()) {
+            List<Message> messages = receive(StatusService.UPDATE_FEED_QUEUE_URL);
+            if (messages.isEmpty()) continue;
+
+            SQSBatchResponse response = handler.handleRequest(toEvent(messages), null);
+            Set<String> failedIDs = new HashSet<>();
+            for (SQSBatchResponse.BatchItemFailure failure : response.getBatchItemFailures()) {
+                failedIDs.add(failure.getItemIdentifier());
+            }
+
+            long now = System.nanoTime();
+            List<Message> failed = new ArrayList<>();
+            for (Message message : messages) {
+                if (failedIDs.contains(message.getMessageId())) {
+                    failed.add(message);
+                } else {
+                    UpdateFeedSQSRequest update = gson.fromJson(message.getBody(), UpdateFeedSQSRequest.class);
+                    tracker.delivered(update.getStatusID(), update.getFollowers().size(), now);
+                }
+            }
+            resend(StatusService.UPDATE_FEED_QUEUE_URL, failed);
+        }
+    }
+
+    private List<Message> receive(String queueUrl) {
+        return sqs.receiveMessage(new ReceiveMessageRequest(queueUrl).withMaxNumberOfMessages(10).withWaitTimeSeconds(1))
+                .getMessages();
+    }
+
+    /**
+     * Puts failed messages back on the queue, as SQS does once they become visible again.
+     */
+    private void resend(String queueUrl, List<Message> messages) {
+        for (Message message : messages) {
+            sqs.sendMessage(queueUrl, message.getBody());
+        }
+    }
+
+    private String report() {
+        List<Long> postNanos = tracker.getPostNanos();
+        List<Long> visibleNanos = tracker.getVisibleNanos();
+        long posts = Math.max(1, tracker.getPosts());
+        long postMessages = sqs.getMessagesSent(StatusService.POST_STATUS_QUEUE_URL);
+        long updateMessages = sqs.getMessagesSent(StatusService.UPDATE_FEED_QUEUE_URL);
+
+        return String.format("Posted %d statuses (%d failed) in %d s, %.1f/sec%n", tracker.getPosts(),
+                        tracker.getFailedPosts(), durationSeconds, tracker.getPosts() / (double) durationSeconds) +
+                String.format("Post latency: p50 %.1f ms, p99 %.1f ms%n",
+                        FanoutTracker.percentileMillis(postNanos, 50), FanoutTracker.percentileMillis(postNanos, 99)) +
+                String.format("Time to visible in every feed: p50 %.1f ms, p99 %.1f ms, max %.1f ms (%d statuses not finished)%n",
+                        FanoutTracker.percentileMillis(visibleNanos, 50), FanoutTracker.percentileMillis(visibleNanos, 99),
+                        FanoutTracker.percentileMillis(visibleNanos, 100), tracker.getIncomplete()) +
+                String.format("Write amplification: %.1f feed rows, %.2f post status messages and %.2f update feed messages per post",
+                        tracker.getFeedRows() / (double) posts, postMessages / (double) posts, updateMessages / (double) posts);
+    }
+
+    private static SQSEvent toEvent(List<Message> messages) {
+        List<SQSEvent.SQSMessage> records = new ArrayList<>();
+        for (Message message : messages) {
+            SQSEvent.SQSMessage record = new SQSEvent.SQSMessage();
+            record.setMessageId(message.getMessageId());
+            record.setBody(message.getBody());
+            records.add(record);
+        }
+        SQSEvent event = new SQSEvent();
+        event.setRecords(records);
+        return event;
+    }
+
+    private static String userAlias(int i) {
+        return "@load" + i;
+    }
+
+    private static String posterAlias(int i) {
+        return "@poster" + i;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package edu.byu.cs.tweeter.server.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Follows each posted status until it has been written to every feed it fans out to, and
+ * collects the latencies and write counts for the report. Feed writes can be counted before
+ * the post that caused them has returned, so either can arrive first.
+ */
+class FanoutTracker {
+
+    private final Map<String, Pending> pending = new HashMap<>();
+    private final List<Long> postNanos = new ArrayList<>();
+    private final List<Long> visibleNanos = new ArrayList<>();
+    private long feedRows;
+    private long failedPosts;
+
+    /**
+     * Records that a status was posted.
+     *
+     * @param statusID the ID of the status.
+     * @param expectedRows the number of feed rows the status fans out to.
+     * @param startNanos when the post was sent.
+     * @param endNanos when the post returned.
+     */
+    synchronized void posted(String statusID, int expectedRows, long startNanos, long endNanos) {
+        postNanos.add(endNanos - startNanos);
+        Pending status = pending.computeIfAbsent(statusID, id -> new Pending());
+        status.startNanos = startNanos;
+        status.expectedRows = expectedRows;
+        status.posted = true;
+        complete(statusID, status, endNanos);
+    }
+
+    synchronized void failed() {
+        failedPosts++;
+    }
+
+    /**
+     * Records that a status was written to some feeds.
+     *
+     * @param statusID the ID of the status.
+     * @param rows the number of feeds it was written to.
+     * @param nowNanos when the write finished.
+     */
+    synchronized void delivered(String statusID, int rows, long nowNanos) {
+        feedRows += rows;
+        Pending status = pending.computeIfAbsent(statusID, id -> new Pending());
+        status.deliveredRows += rows;
+        complete(statusID, status, nowNanos);
+    }
+
+    synchronized int getIncomplete() {
+        return pending.size();
+    }
+
+    synchronized long getPosts() {
+        return postNanos.size();
+    }
+
+    synchronized long getFailedPosts() {
+        return failedPosts;
+    }
+
+    synchronized long getFeedRows() {
+        return feedRows;
+    }
+
+    synchronized List<Long> getPostNanos() {
+        return sorted(postNanos);
+    }
+
+    synchronized List<Long> getVisibleNanos() {
+        return sorted(visibleNanos);
+    }
+
+    /**
+     * @param sortedNanos sorted latencies.
+     * @param percentile the percentile, from 0 to 100.
+     * @return the latency at the percentile in milliseconds, or zero if there are none.
+     */
+    static double percentileMillis(List<Long> sortedNanos, double percentile) {
+        if (sortedNanos.isEmpty()) return 0;
+        int index = (int) Math.ceil(percentile / 100 * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(0, index)) / 1_000_000.0;
+    }
+
+    private void complete(String statusID, Pending status, long nowNanos) {
+        if (status.posted && status.deliveredRows >= status.expectedRows) {
+            visibleNanos.add(nowNanos - status.startNanos);
+            pending.remove(statusID);
+        }
+    }
+
+    private static List<Long> sorted(List<Long> values) {
+        List<Long> copy = new ArrayList<>(values);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    private static class Pending {
+        boolean posted;
+        long startNanos;
+        int expectedRows;
+        int deliveredRows;
+    }
+}
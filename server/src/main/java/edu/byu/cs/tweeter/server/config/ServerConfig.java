@@ -0,0 +1,55 @@
+package edu.byu.cs.tweeter.server.config;
+
+import edu.byu.cs.tweeter.server.metrics.Log;
+
+/**
+ * Reads server tuning values. A value is taken from the lambda's environment variables first,
+ * then from a JVM system property of the same name (handy for local runs and tests), and
+ * otherwise falls back to the supplied default.
+ */
+public class ServerConfig {
+
+    private ServerConfig() {}
+
+    /**
+     * Gets the raw value of a setting.
+     *
+     * @param name the name of the setting.
+     * @param defaultValue the value to use if the setting is not present.
+     * @return the value.
+     */
+    public static String getString(String name, String defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isEmpty()) {
+            value = System.getProperty(name);
+        }
+        return value == null || value.isEmpty() ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String name, int defaultValue) {
+        String value = getString(name, null);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            Log.warn("Ignoring invalid value \"%s\" for %s, using %d", value, name, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String name, long defaultValue) {
+        String value = getString(name, null);
+        if (value == null) return defaultValue;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            Log.warn("Ignoring invalid value \"%s\" for %s, using %d", value, name, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String name, boolean defaultValue) {
+        String value = getString(name, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
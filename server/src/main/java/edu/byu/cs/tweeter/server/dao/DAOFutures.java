@@ -0,0 +1,103 @@
+package edu.byu.cs.tweeter.server.dao;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
+
+/**
+ * Runs DAO calls in the background so a service can issue independent calls at once and wait
+ * on them together. The DAOs themselves are blocking, so each call in flight holds a thread from
+ * a shared pool; calls made from inside that pool should not wait on other calls.
+ */
+public final class DAOFutures {
+
+    private static final ExecutorService executor;
+
+    static {
+        int threads = ServerConfig.getInt("DAO_ASYNC_THREADS", 16);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "dao-async");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+    }
+
+    private DAOFutures() {}
+
+    /**
+     * A DAO call that returns a value.
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws DAOException;
+    }
+
+    /**
+     * A DAO call that returns nothing.
+     */
+    @FunctionalInterface
+    public interface Action {
+        void run() throws DAOException;
+    }
+
+    /**
+     * Starts a DAO call in the background.
+     *
+     * @param call the call.
+     * @return the call's result, completed with its DAOException if it fails.
+     */
+    public static <T> CompletableFuture<T> supply(Call<T> call) {
+        // The call counts towards the request that started it
+        Callable<T> task = RequestMetrics.wrap(call::call);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Starts a DAO call in the background.
+     *
+     * @param action the call.
+     * @return completes when the call does, with its DAOException if it fails.
+     */
+    public static CompletableFuture<Void> run(Action action) {
+        return supply(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Waits for a DAO call to finish.
+     *
+     * @param future the call.
+     * @return the call's result.
+     * @throws DAOException if the call failed.
+     */
+    public static <T> T join(CompletableFuture<T> future) throws DAOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DAOException) throw (DAOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new DAOException(cause != null ? cause.getMessage() : e.getMessage());
+        }
+    }
+}
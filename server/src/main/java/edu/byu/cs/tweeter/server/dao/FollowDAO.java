@@ -39,6 +39,29 @@ public interface FollowDAO {
      */
     void putFollower(String followeeAlias, String followerAlias) throws DAOException;
 
+    /**
+     * Adds a follow relationship between two users and increments the follower's following count
+     * and the followee's follower count, all in one transaction. Nothing is changed if the
+     * relationship already exists.
+     *
+     * @param followeeAlias the alias of the user who is being followed.
+     * @param followerAlias the alias of the user who is following the followee.
+     * @return false if the follower was already following the followee.
+     * @throws DAOException if an error occurred in accessing the database.
+     */
+    boolean follow(String followeeAlias, String followerAlias) throws DAOException;
+
+    /**
+     * Deletes the follow relationship between two users and decrements both users' counts, all in
+     * one transaction. Nothing is changed if the relationship does not exist.
+     *
+     * @param followeeAlias the alias of the user who is being followed.
+     * @param followerAlias the alias of the user who is following the followee.
+     * @return false if the follower was not following the followee.
+     * @throws DAOException if an error occurred in accessing the database.
+     */
+    boolean unfollow(String followeeAlias, String followerAlias) throws DAOException;
+
     /**
      * Adds a batch of follow relationships to the database.
      *
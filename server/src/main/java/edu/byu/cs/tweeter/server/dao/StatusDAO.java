@@ -1,8 +1,10 @@
 package edu.byu.cs.tweeter.server.dao;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.server.dao.model.DBFeedEntry;
 import edu.byu.cs.tweeter.server.dao.model.DBStatus;
 
 /**
@@ -53,6 +55,16 @@ public interface StatusDAO {
      */
     void postStatusToFeeds(String statusID, List<String> followerAliases, String posterAlias) throws DAOException;
 
+    /**
+     * Posts a status to a list of followers, copying the status and a snapshot of its poster
+     * into each feed row so the feed can be read without looking them up.
+     *
+     * @param status the status, including its ID and poster.
+     * @param followerAliases the aliases of the followers.
+     * @throws DAOException if an error occurred in accessing the database.
+     */
+    void postStatusToFeeds(Status status, List<String> followerAliases) throws DAOException;
+
     /**
      * Gets the information for a feed
      *
@@ -63,4 +75,36 @@ public interface StatusDAO {
      * @throws DAOException if an error occurred in accessing the database.
      */
     List<String> getFeedAliases(String alias, int limit, String lastStatusID) throws DAOException;
+
+    /**
+     * Gets a page of the specified user's feed in a single query. Rows written with a copy of
+     * the status are returned complete, with the poster set on the status. Rows that only
+     * reference the status are returned with just the status ID and poster alias, and a null post.
+     *
+     * @param alias the alias of the user whose feed is to be returned.
+     * @param limit the maximum number of statuses to return.
+     * @param lastStatusID the ID of the last status that was returned in the previous request
+     * @return the feed.
+     * @throws DAOException if an error occurred in accessing the database.
+     */
+    List<DBStatus> getFeedPage(String alias, int limit, String lastStatusID) throws DAOException;
+
+    /**
+     * Scans the rows of every user's feed.
+     *
+     * @param limit the maximum number of rows to return.
+     * @param lastEntry the last row that was returned in the previous request
+     * @return the rows. Fewer than limit rows are returned only once the scan is complete.
+     * @throws DAOException if an error occurred in accessing the database.
+     */
+    List<DBFeedEntry> scanFeedEntries(int limit, DBFeedEntry lastEntry) throws DAOException;
+
+    /**
+     * Starts getting the story of the specified user in the background.
+     *
+     * @see #getStory(String, int, Status)
+     */
+    default CompletableFuture<List<DBStatus>> getStoryAsync(String alias, int limit, Status lastStatus) {
+        return DAOFutures.supply(() -> getStory(alias, limit, lastStatus));
+    }
 }
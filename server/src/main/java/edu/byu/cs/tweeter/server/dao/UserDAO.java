@@ -4,9 +4,11 @@ import com.amazonaws.services.s3.model.ObjectMetadata;
 
 import java.io.ByteArrayInputStream;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import edu.byu.cs.tweeter.model.domain.AuthToken;
 import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.server.dao.model.DBCounts;
 import edu.byu.cs.tweeter.server.dao.model.DBUser;
 
 /**
@@ -23,6 +25,15 @@ public interface UserDAO {
      */
     DBUser getUser(String alias) throws DAOException;
 
+    /**
+     * Checks whether a user with the specified alias exists, without reading their account.
+     *
+     * @param alias the alias of the user.
+     * @return true if the user exists.
+     * @throws DAOException if an error occurred in accessing the database.
+     */
+    boolean isRegistered(String alias) throws DAOException;
+
     /**
      * Gets a batch of users from the database.
      *
@@ -50,7 +61,7 @@ public interface UserDAO {
             throws DAOException;
 
     /**
-     * Adds a batch of users to the database.
+     * Adds a batch of up to 25 users to the database, with the counts each DBUser carries.
      *
      * @param users the users to be added.
      * @throws DAOException if an error occurred in accessing the database.
@@ -73,6 +84,25 @@ public interface UserDAO {
      */
     void deleteAuthToken(AuthToken authToken) throws DAOException;
 
+    /**
+     * Records that a signed auth token has been revoked.
+     *
+     * @param tokenID the ID of the auth token.
+     * @param expiresAt the datetime at which the auth token expires anyway, after which the
+     *                  record can be dropped.
+     * @throws DAOException if an error occurred in accessing the database.
+     */
+    void revokeAuthToken(String tokenID, long expiresAt) throws DAOException;
+
+    /**
+     * Gets the IDs of the signed auth tokens that have been revoked and have not yet expired.
+     *
+     * @param currentDatetime the current datetime.
+     * @return the IDs of the auth tokens.
+     * @throws DAOException if an error occurred in accessing the database.
+     */
+    List<String> getRevokedAuthTokens(long currentDatetime) throws DAOException;
+
     /**
      * Uploads an image to the database.
      *
@@ -112,6 +142,35 @@ public interface UserDAO {
      */
     int getFollowingCount(String alias) throws DAOException;
 
+    /**
+     * Gets the number of followers and followees of the specified user in one read.
+     *
+     * @param alias the alias of the user whose counts are to be returned.
+     * @return the counts, or null if the user does not exist.
+     * @throws DAOException if an error occurred in accessing the database.
+     */
+    DBCounts getCounts(String alias) throws DAOException;
+
+    /**
+     * Gets the aliases, out of those specified, of the users whose statuses are pulled into feeds
+     * from their stories rather than fanned out.
+     *
+     * @param aliases the aliases of the users to check.
+     * @return the aliases of the users marked by {@link #markPullFeed(String)}.
+     * @throws DAOException if an error occurred in accessing the database.
+     */
+    List<String> filterPullFeeds(List<String> aliases) throws DAOException;
+
+    /**
+     * Marks the user's statuses as pulled into feeds from their story. The mark is never
+     * removed, as the statuses posted while it was set are in no one's feed rows.
+     *
+     * @param alias the alias of the user.
+     * @throws DAOException if the user does not exist or an error occurred in accessing the
+     *          database.
+     */
+    void markPullFeed(String alias) throws DAOException;
+
     /**
      * Adds or subtracts the specified number from the number of followers of the specified user.
      *
@@ -129,4 +188,13 @@ public interface UserDAO {
      * @throws DAOException if an error occurred in accessing the database.
      */
     void putFollowingCount(String alias, int value) throws DAOException;
+
+    /**
+     * Starts getting a batch of users in the background.
+     *
+     * @see #batchGetUsers(List)
+     */
+    default CompletableFuture<List<User>> batchGetUsersAsync(List<String> aliases) {
+        return DAOFutures.supply(() -> batchGetUsers(aliases));
+    }
 }
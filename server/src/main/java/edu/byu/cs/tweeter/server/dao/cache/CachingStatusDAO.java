@@ -0,0 +1,209 @@
+package edu.byu.cs.tweeter.server.dao.cache;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.StatusDAO;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.dao.model.DBFeedEntry;
+import edu.byu.cs.tweeter.server.dao.model.DBStatus;
+import edu.byu.cs.tweeter.server.metrics.Log;
+import edu.byu.cs.tweeter.server.service.Service;
+
+/**
+ * A StatusDAO that keeps the most recent statuses of recently read stories in memory in front of
+ * another StatusDAO, with their poster already set. First pages of those stories are served
+ * from memory, and so are later pages while the cursor is still within the cached statuses.
+ * Statuses posted through this DAO are added to the cached story as they are written, so the
+ * poster sees their own status straight away; stories cached by other containers catch up when
+ * their entries expire. Everything else goes straight to the other StatusDAO.
+ */
+public class CachingStatusDAO implements StatusDAO {
+
+    /**
+     * The name of the binding for the StatusDAO being cached.
+     */
+    public static final String DELEGATE = "cachedStatusDAO";
+
+    private static final int CACHE_SIZE = ServerConfig.getInt("STORY_CACHE_SIZE", 1_000);
+    private static final long TTL_MILLIS = ServerConfig.getLong("STORY_CACHE_TTL_MILLIS", 10_000);
+
+    /**
+     * How many of the newest statuses are kept for each story. First pages larger than this are
+     * not served from memory.
+     */
+    private static final int STATUSES_PER_STORY = ServerConfig.getInt("STORY_CACHE_STATUSES", 25);
+
+    /**
+     * The newest statuses of a story, newest first. Never changed once cached; a write replaces it.
+     */
+    private static class CachedStory {
+        private final User poster;
+        private final List<DBStatus> statuses;
+
+        /**
+         * Whether the statuses are the whole story, so a page may end early.
+         */
+        private final boolean complete;
+
+        CachedStory(User poster, List<DBStatus> statuses, boolean complete) {
+            this.poster = poster;
+            this.statuses = statuses;
+            this.complete = complete;
+        }
+    }
+
+    private final StatusDAO delegate;
+    private final UserDAO userDAO;
+
+    private final LruCache<String, CachedStory> stories = new LruCache<>(CACHE_SIZE, TTL_MILLIS, 0);
+
+    /**
+     * Counts the statuses posted through this DAO. A story read that overlapped a post is not
+     * cached, as it may be missing the new status.
+     */
+    private final AtomicLong writes = new AtomicLong();
+
+    @Inject
+    public CachingStatusDAO(@Named(DELEGATE) StatusDAO delegate, UserDAO userDAO) {
+        this.delegate = delegate;
+        this.userDAO = userDAO;
+    }
+
+    @Override
+    public List<DBStatus> getStory(String alias, int limit, Status lastStatus) throws DAOException {
+        if (limit > STATUSES_PER_STORY) {
+            return delegate.getStory(alias, limit, lastStatus);
+        }
+
+        LruCache.Entry<CachedStory> cached = stories.get(alias);
+        CachedStory story = cached != null ? cached.getValue() : null;
+        if (story == null) {
+            if (lastStatus != null) {
+                // Only first pages load the cache, so paging through an old story doesn't evict others
+                return delegate.getStory(alias, limit, lastStatus);
+            }
+            story = load(alias);
+            if (story == null) return delegate.getStory(alias, limit, null);
+        }
+
+        List<DBStatus> page = page(story, limit, lastStatus);
+        if (page == null) {
+            return delegate.getStory(alias, limit, lastStatus);
+        }
+        Log.debug("Story cache: %s", stories);
+        return page;
+    }
+
+    /**
+     * Reads the newest statuses of a story and their poster, and caches them unless a status was
+     * posted while they were being read.
+     *
+     * @return the story, or null if its poster does not exist.
+     */
+    private CachedStory load(String alias) throws DAOException {
+        long version = writes.get();
+        List<DBStatus> statuses = delegate.getStory(alias, STATUSES_PER_STORY, null);
+        List<User> posters = userDAO.batchGetUsers(Collections.singletonList(alias));
+        if (statuses == null || posters == null || posters.isEmpty()) return null;
+
+        User poster = posters.get(0);
+        for (DBStatus status : statuses) {
+            status.getStatus().setUser(poster);
+        }
+        CachedStory story = new CachedStory(poster, Collections.unmodifiableList(new ArrayList<>(statuses)),
+                statuses.size() < STATUSES_PER_STORY);
+        synchronized (stories) {
+            if (writes.get() == version) stories.put(alias, story);
+        }
+        return story;
+    }
+
+    /**
+     * Takes a page from the cached statuses. Status IDs sort by the time they were posted, as the
+     * story's sort key does, so the page starts after the cursor even when the cursor is a status
+     * from another story, as it is when a feed pulls in the story.
+     *
+     * @return the page, or null if the cached statuses don't reach the end of the page.
+     */
+    private List<DBStatus> page(CachedStory story, int limit, Status lastStatus) {
+        int start = 0;
+        if (lastStatus != null) {
+            String lastID = lastStatus.getID();
+            if (lastID == null) return null;
+            while (start < story.statuses.size() && story.statuses.get(start).getStatus().getID().compareTo(lastID) >= 0) {
+                start++;
+            }
+        }
+        int end = Math.min(start + limit, story.statuses.size());
+        if (end - start < limit && !story.complete) return null;
+        return new ArrayList<>(story.statuses.subList(start, end));
+    }
+
+    @Override
+    public void postStatusToStory(String posterAlias, String post, String mentions, String urls,
+                                  String datetime, String statusID) throws DAOException {
+        writes.incrementAndGet();
+        delegate.postStatusToStory(posterAlias, post, mentions, urls, datetime, statusID);
+
+        synchronized (stories) {
+            LruCache.Entry<CachedStory> cached = stories.get(posterAlias);
+            if (cached == null || cached.getValue() == null) return;
+            CachedStory story = cached.getValue();
+            for (DBStatus status : story.statuses) {
+                if (status.getStatus().getID().equals(statusID)) return;
+            }
+
+            Status status = new Status(post, story.poster, datetime,
+                    Service.serializeToList(urls), Service.serializeToList(mentions), statusID);
+            List<DBStatus> statuses = new ArrayList<>();
+            statuses.add(new DBStatus(status, posterAlias));
+            statuses.addAll(story.statuses);
+            boolean complete = story.complete;
+            if (statuses.size() > STATUSES_PER_STORY) {
+                statuses = statuses.subList(0, STATUSES_PER_STORY);
+                complete = false;
+            }
+            stories.put(posterAlias, new CachedStory(story.poster, Collections.unmodifiableList(new ArrayList<>(statuses)), complete));
+        }
+    }
+
+    @Override
+    public List<DBStatus> getFeed(List<String> aliases) throws DAOException {
+        return delegate.getFeed(aliases);
+    }
+
+    @Override
+    public void postStatusToFeeds(String statusID, List<String> followerAliases, String posterAlias) throws DAOException {
+        delegate.postStatusToFeeds(statusID, followerAliases, posterAlias);
+    }
+
+    @Override
+    public void postStatusToFeeds(Status status, List<String> followerAliases) throws DAOException {
+        delegate.postStatusToFeeds(status, followerAliases);
+    }
+
+    @Override
+    public List<String> getFeedAliases(String alias, int limit, String lastStatusID) throws DAOException {
+        return delegate.getFeedAliases(alias, limit, lastStatusID);
+    }
+
+    @Override
+    public List<DBStatus> getFeedPage(String alias, int limit, String lastStatusID) throws DAOException {
+        return delegate.getFeedPage(alias, limit, lastStatusID);
+    }
+
+    @Override
+    public List<DBFeedEntry> scanFeedEntries(int limit, DBFeedEntry lastEntry) throws DAOException {
+        return delegate.scanFeedEntries(limit, lastEntry);
+    }
+}
@@ -0,0 +1,220 @@
+package edu.byu.cs.tweeter.server.dao.cache;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.dao.model.DBCounts;
+import edu.byu.cs.tweeter.server.dao.model.DBUser;
+import edu.byu.cs.tweeter.server.metrics.Log;
+
+/**
+ * A UserDAO that keeps recently read users in memory in front of another UserDAO, so a warm
+ * lambda container does not look up the same popular posters on every page. Aliases that do not
+ * exist are cached too, for a shorter time. Writes go straight to the other UserDAO and drop the
+ * affected entries. Valid auth tokens are also remembered briefly, so most requests do not read
+ * the auth token table at all.
+ */
+public class CachingUserDAO implements UserDAO {
+
+    /**
+     * The name of the binding for the UserDAO being cached.
+     */
+    public static final String DELEGATE = "cachedUserDAO";
+
+    private static final int CACHE_SIZE = ServerConfig.getInt("USER_CACHE_SIZE", 10_000);
+    private static final long TTL_MILLIS = ServerConfig.getLong("USER_CACHE_TTL_MILLIS", 60_000);
+    private static final long MISSING_TTL_MILLIS = ServerConfig.getLong("USER_CACHE_MISSING_TTL_MILLIS", 5_000);
+
+    /**
+     * How long a validated auth token is trusted without checking it again. The other UserDAO
+     * only moves a token's expiry forward once it is AUTH_TOKEN_REFRESH_MILLIS old, so this plus
+     * that must stay well under the five minute token timeout for tokens never to be trusted
+     * past their expiry.
+     */
+    private static final long AUTH_TOKEN_TTL_MILLIS = ServerConfig.getLong("AUTH_TOKEN_CACHE_MILLIS", 30_000);
+
+    private final UserDAO delegate;
+
+    // Profiles, as returned by batchGetUsers
+    private final LruCache<String, User> profiles = new LruCache<>(CACHE_SIZE, TTL_MILLIS, MISSING_TTL_MILLIS);
+
+    // Full users, including their password hashes, as returned by getUser
+    private final LruCache<String, DBUser> accounts = new LruCache<>(CACHE_SIZE, TTL_MILLIS, MISSING_TTL_MILLIS);
+
+    // Auth tokens that were valid when they were last checked. Invalid tokens are deleted, so
+    // they are not cached.
+    private final LruCache<String, Boolean> authTokens = new LruCache<>(CACHE_SIZE, AUTH_TOKEN_TTL_MILLIS, 0);
+
+    @Inject
+    public CachingUserDAO(@Named(DELEGATE) UserDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public DBUser getUser(String alias) throws DAOException {
+        LruCache.Entry<DBUser> cached = accounts.get(alias);
+        if (cached != null) return cached.getValue();
+
+        DBUser user = delegate.getUser(alias);
+        if (user == null) {
+            accounts.putMissing(alias);
+        } else {
+            accounts.put(alias, user);
+            profiles.put(alias, user.getUser());
+        }
+        return user;
+    }
+
+    /**
+     * Answered from memory only for cached users, as users are never removed. An alias cached as
+     * missing may have been registered since, and registration relies on this to refuse taken
+     * aliases, so it is checked with the other UserDAO.
+     */
+    @Override
+    public boolean isRegistered(String alias) throws DAOException {
+        LruCache.Entry<User> cached = profiles.get(alias);
+        if (cached != null && !cached.isMissing()) return true;
+        return delegate.isRegistered(alias);
+    }
+
+    @Override
+    public List<User> batchGetUsers(List<String> aliases) throws DAOException {
+        // Sorted by alias, as the other UserDAOs return them; follower pages use the last alias
+        // as the cursor for the next page
+        Set<User> users = new TreeSet<>();
+        Set<String> uncached = new HashSet<>();
+        for (String alias : aliases) {
+            LruCache.Entry<User> cached = profiles.get(alias);
+            if (cached == null) {
+                uncached.add(alias);
+            } else if (!cached.isMissing()) {
+                users.add(cached.getValue());
+            }
+        }
+
+        if (!uncached.isEmpty()) {
+            List<User> loaded = delegate.batchGetUsers(new ArrayList<>(uncached));
+            for (User user : loaded) {
+                profiles.put(user.getAlias(), user);
+                uncached.remove(user.getAlias());
+                users.add(user);
+            }
+            for (String alias : uncached) {
+                profiles.putMissing(alias);
+            }
+        }
+
+        Log.debug("User profile cache: %s", profiles);
+        return new ArrayList<>(users);
+    }
+
+    @Override
+    public void addUser(String alias, String hashedPassword, String salt, String firstName,
+                        String lastName, String imageURL, int numFollowers, int numFollowing)
+            throws DAOException {
+        invalidate(alias);
+        delegate.addUser(alias, hashedPassword, salt, firstName, lastName, imageURL, numFollowers, numFollowing);
+    }
+
+    @Override
+    public void batchAddUsers(List<DBUser> users) throws DAOException {
+        for (DBUser user : users) {
+            invalidate(user.getUser().getAlias());
+        }
+        delegate.batchAddUsers(users);
+    }
+
+    @Override
+    public void putAuthToken(AuthToken authToken) throws DAOException {
+        delegate.putAuthToken(authToken);
+    }
+
+    @Override
+    public void deleteAuthToken(AuthToken authToken) throws DAOException {
+        authTokens.invalidate(authToken.getToken());
+        delegate.deleteAuthToken(authToken);
+    }
+
+    @Override
+    public void revokeAuthToken(String tokenID, long expiresAt) throws DAOException {
+        delegate.revokeAuthToken(tokenID, expiresAt);
+    }
+
+    @Override
+    public List<String> getRevokedAuthTokens(long currentDatetime) throws DAOException {
+        return delegate.getRevokedAuthTokens(currentDatetime);
+    }
+
+    @Override
+    public String uploadImage(ByteArrayInputStream image, String alias, ObjectMetadata metadata) throws DAOException {
+        return delegate.uploadImage(image, alias, metadata);
+    }
+
+    @Override
+    public boolean authenticate(AuthToken token, long currentDatetime) throws DAOException {
+        if (authTokens.get(token.getToken()) != null) return true;
+
+        boolean valid = delegate.authenticate(token, currentDatetime);
+        if (valid) authTokens.put(token.getToken(), true);
+        return valid;
+    }
+
+    @Override
+    public int getFollowersCount(String alias) throws DAOException {
+        return delegate.getFollowersCount(alias);
+    }
+
+    @Override
+    public int getFollowingCount(String alias) throws DAOException {
+        return delegate.getFollowingCount(alias);
+    }
+
+    @Override
+    public DBCounts getCounts(String alias) throws DAOException {
+        return delegate.getCounts(alias);
+    }
+
+    @Override
+    public List<String> filterPullFeeds(List<String> aliases) throws DAOException {
+        return delegate.filterPullFeeds(aliases);
+    }
+
+    @Override
+    public void markPullFeed(String alias) throws DAOException {
+        delegate.markPullFeed(alias);
+    }
+
+    @Override
+    public void putFollowerCount(String alias, int value) throws DAOException {
+        delegate.putFollowerCount(alias, value);
+    }
+
+    @Override
+    public void putFollowingCount(String alias, int value) throws DAOException {
+        delegate.putFollowingCount(alias, value);
+    }
+
+    public LruCache<String, User> getProfiles() { return profiles; }
+
+    public LruCache<String, DBUser> getAccounts() { return accounts; }
+
+    public LruCache<String, Boolean> getAuthTokens() { return authTokens; }
+
+    private void invalidate(String alias) {
+        profiles.invalidate(alias);
+        accounts.invalidate(alias);
+    }
+}
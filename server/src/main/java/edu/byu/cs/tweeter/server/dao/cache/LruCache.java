@@ -0,0 +1,125 @@
+package edu.byu.cs.tweeter.server.dao.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded, thread safe, least recently used cache whose entries expire after a fixed time.
+ * Keys can also be cached as missing, with their own (usually shorter) time to live, so lookups
+ * of things that do not exist are not repeated on every request.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final long missingTtlMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public LruCache(int maxSize, long ttlMillis, long missingTtlMillis) {
+        this(maxSize, ttlMillis, missingTtlMillis, System::currentTimeMillis);
+    }
+
+    public LruCache(int maxSize, long ttlMillis, long missingTtlMillis, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.missingTtlMillis = missingTtlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= LruCache.this.maxSize) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached entry for the key.
+     *
+     * @param key the key.
+     * @return the entry, whose value is null if the key was cached as missing, or null if the
+     *         key is not cached or has expired.
+     */
+    public synchronized Entry<V> get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt <= clock.getAsLong()) {
+            entries.remove(key);
+            expirations++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return entry;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.getAsLong() + ttlMillis));
+    }
+
+    /**
+     * Caches the key as missing.
+     *
+     * @param key the key.
+     */
+    public synchronized void putMissing(K key) {
+        if (missingTtlMillis <= 0) return;
+        entries.put(key, new Entry<>(null, clock.getAsLong() + missingTtlMillis));
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() { return entries.size(); }
+
+    public synchronized long getHits() { return hits; }
+
+    public synchronized long getMisses() { return misses; }
+
+    public synchronized long getEvictions() { return evictions; }
+
+    public synchronized long getExpirations() { return expirations; }
+
+    @Override
+    public synchronized String toString() {
+        long lookups = hits + misses;
+        return String.format("%d entries, %d hits, %d misses (%.1f%% hit rate), %d evictions, %d expirations",
+                entries.size(), hits, misses, lookups > 0 ? 100.0 * hits / lookups : 0, evictions, expirations);
+    }
+
+    /**
+     * A cached value.
+     *
+     * @param <V> the type of the value.
+     */
+    public static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * @return the value, or null if the key was cached as missing.
+         */
+        public V getValue() { return value; }
+
+        public boolean isMissing() { return value == null; }
+    }
+}
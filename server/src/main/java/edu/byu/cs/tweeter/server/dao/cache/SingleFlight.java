@@ -0,0 +1,82 @@
+package edu.byu.cs.tweeter.server.dao.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.DAOFutures;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
+
+/**
+ * Collapses concurrent reads of the same key into one. The first caller for a key makes the read
+ * on its own thread; callers that ask for the key while that read is in flight wait for it and
+ * share its result, or its exception. Nothing is kept once the read completes, but a caller that
+ * joins a read started before a write can still get the value from before it. Only use it for
+ * data that is rarely written, or where that is acceptable.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * The request metric counting calls answered by another caller's read.
+     */
+    public static final String DEDUPLICATED = "deduplicated-reads";
+
+    private final String name;
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    /**
+     * @param name the name the deduplicated calls are also counted under, as
+     *             {@value #DEDUPLICATED}.name.
+     */
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Reads the key, or waits for the read of it already in flight.
+     *
+     * @param key the key.
+     * @param read makes the read.
+     * @return the result of the read.
+     * @throws DAOException if the read failed.
+     */
+    public V get(K key, DAOFutures.Call<V> read) throws DAOException {
+        calls.incrementAndGet();
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            deduplicated.incrementAndGet();
+            RequestMetrics.count(DEDUPLICATED, 1);
+            RequestMetrics.count(DEDUPLICATED + "." + name, 1);
+            return DAOFutures.join(existing);
+        }
+
+        try {
+            V value = read.call();
+            flight.complete(value);
+            return value;
+        } catch (DAOException | RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public long getCalls() { return calls.get(); }
+
+    public long getDeduplicated() { return deduplicated.get(); }
+
+    @Override
+    public String toString() {
+        return name + ": " + calls.get() + " calls, " + deduplicated.get() + " deduplicated, " + inFlight.size() + " in flight";
+    }
+}
@@ -0,0 +1,87 @@
+package edu.byu.cs.tweeter.server.dao.cache;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.StatusDAO;
+import edu.byu.cs.tweeter.server.dao.model.DBFeedEntry;
+import edu.byu.cs.tweeter.server.dao.model.DBStatus;
+
+/**
+ * A StatusDAO that collapses concurrent identical story and feed page reads into one read of
+ * another StatusDAO (see {@link SingleFlight}). The stories of users with too many followers to
+ * fan out are read by every follower's feed, so they are the reads most often repeated. Writes
+ * go straight to the other StatusDAO.
+ */
+public class SingleFlightStatusDAO implements StatusDAO {
+
+    /**
+     * The name of the binding for the StatusDAO being read.
+     */
+    public static final String DELEGATE = "singleFlightStatusDAO";
+
+    private final StatusDAO delegate;
+
+    private final SingleFlight<List<Object>, List<DBStatus>> stories = new SingleFlight<>("getStory");
+    private final SingleFlight<List<Object>, List<DBStatus>> feedPages = new SingleFlight<>("getFeedPage");
+
+    @Inject
+    public SingleFlightStatusDAO(@Named(DELEGATE) StatusDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<DBStatus> getStory(String alias, int limit, Status lastStatus) throws DAOException {
+        List<Object> key = Arrays.asList(alias, limit, lastStatus == null ? null : lastStatus.getID());
+        return copy(stories.get(key, () -> delegate.getStory(alias, limit, lastStatus)));
+    }
+
+    @Override
+    public List<DBStatus> getFeed(List<String> aliases) throws DAOException {
+        return delegate.getFeed(aliases);
+    }
+
+    @Override
+    public void postStatusToStory(String posterAlias, String post, String mentions, String urls, String datetime, String statusID) throws DAOException {
+        delegate.postStatusToStory(posterAlias, post, mentions, urls, datetime, statusID);
+    }
+
+    @Override
+    public void postStatusToFeeds(String statusID, List<String> followerAliases, String posterAlias) throws DAOException {
+        delegate.postStatusToFeeds(statusID, followerAliases, posterAlias);
+    }
+
+    @Override
+    public void postStatusToFeeds(Status status, List<String> followerAliases) throws DAOException {
+        delegate.postStatusToFeeds(status, followerAliases);
+    }
+
+    @Override
+    public List<String> getFeedAliases(String alias, int limit, String lastStatusID) throws DAOException {
+        return delegate.getFeedAliases(alias, limit, lastStatusID);
+    }
+
+    @Override
+    public List<DBStatus> getFeedPage(String alias, int limit, String lastStatusID) throws DAOException {
+        List<Object> key = Arrays.asList(alias, limit, lastStatusID);
+        return copy(feedPages.get(key, () -> delegate.getFeedPage(alias, limit, lastStatusID)));
+    }
+
+    @Override
+    public List<DBFeedEntry> scanFeedEntries(int limit, DBFeedEntry lastEntry) throws DAOException {
+        return delegate.scanFeedEntries(limit, lastEntry);
+    }
+
+    /**
+     * Each caller gets its own list, as callers add to the lists they are given.
+     */
+    private static List<DBStatus> copy(List<DBStatus> statuses) {
+        return statuses == null ? null : new ArrayList<>(statuses);
+    }
+}
@@ -0,0 +1,133 @@
+package edu.byu.cs.tweeter.server.dao.cache;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.dao.model.DBCounts;
+import edu.byu.cs.tweeter.server.dao.model.DBUser;
+
+/**
+ * A UserDAO that collapses concurrent identical reads of users into one read of another UserDAO
+ * (see {@link SingleFlight}). Follow counts change with every follow, so they are always read
+ * from the other UserDAO, as are writes.
+ */
+public class SingleFlightUserDAO implements UserDAO {
+
+    /**
+     * The name of the binding for the UserDAO being read.
+     */
+    public static final String DELEGATE = "singleFlightUserDAO";
+
+    private final UserDAO delegate;
+
+    private final SingleFlight<String, DBUser> users = new SingleFlight<>("getUser");
+    private final SingleFlight<List<String>, List<User>> profiles = new SingleFlight<>("batchGetUsers");
+
+    @Inject
+    public SingleFlightUserDAO(@Named(DELEGATE) UserDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public DBUser getUser(String alias) throws DAOException {
+        return users.get(alias, () -> delegate.getUser(alias));
+    }
+
+    @Override
+    public boolean isRegistered(String alias) throws DAOException {
+        return delegate.isRegistered(alias);
+    }
+
+    @Override
+    public List<User> batchGetUsers(List<String> aliases) throws DAOException {
+        // Each caller gets its own list, as callers add to the lists they are given
+        List<User> users = profiles.get(new ArrayList<>(aliases), () -> delegate.batchGetUsers(aliases));
+        return users == null ? null : new ArrayList<>(users);
+    }
+
+    @Override
+    public void addUser(String alias, String hashedPassword, String salt, String firstName,
+                        String lastName, String imageURL, int numFollowers, int numFollowing)
+            throws DAOException {
+        delegate.addUser(alias, hashedPassword, salt, firstName, lastName, imageURL, numFollowers, numFollowing);
+    }
+
+    @Override
+    public void batchAddUsers(List<DBUser> users) throws DAOException {
+        delegate.batchAddUsers(users);
+    }
+
+    @Override
+    public void putAuthToken(AuthToken authToken) throws DAOException {
+        delegate.putAuthToken(authToken);
+    }
+
+    @Override
+    public void deleteAuthToken(AuthToken authToken) throws DAOException {
+        delegate.deleteAuthToken(authToken);
+    }
+
+    @Override
+    public void revokeAuthToken(String tokenID, long expiresAt) throws DAOException {
+        delegate.revokeAuthToken(tokenID, expiresAt);
+    }
+
+    @Override
+    public List<String> getRevokedAuthTokens(long currentDatetime) throws DAOException {
+        return delegate.getRevokedAuthTokens(currentDatetime);
+    }
+
+    @Override
+    public String uploadImage(ByteArrayInputStream image, String alias, ObjectMetadata metadata) throws DAOException {
+        return delegate.uploadImage(image, alias, metadata);
+    }
+
+    @Override
+    public boolean authenticate(AuthToken token, long currentDatetime) throws DAOException {
+        return delegate.authenticate(token, currentDatetime);
+    }
+
+    @Override
+    public int getFollowersCount(String alias) throws DAOException {
+        return delegate.getFollowersCount(alias);
+    }
+
+    @Override
+    public int getFollowingCount(String alias) throws DAOException {
+        return delegate.getFollowingCount(alias);
+    }
+
+    @Override
+    public DBCounts getCounts(String alias) throws DAOException {
+        return delegate.getCounts(alias);
+    }
+
+    @Override
+    public List<String> filterPullFeeds(List<String> aliases) throws DAOException {
+        return delegate.filterPullFeeds(aliases);
+    }
+
+    @Override
+    public void markPullFeed(String alias) throws DAOException {
+        delegate.markPullFeed(alias);
+    }
+
+    @Override
+    public void putFollowerCount(String alias, int value) throws DAOException {
+        delegate.putFollowerCount(alias, value);
+    }
+
+    @Override
+    public void putFollowingCount(String alias, int value) throws DAOException {
+        delegate.putFollowingCount(alias, value);
+    }
+}
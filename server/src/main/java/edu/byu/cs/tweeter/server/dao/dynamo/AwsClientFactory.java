@@ -0,0 +1,69 @@
+package edu.byu.cs.tweeter.server.dao.dynamo;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.AmazonSQSClientBuilder;
+
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+
+/**
+ * Builds the AWS SDK clients used by the server. Every client shares the same HTTP tuning so
+ * connections are pooled, kept alive and reused instead of paying a TLS handshake per call.
+ * The clients are thread safe; {@link DynamoModule} exposes one of each as a singleton.
+ */
+public class AwsClientFactory {
+
+    private static final String DEFAULT_REGION = "us-west-1";
+
+    private final String region;
+    private final ClientConfiguration clientConfiguration;
+
+    public AwsClientFactory() {
+        this.region = ServerConfig.getString("TWEETER_AWS_REGION", DEFAULT_REGION);
+        this.clientConfiguration = new ClientConfiguration()
+                .withMaxConnections(ServerConfig.getInt("AWS_MAX_CONNECTIONS", 50))
+                .withTcpKeepAlive(ServerConfig.getBoolean("AWS_TCP_KEEP_ALIVE", true))
+                .withConnectionMaxIdleMillis(ServerConfig.getLong("AWS_CONNECTION_MAX_IDLE_MILLIS", 60_000))
+                .withConnectionTTL(ServerConfig.getLong("AWS_CONNECTION_TTL_MILLIS", -1))
+                .withConnectionTimeout(ServerConfig.getInt("AWS_CONNECTION_TIMEOUT_MILLIS", 2_000))
+                .withSocketTimeout(ServerConfig.getInt("AWS_SOCKET_TIMEOUT_MILLIS", 10_000))
+                .withRequestTimeout(ServerConfig.getInt("AWS_REQUEST_TIMEOUT_MILLIS", 10_000))
+                .withClientExecutionTimeout(ServerConfig.getInt("AWS_CLIENT_EXECUTION_TIMEOUT_MILLIS", 30_000))
+                .withThrottledRetries(true);
+    }
+
+    /**
+     * Builds the DynamoDB client. Unless DYNAMO_CAPACITY_TRACKING is false, every call through it
+     * returns and records its consumed capacity (see {@link CapacityTrackingHandler}).
+     */
+    public AmazonDynamoDB createDynamoDB() {
+        AmazonDynamoDBClientBuilder builder = AmazonDynamoDBClientBuilder
+                .standard()
+                .withRegion(region)
+                .withClientConfiguration(clientConfiguration);
+        if (ServerConfig.getBoolean("DYNAMO_CAPACITY_TRACKING", true)) {
+            builder.withRequestHandlers(new CapacityTrackingHandler());
+        }
+        return builder.build();
+    }
+
+    public AmazonS3 createS3() {
+        return AmazonS3ClientBuilder
+                .standard()
+                .withRegion(region)
+                .withClientConfiguration(clientConfiguration)
+                .build();
+    }
+
+    public AmazonSQS createSQS() {
+        return AmazonSQSClientBuilder
+                .standard()
+                .withRegion(region)
+                .withClientConfiguration(clientConfiguration)
+                .build();
+    }
+}
@@ -0,0 +1,214 @@
+package edu.byu.cs.tweeter.server.dao.dynamo;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerBeforeAttemptContext;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.CancellationReason;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemResult;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemResult;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItem;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsRequest;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsResult;
+import com.amazonaws.services.dynamodbv2.model.TransactionCanceledException;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import edu.byu.cs.tweeter.server.metrics.CapacityMetrics;
+
+/**
+ * Asks DynamoDB for the capacity every call consumes and records it in {@link CapacityMetrics},
+ * together with the SDK's retries, throttled attempts and the items batch calls leave
+ * unprocessed. Every DAO call goes through the shared client, so it is counted without the DAOs
+ * doing anything. A batch with unprocessed items counts as a retry, since the DAOs always send
+ * the rest again.
+ */
+public class CapacityTrackingHandler extends RequestHandler2 {
+
+    private static final HandlerContextKey<Integer> ATTEMPTS = new HandlerContextKey<>("CapacityTrackingAttempts");
+
+    @Override
+    public AmazonWebServiceRequest beforeExecution(AmazonWebServiceRequest request) {
+        if (request instanceof GetItemRequest) {
+            ((GetItemRequest) request).setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof QueryRequest) {
+            ((QueryRequest) request).setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof ScanRequest) {
+            ((ScanRequest) request).setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof BatchGetItemRequest) {
+            ((BatchGetItemRequest) request).setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof PutItemRequest) {
+            ((PutItemRequest) request).setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof UpdateItemRequest) {
+            ((UpdateItemRequest) request).setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof DeleteItemRequest) {
+            ((DeleteItemRequest) request).setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof BatchWriteItemRequest) {
+            ((BatchWriteItemRequest) request).setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof TransactWriteItemsRequest) {
+            ((TransactWriteItemsRequest) request).withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        }
+        return request;
+    }
+
+    @Override
+    public void beforeAttempt(HandlerBeforeAttemptContext context) {
+        Request<?> request = context.getRequest();
+        Integer attempts = request.getHandlerContext(ATTEMPTS);
+        request.addHandlerContext(ATTEMPTS, attempts == null ? 1 : attempts + 1);
+    }
+
+    @Override
+    public void afterResponse(Request<?> request, Response<?> response) {
+        AmazonWebServiceRequest original = request.getOriginalRequest();
+        String operation = operation(original);
+        recordSdkRetries(request, tableOf(original), operation);
+
+        Object result = response.getAwsResponse();
+        if (result instanceof GetItemResult) {
+            record(operation, true, ((GetItemResult) result).getConsumedCapacity());
+        } else if (result instanceof QueryResult) {
+            record(operation, true, ((QueryResult) result).getConsumedCapacity());
+        } else if (result instanceof ScanResult) {
+            record(operation, true, ((ScanResult) result).getConsumedCapacity());
+        } else if (result instanceof BatchGetItemResult) {
+            BatchGetItemResult batch = (BatchGetItemResult) result;
+            record(operation, true, batch.getConsumedCapacity());
+            for (Map.Entry<String, KeysAndAttributes> entry : nullToEmpty(batch.getUnprocessedKeys()).entrySet()) {
+                int keys = entry.getValue().getKeys() == null ? 0 : entry.getValue().getKeys().size();
+                CapacityMetrics.recordUnprocessed(entry.getKey(), operation, keys);
+                CapacityMetrics.recordRetries(entry.getKey(), operation, 1);
+            }
+        } else if (result instanceof PutItemResult) {
+            record(operation, false, ((PutItemResult) result).getConsumedCapacity());
+        } else if (result instanceof UpdateItemResult) {
+            record(operation, false, ((UpdateItemResult) result).getConsumedCapacity());
+        } else if (result instanceof DeleteItemResult) {
+            record(operation, false, ((DeleteItemResult) result).getConsumedCapacity());
+        } else if (result instanceof BatchWriteItemResult) {
+            BatchWriteItemResult batch = (BatchWriteItemResult) result;
+            record(operation, false, batch.getConsumedCapacity());
+            for (Map.Entry<String, List<WriteRequest>> entry : nullToEmpty(batch.getUnprocessedItems()).entrySet()) {
+                CapacityMetrics.recordUnprocessed(entry.getKey(), operation, entry.getValue().size());
+                CapacityMetrics.recordRetries(entry.getKey(), operation, 1);
+            }
+        } else if (result instanceof TransactWriteItemsResult) {
+            record(operation, false, ((TransactWriteItemsResult) result).getConsumedCapacity());
+        }
+    }
+
+    @Override
+    public void afterError(Request<?> request, Response<?> response, Exception e) {
+        AmazonWebServiceRequest original = request.getOriginalRequest();
+        String table = tableOf(original);
+        String operation = operation(original);
+        recordSdkRetries(request, table, operation);
+        if (isThrottle(e)) CapacityMetrics.recordThrottle(table, operation);
+    }
+
+    private void recordSdkRetries(Request<?> request, String table, String operation) {
+        Integer attempts = request.getHandlerContext(ATTEMPTS);
+        if (attempts != null && attempts > 1) CapacityMetrics.recordRetries(table, operation, attempts - 1);
+    }
+
+    private static void record(String operation, boolean read, ConsumedCapacity capacity) {
+        if (capacity != null) record(operation, read, Collections.singletonList(capacity));
+    }
+
+    private static void record(String operation, boolean read, List<ConsumedCapacity> capacities) {
+        if (capacities == null) return;
+        for (ConsumedCapacity capacity : capacities) {
+            double units = capacity.getCapacityUnits() == null ? 0 : capacity.getCapacityUnits();
+            CapacityMetrics.recordCall(capacity.getTableName(), operation, read ? units : 0, read ? 0 : units);
+        }
+    }
+
+    /**
+     * @return true if the call was throttled, including a transaction cancelled because one of
+     *         its items was.
+     */
+    static boolean isThrottle(Exception e) {
+        if (e instanceof TransactionCanceledException) {
+            List<CancellationReason> reasons = ((TransactionCanceledException) e).getCancellationReasons();
+            if (reasons == null) return false;
+            for (CancellationReason reason : reasons) {
+                if ("ThrottlingError".equals(reason.getCode())) return true;
+            }
+            return false;
+        }
+        if (!(e instanceof AmazonServiceException)) return false;
+        String code = ((AmazonServiceException) e).getErrorCode();
+        return "ProvisionedThroughputExceededException".equals(code) || "ThrottlingException".equals(code)
+                || "RequestLimitExceeded".equals(code);
+    }
+
+    /**
+     * @return the name of the operation, like Query for a QueryRequest.
+     */
+    static String operation(AmazonWebServiceRequest request) {
+        String name = request.getClass().getSimpleName();
+        return name.endsWith("Request") ? name.substring(0, name.length() - "Request".length()) : name;
+    }
+
+    /**
+     * @return the table the request is for, or the first of them for a batch or transaction.
+     */
+    static String tableOf(AmazonWebServiceRequest request) {
+        if (request instanceof GetItemRequest) return ((GetItemRequest) request).getTableName();
+        if (request instanceof QueryRequest) return ((QueryRequest) request).getTableName();
+        if (request instanceof ScanRequest) return ((ScanRequest) request).getTableName();
+        if (request instanceof PutItemRequest) return ((PutItemRequest) request).getTableName();
+        if (request instanceof UpdateItemRequest) return ((UpdateItemRequest) request).getTableName();
+        if (request instanceof DeleteItemRequest) return ((DeleteItemRequest) request).getTableName();
+        if (request instanceof BatchGetItemRequest) {
+            return firstKey(((BatchGetItemRequest) request).getRequestItems());
+        }
+        if (request instanceof BatchWriteItemRequest) {
+            return firstKey(((BatchWriteItemRequest) request).getRequestItems());
+        }
+        if (request instanceof TransactWriteItemsRequest) {
+            List<TransactWriteItem> items = ((TransactWriteItemsRequest) request).getTransactItems();
+            return items == null || items.isEmpty() ? "unknown" : tableOf(items.get(0));
+        }
+        return "unknown";
+    }
+
+    private static String tableOf(TransactWriteItem item) {
+        if (item.getPut() != null) return item.getPut().getTableName();
+        if (item.getUpdate() != null) return item.getUpdate().getTableName();
+        if (item.getDelete() != null) return item.getDelete().getTableName();
+        if (item.getConditionCheck() != null) return item.getConditionCheck().getTableName();
+        return "unknown";
+    }
+
+    private static String firstKey(Map<String, ?> map) {
+        return map == null || map.isEmpty() ? "unknown" : map.keySet().iterator().next();
+    }
+
+    private static <K, V> Map<K, V> nullToEmpty(Map<K, V> map) {
+        return map == null ? Collections.emptyMap() : map;
+    }
+}
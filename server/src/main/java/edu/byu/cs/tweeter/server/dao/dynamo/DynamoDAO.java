@@ -2,7 +2,6 @@ package edu.byu.cs.tweeter.server.dao.dynamo;
 
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
 import com.amazonaws.services.dynamodbv2.document.BatchWriteItemOutcome;
 import com.amazonaws.services.dynamodbv2.document.DynamoDB;
 import com.amazonaws.services.dynamodbv2.document.Item;
@@ -12,30 +11,43 @@ import com.amazonaws.services.dynamodbv2.document.TableWriteItems;
 import com.amazonaws.services.dynamodbv2.model.WriteRequest;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.metrics.Log;
 
 /**
  * An abstract DAO parent class for accessing data from a dynamodb database.
  */
 public abstract class DynamoDAO {
 
-    protected static final String AWS_REGION = "us-west-1";
     protected static final String TOKEN_TABLE_NAME = "auth-tokens";
 
+    // The users table, which the follow DAO also writes counts to
+    protected static final String USER_TABLE_NAME = "users";
+    protected static final String USER_ALIAS_KEY = "alias";
+    protected static final String NUM_FOLLOWERS_KEY = "num_followers";
+    protected static final String NUM_FOLLOWING_KEY = "num_following";
+
     protected static final int BASE_TIMEOUT = 5;
     protected static final int TOO_MANY_REQUESTS = 8;
 
-    protected final AmazonDynamoDB client = AmazonDynamoDBClientBuilder
-            .standard()
-            .withRegion(AWS_REGION)
-                .build();
+    protected final AmazonDynamoDB client;
+    protected final DynamoDB dynamoDB;
 
-    protected final DynamoDB dynamoDB = new DynamoDB(client);
+    /**
+     * @param client the shared dynamodb client. All DAOs use the same client so they draw from
+     *               one connection pool.
+     */
+    protected DynamoDAO(AmazonDynamoDB client) {
+        this.client = client;
+        this.dynamoDB = new DynamoDB(client);
+    }
 
     /**
      * Write a list of items to a table in a dynamodb database.
@@ -51,8 +63,11 @@ public abstract class DynamoDAO {
             while (unprocessedItems.size() > 0) {
                 retries++;
                 if (retries > TOO_MANY_REQUESTS) {
-                    throw new DAOException("Too many attempts to put statuses in database");
+                    throw new DAOException("Too many attempts to write " + writeItems.getTableName() +
+                            ", " + unprocessedItems.get(writeItems.getTableName()).size() + " items are still unprocessed");
                 }
+                Log.debug("Retrying %d unprocessed items in %s (attempt %d)",
+                        unprocessedItems.get(writeItems.getTableName()).size(), writeItems.getTableName(), (int) retries + 1);
                 expWait(retries);
                 outcome = dynamoDB.batchWriteItemUnprocessed(unprocessedItems);
                 unprocessedItems = outcome.getUnprocessedItems();
@@ -62,6 +77,41 @@ public abstract class DynamoDAO {
         }
     }
 
+    /**
+     * Builds a projection of the specified attributes, so a read returns only what it maps. Each
+     * name gets a placeholder, so none of them can clash with a reserved word like "datetime".
+     *
+     * @param attributes the names of the attributes to read.
+     * @return the projection.
+     */
+    protected static Projection projection(String... attributes) {
+        Map<String, String> names = new HashMap<>();
+        StringBuilder expression = new StringBuilder();
+        for (int i = 0; i < attributes.length; i++) {
+            if (i > 0) expression.append(", ");
+            expression.append("#p").append(i);
+            names.put("#p" + i, attributes[i]);
+        }
+        return new Projection(expression.toString(), Collections.unmodifiableMap(names));
+    }
+
+    /**
+     * A projection expression and the attribute names its placeholders stand for.
+     */
+    protected static class Projection {
+        private final String expression;
+        private final Map<String, String> names;
+
+        Projection(String expression, Map<String, String> names) {
+            this.expression = expression;
+            this.names = names;
+        }
+
+        public String getExpression() { return expression; }
+
+        public Map<String, String> getNames() { return names; }
+    }
+
     /**
      * Sleep for a time based on the number of retries.
      *
@@ -1,19 +1,99 @@
 package edu.byu.cs.tweeter.server.dao.dynamo;
 
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.sqs.AmazonSQS;
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.google.inject.name.Names;
 
+import edu.byu.cs.tweeter.server.config.ServerConfig;
 import edu.byu.cs.tweeter.server.dao.FollowDAO;
 import edu.byu.cs.tweeter.server.dao.StatusDAO;
 import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.dao.cache.CachingStatusDAO;
+import edu.byu.cs.tweeter.server.dao.cache.CachingUserDAO;
+import edu.byu.cs.tweeter.server.dao.cache.SingleFlightStatusDAO;
+import edu.byu.cs.tweeter.server.dao.cache.SingleFlightUserDAO;
+import edu.byu.cs.tweeter.server.dao.graph.CachingFollowDAO;
+import edu.byu.cs.tweeter.server.metrics.DAOTimingInterceptor;
 
 /**
- * Bind the DAO interface classes with their DynamoDB implementation classes.
+ * Bind the DAO interface classes with their DynamoDB implementation classes. The DAOs and the
+ * AWS clients they share are singletons so a warm lambda container reuses them across
+ * invocations. Unless USER_CACHE_ENABLED is false, users are read through an in-memory cache,
+ * and unless STORY_CACHE_ENABLED is false, so are the newest statuses of stories.
+ * When FOLLOW_GRAPH_CACHE_ENABLED is true, follow relationships are read through an in-memory
+ * follow graph. Unless SINGLE_FLIGHT_ENABLED is false, concurrent identical user and status reads
+ * that reach DynamoDB are collapsed into one. Every DAO call is timed as a stage of the request
+ * that made it.
  */
 public class DynamoModule extends AbstractModule {
     @Override
     public void configure() {
-        bind(FollowDAO.class).to(FollowDynamoDAO.class);
-        bind(StatusDAO.class).to(StatusDynamoDAO.class);
-        bind(UserDAO.class).to(UserDynamoDAO.class);
+        bindInterceptor(DAOTimingInterceptor.daoClasses(), DAOTimingInterceptor.daoMethods(), new DAOTimingInterceptor());
+
+        bind(AwsClientFactory.class).in(Singleton.class);
+        bind(ParallelBatchWriter.class).in(Singleton.class);
+        bind(ShardedFollowerCounter.class).in(Singleton.class);
+
+        boolean singleFlight = ServerConfig.getBoolean("SINGLE_FLIGHT_ENABLED", true);
+
+        // Statuses are read through the story cache, then the single-flight layer, then DynamoDB
+        bind(StatusDynamoDAO.class).in(Singleton.class);
+        Class<? extends StatusDAO> statusReads = StatusDynamoDAO.class;
+        if (singleFlight) {
+            bind(StatusDAO.class).annotatedWith(Names.named(SingleFlightStatusDAO.DELEGATE)).to(StatusDynamoDAO.class);
+            bind(SingleFlightStatusDAO.class).in(Singleton.class);
+            statusReads = SingleFlightStatusDAO.class;
+        }
+        if (ServerConfig.getBoolean("STORY_CACHE_ENABLED", true)) {
+            bind(StatusDAO.class).annotatedWith(Names.named(CachingStatusDAO.DELEGATE)).to(statusReads);
+            bind(StatusDAO.class).to(CachingStatusDAO.class).in(Singleton.class);
+        } else {
+            bind(StatusDAO.class).to(statusReads);
+        }
+
+        bind(FollowDynamoDAO.class).in(Singleton.class);
+        if (ServerConfig.getBoolean("FOLLOW_GRAPH_CACHE_ENABLED", false)) {
+            bind(FollowDAO.class).annotatedWith(Names.named(CachingFollowDAO.DELEGATE)).to(FollowDynamoDAO.class);
+            bind(FollowDAO.class).to(CachingFollowDAO.class).in(Singleton.class);
+        } else {
+            bind(FollowDAO.class).to(FollowDynamoDAO.class);
+        }
+
+        // Users are read through the cache, then the single-flight layer, then DynamoDB
+        bind(UserDynamoDAO.class).in(Singleton.class);
+        Class<? extends UserDAO> userReads = UserDynamoDAO.class;
+        if (singleFlight) {
+            bind(UserDAO.class).annotatedWith(Names.named(SingleFlightUserDAO.DELEGATE)).to(UserDynamoDAO.class);
+            bind(SingleFlightUserDAO.class).in(Singleton.class);
+            userReads = SingleFlightUserDAO.class;
+        }
+        if (ServerConfig.getBoolean("USER_CACHE_ENABLED", true)) {
+            bind(UserDAO.class).annotatedWith(Names.named(CachingUserDAO.DELEGATE)).to(userReads);
+            bind(UserDAO.class).to(CachingUserDAO.class).in(Singleton.class);
+        } else {
+            bind(UserDAO.class).to(userReads);
+        }
+    }
+
+    @Provides
+    @Singleton
+    AmazonDynamoDB provideDynamoDB(AwsClientFactory factory) {
+        return factory.createDynamoDB();
+    }
+
+    @Provides
+    @Singleton
+    AmazonS3 provideS3(AwsClientFactory factory) {
+        return factory.createS3();
+    }
+
+    @Provides
+    @Singleton
+    AmazonSQS provideSQS(AwsClientFactory factory) {
+        return factory.createSQS();
     }
 }
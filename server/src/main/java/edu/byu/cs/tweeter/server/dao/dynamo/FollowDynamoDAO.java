@@ -1,6 +1,7 @@
 package edu.byu.cs.tweeter.server.dao.dynamo;
 
 import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.document.Index;
 import com.amazonaws.services.dynamodbv2.document.Item;
 import com.amazonaws.services.dynamodbv2.document.ItemCollection;
@@ -12,12 +13,25 @@ import com.amazonaws.services.dynamodbv2.document.spec.DeleteItemSpec;
 import com.amazonaws.services.dynamodbv2.document.spec.GetItemSpec;
 import com.amazonaws.services.dynamodbv2.document.spec.QuerySpec;
 import com.amazonaws.services.dynamodbv2.document.utils.ValueMap;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.CancellationReason;
+import com.amazonaws.services.dynamodbv2.model.Delete;
+import com.amazonaws.services.dynamodbv2.model.Put;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItem;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsRequest;
+import com.amazonaws.services.dynamodbv2.model.TransactionCanceledException;
+import com.amazonaws.services.dynamodbv2.model.Update;
+import com.google.inject.Inject;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import edu.byu.cs.tweeter.server.dao.DAOException;
 import edu.byu.cs.tweeter.server.dao.FollowDAO;
+import edu.byu.cs.tweeter.server.metrics.Log;
 
 /**
  * A DAO for accessing 'follow' data from a dynamodb database.
@@ -29,12 +43,21 @@ public class FollowDynamoDAO extends DynamoDAO implements FollowDAO {
     private static final String FOLLOWING_KEY = "followee_handle";
     private static final String FOLLOWER_KEY = "follower_handle";
 
-    public FollowDynamoDAO() {
-        super();
+    private static final Projection FOLLOWER = projection(FOLLOWER_KEY);
+    private static final Projection FOLLOWEE = projection(FOLLOWING_KEY);
+
+    private final ShardedFollowerCounter followerCounter;
+
+    @Inject
+    public FollowDynamoDAO(AmazonDynamoDB client, ShardedFollowerCounter followerCounter) {
+        super(client);
+        this.followerCounter = followerCounter;
     }
 
     public List<String> getFollowers(String targetAlias, int limit, String lastUserAlias) throws DAOException {
         QuerySpec querySpec = new QuerySpec().withKeyConditionExpression(FOLLOWING_KEY + " = :fa")
+                .withProjectionExpression(FOLLOWER.getExpression())
+                .withNameMap(FOLLOWER.getNames())
                 .withValueMap(new ValueMap()
                     .withString(":fa", targetAlias))
                 .withScanIndexForward(true)
@@ -56,6 +79,8 @@ public class FollowDynamoDAO extends DynamoDAO implements FollowDAO {
     @Override
     public List<String> getFollowees(String targetAlias, int limit, String lastUserAlias) throws DAOException {
         QuerySpec querySpec = new QuerySpec().withKeyConditionExpression(FOLLOWER_KEY + " = :fa")
+                .withProjectionExpression(FOLLOWEE.getExpression())
+                .withNameMap(FOLLOWEE.getNames())
                 .withValueMap(new ValueMap()
                         .withString(":fa", targetAlias))
                 .withScanIndexForward(true)
@@ -109,13 +134,108 @@ public class FollowDynamoDAO extends DynamoDAO implements FollowDAO {
         }
     }
 
+    @Override
+    public boolean follow(String followeeAlias, String followerAlias) throws DAOException {
+        Put putEdge = new Put()
+                .withTableName(FOLLOW_TABLE_NAME)
+                .withItem(edgeKey(followeeAlias, followerAlias))
+                .withConditionExpression("attribute_not_exists(#fe)")
+                .withExpressionAttributeNames(Collections.singletonMap("#fe", FOLLOWING_KEY));
+        return writeEdgeTransaction(new TransactWriteItem().withPut(putEdge), followeeAlias, followerAlias, 1);
+    }
+
+    @Override
+    public boolean unfollow(String followeeAlias, String followerAlias) throws DAOException {
+        Delete deleteEdge = new Delete()
+                .withTableName(FOLLOW_TABLE_NAME)
+                .withKey(edgeKey(followeeAlias, followerAlias))
+                .withConditionExpression("attribute_exists(#fe)")
+                .withExpressionAttributeNames(Collections.singletonMap("#fe", FOLLOWING_KEY));
+        return writeEdgeTransaction(new TransactWriteItem().withDelete(deleteEdge), followeeAlias, followerAlias, -1);
+    }
+
+    /**
+     * Writes a change to a follow relationship together with the matching changes to both
+     * users' counts.
+     *
+     * @param edgeWrite the conditional write to the follows table.
+     * @param followeeAlias the alias of the user who is being followed.
+     * @param followerAlias the alias of the user who is following the followee.
+     * @param delta the amount to add to both counts.
+     * @return false if the condition on the relationship failed, so nothing was written.
+     * @throws DAOException if either user does not exist or an error occurred in accessing the
+     *          database.
+     */
+    private boolean writeEdgeTransaction(TransactWriteItem edgeWrite, String followeeAlias, String followerAlias,
+                                         int delta) throws DAOException {
+        // The alias each write checks exists, by position, so a failed check can name the user
+        List<TransactWriteItem> items = new ArrayList<>();
+        List<String> aliases = new ArrayList<>();
+        items.add(edgeWrite);
+        aliases.add(null);
+        for (TransactWriteItem item : followerCounter.incrementItems(followeeAlias, delta)) {
+            items.add(item);
+            aliases.add(followeeAlias);
+        }
+        items.add(new TransactWriteItem().withUpdate(incrementFollowingCount(followerAlias, delta)));
+        aliases.add(followerAlias);
+        TransactWriteItemsRequest request = new TransactWriteItemsRequest().withTransactItems(items);
+
+        double retries = 0;
+        while (true) {
+            try {
+                client.transactWriteItems(request);
+                return true;
+            } catch (TransactionCanceledException e) {
+                List<CancellationReason> reasons = e.getCancellationReasons();
+                if (reasons != null && !reasons.isEmpty() && "ConditionalCheckFailed".equals(reasons.get(0).getCode())) {
+                    return false;
+                }
+                for (int i = 1; reasons != null && i < reasons.size() && i < aliases.size(); i++) {
+                    if ("ConditionalCheckFailed".equals(reasons.get(i).getCode())) {
+                        throw new DAOException("User \"" + aliases.get(i) + "\" not found");
+                    }
+                }
+                // Cancelled by a conflicting write to one of the items, so try again
+                retries++;
+                if (retries > TOO_MANY_REQUESTS) throw new DAOException(e.getMessage());
+                expWait(retries);
+            } catch (AmazonServiceException e) {
+                throw new DAOException(e.getMessage());
+            }
+        }
+    }
+
+    private Map<String, AttributeValue> edgeKey(String followeeAlias, String followerAlias) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put(FOLLOWING_KEY, new AttributeValue(followeeAlias));
+        key.put(FOLLOWER_KEY, new AttributeValue(followerAlias));
+        return key;
+    }
+
+    // Conditional so that an ADD does not create a users item for a user who does not exist
+    private Update incrementFollowingCount(String alias, int delta) {
+        Map<String, String> names = new HashMap<>();
+        names.put("#c", NUM_FOLLOWING_KEY);
+        names.put("#a", USER_ALIAS_KEY);
+        return new Update()
+                .withTableName(USER_TABLE_NAME)
+                .withKey(Collections.singletonMap(USER_ALIAS_KEY, new AttributeValue(alias)))
+                .withUpdateExpression("ADD #c :val")
+                .withConditionExpression("attribute_exists(#a)")
+                .withExpressionAttributeNames(names)
+                .withExpressionAttributeValues(Collections.singletonMap(":val", new AttributeValue().withN(Integer.toString(delta))));
+    }
+
     @Override
     public boolean isFollower(String followeeAlias, String followerAlias) throws DAOException {
-        GetItemSpec spec = new GetItemSpec().withPrimaryKey(FOLLOWING_KEY, followeeAlias, FOLLOWER_KEY, followerAlias);
+        GetItemSpec spec = new GetItemSpec().withPrimaryKey(FOLLOWING_KEY, followeeAlias, FOLLOWER_KEY, followerAlias)
+                .withProjectionExpression(FOLLOWER.getExpression())
+                .withNameMap(FOLLOWER.getNames());
         try {
             Table table = dynamoDB.getTable(FOLLOW_TABLE_NAME);
             Item outcome = table.getItem(spec);
-            System.out.printf("The outcome of whether %s is following %s is %s%n", followerAlias, followeeAlias, outcome == null ? "null" : "not null");
+            Log.debug("The outcome of whether %s is following %s is %s", followerAlias, followeeAlias, outcome == null ? "null" : "not null");
             return outcome != null;
         } catch (AmazonServiceException e) {
             throw new DAOException(e.getMessage());
@@ -0,0 +1,223 @@
+package edu.byu.cs.tweeter.server.dao.dynamo;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.document.BatchWriteItemOutcome;
+import com.amazonaws.services.dynamodbv2.document.DynamoDB;
+import com.amazonaws.services.dynamodbv2.document.Item;
+import com.amazonaws.services.dynamodbv2.document.TableWriteItems;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.google.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+
+/**
+ * Writes large lists of items to a dynamodb table. The items are split into batches of 25 (the
+ * most BatchWriteItem accepts) which are written concurrently on a bounded pool. Each batch
+ * retries its own unprocessed items with jittered backoff, so a throttled batch does not hold up
+ * the others.
+ */
+public class ParallelBatchWriter {
+
+    /**
+     * The largest number of items dynamodb accepts in one BatchWriteItem call.
+     */
+    public static final int MAX_BATCH_SIZE = 25;
+
+    private static final int BASE_TIMEOUT = 5;
+    private static final int MAX_TIMEOUT = 1_000;
+    private static final int TOO_MANY_REQUESTS = 8;
+
+    private final DynamoDB dynamoDB;
+    private final ExecutorService executor;
+
+    @Inject
+    public ParallelBatchWriter(AmazonDynamoDB client) {
+        this.dynamoDB = new DynamoDB(client);
+
+        int threads = ServerConfig.getInt("BATCH_WRITE_THREADS", 8);
+        // When every thread is busy and the queue is full the caller writes the batch itself,
+        // which keeps memory bounded and applies back pressure to the producer.
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 4), runnable -> {
+                    Thread thread = new Thread(runnable, "batch-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    /**
+     * Writes the items to the table, returning once every batch has been written or has failed.
+     *
+     * @param tableName the name of the table.
+     * @param items the items to write.
+     * @return the statistics for each batch.
+     * @throws DAOException if any batch could not be written.
+     */
+    public Report write(String tableName, List<Item> items) throws DAOException {
+        long start = System.nanoTime();
+
+        List<Future<BatchStats>> futures = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += MAX_BATCH_SIZE) {
+            List<Item> batch = items.subList(i, Math.min(items.size(), i + MAX_BATCH_SIZE));
+            int batchNumber = i / MAX_BATCH_SIZE;
+            futures.add(executor.submit(() -> writeBatch(tableName, batchNumber, batch)));
+        }
+
+        List<BatchStats> batches = new ArrayList<>();
+        String firstError = null;
+        int failedBatches = 0;
+        for (Future<BatchStats> future : futures) {
+            try {
+                batches.add(future.get());
+            } catch (ExecutionException e) {
+                failedBatches++;
+                if (firstError == null) firstError = e.getCause().getMessage();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DAOException("Interrupted while writing to " + tableName);
+            }
+        }
+        if (failedBatches > 0) {
+            throw new DAOException(failedBatches + " of " + futures.size() + " batches to " + tableName +
+                    " failed: " + firstError);
+        }
+
+        return new Report(tableName, batches, System.nanoTime() - start);
+    }
+
+    private BatchStats writeBatch(String tableName, int batchNumber, List<Item> batch) throws DAOException {
+        long start = System.nanoTime();
+        int retries = 0;
+
+        try {
+            BatchWriteItemOutcome outcome = dynamoDB.batchWriteItem(new TableWriteItems(tableName).withItemsToPut(batch));
+            Map<String, List<WriteRequest>> unprocessedItems = outcome.getUnprocessedItems();
+            while (!unprocessedItems.isEmpty()) {
+                retries++;
+                if (retries > TOO_MANY_REQUESTS) {
+                    throw new DAOException("Too many attempts to write batch " + batchNumber + " to " + tableName);
+                }
+                jitteredWait(retries);
+                try {
+                    outcome = dynamoDB.batchWriteItemUnprocessed(unprocessedItems);
+                    unprocessedItems = outcome.getUnprocessedItems();
+                } catch (ProvisionedThroughputExceededException e) {
+                    // Try the same unprocessed items again after the next wait.
+                }
+            }
+        } catch (AmazonServiceException e) {
+            throw new DAOException(e.getMessage());
+        }
+
+        return new BatchStats(batchNumber, batch.size(), retries, System.nanoTime() - start);
+    }
+
+    /**
+     * Sleep for a random time of up to twice the previous maximum ("full jitter"), so batches
+     * that were throttled together do not all retry together.
+     *
+     * @param retries the number of retries.
+     */
+    private void jitteredWait(int retries) {
+        long maxMillis = Math.min(MAX_TIMEOUT, (long) (BASE_TIMEOUT * Math.pow(2, retries)));
+        try {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(maxMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The statistics for writing a single batch.
+     */
+    public static class BatchStats {
+        private final int batchNumber;
+        private final int items;
+        private final int retries;
+        private final long nanos;
+
+        BatchStats(int batchNumber, int items, int retries, long nanos) {
+            this.batchNumber = batchNumber;
+            this.items = items;
+            this.retries = retries;
+            this.nanos = nanos;
+        }
+
+        public int getBatchNumber() { return batchNumber; }
+
+        public int getItems() { return items; }
+
+        /**
+         * @return the number of times the batch's unprocessed items were written again, after
+         *         dynamodb returned them or throttled the retry.
+         */
+        public int getRetries() { return retries; }
+
+        public double getMillis() { return nanos / 1_000_000.0; }
+
+        public double getItemsPerSecond() {
+            return nanos > 0 ? items / (nanos / 1_000_000_000.0) : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("batch %d: %d items in %.1f ms (%.0f items/sec, %d retries)",
+                    batchNumber, items, getMillis(), getItemsPerSecond(), retries);
+        }
+    }
+
+    /**
+     * The statistics for a whole write.
+     */
+    public static class Report {
+        private final String tableName;
+        private final List<BatchStats> batches;
+        private final long nanos;
+
+        Report(String tableName, List<BatchStats> batches, long nanos) {
+            this.tableName = tableName;
+            this.batches = batches;
+            this.nanos = nanos;
+        }
+
+        public List<BatchStats> getBatches() { return batches; }
+
+        public int getItems() {
+            return batches.stream().mapToInt(BatchStats::getItems).sum();
+        }
+
+        public int getRetries() {
+            return batches.stream().mapToInt(BatchStats::getRetries).sum();
+        }
+
+        public double getMillis() { return nanos / 1_000_000.0; }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(String.format(
+                    "Wrote %d items to %s in %d batches in %.1f ms (%.0f items/sec, %d retries)",
+                    getItems(), tableName, batches.size(), getMillis(),
+                    nanos > 0 ? getItems() / (nanos / 1_000_000_000.0) : 0, getRetries()));
+            for (BatchStats batch : batches) {
+                builder.append(System.lineSeparator()).append("  ").append(batch);
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package edu.byu.cs.tweeter.server.dao.dynamo;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.document.Item;
+import com.amazonaws.services.dynamodbv2.document.Table;
+import com.amazonaws.services.dynamodbv2.document.spec.GetItemSpec;
+import com.amazonaws.services.dynamodbv2.document.spec.QuerySpec;
+import com.amazonaws.services.dynamodbv2.document.spec.UpdateItemSpec;
+import com.amazonaws.services.dynamodbv2.document.utils.ValueMap;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.CancellationReason;
+import com.amazonaws.services.dynamodbv2.model.ConditionCheck;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItem;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsRequest;
+import com.amazonaws.services.dynamodbv2.model.TransactionCanceledException;
+import com.amazonaws.services.dynamodbv2.model.Update;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.google.inject.Inject;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.cache.LruCache;
+import edu.byu.cs.tweeter.server.dao.model.DBCounts;
+import edu.byu.cs.tweeter.server.metrics.Log;
+
+/**
+ * Keeps users' follower counts. A user's count normally lives in num_followers on their users
+ * item, but every increment to one item goes to one partition, so a viral account gets
+ * throttled. Once a user has SHARDED_FOLLOWER_COUNT_THRESHOLD followers, they are given
+ * counter_shards shard items in the follower-count-shards table, and increments go to a
+ * random shard instead.
+ *
+ * A user's count is always num_followers plus the sum of their shards, so an increment is
+ * counted correctly whichever item it went to. That lets containers learn about a switch late,
+ * and lets SHARDED_FOLLOWER_COUNTS be turned off at any time. When it is off, every increment
+ * goes to num_followers.
+ */
+public class ShardedFollowerCounter extends DynamoDAO {
+
+    private static final String SHARD_TABLE_NAME = "follower-count-shards";
+    private static final String SHARD_KEY = "shard";
+    private static final String COUNT_KEY = "count";
+    private static final String COUNTER_SHARDS_KEY = "counter_shards";
+
+    private static final int CACHE_SIZE = 10_000;
+    private static final long SHARDS_TTL_MILLIS = 60_000;
+    private static final long TOTAL_TTL_MILLIS = ServerConfig.getLong("SHARDED_FOLLOWER_COUNT_CACHE_MILLIS", 5_000);
+
+    // How many shards each recently written user has, 0 for none
+    private final LruCache<String, Integer> shardCounts = new LruCache<>(CACHE_SIZE, SHARDS_TTL_MILLIS, 0);
+
+    // The summed counts of recently read sharded users
+    private final LruCache<String, Integer> totals = new LruCache<>(CACHE_SIZE, TOTAL_TTL_MILLIS, 0);
+
+    private final boolean enabled;
+    private final int threshold;
+    private final int shardsPerUser;
+
+    @Inject
+    public ShardedFollowerCounter(AmazonDynamoDB client) {
+        this(client, ServerConfig.getBoolean("SHARDED_FOLLOWER_COUNTS", false),
+                ServerConfig.getInt("SHARDED_FOLLOWER_COUNT_THRESHOLD", 10_000),
+                ServerConfig.getInt("FOLLOWER_COUNT_SHARDS", 10));
+    }
+
+    /**
+     * @param enabled whether users who reach the threshold are sharded.
+     * @param threshold the number of followers at which a user is sharded.
+     * @param shardsPerUser the number of shards a sharded user is given.
+     */
+    public ShardedFollowerCounter(AmazonDynamoDB client, boolean enabled, int threshold, int shardsPerUser) {
+        super(client);
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.shardsPerUser = shardsPerUser;
+    }
+
+    /**
+     * Gets the number of followers of the specified user. The totals of sharded users may be up
+     * to SHARDED_FOLLOWER_COUNT_CACHE_MILLIS old. Reading an unsharded user who has reached the
+     * threshold shards them.
+     *
+     * @param alias the alias of the user.
+     * @return the number of followers, or -1 if the user does not exist.
+     * @throws DAOException if an error occurred in accessing the database.
+     */
+    public int getCount(String alias) throws DAOException {
+        LruCache.Entry<Integer> cached = totals.get(alias);
+        if (cached != null) return cached.getValue();
+
+        Item item = getCounterItem(alias, NUM_FOLLOWERS_KEY + ", " + COUNTER_SHARDS_KEY);
+        if (item == null) return -1;
+        return countFollowers(alias, item);
+    }
+
+    /**
+     * Gets the number of followers of the specified user, as {@link #getCount(String)} does,
+     * along with the number of users they follow, which is kept on the same item.
+     *
+     * @param alias the alias of the user.
+     * @return the counts, or null if the user does not exist.
+     * @throws DAOException if an error occurred in accessing the database.
+     */
+    public DBCounts getCounts(String alias) throws DAOException {
+        Item item = getCounterItem(alias, NUM_FOLLOWERS_KEY + ", " + NUM_FOLLOWING_KEY + ", " + COUNTER_SHARDS_KEY);
+        if (item == null) return null;
+
+        int following;
+        try {
+            following = item.getInt(NUM_FOLLOWING_KEY);
+        } catch (NumberFormatException e) {
+            throw new DAOException(e.getMessage());
+        }
+        return new DBCounts(countFollowers(alias, item), following);
+    }
+
+    private int countFollowers(String alias, Item item) throws DAOException {
+        int count;
+        try {
+            count = item.getInt(NUM_FOLLOWERS_KEY);
+        } catch (NumberFormatException e) {
+            throw new DAOException(e.getMessage());
+        }
+        int shards = item.isPresent(COUNTER_SHARDS_KEY) ? item.getInt(COUNTER_SHARDS_KEY) : 0;
+        shardCounts.put(alias, shards);
+
+        if (shards > 0) {
+            LruCache.Entry<Integer> cached = totals.get(alias);
+            if (cached != null) return cached.getValue();
+            count += sumShards(alias);
+            totals.put(alias, count);
+        } else if (enabled && count >= threshold) {
+            enableSharding(alias);
+        }
+        return count;
+    }
+
+    /**
+     * Adds the value to the number of followers of the specified user.
+     *
+     * @param alias the alias of the user.
+     * @param value the value to add.
+     * @throws DAOException if the user does not exist or an error occurred in accessing the
+     *          database.
+     */
+    public void increment(String alias, int value) throws DAOException {
+        List<TransactWriteItem> items = incrementItems(alias, value);
+        try {
+            if (items.size() == 1) {
+                Update update = items.get(0).getUpdate();
+                client.updateItem(new UpdateItemRequest()
+                        .withTableName(update.getTableName())
+                        .withKey(update.getKey())
+                        .withUpdateExpression(update.getUpdateExpression())
+                        .withConditionExpression(update.getConditionExpression())
+                        .withExpressionAttributeNames(update.getExpressionAttributeNames())
+                        .withExpressionAttributeValues(update.getExpressionAttributeValues()));
+            } else {
+                client.transactWriteItems(new TransactWriteItemsRequest().withTransactItems(items));
+            }
+        } catch (ConditionalCheckFailedException e) {
+            throw new DAOException("User \"" + alias + "\" not found");
+        } catch (TransactionCanceledException e) {
+            if (isConditionalCheckFailed(e.getCancellationReasons())) {
+                throw new DAOException("User \"" + alias + "\" not found");
+            }
+            throw new DAOException(e.getMessage());
+        } catch (AmazonServiceException e) {
+            throw new DAOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Builds the writes that add the value to the number of followers of the specified user, for
+     * use in a transaction. They fail the transaction's condition checks if the user does not
+     * exist, as an ADD would otherwise create a users item holding nothing but the count.
+     *
+     * @param alias the alias of the user.
+     * @param value the value to add.
+     * @return the update of the user's count, followed by a check that the user exists if the
+     *          count is on a shard.
+     * @throws DAOException if an error occurred in accessing the database.
+     */
+    public List<TransactWriteItem> incrementItems(String alias, int value) throws DAOException {
+        int shards = getShardCount(alias);
+
+        Update update = new Update()
+                .withUpdateExpression("ADD #c :val")
+                .withExpressionAttributeValues(Collections.singletonMap(":val", new AttributeValue().withN(Integer.toString(value))));
+        if (shards == 0) {
+            Map<String, String> names = new HashMap<>();
+            names.put("#c", NUM_FOLLOWERS_KEY);
+            names.put("#a", USER_ALIAS_KEY);
+            update.withTableName(USER_TABLE_NAME)
+                    .withKey(Collections.singletonMap(USER_ALIAS_KEY, new AttributeValue(alias)))
+                    .withConditionExpression("attribute_exists(#a)")
+                    .withExpressionAttributeNames(names);
+            return Collections.singletonList(new TransactWriteItem().withUpdate(update));
+        }
+
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put(USER_ALIAS_KEY, new AttributeValue(alias));
+        key.put(SHARD_KEY, new AttributeValue().withN(Integer.toString(ThreadLocalRandom.current().nextInt(shards))));
+        update.withTableName(SHARD_TABLE_NAME)
+                .withKey(key)
+                .withExpressionAttributeNames(Collections.singletonMap("#c", COUNT_KEY));
+        ConditionCheck userExists = new ConditionCheck()
+                .withTableName(USER_TABLE_NAME)
+                .withKey(Collections.singletonMap(USER_ALIAS_KEY, new AttributeValue(alias)))
+                .withConditionExpression("attribute_exists(#a)")
+                .withExpressionAttributeNames(Collections.singletonMap("#a", USER_ALIAS_KEY));
+        return Arrays.asList(new TransactWriteItem().withUpdate(update), new TransactWriteItem().withConditionCheck(userExists));
+    }
+
+    /**
+     * @return true if any of the writes of a cancelled transaction failed its condition.
+     */
+    private static boolean isConditionalCheckFailed(List<CancellationReason> reasons) {
+        if (reasons == null) return false;
+        for (CancellationReason reason : reasons) {
+            if ("ConditionalCheckFailed".equals(reason.getCode())) return true;
+        }
+        return false;
+    }
+
+    private int getShardCount(String alias) throws DAOException {
+        if (!enabled) return 0;
+
+        LruCache.Entry<Integer> cached = shardCounts.get(alias);
+        if (cached != null) return cached.getValue();
+
+        Item item = getCounterItem(alias, COUNTER_SHARDS_KEY);
+        int shards = item != null && item.isPresent(COUNTER_SHARDS_KEY) ? item.getInt(COUNTER_SHARDS_KEY) : 0;
+        shardCounts.put(alias, shards);
+        return shards;
+    }
+
+    private Item getCounterItem(String alias, String projection) throws DAOException {
+        try {
+            Table table = dynamoDB.getTable(USER_TABLE_NAME);
+            return table.getItem(new GetItemSpec()
+                    .withPrimaryKey(USER_ALIAS_KEY, alias)
+                    .withProjectionExpression(projection));
+        } catch (AmazonServiceException e) {
+            throw new DAOException(e.getMessage());
+        }
+    }
+
+    private int sumShards(String alias) throws DAOException {
+        QuerySpec querySpec = new QuerySpec().withKeyConditionExpression(USER_ALIAS_KEY + " = :a")
+                .withProjectionExpression("#c")
+                .withNameMap(Collections.singletonMap("#c", COUNT_KEY))
+                .withValueMap(new ValueMap().withString(":a", alias));
+        try {
+            Table table = dynamoDB.getTable(SHARD_TABLE_NAME);
+            int sum = 0;
+            for (Item item : table.query(querySpec)) {
+                sum += item.getInt(COUNT_KEY);
+            }
+            return sum;
+        } catch (AmazonServiceException e) {
+            throw new DAOException(e.getMessage());
+        }
+    }
+
+    private void enableSharding(String alias) throws DAOException {
+        UpdateItemSpec updateItemSpec = new UpdateItemSpec().withPrimaryKey(USER_ALIAS_KEY, alias)
+                .withUpdateExpression("set #s = :n")
+                .withConditionExpression("attribute_not_exists(#s)")
+                .withNameMap(Collections.singletonMap("#s", COUNTER_SHARDS_KEY))
+                .withValueMap(new ValueMap().withInt(":n", shardsPerUser));
+        try {
+            dynamoDB.getTable(USER_TABLE_NAME).updateItem(updateItemSpec);
+            shardCounts.put(alias, shardsPerUser);
+            Log.info("Sharded the follower count of %s across %d items", alias, shardsPerUser);
+        } catch (ConditionalCheckFailedException e) {
+            // Another container sharded it first
+            shardCounts.invalidate(alias);
+        } catch (AmazonServiceException e) {
+            throw new DAOException(e.getMessage());
+        }
+    }
+}
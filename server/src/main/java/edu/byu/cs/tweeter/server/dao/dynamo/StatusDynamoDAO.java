@@ -1,6 +1,7 @@
 package edu.byu.cs.tweeter.server.dao.dynamo;
 
 import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.document.BatchGetItemOutcome;
 import com.amazonaws.services.dynamodbv2.document.Item;
 import com.amazonaws.services.dynamodbv2.document.ItemCollection;
@@ -8,20 +9,25 @@ import com.amazonaws.services.dynamodbv2.document.PrimaryKey;
 import com.amazonaws.services.dynamodbv2.document.QueryOutcome;
 import com.amazonaws.services.dynamodbv2.document.Table;
 import com.amazonaws.services.dynamodbv2.document.TableKeysAndAttributes;
-import com.amazonaws.services.dynamodbv2.document.TableWriteItems;
 import com.amazonaws.services.dynamodbv2.document.spec.QuerySpec;
+import com.amazonaws.services.dynamodbv2.document.spec.ScanSpec;
 import com.amazonaws.services.dynamodbv2.document.utils.ValueMap;
 import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.google.inject.Inject;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.model.domain.User;
 import edu.byu.cs.tweeter.server.dao.DAOException;
 import edu.byu.cs.tweeter.server.dao.StatusDAO;
+import edu.byu.cs.tweeter.server.dao.model.DBFeedEntry;
 import edu.byu.cs.tweeter.server.dao.model.DBStatus;
+import edu.byu.cs.tweeter.server.metrics.Log;
 import edu.byu.cs.tweeter.server.service.Service;
 
 /**
@@ -41,9 +47,28 @@ public class StatusDynamoDAO extends DynamoDAO implements StatusDAO {
     private static final String USER_KEY = "alias";
     private static final String POSTER_KEY = "poster_alias";
 
+    // The poster snapshot copied into denormalized feed rows
+    private static final String POSTER_FIRST_NAME_KEY = "poster_first_name";
+    private static final String POSTER_LAST_NAME_KEY = "poster_last_name";
+    private static final String POSTER_IMAGE_KEY = "poster_image_url";
+
+    // Only the attributes each read maps
+    private static final Projection STORY_STATUS = projection(USER_KEY, STATUS_KEY, POST_KEY, DATETIME_KEY, URLS_KEY, MENTIONS_KEY);
+    private static final Projection FEED_REFERENCE = projection(POSTER_KEY, STATUS_KEY);
+
+    private final ParallelBatchWriter batchWriter;
+
+    @Inject
+    public StatusDynamoDAO(AmazonDynamoDB client, ParallelBatchWriter batchWriter) {
+        super(client);
+        this.batchWriter = batchWriter;
+    }
+
     @Override
     public List<DBStatus> getStory(String alias, int limit, Status lastStatus) throws DAOException {
         QuerySpec querySpec = new QuerySpec().withKeyConditionExpression(USER_KEY + " = :a")
+                .withProjectionExpression(STORY_STATUS.getExpression())
+                .withNameMap(STORY_STATUS.getNames())
                 .withValueMap(new ValueMap()
                         .withString(":a", alias))
                 .withScanIndexForward(false)
@@ -66,7 +91,9 @@ public class StatusDynamoDAO extends DynamoDAO implements StatusDAO {
     }
 
     public List<DBStatus> getFeed(List<String> aliases) throws DAOException {
-        TableKeysAndAttributes storyTableKeysAndAttributes = new TableKeysAndAttributes(STORY_TABLE_NAME);
+        TableKeysAndAttributes storyTableKeysAndAttributes = new TableKeysAndAttributes(STORY_TABLE_NAME)
+                .withProjectionExpression(STORY_STATUS.getExpression())
+                .withNameMap(STORY_STATUS.getNames());
         storyTableKeysAndAttributes.addHashAndRangePrimaryKeys(USER_KEY, STATUS_KEY, aliases.toArray(new String[aliases.size()]));
 
         try {
@@ -113,14 +140,39 @@ public class StatusDynamoDAO extends DynamoDAO implements StatusDAO {
         for (String follower : followerAliases) {
             items.add(new Item().withPrimaryKey(USER_KEY, follower, STATUS_KEY, statusID).withString(POSTER_KEY, posterAlias));
         }
-        TableWriteItems feedTableWriteItems = new TableWriteItems(FEED_TABLE_NAME).withItemsToPut(items);
+        ParallelBatchWriter.Report report = batchWriter.write(FEED_TABLE_NAME, items);
+        Log.info("%s", report);
+    }
+
+    @Override
+    public void postStatusToFeeds(Status status, List<String> followerAliases) throws DAOException {
+        User poster = status.getUser();
+        String mentions = Service.deserializeList(status.getMentions());
+        String urls = Service.deserializeList(status.getUrls());
+
+        List<Item> items = new ArrayList<>();
+        for (String follower : followerAliases) {
+            items.add(new Item()
+                    .withPrimaryKey(USER_KEY, follower, STATUS_KEY, status.getID())
+                    .withString(POSTER_KEY, poster.getAlias())
+                    .withString(POST_KEY, status.getPost())
+                    .withString(DATETIME_KEY, status.getDatetime())
+                    .withString(MENTIONS_KEY, mentions)
+                    .withString(URLS_KEY, urls)
+                    .withString(POSTER_FIRST_NAME_KEY, poster.getFirstName())
+                    .withString(POSTER_LAST_NAME_KEY, poster.getLastName())
+                    .withString(POSTER_IMAGE_KEY, poster.getImageUrl()));
+        }
 
-        batchWriteItems(feedTableWriteItems);
+        ParallelBatchWriter.Report report = batchWriter.write(FEED_TABLE_NAME, items);
+        Log.info("%s", report);
     }
 
     @Override
     public List<String> getFeedAliases(String alias, int limit, String lastStatusID) throws DAOException {
         QuerySpec querySpec = new QuerySpec().withKeyConditionExpression(USER_KEY + " = :a")
+                .withProjectionExpression(FEED_REFERENCE.getExpression())
+                .withNameMap(FEED_REFERENCE.getNames())
                 .withValueMap(new ValueMap()
                         .withString(":a", alias))
                 .withScanIndexForward(false)
@@ -142,6 +194,89 @@ public class StatusDynamoDAO extends DynamoDAO implements StatusDAO {
         }
     }
 
+    @Override
+    public List<DBStatus> getFeedPage(String alias, int limit, String lastStatusID) throws DAOException {
+        QuerySpec querySpec = new QuerySpec().withKeyConditionExpression(USER_KEY + " = :a")
+                .withValueMap(new ValueMap()
+                        .withString(":a", alias))
+                .withScanIndexForward(false)
+                .withMaxResultSize(limit);
+
+        if (lastStatusID != null) {
+            querySpec.withExclusiveStartKey(new PrimaryKey(USER_KEY, alias, STATUS_KEY, lastStatusID));
+        }
+
+        try {
+            Table table = dynamoDB.getTable(FEED_TABLE_NAME);
+            ItemCollection<QueryOutcome> items = table.query(querySpec);
+            List<DBStatus> dbStatuses = new ArrayList<>();
+            if (items == null) return dbStatuses;
+            for (Item item : items) {
+                dbStatuses.add(mapFeedItemToDBStatus(item));
+            }
+            return dbStatuses;
+        } catch (AmazonServiceException e) {
+            throw new DAOException(e.getMessage());
+        }
+    }
+
+    @Override
+    public List<DBFeedEntry> scanFeedEntries(int limit, DBFeedEntry lastEntry) throws DAOException {
+        Map<String, String> nameMap = new HashMap<>();
+        nameMap.put("#a", USER_KEY);
+        nameMap.put("#s", STATUS_KEY);
+        nameMap.put("#p", POSTER_KEY);
+        nameMap.put("#t", POST_KEY);
+        ScanSpec scanSpec = new ScanSpec()
+                .withProjectionExpression("#a, #s, #p, #t")
+                .withNameMap(nameMap)
+                .withMaxResultSize(limit);
+
+        if (lastEntry != null) {
+            scanSpec.withExclusiveStartKey(new PrimaryKey(USER_KEY, lastEntry.getAlias(), STATUS_KEY, lastEntry.getStatusID()));
+        }
+
+        try {
+            Table table = dynamoDB.getTable(FEED_TABLE_NAME);
+            List<DBFeedEntry> entries = new ArrayList<>();
+            for (Item item : table.scan(scanSpec)) {
+                entries.add(new DBFeedEntry(item.getString(USER_KEY), item.getString(STATUS_KEY),
+                        item.getString(POSTER_KEY), item.isPresent(POST_KEY)));
+            }
+            return entries;
+        } catch (AmazonServiceException e) {
+            throw new DAOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Maps a row of a feed to a DBStatus object. Only rows written with a copy of the status have
+     * more than the status ID and poster alias filled in.
+     *
+     * @param item the row.
+     * @return the DBStatus object.
+     */
+    private DBStatus mapFeedItemToDBStatus(Item item) {
+        String posterAlias = item.getString(POSTER_KEY);
+        if (!item.isPresent(POST_KEY)) {
+            return new DBStatus(new Status(null, null, null, null, null, item.getString(STATUS_KEY)), posterAlias);
+        }
+
+        User poster = new User(
+                item.getString(POSTER_FIRST_NAME_KEY),
+                item.getString(POSTER_LAST_NAME_KEY),
+                posterAlias,
+                item.getString(POSTER_IMAGE_KEY));
+        return new DBStatus(new Status(
+                item.getString(POST_KEY),
+                poster,
+                item.getString(DATETIME_KEY),
+                Service.serializeToList(item.getString(URLS_KEY)),
+                Service.serializeToList(item.getString(MENTIONS_KEY)),
+                item.getString(STATUS_KEY)
+        ), posterAlias);
+    }
+
     /**
      * Maps the results of a query to a list of DBStatus objects.
      *
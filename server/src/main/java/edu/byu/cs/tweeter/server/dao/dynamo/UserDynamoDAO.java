@@ -2,6 +2,7 @@ package edu.byu.cs.tweeter.server.dao.dynamo;
 
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.SdkClientException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.document.BatchGetItemOutcome;
 import com.amazonaws.services.dynamodbv2.document.Item;
 import com.amazonaws.services.dynamodbv2.document.PrimaryKey;
@@ -11,15 +12,17 @@ import com.amazonaws.services.dynamodbv2.document.TableWriteItems;
 import com.amazonaws.services.dynamodbv2.document.UpdateItemOutcome;
 import com.amazonaws.services.dynamodbv2.document.spec.DeleteItemSpec;
 import com.amazonaws.services.dynamodbv2.document.spec.GetItemSpec;
+import com.amazonaws.services.dynamodbv2.document.spec.ScanSpec;
 import com.amazonaws.services.dynamodbv2.document.spec.UpdateItemSpec;
 import com.amazonaws.services.dynamodbv2.document.utils.ValueMap;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
 import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Client;
-import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.CannedAccessControlList;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.google.inject.Inject;
 
 import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
@@ -32,16 +35,19 @@ import java.util.concurrent.TimeUnit;
 
 import edu.byu.cs.tweeter.model.domain.AuthToken;
 import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.server.config.ServerConfig;
 import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.model.DBCounts;
 import edu.byu.cs.tweeter.server.dao.model.DBUser;
 import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.metrics.Log;
 
 /**
  * A DAO for accessing 'user' data from a dynamodb database.
  */
 public class UserDynamoDAO extends DynamoDAO implements UserDAO {
 
-    private static final String USER_TABLE_NAME = "users";
+    private static final String REVOKED_TOKEN_TABLE_NAME = "revoked-auth-tokens";
     private static final String BUCKET_NAME = "hunter-profile-images";
 
     private static final String USER_KEY = "alias";
@@ -52,19 +58,30 @@ public class UserDynamoDAO extends DynamoDAO implements UserDAO {
     private static final String SALT_KEY = "salt";
     private static final String AUTH_KEY = "auth_token";
     private static final String DATETIME_KEY = "datetime";
-    private static final String NUM_FOLLOWERS_KEY = "num_followers";
-    private static final String NUM_FOLLOWING_KEY = "num_following";
+    private static final String TOKEN_ID_KEY = "token_id";
+    private static final String EXPIRES_AT_KEY = "expires_at";
+    private static final String TTL_KEY = "ttl";
+    private static final String PULL_FEED_KEY = "pull_feed";
 
     private static final int AUTH_TOKEN_TIMEOUT_MINUTES = 5;
+    private static final long AUTH_TOKEN_REFRESH_MILLIS = ServerConfig.getLong("AUTH_TOKEN_REFRESH_MILLIS", 60_000);
+    private static final int MAX_BATCH_GET_SIZE = 100;
+
+    // Only the attributes each read maps, so profiles never carry the password hash and salt
+    private static final Projection ACCOUNT = projection(USER_KEY, FIRST_NAME_KEY, LAST_NAME_KEY, IMAGE_KEY, PASSWORD_KEY, SALT_KEY);
+    private static final Projection PROFILE = projection(USER_KEY, FIRST_NAME_KEY, LAST_NAME_KEY, IMAGE_KEY);
+    private static final Projection KEY_ONLY = projection(USER_KEY);
+    private static final Projection FOLLOWING_COUNT = projection(NUM_FOLLOWING_KEY);
+    private static final Projection AUTH_TOKEN_DATETIME = projection(DATETIME_KEY);
 
     private final AmazonS3 s3;
+    private final ShardedFollowerCounter followerCounter;
 
-    public UserDynamoDAO() {
-        super();
-        s3 = AmazonS3ClientBuilder
-                .standard()
-                .withRegion(AWS_REGION)
-                .build();
+    @Inject
+    public UserDynamoDAO(AmazonDynamoDB client, AmazonS3 s3, ShardedFollowerCounter followerCounter) {
+        super(client);
+        this.s3 = s3;
+        this.followerCounter = followerCounter;
     }
 
     @Override
@@ -72,7 +89,9 @@ public class UserDynamoDAO extends DynamoDAO implements UserDAO {
         Item outcome;
         try {
             Table table = dynamoDB.getTable(USER_TABLE_NAME);
-            GetItemSpec spec = new GetItemSpec().withPrimaryKey(USER_KEY, alias);
+            GetItemSpec spec = new GetItemSpec().withPrimaryKey(USER_KEY, alias)
+                    .withProjectionExpression(ACCOUNT.getExpression())
+                    .withNameMap(ACCOUNT.getNames());
 
             outcome = table.getItem(spec);
         } catch (AmazonServiceException e) {
@@ -100,9 +119,24 @@ public class UserDynamoDAO extends DynamoDAO implements UserDAO {
         return new DBUser(new User(firstName, lastName, alias, imageURL), hashedDBPassword, salt);
     }
 
+    @Override
+    public boolean isRegistered(String alias) throws DAOException {
+        try {
+            Table table = dynamoDB.getTable(USER_TABLE_NAME);
+            GetItemSpec spec = new GetItemSpec().withPrimaryKey(USER_KEY, alias)
+                    .withProjectionExpression(KEY_ONLY.getExpression())
+                    .withNameMap(KEY_ONLY.getNames());
+            return table.getItem(spec) != null;
+        } catch (AmazonServiceException e) {
+            throw new DAOException(e.getMessage());
+        }
+    }
+
     @Override
     public List<User> batchGetUsers(List<String> aliases) throws DAOException {
-        TableKeysAndAttributes userTableKeysAndAttributes = new TableKeysAndAttributes(USER_TABLE_NAME);
+        TableKeysAndAttributes userTableKeysAndAttributes = new TableKeysAndAttributes(USER_TABLE_NAME)
+                .withProjectionExpression(PROFILE.getExpression())
+                .withNameMap(PROFILE.getNames());
         userTableKeysAndAttributes.addHashOnlyPrimaryKeys(USER_KEY, aliases.toArray(new String[aliases.size()]));
 
         try {
@@ -157,8 +191,8 @@ public class UserDynamoDAO extends DynamoDAO implements UserDAO {
                     .withString(FIRST_NAME_KEY, user.getFirstName())
                     .withString(LAST_NAME_KEY, user.getLastName())
                     .withString(IMAGE_KEY, user.getImageUrl())
-                    .withInt(NUM_FOLLOWERS_KEY, 0)
-                    .withInt(NUM_FOLLOWING_KEY, 1));
+                    .withInt(NUM_FOLLOWERS_KEY, userData.getNumFollowers())
+                    .withInt(NUM_FOLLOWING_KEY, userData.getNumFollowing()));
         }
         TableWriteItems userTableWriteItems = new TableWriteItems(USER_TABLE_NAME).withItemsToPut(items);
 
@@ -190,6 +224,44 @@ public class UserDynamoDAO extends DynamoDAO implements UserDAO {
         }
     }
 
+    @Override
+    public void revokeAuthToken(String tokenID, long expiresAt) throws DAOException {
+        try {
+            Table table = dynamoDB.getTable(REVOKED_TOKEN_TABLE_NAME);
+            // The table's time to live attribute is in seconds
+            table.putItem(
+                    new Item()
+                            .withPrimaryKey(TOKEN_ID_KEY, tokenID)
+                            .withLong(EXPIRES_AT_KEY, expiresAt)
+                            .withLong(TTL_KEY, TimeUnit.MILLISECONDS.toSeconds(expiresAt) + 1));
+        } catch (AmazonServiceException e) {
+            throw new DAOException(e.getMessage());
+        }
+    }
+
+    @Override
+    public List<String> getRevokedAuthTokens(long currentDatetime) throws DAOException {
+        Map<String, String> nameMap = new HashMap<>();
+        nameMap.put("#id", TOKEN_ID_KEY);
+        nameMap.put("#e", EXPIRES_AT_KEY);
+        ScanSpec scanSpec = new ScanSpec()
+                .withProjectionExpression("#id")
+                .withFilterExpression("#e > :now")
+                .withNameMap(nameMap)
+                .withValueMap(new ValueMap().withLong(":now", currentDatetime));
+
+        try {
+            Table table = dynamoDB.getTable(REVOKED_TOKEN_TABLE_NAME);
+            List<String> tokenIDs = new ArrayList<>();
+            for (Item item : table.scan(scanSpec)) {
+                tokenIDs.add(item.getString(TOKEN_ID_KEY));
+            }
+            return tokenIDs;
+        } catch (AmazonServiceException e) {
+            throw new DAOException(e.getMessage());
+        }
+    }
+
     @Override
     public String uploadImage(ByteArrayInputStream image, String alias, ObjectMetadata metadata) throws DAOException {
         try {
@@ -207,7 +279,9 @@ public class UserDynamoDAO extends DynamoDAO implements UserDAO {
         Table table;
         try {
             table = dynamoDB.getTable(TOKEN_TABLE_NAME);
-            GetItemSpec spec = new GetItemSpec().withPrimaryKey(AUTH_KEY, token.getToken());
+            GetItemSpec spec = new GetItemSpec().withPrimaryKey(AUTH_KEY, token.getToken())
+                    .withProjectionExpression(AUTH_TOKEN_DATETIME.getExpression())
+                    .withNameMap(AUTH_TOKEN_DATETIME.getNames());
             outcome = table.getItem(spec);
         } catch (AmazonServiceException e) {
             throw new DAOException(e.getMessage());
@@ -219,15 +293,21 @@ public class UserDynamoDAO extends DynamoDAO implements UserDAO {
         long diffInMillis = currentDatetime - oldDatetime;
         if (TimeUnit.MINUTES.convert(diffInMillis, TimeUnit.MILLISECONDS) > AUTH_TOKEN_TIMEOUT_MINUTES) return false;
 
+        // The expiry only needs to slide forward once in a while, not on every request
+        if (diffInMillis < AUTH_TOKEN_REFRESH_MILLIS) return true;
+
         Map<String, String> nameMap = new HashMap<>();
         nameMap.put("#dt", DATETIME_KEY);
         UpdateItemSpec updateItemSpec = new UpdateItemSpec().withPrimaryKey(AUTH_KEY, token.getToken())
                 .withUpdateExpression("set #dt = :val")
+                .withConditionExpression("#dt < :val")
                 .withNameMap(nameMap)
                 .withValueMap(new ValueMap().withLong(":val", currentDatetime));
         try {
             UpdateItemOutcome updateItemOutcome = table.updateItem(updateItemSpec);
-            System.out.println("Successfully updated authToken datetime: " + updateItemOutcome.getUpdateItemResult());
+            Log.debug("Successfully updated authToken datetime: " + updateItemOutcome.getUpdateItemResult());
+        } catch (ConditionalCheckFailedException e) {
+            // A concurrent request already refreshed it
         } catch (Exception e) {
             throw new DAOException("Unable to update authToken datetime: " + e.getMessage());
         }
@@ -237,25 +317,7 @@ public class UserDynamoDAO extends DynamoDAO implements UserDAO {
 
     @Override
     public int getFollowersCount(String alias) throws DAOException {
-        Item outcome;
-        try {
-            Table table = dynamoDB.getTable(USER_TABLE_NAME);
-            GetItemSpec spec = new GetItemSpec().withPrimaryKey(USER_KEY, alias);
-
-            outcome = table.getItem(spec);
-        } catch (AmazonServiceException e) {
-            throw new DAOException(e.getMessage());
-        }
-
-        if (outcome == null) {
-            return -1;
-        }
-
-        try {
-            return outcome.getInt(NUM_FOLLOWERS_KEY);
-        } catch (NumberFormatException e) {
-            throw new DAOException(e.getMessage());
-        }
+        return followerCounter.getCount(alias);
     }
 
     @Override
@@ -263,7 +325,9 @@ public class UserDynamoDAO extends DynamoDAO implements UserDAO {
         Item outcome;
         try {
             Table table = dynamoDB.getTable(USER_TABLE_NAME);
-            GetItemSpec spec = new GetItemSpec().withPrimaryKey(USER_KEY, alias);
+            GetItemSpec spec = new GetItemSpec().withPrimaryKey(USER_KEY, alias)
+                    .withProjectionExpression(FOLLOWING_COUNT.getExpression())
+                    .withNameMap(FOLLOWING_COUNT.getNames());
 
             outcome = table.getItem(spec);
         } catch (AmazonServiceException e) {
@@ -282,25 +346,68 @@ public class UserDynamoDAO extends DynamoDAO implements UserDAO {
     }
 
     @Override
-    public void putFollowerCount(String alias, int val) throws DAOException {
-        try {
-            Table table = dynamoDB.getTable(USER_TABLE_NAME);
-
-            Map<String, String> expressionAttributeNames = new HashMap<>();
-            expressionAttributeNames.put("#f", NUM_FOLLOWERS_KEY);
+    public DBCounts getCounts(String alias) throws DAOException {
+        return followerCounter.getCounts(alias);
+    }
 
-            Map<String, Object> expressionAttributeValues = new HashMap<>();
-            expressionAttributeValues.put(":val", val);
+    @Override
+    public List<String> filterPullFeeds(List<String> aliases) throws DAOException {
+        Map<String, String> nameMap = new HashMap<>();
+        nameMap.put("#a", USER_KEY);
+        nameMap.put("#f", PULL_FEED_KEY);
+
+        List<String> filtered = new ArrayList<>();
+        for (int i = 0; i < aliases.size(); i += MAX_BATCH_GET_SIZE) {
+            List<String> batch = aliases.subList(i, Math.min(aliases.size(), i + MAX_BATCH_GET_SIZE));
+            TableKeysAndAttributes userTableKeysAndAttributes = new TableKeysAndAttributes(USER_TABLE_NAME)
+                    .withProjectionExpression("#a, #f")
+                    .withNameMap(nameMap);
+            userTableKeysAndAttributes.addHashOnlyPrimaryKeys(USER_KEY, batch.toArray());
+
+            try {
+                BatchGetItemOutcome outcome = dynamoDB.batchGetItem(userTableKeysAndAttributes);
+                addIfPullFeed(outcome.getTableItems().get(USER_TABLE_NAME), filtered);
+                double retries = 0;
+                Map<String, KeysAndAttributes> unprocessedKeys = outcome.getUnprocessedKeys();
+                while (unprocessedKeys.size() > 0) {
+                    retries++;
+                    if (retries > TOO_MANY_REQUESTS) throw new DAOException("Too many attempts to get pull feed marks");
+                    expWait(retries);
+                    outcome = dynamoDB.batchGetItemUnprocessed(unprocessedKeys);
+                    addIfPullFeed(outcome.getTableItems().get(USER_TABLE_NAME), filtered);
+                    unprocessedKeys = outcome.getUnprocessedKeys();
+                }
+            } catch (AmazonServiceException e) {
+                throw new DAOException(e.getMessage());
+            }
+        }
+        return filtered;
+    }
 
-            table.updateItem(USER_KEY, alias,
-                    "set #f = #f + :val",
-                    expressionAttributeNames,
-                    expressionAttributeValues);
+    @Override
+    public void markPullFeed(String alias) throws DAOException {
+        Map<String, String> nameMap = new HashMap<>();
+        nameMap.put("#a", USER_KEY);
+        nameMap.put("#p", PULL_FEED_KEY);
+        UpdateItemSpec updateItemSpec = new UpdateItemSpec().withPrimaryKey(USER_KEY, alias)
+                .withUpdateExpression("set #p = :t")
+                .withConditionExpression("attribute_exists(#a)")
+                .withNameMap(nameMap)
+                .withValueMap(new ValueMap().withBoolean(":t", true));
+        try {
+            dynamoDB.getTable(USER_TABLE_NAME).updateItem(updateItemSpec);
+        } catch (ConditionalCheckFailedException e) {
+            throw new DAOException("User \"" + alias + "\" not found");
         } catch (AmazonServiceException e) {
             throw new DAOException(e.getMessage());
         }
     }
 
+    @Override
+    public void putFollowerCount(String alias, int val) throws DAOException {
+        followerCounter.increment(alias, val);
+    }
+
     @Override
     public void putFollowingCount(String alias, int val) throws DAOException {
         try {
@@ -321,6 +428,15 @@ public class UserDynamoDAO extends DynamoDAO implements UserDAO {
         }
     }
 
+    private void addIfPullFeed(List<Item> items, List<String> aliases) {
+        if (items == null) return;
+        for (Item item : items) {
+            if (item.isPresent(PULL_FEED_KEY) && item.getBoolean(PULL_FEED_KEY)) {
+                aliases.add(item.getString(USER_KEY));
+            }
+        }
+    }
+
     private List<User> convertItemsToUsers(List<Item> items) {
         Set<User> sortedUsers = new TreeSet<>();
         for (Item item : items) {
@@ -0,0 +1,279 @@
+package edu.byu.cs.tweeter.server.dao.graph;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.FollowDAO;
+
+/**
+ * A FollowDAO that keeps the follow relationships it has read in an in-memory
+ * {@link FollowGraph} in front of another FollowDAO. The first read of a user's followers (or
+ * followees) loads all of them, and later pages and isFollower checks are answered from memory
+ * until FOLLOW_GRAPH_CACHE_MILLIS has passed. Users with more than FOLLOW_GRAPH_CACHE_MAX_EDGES
+ * are not loaded and are always read from the other FollowDAO. Writes go to the other FollowDAO
+ * first and are then applied to the graph when either user's relationships are cached. A load
+ * that a write to the same user raced is not kept, as it may be missing that write. The
+ * relationships of expired users are removed from the graph, so it only holds what was read in
+ * the last FOLLOW_GRAPH_CACHE_MILLIS. The aliases it has seen stay interned.
+ *
+ * Cached pages are in alias order like the other FollowDAO's, so a paged scan that spans a reload
+ * resumes after the same alias. It can still miss or include relationships changed during the scan.
+ */
+public class CachingFollowDAO implements FollowDAO {
+
+    /**
+     * The name of the binding for the FollowDAO being cached.
+     */
+    public static final String DELEGATE = "cachedFollowDAO";
+
+    private static final int LOAD_PAGE_SIZE = 1_000;
+    private static final int VERSION_STRIPES = 1_024;
+
+    private final FollowDAO delegate;
+    private final FollowGraph graph = new FollowGraph();
+    private final long ttlMillis;
+    private final int maxEdges;
+
+    // alias -> when the cached followers (or followees) expire, negative if there are too many
+    private final Map<String, Long> followersLoaded = new ConcurrentHashMap<>();
+    private final Map<String, Long> followeesLoaded = new ConcurrentHashMap<>();
+
+    // Guards the versions and every change to the graph. Bumped by writes to either user, by stripe.
+    private final Object graphLock = new Object();
+    private final long[] writeVersions = new long[VERSION_STRIPES];
+    private long nextEviction;
+
+    @Inject
+    public CachingFollowDAO(@Named(DELEGATE) FollowDAO delegate) {
+        this(delegate, ServerConfig.getLong("FOLLOW_GRAPH_CACHE_MILLIS", 30_000),
+                ServerConfig.getInt("FOLLOW_GRAPH_CACHE_MAX_EDGES", 100_000));
+    }
+
+    public CachingFollowDAO(FollowDAO delegate, long ttlMillis, int maxEdges) {
+        this.delegate = delegate;
+        this.ttlMillis = ttlMillis;
+        this.maxEdges = maxEdges;
+    }
+
+    @Override
+    public List<String> getFollowers(String targetAlias, int limit, String lastUserAlias) throws DAOException {
+        if (!loadFollowers(targetAlias)) return delegate.getFollowers(targetAlias, limit, lastUserAlias);
+        return graph.getFollowers(targetAlias, limit, lastUserAlias);
+    }
+
+    @Override
+    public List<String> getFollowees(String targetAlias, int limit, String lastUserAlias) throws DAOException {
+        if (!loadFollowees(targetAlias)) return delegate.getFollowees(targetAlias, limit, lastUserAlias);
+        return graph.getFollowees(targetAlias, limit, lastUserAlias);
+    }
+
+    @Override
+    public void putFollower(String followeeAlias, String followerAlias) throws DAOException {
+        delegate.putFollower(followeeAlias, followerAlias);
+        addEdge(followeeAlias, followerAlias);
+    }
+
+    @Override
+    public boolean follow(String followeeAlias, String followerAlias) throws DAOException {
+        boolean followed = delegate.follow(followeeAlias, followerAlias);
+        // Either way the relationship now exists
+        addEdge(followeeAlias, followerAlias);
+        return followed;
+    }
+
+    @Override
+    public boolean unfollow(String followeeAlias, String followerAlias) throws DAOException {
+        boolean unfollowed = delegate.unfollow(followeeAlias, followerAlias);
+        removeEdge(followeeAlias, followerAlias);
+        return unfollowed;
+    }
+
+    @Override
+    public void batchPutFollowers(String followeeAlias, List<String> followerAliases) throws DAOException {
+        delegate.batchPutFollowers(followeeAlias, followerAliases);
+        for (String followerAlias : followerAliases) {
+            addEdge(followeeAlias, followerAlias);
+        }
+    }
+
+    @Override
+    public void deleteFollower(String followeeAlias, String followerAlias) throws DAOException {
+        delegate.deleteFollower(followeeAlias, followerAlias);
+        removeEdge(followeeAlias, followerAlias);
+    }
+
+    /**
+     * Answered from memory when either user's relationships are cached. Otherwise it is a single
+     * read of the other FollowDAO, which is cheaper than loading a whole follower list.
+     */
+    @Override
+    public boolean isFollower(String followeeAlias, String followerAlias) throws DAOException {
+        if (isCached(followersLoaded, followeeAlias) || isCached(followeesLoaded, followerAlias)) {
+            return graph.isFollower(followeeAlias, followerAlias);
+        }
+        return delegate.isFollower(followeeAlias, followerAlias);
+    }
+
+    /**
+     * Drops every cached relationship of the user, so they are read again. The relationships
+     * are removed from the graph with the next expired ones.
+     *
+     * @param alias the alias of the user.
+     */
+    public void invalidate(String alias) {
+        followersLoaded.computeIfPresent(alias, (key, expiresAt) -> 0L);
+        followeesLoaded.computeIfPresent(alias, (key, expiresAt) -> 0L);
+    }
+
+    public FollowGraph getGraph() { return graph; }
+
+    /**
+     * @return true if the followers are in the graph.
+     */
+    private boolean loadFollowers(String alias) throws DAOException {
+        return load(followersLoaded, alias, true);
+    }
+
+    /**
+     * @return true if the followees are in the graph.
+     */
+    private boolean loadFollowees(String alias) throws DAOException {
+        return load(followeesLoaded, alias, false);
+    }
+
+    private boolean load(Map<String, Long> loaded, String alias, boolean followers) throws DAOException {
+        Long expiresAt = loaded.get(alias);
+        long now = System.currentTimeMillis();
+        if (expiresAt != null && Math.abs(expiresAt) > now) return expiresAt > 0;
+        evictExpired(now);
+
+        long version = writeVersion(alias);
+        List<String> edges = loadAll(alias, followers);
+        synchronized (graphLock) {
+            if (edges == null) {
+                loaded.put(alias, -(now + ttlMillis));
+                return false;
+            }
+            // A write since the load began may be missing from it, so it is loaded again next time
+            if (writeVersion(alias) != version) return false;
+            try {
+                if (followers) {
+                    graph.replaceFollowers(alias, edges);
+                } else {
+                    graph.replaceFollowees(alias, edges);
+                }
+            } catch (IOException e) {
+                throw new DAOException(e.getMessage());
+            }
+            loaded.put(alias, now + ttlMillis);
+            return true;
+        }
+    }
+
+    /**
+     * Removes the relationships of users whose entries have expired from the graph, at most once
+     * a TTL. A relationship is kept while the other user's side of it is still cached.
+     */
+    private void evictExpired(long now) throws DAOException {
+        synchronized (graphLock) {
+            if (now < nextEviction) return;
+            nextEviction = now + ttlMillis;
+
+            List<String> expiredFollowers = removeExpired(followersLoaded, now);
+            List<String> expiredFollowees = removeExpired(followeesLoaded, now);
+            try {
+                for (String followeeAlias : expiredFollowers) {
+                    for (String followerAlias : graph.getFollowers(followeeAlias, Integer.MAX_VALUE, null)) {
+                        if (!isCached(followeesLoaded, followerAlias)) graph.removeEdge(followeeAlias, followerAlias);
+                    }
+                }
+                for (String followerAlias : expiredFollowees) {
+                    for (String followeeAlias : graph.getFollowees(followerAlias, Integer.MAX_VALUE, null)) {
+                        if (!isCached(followersLoaded, followeeAlias)) graph.removeEdge(followeeAlias, followerAlias);
+                    }
+                }
+            } catch (IOException e) {
+                throw new DAOException(e.getMessage());
+            }
+        }
+    }
+
+    private static List<String> removeExpired(Map<String, Long> loaded, long now) {
+        List<String> expired = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : loaded.entrySet()) {
+            if (Math.abs(entry.getValue()) <= now && loaded.remove(entry.getKey(), entry.getValue())) {
+                expired.add(entry.getKey());
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return every follower (or followee) of the user, or null if there are more than MAX_EDGES.
+     */
+    private List<String> loadAll(String alias, boolean followers) throws DAOException {
+        List<String> all = new ArrayList<>();
+        String last = null;
+        while (true) {
+            List<String> page = followers
+                    ? delegate.getFollowers(alias, LOAD_PAGE_SIZE, last)
+                    : delegate.getFollowees(alias, LOAD_PAGE_SIZE, last);
+            all.addAll(page);
+            if (all.size() > maxEdges) return null;
+            if (page.size() < LOAD_PAGE_SIZE) return all;
+            last = page.get(page.size() - 1);
+        }
+    }
+
+    private boolean isCached(Map<String, Long> loaded, String alias) {
+        Long expiresAt = loaded.get(alias);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    private long writeVersion(String alias) {
+        synchronized (graphLock) {
+            return writeVersions[stripe(alias)];
+        }
+    }
+
+    private void wrote(String followeeAlias, String followerAlias) {
+        writeVersions[stripe(followeeAlias)]++;
+        writeVersions[stripe(followerAlias)]++;
+    }
+
+    private static int stripe(String alias) {
+        return (alias.hashCode() & Integer.MAX_VALUE) % VERSION_STRIPES;
+    }
+
+    private void addEdge(String followeeAlias, String followerAlias) throws DAOException {
+        synchronized (graphLock) {
+            wrote(followeeAlias, followerAlias);
+            // An uncached user's relationships are read in full when they are next loaded
+            if (!isCached(followersLoaded, followeeAlias) && !isCached(followeesLoaded, followerAlias)) return;
+            try {
+                graph.addEdge(followeeAlias, followerAlias);
+            } catch (IOException e) {
+                throw new DAOException(e.getMessage());
+            }
+        }
+    }
+
+    private void removeEdge(String followeeAlias, String followerAlias) throws DAOException {
+        synchronized (graphLock) {
+            wrote(followeeAlias, followerAlias);
+            try {
+                graph.removeEdge(followeeAlias, followerAlias);
+            } catch (IOException e) {
+                throw new DAOException(e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package edu.byu.cs.tweeter.server.dao.graph;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import edu.byu.cs.tweeter.server.metrics.Log;
+
+/**
+ * The follow relationships between users, held in memory. Aliases are interned to int IDs, and
+ * each user's followers and followees are int arrays sorted by alias, so isFollower is a binary
+ * search and a user with a million followers costs about four megabytes.
+ *
+ * Followers and followees are paged in alias order, and a page starts after the alias of the
+ * last entry of the previous page, as the FollowDAO contract requires.
+ *
+ * A graph opened on a directory appends every change to a log, and {@link #snapshot()} writes
+ * the whole graph to a snapshot file and empties the log. Opening the directory again loads the
+ * snapshot and replays the log. Each logged change ends with a terminator, and a change without
+ * one was cut short by a crash and is not replayed. Replaying a change twice has no effect, so a
+ * crash between writing a snapshot and emptying the log is harmless.
+ */
+public class FollowGraph {
+
+    private static final String SNAPSHOT_FILE = "follow-graph.snapshot";
+    private static final String LOG_FILE = "follow-graph.log";
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final String RECORD_END = "\t.";
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> aliases = new ArrayList<>();
+    private final List<IntSortedSet> followers = new ArrayList<>();
+    private final List<IntSortedSet> followees = new ArrayList<>();
+
+    private final File directory;
+    private BufferedWriter log;
+    private long loggedChanges;
+
+    /**
+     * Creates an empty graph that is not persisted.
+     */
+    public FollowGraph() {
+        this.directory = null;
+    }
+
+    private FollowGraph(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the graph persisted in the directory, creating it if needed.
+     *
+     * @param directory the directory holding the snapshot and log.
+     * @return the graph.
+     * @throws IOException if the snapshot or log could not be read.
+     */
+    public static FollowGraph open(File directory) throws IOException {
+        FollowGraph graph = new FollowGraph(directory);
+        Files.createDirectories(directory.toPath());
+        graph.readSnapshot();
+        graph.replayLog();
+        graph.endTornRecord();
+        graph.log = Files.newBufferedWriter(graph.logPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return graph;
+    }
+
+    /**
+     * @return true if the follower was not already following the followee.
+     * @throws IOException if the change could not be logged.
+     */
+    public boolean addEdge(String followeeAlias, String followerAlias) throws IOException {
+        lock.writeLock().lock();
+        try {
+            boolean added = applyAdd(followeeAlias, followerAlias);
+            if (added) appendToLog('+', followeeAlias, followerAlias);
+            return added;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if the follower was following the followee.
+     * @throws IOException if the change could not be logged.
+     */
+    public boolean removeEdge(String followeeAlias, String followerAlias) throws IOException {
+        lock.writeLock().lock();
+        try {
+            boolean removed = applyRemove(followeeAlias, followerAlias);
+            if (removed) appendToLog('-', followeeAlias, followerAlias);
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Makes the followers of the followee exactly the specified aliases.
+     *
+     * @throws IOException if the changes could not be logged.
+     */
+    public void replaceFollowers(String followeeAlias, Collection<String> followerAliases) throws IOException {
+        lock.writeLock().lock();
+        try {
+            Set<String> wanted = new HashSet<>(followerAliases);
+            for (String current : getAll(followers, followeeAlias)) {
+                if (!wanted.remove(current) && applyRemove(followeeAlias, current)) {
+                    appendToLog('-', followeeAlias, current);
+                }
+            }
+            for (String added : wanted) {
+                if (applyAdd(followeeAlias, added)) appendToLog('+', followeeAlias, added);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Makes the followees of the follower exactly the specified aliases.
+     *
+     * @throws IOException if the changes could not be logged.
+     */
+    public void replaceFollowees(String followerAlias, Collection<String> followeeAliases) throws IOException {
+        lock.writeLock().lock();
+        try {
+            Set<String> wanted = new HashSet<>(followeeAliases);
+            for (String current : getAll(followees, followerAlias)) {
+                if (!wanted.remove(current) && applyRemove(current, followerAlias)) {
+                    appendToLog('-', current, followerAlias);
+                }
+            }
+            for (String added : wanted) {
+                if (applyAdd(added, followerAlias)) appendToLog('+', added, followerAlias);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isFollower(String followeeAlias, String followerAlias) {
+        lock.readLock().lock();
+        try {
+            Integer followee = ids.get(followeeAlias);
+            Integer follower = ids.get(followerAlias);
+            return followee != null && follower != null && followers.get(followee).contains(follower);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param lastFollowerAlias the last follower of the previous page, or null for the first page.
+     */
+    public List<String> getFollowers(String followeeAlias, int limit, String lastFollowerAlias) {
+        return page(followers, followeeAlias, limit, lastFollowerAlias);
+    }
+
+    /**
+     * @param lastFolloweeAlias the last followee of the previous page, or null for the first page.
+     */
+    public List<String> getFollowees(String followerAlias, int limit, String lastFolloweeAlias) {
+        return page(followees, followerAlias, limit, lastFolloweeAlias);
+    }
+
+    public int getFollowerCount(String alias) {
+        return count(followers, alias);
+    }
+
+    public int getFolloweeCount(String alias) {
+        return count(followees, alias);
+    }
+
+    /**
+     * Writes the whole graph to the snapshot file and empties the log.
+     *
+     * @throws IOException if the snapshot could not be written.
+     */
+    public synchronized void snapshot() throws IOException {
+        if (directory == null) return;
+
+        lock.readLock().lock();
+        try {
+            if (loggedChanges == 0) return;
+
+            Path temp = Files.createTempFile(directory.toPath(), SNAPSHOT_FILE, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                writeSnapshot(out);
+            }
+            Files.move(temp, snapshotPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            // No writer can append while the read lock is held, so the log holds nothing newer
+            log.close();
+            log = Files.newBufferedWriter(logPath(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            loggedChanges = 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Snapshots the graph in the background every interval and when the JVM exits.
+     *
+     * @param millis the interval between snapshots.
+     */
+    public void snapshotEvery(long millis) {
+        ScheduledExecutorService snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "follow-graph-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotter.scheduleWithFixedDelay(this::snapshotQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::snapshotQuietly, "follow-graph-shutdown"));
+    }
+
+    /**
+     * @return true if the graph has no follow relationships.
+     */
+    public boolean isEmpty() {
+        lock.readLock().lock();
+        try {
+            for (IntSortedSet set : followers) {
+                if (set.size() > 0) return false;
+            }
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Snapshots the graph and closes its log.
+     *
+     * @throws IOException if the snapshot could not be written.
+     */
+    public void close() throws IOException {
+        if (directory == null) return;
+        snapshot();
+        lock.writeLock().lock();
+        try {
+            log.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            Log.warn("Unable to snapshot follow graph: " + e.getMessage());
+        }
+    }
+
+    private boolean applyAdd(String followeeAlias, String followerAlias) {
+        int followee = intern(followeeAlias);
+        int follower = intern(followerAlias);
+        followees.get(follower).add(followee);
+        return followers.get(followee).add(follower);
+    }
+
+    private boolean applyRemove(String followeeAlias, String followerAlias) {
+        Integer followee = ids.get(followeeAlias);
+        Integer follower = ids.get(followerAlias);
+        if (followee == null || follower == null) return false;
+        followees.get(follower).remove(followee);
+        return followers.get(followee).remove(follower);
+    }
+
+    private int intern(String alias) {
+        Integer id = ids.get(alias);
+        if (id != null) return id;
+
+        id = aliases.size();
+        ids.put(alias, id);
+        aliases.add(alias);
+        followers.add(new IntSortedSet(aliases::get));
+        followees.add(new IntSortedSet(aliases::get));
+        return id;
+    }
+
+    private List<String> page(List<IntSortedSet> edges, String alias, int limit, String lastAlias) {
+        lock.readLock().lock();
+        try {
+            List<String> page = new ArrayList<>();
+            Integer id = ids.get(alias);
+            if (id == null) return page;
+
+            IntSortedSet set = edges.get(id);
+            // The last alias may have been removed since the previous page, which is fine as
+            // the set is ordered by alias rather than ID
+            int start = lastAlias == null ? 0 : set.indexAfter(lastAlias);
+            for (int i = start; i < set.size() && page.size() < limit; i++) {
+                page.add(aliases.get(set.get(i)));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<String> getAll(List<IntSortedSet> edges, String alias) {
+        List<String> all = new ArrayList<>();
+        Integer id = ids.get(alias);
+        if (id == null) return all;
+        for (int other : edges.get(id).toArray()) {
+            all.add(aliases.get(other));
+        }
+        return all;
+    }
+
+    private int count(List<IntSortedSet> edges, String alias) {
+        lock.readLock().lock();
+        try {
+            Integer id = ids.get(alias);
+            return id == null ? 0 : edges.get(id).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void appendToLog(char change, String followeeAlias, String followerAlias) throws IOException {
+        if (log == null) return;
+        log.write(change + followeeAlias + "\t" + followerAlias + RECORD_END);
+        log.newLine();
+        log.flush();
+        loggedChanges++;
+    }
+
+    private void writeSnapshot(DataOutputStream out) throws IOException {
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeInt(aliases.size());
+        for (String alias : aliases) {
+            out.writeUTF(alias);
+        }
+        // The followees are the inverse of the followers, so only the followers are written
+        for (IntSortedSet set : followers) {
+            out.writeInt(set.size());
+            for (int i = 0; i < set.size(); i++) {
+                out.writeInt(set.get(i));
+            }
+        }
+    }
+
+    private void readSnapshot() throws IOException {
+        if (!Files.exists(snapshotPath())) return;
+
+        try (InputStream stream = Files.newInputStream(snapshotPath());
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            int version = in.readInt();
+            if (version != SNAPSHOT_VERSION) throw new IOException("Unknown follow graph snapshot version " + version);
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                intern(in.readUTF());
+            }
+            for (int followee = 0; followee < count; followee++) {
+                int size = in.readInt();
+                for (int i = 0; i < size; i++) {
+                    int follower = in.readInt();
+                    followers.get(followee).add(follower);
+                    followees.get(follower).add(followee);
+                }
+            }
+        }
+    }
+
+    private void replayLog() throws IOException {
+        if (!Files.exists(logPath())) return;
+
+        try (BufferedReader reader = Files.newBufferedReader(logPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // A change cut short by a crash has no terminator and is dropped
+                if (!line.endsWith(RECORD_END)) continue;
+                String record = line.substring(0, line.length() - RECORD_END.length());
+                int tab = record.indexOf('\t');
+                if (tab < 1) continue;
+                String followee = record.substring(1, tab);
+                String follower = record.substring(tab + 1);
+                if (line.charAt(0) == '+') {
+                    applyAdd(followee, follower);
+                } else {
+                    applyRemove(followee, follower);
+                }
+                loggedChanges++;
+            }
+        }
+    }
+
+    // Ends a change cut short by a crash with a line break, so the next change is not appended to it
+    private void endTornRecord() throws IOException {
+        if (!Files.exists(logPath())) return;
+
+        try (RandomAccessFile file = new RandomAccessFile(logPath().toFile(), "rw")) {
+            if (file.length() == 0) return;
+            file.seek(file.length() - 1);
+            if (file.read() == '\n') return;
+            file.write(System.lineSeparator().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private Path snapshotPath() {
+        return new File(directory, SNAPSHOT_FILE).toPath();
+    }
+
+    private Path logPath() {
+        return new File(directory, LOG_FILE).toPath();
+    }
+}
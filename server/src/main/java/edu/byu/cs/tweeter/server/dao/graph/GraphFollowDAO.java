@@ -0,0 +1,97 @@
+package edu.byu.cs.tweeter.server.dao.graph;
+
+import com.google.inject.Inject;
+
+import java.io.IOException;
+import java.util.List;
+
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.FollowDAO;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+
+/**
+ * A DAO for accessing 'follow' data from an in-memory {@link FollowGraph}, for local
+ * deployments. The users' follower and following counts are kept by the user DAO.
+ */
+public class GraphFollowDAO implements FollowDAO {
+
+    private final FollowGraph graph;
+    private final UserDAO userDAO;
+
+    // Makes an edge change and its count changes atomic, like the dynamodb transaction
+    private final Object edgeLock = new Object();
+
+    @Inject
+    public GraphFollowDAO(FollowGraph graph, UserDAO userDAO) {
+        this.graph = graph;
+        this.userDAO = userDAO;
+    }
+
+    @Override
+    public List<String> getFollowers(String targetAlias, int limit, String lastUserAlias) throws DAOException {
+        return graph.getFollowers(targetAlias, limit, lastUserAlias);
+    }
+
+    @Override
+    public List<String> getFollowees(String targetAlias, int limit, String lastUserAlias) throws DAOException {
+        return graph.getFollowees(targetAlias, limit, lastUserAlias);
+    }
+
+    @Override
+    public void putFollower(String followeeAlias, String followerAlias) throws DAOException {
+        addEdge(followeeAlias, followerAlias);
+    }
+
+    @Override
+    public boolean follow(String followeeAlias, String followerAlias) throws DAOException {
+        synchronized (edgeLock) {
+            if (!addEdge(followeeAlias, followerAlias)) return false;
+            userDAO.putFollowerCount(followeeAlias, 1);
+            userDAO.putFollowingCount(followerAlias, 1);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean unfollow(String followeeAlias, String followerAlias) throws DAOException {
+        synchronized (edgeLock) {
+            if (!removeEdge(followeeAlias, followerAlias)) return false;
+            userDAO.putFollowerCount(followeeAlias, -1);
+            userDAO.putFollowingCount(followerAlias, -1);
+            return true;
+        }
+    }
+
+    @Override
+    public void batchPutFollowers(String followeeAlias, List<String> followerAliases) throws DAOException {
+        for (String followerAlias : followerAliases) {
+            addEdge(followeeAlias, followerAlias);
+        }
+    }
+
+    @Override
+    public void deleteFollower(String followeeAlias, String followerAlias) throws DAOException {
+        removeEdge(followeeAlias, followerAlias);
+    }
+
+    @Override
+    public boolean isFollower(String followeeAlias, String followerAlias) throws DAOException {
+        return graph.isFollower(followeeAlias, followerAlias);
+    }
+
+    private boolean addEdge(String followeeAlias, String followerAlias) throws DAOException {
+        try {
+            return graph.addEdge(followeeAlias, followerAlias);
+        } catch (IOException e) {
+            throw new DAOException(e.getMessage());
+        }
+    }
+
+    private boolean removeEdge(String followeeAlias, String followerAlias) throws DAOException {
+        try {
+            return graph.removeEdge(followeeAlias, followerAlias);
+        } catch (IOException e) {
+            throw new DAOException(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package edu.byu.cs.tweeter.server.dao.graph;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * A growable set of ints kept in a primitive array sorted by each value's key, so membership is
+ * a binary search and the set costs four bytes an element. A value's key must never change. Not
+ * thread safe; {@link FollowGraph} guards it.
+ */
+class IntSortedSet {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final IntFunction<String> keys;
+    private int[] values = EMPTY;
+    private int size;
+
+    /**
+     * @param keys the key of each value, which orders the set.
+     */
+    IntSortedSet(IntFunction<String> keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * @return true if the value was not already in the set.
+     */
+    boolean add(int value) {
+        int index = search(keys.apply(value));
+        if (index >= 0) return false;
+
+        int insertAt = -index - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, size + (size >> 1)));
+        }
+        System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+        values[insertAt] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * @return true if the value was in the set.
+     */
+    boolean remove(int value) {
+        int index = search(keys.apply(value));
+        if (index < 0) return false;
+
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    boolean contains(int value) {
+        return search(keys.apply(value)) >= 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return the index of the first value whose key is greater than the specified key, which
+     *          need not be the key of a value in the set.
+     */
+    int indexAfter(String key) {
+        int index = search(key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    // Like Arrays.binarySearch: the index of the key, or (-(insertion point) - 1) if it is absent
+    private int search(String key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = keys.apply(values[mid]).compareTo(key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+}
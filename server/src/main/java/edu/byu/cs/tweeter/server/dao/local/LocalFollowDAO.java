@@ -0,0 +1,118 @@
+package edu.byu.cs.tweeter.server.dao.local;
+
+import com.google.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.FollowDAO;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+
+/**
+ * A DAO for accessing 'follow' data from the local store. Followers and followees are paged in
+ * alias order, like the follows table and its index.
+ */
+public class LocalFollowDAO implements FollowDAO {
+
+    private final LocalStore store;
+    private final UserDAO userDAO;
+
+    // Makes an edge change and its count changes atomic, like the dynamodb transaction
+    private final Object edgeLock = new Object();
+
+    @Inject
+    public LocalFollowDAO(LocalStore store, LocalUserDAO userDAO) {
+        this.store = store;
+        this.userDAO = userDAO;
+    }
+
+    @Override
+    public List<String> getFollowers(String targetAlias, int limit, String lastUserAlias) throws DAOException {
+        return page(store.getData().followers, targetAlias, limit, lastUserAlias);
+    }
+
+    @Override
+    public List<String> getFollowees(String targetAlias, int limit, String lastUserAlias) throws DAOException {
+        return page(store.getData().followees, targetAlias, limit, lastUserAlias);
+    }
+
+    @Override
+    public void putFollower(String followeeAlias, String followerAlias) throws DAOException {
+        addEdge(followeeAlias, followerAlias);
+    }
+
+    @Override
+    public boolean follow(String followeeAlias, String followerAlias) throws DAOException {
+        synchronized (edgeLock) {
+            if (!addEdge(followeeAlias, followerAlias)) return false;
+            userDAO.putFollowerCount(followeeAlias, 1);
+            userDAO.putFollowingCount(followerAlias, 1);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean unfollow(String followeeAlias, String followerAlias) throws DAOException {
+        synchronized (edgeLock) {
+            if (!removeEdge(followeeAlias, followerAlias)) return false;
+            userDAO.putFollowerCount(followeeAlias, -1);
+            userDAO.putFollowingCount(followerAlias, -1);
+            return true;
+        }
+    }
+
+    @Override
+    public void batchPutFollowers(String followeeAlias, List<String> followerAliases) throws DAOException {
+        for (String followerAlias : followerAliases) {
+            addEdge(followeeAlias, followerAlias);
+        }
+    }
+
+    @Override
+    public void deleteFollower(String followeeAlias, String followerAlias) throws DAOException {
+        removeEdge(followeeAlias, followerAlias);
+    }
+
+    @Override
+    public boolean isFollower(String followeeAlias, String followerAlias) throws DAOException {
+        NavigableSet<String> followers = store.getData().followers.get(followeeAlias);
+        return followers != null && followers.contains(followerAlias);
+    }
+
+    private boolean addEdge(String followeeAlias, String followerAlias) {
+        boolean added = store.getData().followers
+                .computeIfAbsent(followeeAlias, alias -> new ConcurrentSkipListSet<>()).add(followerAlias);
+        store.getData().followees
+                .computeIfAbsent(followerAlias, alias -> new ConcurrentSkipListSet<>()).add(followeeAlias);
+        store.markDirty();
+        return added;
+    }
+
+    private boolean removeEdge(String followeeAlias, String followerAlias) {
+        NavigableSet<String> followers = store.getData().followers.get(followeeAlias);
+        NavigableSet<String> followees = store.getData().followees.get(followerAlias);
+        boolean removed = followers != null && followers.remove(followerAlias);
+        if (followees != null) followees.remove(followeeAlias);
+        store.markDirty();
+        return removed;
+    }
+
+    private List<String> page(ConcurrentHashMap<String, ConcurrentSkipListSet<String>> edges, String alias,
+                              int limit, String lastAlias) {
+        NavigableSet<String> aliases = edges.get(alias);
+        if (aliases == null) return Collections.emptyList();
+        if (lastAlias != null) aliases = aliases.tailSet(lastAlias, false);
+
+        List<String> page = new ArrayList<>();
+        for (String next : aliases) {
+            if (page.size() == limit) break;
+            page.add(next);
+        }
+        return page;
+    }
+}
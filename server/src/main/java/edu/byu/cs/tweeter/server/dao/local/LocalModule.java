@@ -0,0 +1,76 @@
+package edu.byu.cs.tweeter.server.dao.local;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+import edu.byu.cs.tweeter.server.dao.FollowDAO;
+import edu.byu.cs.tweeter.server.dao.StatusDAO;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.dao.dynamo.AwsClientFactory;
+import edu.byu.cs.tweeter.server.dao.graph.FollowGraph;
+import edu.byu.cs.tweeter.server.dao.graph.GraphFollowDAO;
+import edu.byu.cs.tweeter.server.metrics.DAOTimingInterceptor;
+
+/**
+ * Bind the DAO interface classes with their local store implementation classes, so the server
+ * can run without DynamoDB or S3. Statuses are still fanned out through SQS, unless LOCAL_QUEUES
+ * is true, in which case the queues are held in memory by {@link LocalSQS}. When
+ * LOCAL_FOLLOW_GRAPH is true, follow relationships are kept in a follow graph instead of the
+ * store.
+ */
+public class LocalModule extends AbstractModule {
+    @Override
+    public void configure() {
+        bindInterceptor(DAOTimingInterceptor.daoClasses(), DAOTimingInterceptor.daoMethods(), new DAOTimingInterceptor());
+
+        bind(LocalStore.class).in(Singleton.class);
+        bind(AwsClientFactory.class).in(Singleton.class);
+        bind(LocalSQS.class).in(Singleton.class);
+
+        bind(LocalUserDAO.class).in(Singleton.class);
+        if (ServerConfig.getBoolean("LOCAL_FOLLOW_GRAPH", false)) {
+            bind(FollowDAO.class).to(GraphFollowDAO.class).in(Singleton.class);
+        } else {
+            bind(FollowDAO.class).to(LocalFollowDAO.class).in(Singleton.class);
+        }
+        bind(StatusDAO.class).to(LocalStatusDAO.class).in(Singleton.class);
+        bind(UserDAO.class).to(LocalUserDAO.class);
+    }
+
+    @Provides
+    @Singleton
+    AmazonSQS provideSQS(AwsClientFactory factory, LocalSQS localSQS) {
+        return ServerConfig.getBoolean("LOCAL_QUEUES", false) ? localSQS : factory.createSQS();
+    }
+
+    /**
+     * Opens the follow graph next to the store. A new graph starts with the relationships
+     * already in the store.
+     */
+    @Provides
+    @Singleton
+    FollowGraph provideFollowGraph(LocalStore store) {
+        try {
+            FollowGraph graph = FollowGraph.open(new File(store.getDirectory(), "follow-graph"));
+            if (graph.isEmpty()) {
+                for (Map.Entry<String, ? extends Set<String>> entry : store.getData().followers.entrySet()) {
+                    for (String followerAlias : entry.getValue()) {
+                        graph.addEdge(entry.getKey(), followerAlias);
+                    }
+                }
+            }
+            graph.snapshotEvery(ServerConfig.getLong("FOLLOW_GRAPH_SNAPSHOT_MILLIS", 60_000));
+            return graph;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to open follow graph: " + e.getMessage(), e);
+        }
+    }
+}
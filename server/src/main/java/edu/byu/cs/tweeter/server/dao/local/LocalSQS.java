@@ -0,0 +1,109 @@
+package edu.byu.cs.tweeter.server.dao.local;
+
+import com.amazonaws.services.sqs.AbstractAmazonSQS;
+import com.amazonaws.services.sqs.model.DeleteMessageRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageResult;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+import com.amazonaws.services.sqs.model.ReceiveMessageResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchResultEntry;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
+import com.amazonaws.services.sqs.model.SendMessageResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-memory stand-in for SQS, so statuses can be fanned out without AWS. Queues are created
+ * the first time a message is sent to their URL. A received message is removed from its queue
+ * straight away rather than hidden until it is deleted, so a consumer that fails must send the
+ * message again itself.
+ */
+public class LocalSQS extends AbstractAmazonSQS {
+
+    private final Map<String, BlockingQueue<Message>> queues = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> sent = new ConcurrentHashMap<>();
+
+    @Override
+    public SendMessageResult sendMessage(SendMessageRequest request) {
+        Message message = enqueue(request.getQueueUrl(), request.getMessageBody());
+        return new SendMessageResult().withMessageId(message.getMessageId());
+    }
+
+    @Override
+    public SendMessageBatchResult sendMessageBatch(SendMessageBatchRequest request) {
+        List<SendMessageBatchResultEntry> successful = new ArrayList<>();
+        for (SendMessageBatchRequestEntry entry : request.getEntries()) {
+            Message message = enqueue(request.getQueueUrl(), entry.getMessageBody());
+            successful.add(new SendMessageBatchResultEntry().withId(entry.getId()).withMessageId(message.getMessageId()));
+        }
+        return new SendMessageBatchResult().withSuccessful(successful).withFailed(new ArrayList<>());
+    }
+
+    /**
+     * Receives up to the requested number of messages (one by default, at most ten), waiting up
+     * to the request's wait time for the first one.
+     */
+    @Override
+    public ReceiveMessageResult receiveMessage(ReceiveMessageRequest request) {
+        BlockingQueue<Message> queue = getQueue(request.getQueueUrl());
+        int max = request.getMaxNumberOfMessages() != null ? Math.min(10, request.getMaxNumberOfMessages()) : 1;
+        int waitSeconds = request.getWaitTimeSeconds() != null ? request.getWaitTimeSeconds() : 0;
+
+        List<Message> messages = new ArrayList<>();
+        try {
+            Message first = queue.poll(waitSeconds, TimeUnit.SECONDS);
+            if (first != null) {
+                messages.add(first);
+                queue.drainTo(messages, max - 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new ReceiveMessageResult().withMessages(messages);
+    }
+
+    /**
+     * Does nothing, since messages are removed when they are received.
+     */
+    @Override
+    public DeleteMessageResult deleteMessage(DeleteMessageRequest request) {
+        return new DeleteMessageResult();
+    }
+
+    /**
+     * @return the number of messages waiting in the queue.
+     */
+    public int getQueueSize(String queueUrl) {
+        return getQueue(queueUrl).size();
+    }
+
+    /**
+     * @return the number of messages ever sent to the queue.
+     */
+    public long getMessagesSent(String queueUrl) {
+        AtomicLong count = sent.get(queueUrl);
+        return count == null ? 0 : count.get();
+    }
+
+    private Message enqueue(String queueUrl, String body) {
+        Message message = new Message().withMessageId(UUID.randomUUID().toString()).withBody(body);
+        getQueue(queueUrl).add(message);
+        sent.computeIfAbsent(queueUrl, url -> new AtomicLong()).incrementAndGet();
+        return message;
+    }
+
+    private BlockingQueue<Message> getQueue(String queueUrl) {
+        return queues.computeIfAbsent(queueUrl, url -> new LinkedBlockingQueue<>());
+    }
+}
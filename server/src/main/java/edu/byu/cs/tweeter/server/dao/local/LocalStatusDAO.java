@@ -0,0 +1,159 @@
+package edu.byu.cs.tweeter.server.dao.local;
+
+import com.google.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.StatusDAO;
+import edu.byu.cs.tweeter.server.dao.model.DBFeedEntry;
+import edu.byu.cs.tweeter.server.dao.model.DBStatus;
+import edu.byu.cs.tweeter.server.service.Service;
+
+/**
+ * A DAO for accessing 'status' data from the local store. Stories and feeds are paged newest
+ * first by status ID, like the story and feed tables.
+ */
+public class LocalStatusDAO implements StatusDAO {
+
+    private final LocalStore store;
+
+    @Inject
+    public LocalStatusDAO(LocalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<DBStatus> getStory(String alias, int limit, Status lastStatus) throws DAOException {
+        List<DBStatus> dbStatuses = new ArrayList<>();
+        NavigableMap<String, LocalStore.StoryRecord> story = store.getData().stories.get(alias);
+        if (story == null) return dbStatuses;
+
+        NavigableMap<String, LocalStore.StoryRecord> newestFirst = story.descendingMap();
+        if (lastStatus != null) newestFirst = newestFirst.tailMap(lastStatus.getID(), false);
+        for (Map.Entry<String, LocalStore.StoryRecord> entry : newestFirst.entrySet()) {
+            if (dbStatuses.size() == limit) break;
+            dbStatuses.add(toDBStatus(alias, entry.getKey(), entry.getValue()));
+        }
+        return dbStatuses;
+    }
+
+    @Override
+    public List<DBStatus> getFeed(List<String> aliases) throws DAOException {
+        List<DBStatus> dbStatuses = new ArrayList<>();
+        for (int i = 0; i + 1 < aliases.size(); i += 2) {
+            NavigableMap<String, LocalStore.StoryRecord> story = store.getData().stories.get(aliases.get(i));
+            LocalStore.StoryRecord record = story != null ? story.get(aliases.get(i + 1)) : null;
+            if (record != null) dbStatuses.add(toDBStatus(aliases.get(i), aliases.get(i + 1), record));
+        }
+        return dbStatuses;
+    }
+
+    @Override
+    public void postStatusToStory(String posterAlias, String post, String mentions, String urls,
+                                  String datetime, String statusID) throws DAOException {
+        store.getData().stories.computeIfAbsent(posterAlias, alias -> new ConcurrentSkipListMap<>())
+                .put(statusID, new LocalStore.StoryRecord(post, mentions, urls, datetime));
+        store.markDirty();
+    }
+
+    @Override
+    public void postStatusToFeeds(String statusID, List<String> followerAliases, String posterAlias) throws DAOException {
+        for (String follower : followerAliases) {
+            getFeedRows(follower).put(statusID, new LocalStore.FeedRecord(posterAlias, null));
+        }
+        store.markDirty();
+    }
+
+    @Override
+    public void postStatusToFeeds(Status status, List<String> followerAliases) throws DAOException {
+        Status copy = copy(status);
+        for (String follower : followerAliases) {
+            getFeedRows(follower).put(status.getID(), new LocalStore.FeedRecord(status.getUser().getAlias(), copy));
+        }
+        store.markDirty();
+    }
+
+    @Override
+    public List<String> getFeedAliases(String alias, int limit, String lastStatusID) throws DAOException {
+        List<String> aliases = new ArrayList<>();
+        for (Map.Entry<String, LocalStore.FeedRecord> entry : feedPage(alias, lastStatusID).entrySet()) {
+            if (aliases.size() == limit * 2) break;
+            aliases.add(entry.getValue().posterAlias);
+            aliases.add(entry.getKey());
+        }
+        return aliases;
+    }
+
+    @Override
+    public List<DBStatus> getFeedPage(String alias, int limit, String lastStatusID) throws DAOException {
+        List<DBStatus> dbStatuses = new ArrayList<>();
+        for (Map.Entry<String, LocalStore.FeedRecord> entry : feedPage(alias, lastStatusID).entrySet()) {
+            if (dbStatuses.size() == limit) break;
+            LocalStore.FeedRecord record = entry.getValue();
+            Status status = record.status != null ? copy(record.status)
+                    : new Status(null, null, null, null, null, entry.getKey());
+            dbStatuses.add(new DBStatus(status, record.posterAlias));
+        }
+        return dbStatuses;
+    }
+
+    @Override
+    public List<DBFeedEntry> scanFeedEntries(int limit, DBFeedEntry lastEntry) throws DAOException {
+        List<DBFeedEntry> entries = new ArrayList<>();
+        NavigableMap<String, ConcurrentSkipListMap<String, LocalStore.FeedRecord>> feeds = store.getData().feeds;
+        if (lastEntry != null) feeds = feeds.tailMap(lastEntry.getAlias(), true);
+
+        for (Map.Entry<String, ConcurrentSkipListMap<String, LocalStore.FeedRecord>> feed : feeds.entrySet()) {
+            NavigableMap<String, LocalStore.FeedRecord> rows = feed.getValue();
+            if (lastEntry != null && feed.getKey().equals(lastEntry.getAlias())) {
+                rows = rows.tailMap(lastEntry.getStatusID(), false);
+            }
+            for (Map.Entry<String, LocalStore.FeedRecord> row : rows.entrySet()) {
+                if (entries.size() == limit) return entries;
+                entries.add(new DBFeedEntry(feed.getKey(), row.getKey(), row.getValue().posterAlias,
+                        row.getValue().status != null));
+            }
+        }
+        return entries;
+    }
+
+    private ConcurrentSkipListMap<String, LocalStore.FeedRecord> getFeedRows(String alias) {
+        return store.getData().feeds.computeIfAbsent(alias, key -> new ConcurrentSkipListMap<>());
+    }
+
+    private NavigableMap<String, LocalStore.FeedRecord> feedPage(String alias, String lastStatusID) {
+        ConcurrentSkipListMap<String, LocalStore.FeedRecord> rows = store.getData().feeds.get(alias);
+        if (rows == null) return new ConcurrentSkipListMap<>();
+        NavigableMap<String, LocalStore.FeedRecord> newestFirst = rows.descendingMap();
+        return lastStatusID != null ? newestFirst.tailMap(lastStatusID, false) : newestFirst;
+    }
+
+    private DBStatus toDBStatus(String alias, String statusID, LocalStore.StoryRecord record) {
+        return new DBStatus(new Status(
+                record.post,
+                null,
+                record.datetime,
+                Service.serializeToList(record.urls),
+                Service.serializeToList(record.mentions),
+                statusID
+        ), alias);
+    }
+
+    /**
+     * Copies a stored status, so callers setting fields on it do not change the store.
+     */
+    private Status copy(Status status) {
+        User poster = status.getUser();
+        return new Status(status.getPost(),
+                new User(poster.getFirstName(), poster.getLastName(), poster.getAlias(), poster.getImageUrl()),
+                status.getDatetime(), new ArrayList<>(status.getUrls()), new ArrayList<>(status.getMentions()),
+                status.getID());
+    }
+}
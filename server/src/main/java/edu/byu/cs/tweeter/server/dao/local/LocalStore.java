@@ -0,0 +1,189 @@
+package edu.byu.cs.tweeter.server.dao.local;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.inject.Inject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+import edu.byu.cs.tweeter.server.metrics.Log;
+
+/**
+ * Holds every table of the local storage backend in memory and persists them as one JSON file
+ * in LOCAL_STORE_DIR. Changes are written behind, at most every LOCAL_STORE_FLUSH_MILLIS and
+ * when the JVM exits, so a crash can lose the last moments of writes. The file is replaced
+ * atomically, so it is never left half written.
+ */
+public class LocalStore {
+
+    private static final String FILE_NAME = "tweeter-store.json";
+
+    private final Gson gson = new Gson();
+    private final File directory;
+    private final Path file;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final Data data;
+
+    @Inject
+    public LocalStore() {
+        this(new File(ServerConfig.getString("LOCAL_STORE_DIR",
+                new File(System.getProperty("java.io.tmpdir"), "tweeter-local").getPath())));
+
+        long flushMillis = ServerConfig.getLong("LOCAL_STORE_FLUSH_MILLIS", 1_000);
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "local-store-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushQuietly, "local-store-shutdown"));
+    }
+
+    /**
+     * Opens the store in the directory without flushing in the background. Call {@link #flush()}
+     * to persist changes.
+     *
+     * @param directory the directory holding the store.
+     */
+    public LocalStore(File directory) {
+        this.directory = directory;
+        this.file = new File(directory, FILE_NAME).toPath();
+        this.data = load();
+    }
+
+    public File getDirectory() { return directory; }
+
+    Data getData() { return data; }
+
+    /**
+     * Records that the data has changed and needs to be written.
+     */
+    void markDirty() {
+        dirty.set(true);
+    }
+
+    /**
+     * Writes the data to disk if it has changed since it was last written.
+     *
+     * @throws IOException if the data could not be written.
+     */
+    public synchronized void flush() throws IOException {
+        if (!dirty.getAndSet(false)) return;
+
+        Files.createDirectories(directory.toPath());
+        Path temp = Files.createTempFile(directory.toPath(), FILE_NAME, ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                gson.toJson(data, writer);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            dirty.set(true);
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            Log.warn("Unable to write local store: " + e.getMessage());
+        }
+    }
+
+    private Data load() {
+        if (!Files.exists(file)) return new Data();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Data loaded = gson.fromJson(reader, Data.class);
+            Log.info("Loaded local store from " + file);
+            return loaded != null ? loaded : new Data();
+        } catch (IOException | JsonParseException e) {
+            throw new IllegalStateException("Unable to read local store " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Every table in the store. The sorted maps and sets give the same orderings as the range
+     * keys of the matching dynamodb tables.
+     */
+    static class Data {
+        final ConcurrentHashMap<String, UserRecord> users = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, Long> authTokens = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, Long> revokedAuthTokens = new ConcurrentHashMap<>();
+
+        // followee alias -> follower aliases, and the reverse
+        final ConcurrentHashMap<String, ConcurrentSkipListSet<String>> followers = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, ConcurrentSkipListSet<String>> followees = new ConcurrentHashMap<>();
+
+        // poster alias -> status ID -> status
+        final ConcurrentHashMap<String, ConcurrentSkipListMap<String, StoryRecord>> stories = new ConcurrentHashMap<>();
+
+        // feed owner alias -> status ID -> feed row, sorted by owner so feeds can be scanned
+        final ConcurrentSkipListMap<String, ConcurrentSkipListMap<String, FeedRecord>> feeds = new ConcurrentSkipListMap<>();
+    }
+
+    static class UserRecord {
+        String firstName;
+        String lastName;
+        String imageUrl;
+        String hashedPassword;
+        String salt;
+        int numFollowers;
+        int numFollowing;
+        boolean pullFeed;
+
+        UserRecord(String firstName, String lastName, String imageUrl, String hashedPassword, String salt,
+                   int numFollowers, int numFollowing) {
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.imageUrl = imageUrl;
+            this.hashedPassword = hashedPassword;
+            this.salt = salt;
+            this.numFollowers = numFollowers;
+            this.numFollowing = numFollowing;
+        }
+    }
+
+    static class StoryRecord {
+        String post;
+        String mentions;
+        String urls;
+        String datetime;
+
+        StoryRecord(String post, String mentions, String urls, String datetime) {
+            this.post = post;
+            this.mentions = mentions;
+            this.urls = urls;
+            this.datetime = datetime;
+        }
+    }
+
+    static class FeedRecord {
+        String posterAlias;
+
+        // A copy of the status and its poster, or null if the row only references it
+        Status status;
+
+        FeedRecord(String posterAlias, Status status) {
+            this.posterAlias = posterAlias;
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package edu.byu.cs.tweeter.server.dao.local;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.google.inject.Inject;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.dao.model.DBCounts;
+import edu.byu.cs.tweeter.server.dao.model.DBUser;
+
+/**
+ * A DAO for accessing 'user' data from the local store.
+ */
+public class LocalUserDAO implements UserDAO {
+
+    private static final int AUTH_TOKEN_TIMEOUT_MINUTES = 5;
+
+    private final LocalStore store;
+
+    @Inject
+    public LocalUserDAO(LocalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public DBUser getUser(String alias) throws DAOException {
+        LocalStore.UserRecord record = store.getData().users.get(alias);
+        if (record == null) return null;
+        return new DBUser(toUser(alias, record), record.hashedPassword, record.salt);
+    }
+
+    @Override
+    public boolean isRegistered(String alias) throws DAOException {
+        return store.getData().users.containsKey(alias);
+    }
+
+    @Override
+    public List<User> batchGetUsers(List<String> aliases) throws DAOException {
+        Set<User> sortedUsers = new TreeSet<>();
+        for (String alias : aliases) {
+            LocalStore.UserRecord record = store.getData().users.get(alias);
+            if (record != null) sortedUsers.add(toUser(alias, record));
+        }
+        return new ArrayList<>(sortedUsers);
+    }
+
+    @Override
+    public void addUser(String alias, String hashedPassword, String salt, String firstName,
+                        String lastName, String imageURL, int numFollowers, int numFollowing)
+            throws DAOException {
+        store.getData().users.put(alias,
+                new LocalStore.UserRecord(firstName, lastName, imageURL, hashedPassword, salt, numFollowers, numFollowing));
+        store.markDirty();
+    }
+
+    @Override
+    public void batchAddUsers(List<DBUser> users) throws DAOException {
+        for (DBUser userData : users) {
+            User user = userData.getUser();
+            store.getData().users.put(user.getAlias(), new LocalStore.UserRecord(user.getFirstName(),
+                    user.getLastName(), user.getImageUrl(), userData.getHashedPassword(), userData.getSalt(),
+                    userData.getNumFollowers(), userData.getNumFollowing()));
+        }
+        store.markDirty();
+    }
+
+    @Override
+    public void putAuthToken(AuthToken authToken) throws DAOException {
+        store.getData().authTokens.put(authToken.getToken(), authToken.getDatetime());
+        store.markDirty();
+    }
+
+    @Override
+    public void deleteAuthToken(AuthToken authToken) throws DAOException {
+        store.getData().authTokens.remove(authToken.getToken());
+        store.markDirty();
+    }
+
+    @Override
+    public void revokeAuthToken(String tokenID, long expiresAt) throws DAOException {
+        store.getData().revokedAuthTokens.put(tokenID, expiresAt);
+        store.markDirty();
+    }
+
+    @Override
+    public List<String> getRevokedAuthTokens(long currentDatetime) throws DAOException {
+        List<String> tokenIDs = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : store.getData().revokedAuthTokens.entrySet()) {
+            if (entry.getValue() > currentDatetime) tokenIDs.add(entry.getKey());
+        }
+        return tokenIDs;
+    }
+
+    /**
+     * Stores the image in the images directory of the local store.
+     *
+     * @return a file URL for the image.
+     */
+    @Override
+    public String uploadImage(ByteArrayInputStream image, String alias, ObjectMetadata metadata) throws DAOException {
+        File images = new File(store.getDirectory(), "images");
+        File imageFile = new File(images, alias + ".png");
+        try {
+            Files.createDirectories(images.toPath());
+            Files.copy(image, imageFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new DAOException(e.getMessage());
+        }
+        return imageFile.toURI().toString();
+    }
+
+    @Override
+    public boolean authenticate(AuthToken token, long currentDatetime) throws DAOException {
+        Long datetime = store.getData().authTokens.get(token.getToken());
+        if (datetime == null) return false;
+
+        long diffInMillis = currentDatetime - datetime;
+        if (TimeUnit.MINUTES.convert(diffInMillis, TimeUnit.MILLISECONDS) > AUTH_TOKEN_TIMEOUT_MINUTES) return false;
+
+        store.getData().authTokens.merge(token.getToken(), currentDatetime, Math::max);
+        store.markDirty();
+        return true;
+    }
+
+    @Override
+    public int getFollowersCount(String alias) throws DAOException {
+        LocalStore.UserRecord record = store.getData().users.get(alias);
+        if (record == null) return -1;
+        synchronized (record) {
+            return record.numFollowers;
+        }
+    }
+
+    @Override
+    public int getFollowingCount(String alias) throws DAOException {
+        LocalStore.UserRecord record = store.getData().users.get(alias);
+        if (record == null) return -1;
+        synchronized (record) {
+            return record.numFollowing;
+        }
+    }
+
+    @Override
+    public DBCounts getCounts(String alias) throws DAOException {
+        LocalStore.UserRecord record = store.getData().users.get(alias);
+        if (record == null) return null;
+        synchronized (record) {
+            return new DBCounts(record.numFollowers, record.numFollowing);
+        }
+    }
+
+    @Override
+    public List<String> filterPullFeeds(List<String> aliases) throws DAOException {
+        List<String> filtered = new ArrayList<>();
+        for (String alias : aliases) {
+            LocalStore.UserRecord record = store.getData().users.get(alias);
+            if (record == null) continue;
+            synchronized (record) {
+                if (record.pullFeed) filtered.add(alias);
+            }
+        }
+        return filtered;
+    }
+
+    @Override
+    public void markPullFeed(String alias) throws DAOException {
+        LocalStore.UserRecord record = getRecord(alias);
+        synchronized (record) {
+            record.pullFeed = true;
+        }
+        store.markDirty();
+    }
+
+    @Override
+    public void putFollowerCount(String alias, int value) throws DAOException {
+        LocalStore.UserRecord record = getRecord(alias);
+        synchronized (record) {
+            record.numFollowers += value;
+        }
+        store.markDirty();
+    }
+
+    @Override
+    public void putFollowingCount(String alias, int value) throws DAOException {
+        LocalStore.UserRecord record = getRecord(alias);
+        synchronized (record) {
+            record.numFollowing += value;
+        }
+        store.markDirty();
+    }
+
+    private LocalStore.UserRecord getRecord(String alias) throws DAOException {
+        LocalStore.UserRecord record = store.getData().users.get(alias);
+        if (record == null) throw new DAOException("No user with alias " + alias);
+        return record;
+    }
+
+    private User toUser(String alias, LocalStore.UserRecord record) {
+        return new User(record.firstName, record.lastName, alias, record.imageUrl);
+    }
+}
@@ -0,0 +1,30 @@
+package edu.byu.cs.tweeter.server.dao.model;
+
+/**
+ * Represents a user's follower and following counts, as read together from the database.
+ */
+public class DBCounts {
+
+    /**
+     * The number of users following the user.
+     */
+    private final int followers;
+
+    /**
+     * The number of users the user is following.
+     */
+    private final int following;
+
+    public DBCounts(int followers, int following) {
+        this.followers = followers;
+        this.following = following;
+    }
+
+    public int getFollowers() {
+        return followers;
+    }
+
+    public int getFollowing() {
+        return following;
+    }
+}
@@ -0,0 +1,50 @@
+package edu.byu.cs.tweeter.server.dao.model;
+
+/**
+ * Represents a row of a user's feed in the database.
+ */
+public class DBFeedEntry {
+
+    /**
+     * The alias of the user whose feed the row belongs to.
+     */
+    private final String alias;
+
+    /**
+     * The ID of the status.
+     */
+    private final String statusID;
+
+    /**
+     * The alias of the user who posted the status.
+     */
+    private final String posterAlias;
+
+    /**
+     * Whether the row carries a copy of the status and poster, or only references them.
+     */
+    private final boolean denormalized;
+
+    public DBFeedEntry(String alias, String statusID, String posterAlias, boolean denormalized) {
+        this.alias = alias;
+        this.statusID = statusID;
+        this.posterAlias = posterAlias;
+        this.denormalized = denormalized;
+    }
+
+    public String getAlias() {
+        return alias;
+    }
+
+    public String getStatusID() {
+        return statusID;
+    }
+
+    public String getPosterAlias() {
+        return posterAlias;
+    }
+
+    public boolean isDenormalized() {
+        return denormalized;
+    }
+}
@@ -22,10 +22,25 @@ public class DBUser {
      */
     private final String salt;
 
+    /**
+     * The follower and following counts the user is stored with when added in bulk.
+     */
+    private final int numFollowers;
+    private final int numFollowing;
+
+    /**
+     * Creates a user who is added in bulk with no followers, following one user.
+     */
     public DBUser(User user, String hashedPassword, String salt) {
+        this(user, hashedPassword, salt, 0, 1);
+    }
+
+    public DBUser(User user, String hashedPassword, String salt, int numFollowers, int numFollowing) {
         this.user = user;
         this.hashedPassword = hashedPassword;
         this.salt = salt;
+        this.numFollowers = numFollowers;
+        this.numFollowing = numFollowing;
     }
 
     public User getUser() {
@@ -39,4 +54,12 @@ public class DBUser {
     public String getSalt() {
         return salt;
     }
+
+    public int getNumFollowers() {
+        return numFollowers;
+    }
+
+    public int getNumFollowing() {
+        return numFollowing;
+    }
 }
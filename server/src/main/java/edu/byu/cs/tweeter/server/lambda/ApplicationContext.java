@@ -0,0 +1,106 @@
+package edu.byu.cs.tweeter.server.lambda;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.Stage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+import edu.byu.cs.tweeter.server.dao.dynamo.DynamoModule;
+import edu.byu.cs.tweeter.server.dao.local.LocalModule;
+import edu.byu.cs.tweeter.server.metrics.Log;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
+
+/**
+ * Holds the service graph shared by every handler running in a lambda container. The injector
+ * (and with it the singleton DAOs and their AWS clients) is built the first time any handler
+ * asks for it and is reused by every warm invocation afterwards.
+ */
+public class ApplicationContext {
+
+    /**
+     * Lazily builds the context the first time it is referenced, on whichever thread gets there
+     * first. The JVM guarantees the initializer runs exactly once.
+     */
+    private static class Holder {
+        private static final ApplicationContext INSTANCE = new ApplicationContext();
+    }
+
+    /**
+     * The number of invocations each handler class has served in this container.
+     */
+    private static final Map<Class<?>, AtomicLong> invocations = new ConcurrentHashMap<>();
+
+    private final Injector injector;
+    private final long createdAt;
+    private final long startupNanos;
+
+    private ApplicationContext() {
+        long start = System.nanoTime();
+        // The production stage eagerly creates every singleton, so the clients are built here
+        // rather than on the first request that happens to touch them.
+        this.injector = Guice.createInjector(Stage.PRODUCTION, storageModule());
+        this.startupNanos = System.nanoTime() - start;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the module for the storage backend named by TWEETER_STORAGE: "dynamo" (the default)
+     * or "local", which keeps everything in a file on this machine.
+     *
+     * @return the module.
+     */
+    private static Module storageModule() {
+        String storage = ServerConfig.getString("TWEETER_STORAGE", "dynamo");
+        if ("local".equalsIgnoreCase(storage)) {
+            Log.info("[Startup] Using the local storage backend");
+            return new LocalModule();
+        }
+        return new DynamoModule();
+    }
+
+    /**
+     * Returns the context for the specified handler, building it if this is the first
+     * invocation in the container, and reports whether the invocation was a cold or warm start,
+     * both in the log and with the request's metrics.
+     *
+     * @param handler the class of the handler being invoked.
+     * @return the shared context.
+     */
+    public static ApplicationContext forHandler(Class<?> handler) {
+        long start = System.nanoTime();
+        ApplicationContext context = Holder.INSTANCE;
+        long elapsedNanos = System.nanoTime() - start;
+
+        long count = invocations.computeIfAbsent(handler, key -> new AtomicLong()).incrementAndGet();
+        RequestMetrics.property("ColdStart", count == 1);
+        if (count == 1) {
+            Log.info("[Startup] %s cold start: context ready in %.2f ms (injector built in %.2f ms)",
+                    handler.getSimpleName(), toMillis(elapsedNanos), toMillis(context.startupNanos));
+        } else {
+            Log.info("[Startup] %s warm start #%d: context ready in %.2f ms (container age %d s)",
+                    handler.getSimpleName(), count, toMillis(elapsedNanos),
+                    TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - context.createdAt));
+        }
+        return context;
+    }
+
+    /**
+     * Gets an instance of the specified type from the shared injector.
+     *
+     * @param type the class of the instance to be returned.
+     * @return the instance.
+     */
+    public <T> T getInstance(Class<T> type) {
+        return injector.getInstance(type);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,24 @@
+package edu.byu.cs.tweeter.server.lambda;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
+import edu.byu.cs.tweeter.server.service.FeedService;
+import edu.byu.cs.tweeter.server.service.backfill.BackfillFeedsRequest;
+import edu.byu.cs.tweeter.server.service.backfill.BackfillFeedsResult;
+
+/**
+ * An AWS lambda function that copies statuses into feed rows written before feeds were
+ * denormalized. Invoke it with its own result until the result is done.
+ */
+public class BackfillFeedsHandler implements RequestHandler<BackfillFeedsRequest, BackfillFeedsResult> {
+    @Override
+    public BackfillFeedsResult handleRequest(BackfillFeedsRequest request, Context context) {
+        return RequestMetrics.measure("BackfillFeeds", () -> {
+            ApplicationContext appContext = ApplicationContext.forHandler(BackfillFeedsHandler.class);
+            FeedService feedService = appContext.getInstance(FeedService.class);
+            return feedService.backfillFeeds(request);
+        });
+    }
+}
@@ -0,0 +1,20 @@
+package edu.byu.cs.tweeter.server.lambda;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+
+import edu.byu.cs.tweeter.model.net.request.BatchRequest;
+import edu.byu.cs.tweeter.model.net.response.BatchResponse;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
+import edu.byu.cs.tweeter.server.service.BatchService;
+
+public class BatchHandler implements RequestHandler<BatchRequest, BatchResponse> {
+    @Override
+    public BatchResponse handleRequest(BatchRequest request, Context context) {
+        return RequestMetrics.measure("Batch", () -> {
+            ApplicationContext appContext = ApplicationContext.forHandler(BatchHandler.class);
+            BatchService batchService = appContext.getInstance(BatchService.class);
+            return batchService.batch(request);
+        });
+    }
+}
@@ -2,19 +2,19 @@ package edu.byu.cs.tweeter.server.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import com.google.inject.Guice;
-import com.google.inject.Injector;
 
 import edu.byu.cs.tweeter.model.net.request.FollowRequest;
 import edu.byu.cs.tweeter.model.net.response.FollowResponse;
-import edu.byu.cs.tweeter.server.dao.dynamo.DynamoModule;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
 import edu.byu.cs.tweeter.server.service.FollowService;
 
 public class FollowHandler implements RequestHandler<FollowRequest, FollowResponse> {
     @Override
     public FollowResponse handleRequest(FollowRequest request, Context context) {
-        Injector injector = Guice.createInjector(new DynamoModule());
-        FollowService followService = injector.getInstance(FollowService.class);
-        return followService.follow(request);
+        return RequestMetrics.measure("Follow", () -> {
+            ApplicationContext appContext = ApplicationContext.forHandler(FollowHandler.class);
+            FollowService followService = appContext.getInstance(FollowService.class);
+            return followService.follow(request);
+        });
     }
 }
@@ -2,19 +2,19 @@ package edu.byu.cs.tweeter.server.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import com.google.inject.Guice;
-import com.google.inject.Injector;
 
 import edu.byu.cs.tweeter.model.net.request.GetFollowersRequest;
 import edu.byu.cs.tweeter.model.net.response.GetFollowersResponse;
-import edu.byu.cs.tweeter.server.dao.dynamo.DynamoModule;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
 import edu.byu.cs.tweeter.server.service.FollowService;
 
 public class GetFollowersHandler implements RequestHandler<GetFollowersRequest, GetFollowersResponse> {
     @Override
     public GetFollowersResponse handleRequest(GetFollowersRequest request, Context context) {
-        Injector injector = Guice.createInjector(new DynamoModule());
-        FollowService followService = injector.getInstance(FollowService.class);
-        return followService.getFollowers(request);
+        return RequestMetrics.measure("GetFollowers", () -> {
+            ApplicationContext appContext = ApplicationContext.forHandler(GetFollowersHandler.class);
+            FollowService followService = appContext.getInstance(FollowService.class);
+            return followService.getFollowers(request);
+        });
     }
 }
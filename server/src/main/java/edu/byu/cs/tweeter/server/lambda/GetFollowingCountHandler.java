@@ -2,19 +2,19 @@ package edu.byu.cs.tweeter.server.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import com.google.inject.Guice;
-import com.google.inject.Injector;
 
 import edu.byu.cs.tweeter.model.net.request.GetFollowingCountRequest;
 import edu.byu.cs.tweeter.model.net.response.GetFollowingCountResponse;
-import edu.byu.cs.tweeter.server.dao.dynamo.DynamoModule;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
 import edu.byu.cs.tweeter.server.service.UserService;
 
 public class GetFollowingCountHandler implements RequestHandler<GetFollowingCountRequest, GetFollowingCountResponse> {
     @Override
     public GetFollowingCountResponse handleRequest(GetFollowingCountRequest request, Context context) {
-        Injector injector = Guice.createInjector(new DynamoModule());
-        UserService userService = injector.getInstance(UserService.class);
-        return userService.getFollowingCount(request);
+        return RequestMetrics.measure("GetFollowingCount", () -> {
+            ApplicationContext appContext = ApplicationContext.forHandler(GetFollowingCountHandler.class);
+            UserService userService = appContext.getInstance(UserService.class);
+            return userService.getFollowingCount(request);
+        });
     }
 }
@@ -2,12 +2,10 @@ package edu.byu.cs.tweeter.server.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import com.google.inject.Guice;
-import com.google.inject.Injector;
 
 import edu.byu.cs.tweeter.model.net.request.GetFollowingRequest;
 import edu.byu.cs.tweeter.model.net.response.GetFollowingResponse;
-import edu.byu.cs.tweeter.server.dao.dynamo.DynamoModule;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
 import edu.byu.cs.tweeter.server.service.FollowService;
 
 /**
@@ -16,8 +14,10 @@ import edu.byu.cs.tweeter.server.service.FollowService;
 public class GetFollowingHandler implements RequestHandler<GetFollowingRequest, GetFollowingResponse> {
     @Override
     public GetFollowingResponse handleRequest(GetFollowingRequest request, Context context) {
-        Injector injector = Guice.createInjector(new DynamoModule());
-        FollowService followService = injector.getInstance(FollowService.class);
-        return followService.getFollowees(request);
+        return RequestMetrics.measure("GetFollowing", () -> {
+            ApplicationContext appContext = ApplicationContext.forHandler(GetFollowingHandler.class);
+            FollowService followService = appContext.getInstance(FollowService.class);
+            return followService.getFollowees(request);
+        });
     }
 }
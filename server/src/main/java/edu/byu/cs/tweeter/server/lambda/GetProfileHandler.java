@@ -0,0 +1,20 @@
+package edu.byu.cs.tweeter.server.lambda;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+
+import edu.byu.cs.tweeter.model.net.request.GetProfileRequest;
+import edu.byu.cs.tweeter.model.net.response.GetProfileResponse;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
+import edu.byu.cs.tweeter.server.service.ProfileService;
+
+public class GetProfileHandler implements RequestHandler<GetProfileRequest, GetProfileResponse> {
+    @Override
+    public GetProfileResponse handleRequest(GetProfileRequest request, Context context) {
+        return RequestMetrics.measure("GetProfile", () -> {
+            ApplicationContext appContext = ApplicationContext.forHandler(GetProfileHandler.class);
+            ProfileService profileService = appContext.getInstance(ProfileService.class);
+            return profileService.getProfile(request);
+        });
+    }
+}
@@ -2,19 +2,19 @@ package edu.byu.cs.tweeter.server.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import com.google.inject.Guice;
-import com.google.inject.Injector;
 
 import edu.byu.cs.tweeter.model.net.request.GetStoryRequest;
 import edu.byu.cs.tweeter.model.net.response.GetStoryResponse;
-import edu.byu.cs.tweeter.server.dao.dynamo.DynamoModule;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
 import edu.byu.cs.tweeter.server.service.StoryService;
 
 public class GetStoryHandler implements RequestHandler<GetStoryRequest, GetStoryResponse> {
     @Override
     public GetStoryResponse handleRequest(GetStoryRequest request, Context context) {
-        Injector injector = Guice.createInjector(new DynamoModule());
-        StoryService storyService = injector.getInstance(StoryService.class);
-        return storyService.getStory(request);
+        return RequestMetrics.measure("GetStory", () -> {
+            ApplicationContext appContext = ApplicationContext.forHandler(GetStoryHandler.class);
+            StoryService storyService = appContext.getInstance(StoryService.class);
+            return storyService.getStory(request);
+        });
     }
 }
@@ -2,19 +2,19 @@ package edu.byu.cs.tweeter.server.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import com.google.inject.Guice;
-import com.google.inject.Injector;
 
 import edu.byu.cs.tweeter.model.net.request.IsFollowerRequest;
 import edu.byu.cs.tweeter.model.net.response.IsFollowerResponse;
-import edu.byu.cs.tweeter.server.dao.dynamo.DynamoModule;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
 import edu.byu.cs.tweeter.server.service.FollowService;
 
 public class IsFollowerHandler implements RequestHandler<IsFollowerRequest, IsFollowerResponse> {
     @Override
     public IsFollowerResponse handleRequest(IsFollowerRequest request, Context context) {
-        Injector injector = Guice.createInjector(new DynamoModule());
-        FollowService followService = injector.getInstance(FollowService.class);
-        return followService.isFollower(request);
+        return RequestMetrics.measure("IsFollower", () -> {
+            ApplicationContext appContext = ApplicationContext.forHandler(IsFollowerHandler.class);
+            FollowService followService = appContext.getInstance(FollowService.class);
+            return followService.isFollower(request);
+        });
     }
 }
@@ -2,12 +2,10 @@ package edu.byu.cs.tweeter.server.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import com.google.inject.Guice;
-import com.google.inject.Injector;
 
 import edu.byu.cs.tweeter.model.net.request.LoginRequest;
 import edu.byu.cs.tweeter.model.net.response.LoginResponse;
-import edu.byu.cs.tweeter.server.dao.dynamo.DynamoModule;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
 import edu.byu.cs.tweeter.server.service.UserService;
 
 /**
@@ -17,8 +15,10 @@ import edu.byu.cs.tweeter.server.service.UserService;
 public class LoginHandler implements RequestHandler<LoginRequest, LoginResponse> {
     @Override
     public LoginResponse handleRequest(LoginRequest loginRequest, Context context) {
-        Injector injector = Guice.createInjector(new DynamoModule());
-        UserService userService = injector.getInstance(UserService.class);
-        return userService.login(loginRequest);
+        return RequestMetrics.measure("Login", () -> {
+            ApplicationContext appContext = ApplicationContext.forHandler(LoginHandler.class);
+            UserService userService = appContext.getInstance(UserService.class);
+            return userService.login(loginRequest);
+        });
     }
 }
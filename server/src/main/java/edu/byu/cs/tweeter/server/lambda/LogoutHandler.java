@@ -2,19 +2,19 @@ package edu.byu.cs.tweeter.server.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import com.google.inject.Guice;
-import com.google.inject.Injector;
 
 import edu.byu.cs.tweeter.model.net.request.LogoutRequest;
 import edu.byu.cs.tweeter.model.net.response.LogoutResponse;
-import edu.byu.cs.tweeter.server.dao.dynamo.DynamoModule;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
 import edu.byu.cs.tweeter.server.service.UserService;
 
 public class LogoutHandler implements RequestHandler<LogoutRequest, LogoutResponse> {
     @Override
     public LogoutResponse handleRequest(LogoutRequest request, Context context) {
-        Injector injector = Guice.createInjector(new DynamoModule());
-        UserService userService = injector.getInstance(UserService.class);
-        return userService.logout(request);
+        return RequestMetrics.measure("Logout", () -> {
+            ApplicationContext appContext = ApplicationContext.forHandler(LogoutHandler.class);
+            UserService userService = appContext.getInstance(UserService.class);
+            return userService.logout(request);
+        });
     }
 }
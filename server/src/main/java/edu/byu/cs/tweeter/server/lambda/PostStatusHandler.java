@@ -2,19 +2,19 @@ package edu.byu.cs.tweeter.server.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import com.google.inject.Guice;
-import com.google.inject.Injector;
 
 import edu.byu.cs.tweeter.model.net.request.PostStatusRequest;
 import edu.byu.cs.tweeter.model.net.response.PostStatusResponse;
-import edu.byu.cs.tweeter.server.dao.dynamo.DynamoModule;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
 import edu.byu.cs.tweeter.server.service.StatusService;
 
 public class PostStatusHandler implements RequestHandler<PostStatusRequest, PostStatusResponse> {
     @Override
     public PostStatusResponse handleRequest(PostStatusRequest request, Context context) {
-        Injector injector = Guice.createInjector(new DynamoModule());
-        StatusService statusService = injector.getInstance(StatusService.class);
-        return statusService.postStatus(request);
+        return RequestMetrics.measure("PostStatus", () -> {
+            ApplicationContext appContext = ApplicationContext.forHandler(PostStatusHandler.class);
+            StatusService statusService = appContext.getInstance(StatusService.class);
+            return statusService.postStatus(request);
+        });
     }
 }
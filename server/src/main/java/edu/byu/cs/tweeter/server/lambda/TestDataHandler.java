@@ -2,22 +2,21 @@ package edu.byu.cs.tweeter.server.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import com.google.inject.Guice;
-import com.google.inject.Injector;
 
-import edu.byu.cs.tweeter.server.dao.dynamo.DynamoModule;
-import edu.byu.cs.tweeter.server.service.FollowService;
-import edu.byu.cs.tweeter.server.service.UserService;
+import edu.byu.cs.tweeter.server.service.seed.BulkSeeder;
+import edu.byu.cs.tweeter.server.service.seed.SeedPlan;
 
-public class TestDataHandler implements RequestHandler<Void, Void> {
+/**
+ * An AWS lambda function that writes the test data described by the SEED_ settings (see
+ * {@link SeedPlan#fromConfig()}). Seeding again writes the same data. With SEED_CHECKPOINT_DIR
+ * set to /tmp, invoking it again after a failure or timeout skips the chunks already written, but
+ * only if the invocation lands in the same warm container; otherwise it starts over.
+ */
+public class TestDataHandler implements RequestHandler<Void, BulkSeeder.Report> {
     @Override
-    public Void handleRequest(Void input, Context context) {
-        Injector injector = Guice.createInjector(new DynamoModule());
-        UserService userService = injector.getInstance(UserService.class);
-        FollowService followService = injector.getInstance(FollowService.class);
-
-        userService.putTestUsers();
-        followService.followTestUser();
-        return null;
+    public BulkSeeder.Report handleRequest(Void input, Context context) {
+        ApplicationContext appContext = ApplicationContext.forHandler(TestDataHandler.class);
+        BulkSeeder seeder = appContext.getInstance(BulkSeeder.class);
+        return seeder.seed(SeedPlan.fromConfig());
     }
 }
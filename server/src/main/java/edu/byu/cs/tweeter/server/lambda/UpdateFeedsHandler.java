@@ -2,21 +2,64 @@ package edu.byu.cs.tweeter.server.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
-import com.google.inject.Guice;
-import com.google.inject.Injector;
 
-import edu.byu.cs.tweeter.server.dao.dynamo.DynamoModule;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+import edu.byu.cs.tweeter.server.metrics.Log;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
 import edu.byu.cs.tweeter.server.service.StatusService;
 
-public class UpdateFeedsHandler implements RequestHandler<SQSEvent, Void> {
+/**
+ * An AWS lambda function that writes a batch of update feed messages to the followers' feeds.
+ * The messages are processed concurrently, and only the ones that fail are reported back to SQS
+ * for redelivery. The event source mapping must have ReportBatchItemFailures enabled.
+ */
+public class UpdateFeedsHandler implements RequestHandler<SQSEvent, SQSBatchResponse> {
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(
+            ServerConfig.getInt("UPDATE_FEEDS_THREADS", 10), runnable -> {
+                Thread thread = new Thread(runnable, "update-feeds");
+                thread.setDaemon(true);
+                return thread;
+            });
+
     @Override
-    public Void handleRequest(SQSEvent event, Context context) {
-        Injector injector = Guice.createInjector(new DynamoModule());
-        StatusService statusService = injector.getInstance(StatusService.class);
-        for (SQSEvent.SQSMessage msg : event.getRecords()) {
-            statusService.updateFeeds(msg.getBody());
+    public SQSBatchResponse handleRequest(SQSEvent event, Context context) {
+        try (RequestMetrics metrics = RequestMetrics.begin("UpdateFeeds")) {
+            ApplicationContext appContext = ApplicationContext.forHandler(UpdateFeedsHandler.class);
+            StatusService statusService = appContext.getInstance(StatusService.class);
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (SQSEvent.SQSMessage msg : event.getRecords()) {
+                futures.add(executor.submit(RequestMetrics.wrap(() -> statusService.updateFeeds(msg.getBody()))));
+            }
+
+            List<SQSBatchResponse.BatchItemFailure> failures = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                SQSEvent.SQSMessage msg = event.getRecords().get(i);
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    Log.warn("Failed to process message %s: %s", msg.getMessageId(), e.getCause().getMessage());
+                    failures.add(new SQSBatchResponse.BatchItemFailure(msg.getMessageId()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failures.add(new SQSBatchResponse.BatchItemFailure(msg.getMessageId()));
+                }
+            }
+
+            Log.info("Processed %d update feed messages, %d failed", futures.size(), failures.size());
+            metrics.add("messages", futures.size());
+            metrics.add("failed-messages", failures.size());
+            return new SQSBatchResponse(failures);
         }
-        return null;
     }
 }
@@ -0,0 +1,136 @@
+package edu.byu.cs.tweeter.server.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Totals the DynamoDB capacity consumed by this container, per table and operation, along with
+ * the retries, throttles and unprocessed batch items that show where a table is short of
+ * capacity or has a hot partition. Each amount also counts towards the current request's
+ * {@link RequestMetrics}, so every request reports what it cost.
+ */
+public final class CapacityMetrics {
+
+    public static final String CONSUMED_RCU = "consumed-rcu";
+    public static final String CONSUMED_WCU = "consumed-wcu";
+    public static final String RETRIES = "dynamo-retries";
+    public static final String THROTTLES = "dynamo-throttles";
+    public static final String UNPROCESSED = "unprocessed-items";
+
+    private static final Map<String, Usage> usage = new ConcurrentHashMap<>();
+
+    private CapacityMetrics() {}
+
+    /**
+     * Records one call and the capacity it consumed.
+     *
+     * @param table the name of the table.
+     * @param operation the name of the operation, like Query or BatchWriteItem.
+     * @param readUnits the read capacity units consumed.
+     * @param writeUnits the write capacity units consumed.
+     */
+    public static void recordCall(String table, String operation, double readUnits, double writeUnits) {
+        Usage entry = get(table, operation);
+        entry.calls.incrementAndGet();
+        entry.readUnits.add(readUnits);
+        entry.writeUnits.add(writeUnits);
+        if (readUnits > 0) {
+            RequestMetrics.count(CONSUMED_RCU, readUnits);
+            RequestMetrics.count(CONSUMED_RCU + "." + table, readUnits);
+        }
+        if (writeUnits > 0) {
+            RequestMetrics.count(CONSUMED_WCU, writeUnits);
+            RequestMetrics.count(CONSUMED_WCU + "." + table, writeUnits);
+        }
+    }
+
+    /**
+     * Records calls that had to be made again, either by the SDK after an error or by a DAO for
+     * the unprocessed part of a batch.
+     */
+    public static void recordRetries(String table, String operation, int retries) {
+        get(table, operation).retries.addAndGet(retries);
+        RequestMetrics.count(RETRIES, retries);
+    }
+
+    /**
+     * Records a call DynamoDB refused because the table or one of its partitions was over its
+     * throughput.
+     */
+    public static void recordThrottle(String table, String operation) {
+        get(table, operation).throttles.incrementAndGet();
+        RequestMetrics.count(THROTTLES, 1);
+    }
+
+    /**
+     * Records items a batch call left unprocessed.
+     */
+    public static void recordUnprocessed(String table, String operation, int items) {
+        get(table, operation).unprocessed.addAndGet(items);
+        RequestMetrics.count(UNPROCESSED, items);
+    }
+
+    /**
+     * @return the totals of every table and operation since the container started or the totals
+     * were last reset, ordered by table and then operation.
+     */
+    public static List<Usage> getUsage() {
+        List<Usage> entries = new ArrayList<>(usage.values());
+        entries.sort(Comparator.comparing(Usage::getTable).thenComparing(Usage::getOperation));
+        return entries;
+    }
+
+    public static void reset() {
+        usage.clear();
+    }
+
+    private static Usage get(String table, String operation) {
+        return usage.computeIfAbsent(table + "/" + operation, key -> new Usage(table, operation));
+    }
+
+    /**
+     * The totals of one operation on one table.
+     */
+    public static class Usage {
+        private final String table;
+        private final String operation;
+        private final AtomicLong calls = new AtomicLong();
+        private final DoubleAdder readUnits = new DoubleAdder();
+        private final DoubleAdder writeUnits = new DoubleAdder();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong throttles = new AtomicLong();
+        private final AtomicLong unprocessed = new AtomicLong();
+
+        Usage(String table, String operation) {
+            this.table = table;
+            this.operation = operation;
+        }
+
+        public String getTable() { return table; }
+
+        public String getOperation() { return operation; }
+
+        public long getCalls() { return calls.get(); }
+
+        public double getReadUnits() { return readUnits.sum(); }
+
+        public double getWriteUnits() { return writeUnits.sum(); }
+
+        public long getRetries() { return retries.get(); }
+
+        public long getThrottles() { return throttles.get(); }
+
+        public long getUnprocessed() { return unprocessed.get(); }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s: %d calls, %.1f RCU, %.1f WCU, %d retries, %d throttles, %d unprocessed",
+                    table, operation, getCalls(), getReadUnits(), getWriteUnits(), getRetries(), getThrottles(), getUnprocessed());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package edu.byu.cs.tweeter.server.metrics;
+
+import com.google.inject.matcher.AbstractMatcher;
+import com.google.inject.matcher.Matcher;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+
+import edu.byu.cs.tweeter.server.dao.FollowDAO;
+import edu.byu.cs.tweeter.server.dao.StatusDAO;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+
+/**
+ * Times every call to a DAO interface method as a stage of the current request: batch-get for
+ * batched reads, query for other reads and write for everything else. A DAO that calls another
+ * DAO, like a cache in front of DynamoDB, is only timed once, at the outermost call.
+ */
+public class DAOTimingInterceptor implements MethodInterceptor {
+
+    private static final Class<?>[] DAO_INTERFACES = {UserDAO.class, FollowDAO.class, StatusDAO.class};
+
+    private static final ThreadLocal<Boolean> inCall = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * @return a matcher for the classes the interceptor applies to.
+     */
+    public static Matcher<Class<?>> daoClasses() {
+        return new AbstractMatcher<Class<?>>() {
+            @Override
+            public boolean matches(Class<?> type) {
+                for (Class<?> dao : DAO_INTERFACES) {
+                    if (dao.isAssignableFrom(type)) return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return a matcher for the DAO interface methods, leaving out the background variants,
+     * whose calls are timed when they run.
+     */
+    public static Matcher<Method> daoMethods() {
+        return new AbstractMatcher<Method>() {
+            @Override
+            public boolean matches(Method method) {
+                if (method.isSynthetic() || CompletableFuture.class.isAssignableFrom(method.getReturnType())) {
+                    return false;
+                }
+                for (Class<?> dao : DAO_INTERFACES) {
+                    try {
+                        dao.getMethod(method.getName(), method.getParameterTypes());
+                        return true;
+                    } catch (NoSuchMethodException e) {
+                        // Not declared by this interface
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (inCall.get() || RequestMetrics.current() == null) return invocation.proceed();
+
+        inCall.set(true);
+        RequestMetrics.Timer timer = RequestMetrics.time(stage(invocation.getMethod().getName()));
+        try {
+            RequestMetrics.count("dao-calls", 1);
+            return invocation.proceed();
+        } finally {
+            timer.close();
+            inCall.set(false);
+        }
+    }
+
+    static String stage(String methodName) {
+        if (methodName.startsWith("batchGet")) return RequestMetrics.BATCH_GET;
+        if (methodName.startsWith("get") || methodName.startsWith("is") || methodName.startsWith("scan")
+                || methodName.startsWith("filter") || methodName.equals("authenticate")) {
+            return RequestMetrics.QUERY;
+        }
+        return RequestMetrics.WRITE;
+    }
+}
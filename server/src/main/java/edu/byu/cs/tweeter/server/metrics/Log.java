@@ -0,0 +1,68 @@
+package edu.byu.cs.tweeter.server.metrics;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+
+/**
+ * Writes log lines to standard output, where lambda sends them to CloudWatch. Lines below
+ * LOG_LEVEL (DEBUG, INFO, WARN or ERROR; INFO by default) are dropped before they are
+ * formatted, so debug logging costs next to nothing when it is off.
+ */
+public final class Log {
+
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final Level LEVEL = parseLevel(ServerConfig.getString("LOG_LEVEL", "INFO"));
+
+    private Log() {}
+
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(LEVEL) >= 0;
+    }
+
+    /**
+     * @param format the message, or a {@link String#format} pattern if there are arguments.
+     * @param args the arguments for the pattern.
+     */
+    public static void debug(String format, Object... args) {
+        log(Level.DEBUG, format, args);
+    }
+
+    public static void info(String format, Object... args) {
+        log(Level.INFO, format, args);
+    }
+
+    public static void warn(String format, Object... args) {
+        log(Level.WARN, format, args);
+    }
+
+    public static void error(String format, Object... args) {
+        log(Level.ERROR, format, args);
+    }
+
+    /**
+     * Logs an error with the stack trace of its cause.
+     */
+    public static void error(String message, Throwable cause) {
+        if (!isEnabled(Level.ERROR)) return;
+        StringWriter trace = new StringWriter();
+        cause.printStackTrace(new PrintWriter(trace));
+        System.out.println("[ERROR] " + message + System.lineSeparator() + trace);
+    }
+
+    private static void log(Level level, String format, Object[] args) {
+        if (!isEnabled(level)) return;
+        String message = args.length == 0 ? format : String.format(format, args);
+        System.out.println("[" + level + "] " + message);
+    }
+
+    private static Level parseLevel(String name) {
+        try {
+            return Level.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package edu.byu.cs.tweeter.server.metrics;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Supplier;
+
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+
+/**
+ * Collects the timings and counts of one request and writes them as a single line of
+ * CloudWatch Embedded Metric Format JSON when the request ends, so CloudWatch turns them into
+ * metrics without any extra calls. The timings of a stage are kept, which gives CloudWatch the
+ * distribution for its percentiles. CloudWatch takes at most 100 values a metric, so a stage
+ * timed more often, as the DAO stages are over an SQS batch, keeps a uniform sample of 100 of its
+ * timings. Stages can overlap; a batch-get made while hydrating a feed counts towards both.
+ *
+ * The metrics of the request being handled are found through the current thread. Work handed to
+ * other threads must be wrapped with {@link #wrap(Callable)} to be counted. Nothing is recorded
+ * outside a request, and nothing is written if METRICS_ENABLED is false.
+ */
+public class RequestMetrics implements AutoCloseable {
+
+    public static final String AUTH = "auth";
+    public static final String QUERY = "query";
+    public static final String BATCH_GET = "batch-get";
+    public static final String WRITE = "write";
+    public static final String HYDRATE = "hydrate";
+    public static final String SERIALIZE = "serialize";
+
+    private static final String NAMESPACE = ServerConfig.getString("METRICS_NAMESPACE", "Tweeter");
+    private static final boolean ENABLED = ServerConfig.getBoolean("METRICS_ENABLED", true);
+
+    // The most values CloudWatch accepts for one metric in an EMF line
+    private static final int MAX_VALUES = 100;
+
+    private static final ThreadLocal<RequestMetrics> current = new ThreadLocal<>();
+
+    private final String operation;
+    private final long startNanos = System.nanoTime();
+    private final RequestMetrics previous;
+    private final Map<String, Stage> timings = new ConcurrentHashMap<>();
+    private final Map<String, DoubleAdder> counts = new ConcurrentHashMap<>();
+    private final Map<String, Object> properties = new ConcurrentHashMap<>();
+
+    private RequestMetrics(String operation, RequestMetrics previous) {
+        this.operation = operation;
+        this.previous = previous;
+    }
+
+    /**
+     * Starts collecting the metrics of a request on this thread. Close the result when the
+     * request ends.
+     *
+     * @param operation the name of the operation, which becomes the metrics' dimension.
+     * @return the request's metrics.
+     */
+    public static RequestMetrics begin(String operation) {
+        RequestMetrics metrics = new RequestMetrics(operation, current.get());
+        current.set(metrics);
+        return metrics;
+    }
+
+    /**
+     * Handles a request, collecting its metrics on this thread until it returns.
+     *
+     * @param operation the name of the operation, which becomes the metrics' dimension.
+     * @param request handles the request.
+     * @return the response.
+     */
+    public static <T> T measure(String operation, Supplier<T> request) {
+        RequestMetrics metrics = begin(operation);
+        try {
+            return request.get();
+        } finally {
+            metrics.close();
+        }
+    }
+
+    /**
+     * @return the metrics of the request on this thread, or null if there is none.
+     */
+    public static RequestMetrics current() {
+        return current.get();
+    }
+
+    /**
+     * Times a stage of the current request. Close the result when the stage ends.
+     *
+     * @param stage the name of the stage.
+     * @return the timer.
+     */
+    public static Timer time(String stage) {
+        return new Timer(current.get(), stage);
+    }
+
+    /**
+     * Times a call as a stage of the current request.
+     *
+     * @param stage the name of the stage.
+     * @param call the stage's work.
+     * @return the call's result.
+     */
+    public static <T> T time(String stage, Supplier<T> call) {
+        Timer timer = time(stage);
+        try {
+            return call.get();
+        } finally {
+            timer.close();
+        }
+    }
+
+    /**
+     * Adds to a count of the current request.
+     */
+    public static void count(String name, long amount) {
+        RequestMetrics metrics = current.get();
+        if (metrics != null) metrics.add(name, amount);
+    }
+
+    /**
+     * Adds to a count of the current request that need not be whole, like consumed capacity.
+     */
+    public static void count(String name, double amount) {
+        RequestMetrics metrics = current.get();
+        if (metrics != null) metrics.add(name, amount);
+    }
+
+    /**
+     * Records a value that is written with the request's metrics but is not itself a metric,
+     * such as whether the request was a cold start.
+     */
+    public static void property(String name, Object value) {
+        RequestMetrics metrics = current.get();
+        if (metrics != null) metrics.properties.put(name, value);
+    }
+
+    /**
+     * Makes a task count towards the current request when it runs on another thread.
+     *
+     * @param task the task.
+     * @return the wrapped task.
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        RequestMetrics metrics = current.get();
+        if (metrics == null) return task;
+        return () -> {
+            RequestMetrics before = current.get();
+            current.set(metrics);
+            try {
+                return task.call();
+            } finally {
+                current.set(before);
+            }
+        };
+    }
+
+    public static Runnable wrap(Runnable task) {
+        RequestMetrics metrics = current.get();
+        if (metrics == null) return task;
+        return () -> {
+            RequestMetrics before = current.get();
+            current.set(metrics);
+            try {
+                task.run();
+            } finally {
+                current.set(before);
+            }
+        };
+    }
+
+    public void record(String stage, double millis) {
+        timings.computeIfAbsent(stage, key -> new Stage()).record(millis);
+    }
+
+    public void add(String name, double amount) {
+        counts.computeIfAbsent(name, key -> new DoubleAdder()).add(amount);
+    }
+
+    public String getOperation() { return operation; }
+
+    /**
+     * @return the total time of each stage so far, in milliseconds.
+     */
+    public Map<String, Double> getStageMillis() {
+        Map<String, Double> totals = new ConcurrentHashMap<>();
+        for (Map.Entry<String, Stage> entry : timings.entrySet()) {
+            totals.put(entry.getKey(), entry.getValue().getTotalMillis());
+        }
+        return totals;
+    }
+
+    public long getCount(String name) {
+        return (long) getTotal(name);
+    }
+
+    public double getTotal(String name) {
+        DoubleAdder count = counts.get(name);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Ends the request and writes its metrics.
+     */
+    @Override
+    public void close() {
+        if (current.get() == this) {
+            if (previous != null) current.set(previous); else current.remove();
+        }
+        if (ENABLED) System.out.println(toEmf(System.currentTimeMillis()));
+    }
+
+    /**
+     * @return the metrics in Embedded Metric Format.
+     */
+    public String toEmf(long timestamp) {
+        JsonArray definitions = new JsonArray();
+        JsonObject root = new JsonObject();
+        root.addProperty("Operation", operation);
+
+        definitions.add(definition("Latency", "Milliseconds"));
+        root.addProperty("Latency", (System.nanoTime() - startNanos) / 1_000_000.0);
+
+        for (Map.Entry<String, Stage> entry : timings.entrySet()) {
+            definitions.add(definition(entry.getKey(), "Milliseconds"));
+            JsonArray values = new JsonArray();
+            for (double value : entry.getValue().getSample()) values.add(value);
+            root.add(entry.getKey(), values);
+        }
+        for (Map.Entry<String, DoubleAdder> entry : counts.entrySet()) {
+            definitions.add(definition(entry.getKey(), "Count"));
+            double total = entry.getValue().sum();
+            if (total == Math.rint(total)) {
+                root.addProperty(entry.getKey(), (long) total);
+            } else {
+                root.addProperty(entry.getKey(), total);
+            }
+        }
+        for (Map.Entry<String, Object> entry : properties.entrySet()) {
+            root.addProperty(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+
+        JsonArray dimensions = new JsonArray();
+        JsonArray dimensionSet = new JsonArray();
+        dimensionSet.add("Operation");
+        dimensions.add(dimensionSet);
+
+        JsonObject directive = new JsonObject();
+        directive.addProperty("Namespace", NAMESPACE);
+        directive.add("Dimensions", dimensions);
+        directive.add("Metrics", definitions);
+        JsonArray directives = new JsonArray();
+        directives.add(directive);
+
+        JsonObject aws = new JsonObject();
+        aws.addProperty("Timestamp", timestamp);
+        aws.add("CloudWatchMetrics", directives);
+        root.add("_aws", aws);
+        return root.toString();
+    }
+
+    private static JsonObject definition(String name, String unit) {
+        JsonObject definition = new JsonObject();
+        definition.addProperty("Name", name);
+        definition.addProperty("Unit", unit);
+        return definition;
+    }
+
+    /**
+     * The timings of one stage: their total, and up to MAX_VALUES of them chosen by reservoir
+     * sampling, so every timing is equally likely to be kept.
+     */
+    private static class Stage {
+        private final double[] sample = new double[MAX_VALUES];
+        private long recorded;
+        private double totalMillis;
+
+        synchronized void record(double millis) {
+            totalMillis += millis;
+            recorded++;
+            if (recorded <= MAX_VALUES) {
+                sample[(int) recorded - 1] = millis;
+            } else {
+                long index = ThreadLocalRandom.current().nextLong(recorded);
+                if (index < MAX_VALUES) sample[(int) index] = millis;
+            }
+        }
+
+        synchronized double getTotalMillis() {
+            return totalMillis;
+        }
+
+        synchronized double[] getSample() {
+            return Arrays.copyOf(sample, (int) Math.min(recorded, MAX_VALUES));
+        }
+    }
+
+    /**
+     * Times one stage of a request.
+     */
+    public static class Timer implements AutoCloseable {
+        private final RequestMetrics metrics;
+        private final String stage;
+        private final long startNanos = System.nanoTime();
+
+        Timer(RequestMetrics metrics, String stage) {
+            this.metrics = metrics;
+            this.stage = stage;
+        }
+
+        @Override
+        public void close() {
+            if (metrics != null) metrics.record(stage, (System.nanoTime() - startNanos) / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package edu.byu.cs.tweeter.server.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import javax.inject.Inject;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.net.request.BatchOperation;
+import edu.byu.cs.tweeter.model.net.request.BatchRequest;
+import edu.byu.cs.tweeter.model.net.request.GetFeedRequest;
+import edu.byu.cs.tweeter.model.net.request.GetFollowersCountRequest;
+import edu.byu.cs.tweeter.model.net.request.GetFollowersRequest;
+import edu.byu.cs.tweeter.model.net.request.GetFollowingCountRequest;
+import edu.byu.cs.tweeter.model.net.request.GetFollowingRequest;
+import edu.byu.cs.tweeter.model.net.request.GetProfileRequest;
+import edu.byu.cs.tweeter.model.net.request.GetStoryRequest;
+import edu.byu.cs.tweeter.model.net.request.IsFollowerRequest;
+import edu.byu.cs.tweeter.model.net.request.Request;
+import edu.byu.cs.tweeter.model.net.request.UserRequest;
+import edu.byu.cs.tweeter.model.net.response.BatchResponse;
+import edu.byu.cs.tweeter.model.net.response.Response;
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.metrics.Log;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
+
+/**
+ * Runs the operations of a {@link BatchRequest} at once over the other services, so a screen that
+ * needs several resources makes one call instead of one per resource. Only reads can be batched.
+ */
+public class BatchService extends Service {
+
+    /**
+     * The most operations a single batch may carry.
+     */
+    private static final int MAX_OPERATIONS = ServerConfig.getInt("BATCH_MAX_OPERATIONS", 25);
+
+    // The operations make their own DAOFutures calls and wait on them, so they can't run there.
+    // Enough threads to run one whole batch at once; concurrent batches queue behind each other.
+    private static final ExecutorService dispatcher = Executors.newFixedThreadPool(MAX_OPERATIONS, runnable -> {
+        Thread thread = new Thread(runnable, "batch-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Gson gson = new Gson();
+
+    /**
+     * An operation that can be batched: the type its body is read as and the service call that
+     * serves it.
+     */
+    private static class Operation<T extends Request> {
+        private final Class<T> type;
+        private final Function<T, ? extends Response> call;
+
+        Operation(Class<T> type, Function<T, ? extends Response> call) {
+            this.type = type;
+            this.call = call;
+        }
+
+        Response run(JsonObject body) {
+            return call.apply(gson.fromJson(body, type));
+        }
+    }
+
+    private final UserDAO userDAO;
+    private final Map<String, Operation<?>> operations = new HashMap<>();
+
+    @Inject
+    public BatchService(UserDAO userDAO, UserService userService, FollowService followService,
+                        FeedService feedService, StoryService storyService, ProfileService profileService) {
+        this.userDAO = userDAO;
+        register(BatchOperation.GET_USER, UserRequest.class, userService::getUser);
+        register(BatchOperation.GET_FOLLOWERS_COUNT, GetFollowersCountRequest.class, userService::getFollowersCount);
+        register(BatchOperation.GET_FOLLOWING_COUNT, GetFollowingCountRequest.class, userService::getFollowingCount);
+        register(BatchOperation.IS_FOLLOWER, IsFollowerRequest.class, followService::isFollower);
+        register(BatchOperation.GET_FOLLOWERS, GetFollowersRequest.class, followService::getFollowers);
+        register(BatchOperation.GET_FOLLOWING, GetFollowingRequest.class, followService::getFollowees);
+        register(BatchOperation.GET_FEED, GetFeedRequest.class, feedService::getFeed);
+        register(BatchOperation.GET_STORY, GetStoryRequest.class, storyService::getStory);
+        register(BatchOperation.GET_PROFILE, GetProfileRequest.class, profileService::getProfile);
+    }
+
+    private <T extends Request> void register(String name, Class<T> type, Function<T, ? extends Response> call) {
+        operations.put(name, new Operation<>(type, call));
+    }
+
+    @Override
+    public UserDAO getUserDAO() { return this.userDAO; }
+
+    /**
+     * Authenticates the batch once and then runs its operations in parallel.
+     *
+     * @param request contains the operations and the auth token they are run with.
+     * @return the response to each operation, in order.
+     */
+    public BatchResponse batch(BatchRequest request) {
+        if (request.getOperations() == null || request.getOperations().isEmpty()) {
+            throw new RuntimeException("[Bad Request] Request needs to have at least one operation");
+        }
+        else if (request.getOperations().size() > MAX_OPERATIONS) {
+            throw new RuntimeException("[Bad Request] Request can have at most " + MAX_OPERATIONS + " operations");
+        }
+        else if (request.getAuthToken() == null) {
+            throw new RuntimeException("[Bad Request] Request needs to have an authToken");
+        }
+
+        Log.debug("Validating auth token...");
+
+        if (!authenticate(request.getAuthToken())) {
+            return new BatchResponse("Unable to authenticate! Your session may have expired. Please log out and log back in.");
+        }
+
+        Log.debug("Valid auth token...");
+
+        Log.debug("Running %d batched operations...", request.getOperations().size());
+        RequestMetrics.count("batch-operations", request.getOperations().size());
+
+        List<Future<String>> futures = new ArrayList<>();
+        for (BatchOperation operation : request.getOperations()) {
+            futures.add(dispatcher.submit(RequestMetrics.wrap(() -> run(operation, request.getAuthToken()))));
+        }
+
+        List<String> results = new ArrayList<>();
+        try {
+            for (Future<String> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("[Server Error] Interrupted while running batch: " + e.getMessage());
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+            throw new RuntimeException("[Server Error] Unable to run batch: " + e.getCause().getMessage());
+        }
+
+        Log.debug("Successfully ran batch...");
+
+        return new BatchResponse(results);
+    }
+
+    /**
+     * Runs one operation with the batch's auth token, which has already been checked.
+     *
+     * @return the operation's response as Json. A failure becomes an unsuccessful response
+     *         rather than failing the rest of the batch.
+     */
+    private String run(BatchOperation batchOperation, AuthToken authToken) {
+        Operation<?> operation = operations.get(batchOperation.getOperation());
+        if (operation == null) {
+            return failure("[Bad Request] Unknown batch operation \"" + batchOperation.getOperation() + "\"");
+        }
+        try {
+            JsonObject body = batchOperation.getBody() == null ? new JsonObject()
+                    : JsonParser.parseString(batchOperation.getBody()).getAsJsonObject();
+            body.add("authToken", gson.toJsonTree(authToken));
+            Response response = withAuthenticatedToken(authToken, () -> operation.run(body));
+            return gson.toJson(response);
+        } catch (RuntimeException e) {
+            Log.warn("Batch operation %s failed: %s", batchOperation.getOperation(), e.getMessage());
+            return failure(e.getMessage());
+        }
+    }
+
+    private String failure(String message) {
+        JsonObject response = new JsonObject();
+        response.addProperty("success", false);
+        response.addProperty("message", message);
+        return response.toString();
+    }
+}
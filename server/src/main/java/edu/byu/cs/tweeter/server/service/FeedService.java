@@ -4,25 +4,61 @@ import com.google.inject.Inject;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+import edu.byu.cs.tweeter.model.domain.Status;
 import edu.byu.cs.tweeter.model.domain.User;
 import edu.byu.cs.tweeter.model.net.request.GetFeedRequest;
 import edu.byu.cs.tweeter.model.net.response.GetFeedResponse;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.DAOFutures;
+import edu.byu.cs.tweeter.server.dao.FollowDAO;
 import edu.byu.cs.tweeter.server.dao.StatusDAO;
 import edu.byu.cs.tweeter.server.dao.UserDAO;
-import edu.byu.cs.tweeter.server.dao.dynamo.StatusDynamoDAO;
+import edu.byu.cs.tweeter.server.dao.model.DBFeedEntry;
 import edu.byu.cs.tweeter.server.dao.model.DBStatus;
+import edu.byu.cs.tweeter.server.metrics.Log;
+import edu.byu.cs.tweeter.server.service.backfill.BackfillFeedsRequest;
+import edu.byu.cs.tweeter.server.service.backfill.BackfillFeedsResult;
 
 public class FeedService extends Service {
 
+    private static final int FOLLOWEE_PAGE_SIZE = 100;
+    private static final long PULLED_FOLLOWEES_TTL_MILLIS = 60_000;
+    private static final int PULLED_FOLLOWEES_CACHE_SIZE = 1_000;
+    private static final int BACKFILL_SCAN_PAGE_SIZE = 100;
+    // The most keys dynamodb accepts in one BatchGetItem call
+    private static final int MAX_BATCH_GET_SIZE = 100;
+
+    /**
+     * The high follower followees of recent readers, so paging through a feed does not recheck
+     * every followee on each page.
+     */
+    private static final Map<String, PulledFollowees> pulledFolloweesCache = Collections.synchronizedMap(
+            new LinkedHashMap<String, PulledFollowees>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PulledFollowees> eldest) {
+                    return size() > PULLED_FOLLOWEES_CACHE_SIZE;
+                }
+            });
+
     private final StatusDAO statusDAO;
     private final UserDAO userDAO;
+    private final FollowDAO followDAO;
 
     @Inject
-    public FeedService(StatusDAO statusDAO, UserDAO userDAO) {
+    public FeedService(StatusDAO statusDAO, UserDAO userDAO, FollowDAO followDAO) {
         this.statusDAO = statusDAO;
         this.userDAO = userDAO;
+        this.followDAO = followDAO;
     }
 
     public StatusDAO getStatusDAO() { return this.statusDAO; }
@@ -30,6 +66,8 @@ public class FeedService extends Service {
     @Override
     public UserDAO getUserDAO() { return this.userDAO; }
 
+    public FollowDAO getFollowDAO() { return this.followDAO; }
+
     public GetFeedResponse getFeed(GetFeedRequest request) {
         if (request.getTargetUser() == null || request.getTargetUser().getAlias() == null) {
             throw new RuntimeException("[Bad Request] Request needs to have a follower alias");
@@ -37,51 +75,311 @@ public class FeedService extends Service {
             throw new RuntimeException("[Bad Request] Request needs to have a positive limit");
         }
 
-        System.out.println("Validating auth token...");
+        Log.debug("Validating auth token...");
 
         if (!authenticate(request.getAuthToken())) {
             return new GetFeedResponse("Unable to authenticate! Your session may have expired. Please log out and log back in.");
         }
 
-        System.out.println("Valid auth token...");
+        Log.debug("Valid auth token...");
+
+        Log.debug("Getting user feed...");
+
+        String alias = request.getTargetUser().getAlias();
+        String lastStatusID = request.getLastItem() != null ? request.getLastItem().getID() : null;
+        List<DBStatus> statusData = DENORMALIZED_FEED
+                ? getFeedPage(alias, request.getLimit(), lastStatusID)
+                : getNormalizedFeedPage(alias, request.getLimit(), lastStatusID);
+        boolean hasMorePages = statusData.size() == request.getLimit();
+        statusData.sort(Collections.reverseOrder());
+
+        List<String> pulledFollowees = getPulledFollowees(alias);
+        if (!pulledFollowees.isEmpty()) {
+            Log.debug("Merging stories of %d high follower followees into feed...", pulledFollowees.size());
+
+            // The stories are independent of each other, so read them all at once
+            List<CompletableFuture<List<DBStatus>>> stories = new ArrayList<>();
+            for (String followee : pulledFollowees) {
+                stories.add(getStatusDAO().getStoryAsync(followee, request.getLimit(), request.getLastItem()));
+            }
+
+            List<List<DBStatus>> sources = new ArrayList<>();
+            sources.add(statusData);
+            for (int i = 0; i < pulledFollowees.size(); i++) {
+                String followee = pulledFollowees.get(i);
+                List<DBStatus> story;
+                try {
+                    story = DAOFutures.join(stories.get(i));
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    throw new RuntimeException("[DB Error] Unable to get story of \"" + followee + "\": " + e.getMessage());
+                }
+                if (story == null) continue;
+                hasMorePages |= story.size() == request.getLimit();
+                sources.add(story);
+            }
+
+            List<DBStatus> merged = mergeNewestFirst(sources, request.getLimit() + 1);
+            if (merged.size() > request.getLimit()) {
+                hasMorePages = true;
+                merged = merged.subList(0, request.getLimit());
+            }
+            statusData = new ArrayList<>(merged);
+        }
+
+        if (statusData.isEmpty()) return new GetFeedResponse(new ArrayList<>(), false);
+
+        Log.debug("Got user feed...");
+
+        Log.debug("Getting user info...");
+
+        List<Status> statuses = hydrateStatuses(statusData);
+
+        Log.debug("Got user info...");
 
-        System.out.println("Getting user feed...");
+        return new GetFeedResponse(statuses, hasMorePages);
+    }
 
+    /**
+     * Gets a page of the user's feed by looking up each status in the stories table.
+     */
+    private List<DBStatus> getNormalizedFeedPage(String alias, int limit, String lastStatusID) {
         List<String> feedAliases;
         try {
-            feedAliases = getStatusDAO().getFeedAliases(
-                    request.getTargetUser().getAlias(), request.getLimit(), request.getLastItem() != null ? request.getLastItem().getID() : null);
+            feedAliases = getStatusDAO().getFeedAliases(alias, limit, lastStatusID);
         } catch (Exception e) {
             e.printStackTrace();
             throw new RuntimeException("[DB Error] Unable to get status info from feed table: " + e.getMessage());
         }
-        if (feedAliases == null || feedAliases.isEmpty()) return new GetFeedResponse(new ArrayList<>(), false);
 
+        List<DBStatus> statusData = new ArrayList<>();
+        if (feedAliases != null && !feedAliases.isEmpty()) {
+            try {
+                statusData = getStatusDAO().getFeed(feedAliases);
+            } catch (Exception e) {
+                e.printStackTrace();
+                throw new RuntimeException("[DB Error] Unable to get statuses: " + e.getMessage());
+            }
+            if (statusData == null || statusData.isEmpty()) throw new RuntimeException("[DB Error] Unable to get statuses: ");
+        }
+        return statusData;
+    }
+
+    /**
+     * Gets a page of the user's feed from the feed rows themselves. Only rows written before
+     * statuses were copied into feeds are looked up in the stories table.
+     */
+    private List<DBStatus> getFeedPage(String alias, int limit, String lastStatusID) {
         List<DBStatus> statusData;
         try {
-            statusData = getStatusDAO().getFeed(feedAliases);
+            statusData = getStatusDAO().getFeedPage(alias, limit, lastStatusID);
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException("[DB Error] Unable to get feed: " + e.getMessage());
+        }
+        if (statusData == null) return new ArrayList<>();
+
+        List<String> missingAliases = new ArrayList<>();
+        for (DBStatus data : statusData) {
+            if (data.getStatus().getPost() == null) {
+                missingAliases.add(data.getPosterAlias());
+                missingAliases.add(data.getStatus().getID());
+            }
+        }
+        if (missingAliases.isEmpty()) return statusData;
+
+        List<DBStatus> stored;
+        try {
+            stored = getStatusDAO().getFeed(missingAliases);
         } catch (Exception e) {
             e.printStackTrace();
             throw new RuntimeException("[DB Error] Unable to get statuses: " + e.getMessage());
         }
-        if (statusData == null || statusData.isEmpty()) throw new RuntimeException("[DB Error] Unable to get statuses: ");
+        Map<String, DBStatus> storedByID = new HashMap<>();
+        for (DBStatus data : stored) {
+            storedByID.put(data.getStatus().getID(), data);
+        }
 
-        System.out.println("Got user feed...");
+        List<DBStatus> complete = new ArrayList<>();
+        for (DBStatus data : statusData) {
+            if (data.getStatus().getPost() != null) {
+                complete.add(data);
+            } else if (storedByID.containsKey(data.getStatus().getID())) {
+                complete.add(storedByID.get(data.getStatus().getID()));
+            }
+        }
+        return complete;
+    }
 
-        System.out.println("Getting user info...");
+    /**
+     * Copies statuses into the feed rows that only reference them, so feeds written before
+     * DENORMALIZED_FEED was turned on can be read in a single query. Each call handles at most
+     * maxEntries rows and returns where it stopped, so the job can be run repeatedly until done.
+     *
+     * @param request where to start and how many rows to handle.
+     * @return where to continue from and how many rows were rewritten.
+     */
+    public BackfillFeedsResult backfillFeeds(BackfillFeedsRequest request) {
+        int maxEntries = request.getMaxEntries() > 0 ? request.getMaxEntries() : BackfillFeedsRequest.DEFAULT_MAX_ENTRIES;
+        DBFeedEntry lastEntry = request.getLastAlias() != null
+                ? new DBFeedEntry(request.getLastAlias(), request.getLastStatusID(), null, false) : null;
 
-        List<String> userAliases = getAllUniqueUsers(statusData);
-        List<User> users;
+        int scanned = 0;
+        int rewritten = 0;
+        boolean done = false;
+        while (scanned < maxEntries && !done) {
+            int pageSize = Math.min(BACKFILL_SCAN_PAGE_SIZE, maxEntries - scanned);
+            List<DBFeedEntry> entries;
+            try {
+                entries = getStatusDAO().scanFeedEntries(pageSize, lastEntry);
+            } catch (DAOException e) {
+                e.printStackTrace();
+                throw new RuntimeException("[DB Error] Unable to scan feeds: " + e.getMessage());
+            }
+
+            scanned += entries.size();
+            done = entries.size() < pageSize;
+            if (!entries.isEmpty()) lastEntry = entries.get(entries.size() - 1);
+            rewritten += rewriteFeedEntries(entries);
+        }
+
+        Log.info("Backfilled %d of %d feed rows%s", rewritten, scanned, done ? ", scan complete" : "");
+        return new BackfillFeedsResult(done ? null : lastEntry, scanned, rewritten);
+    }
+
+    /**
+     * Rewrites the normalized rows among the entries as denormalized rows.
+     *
+     * @return the number of rows rewritten.
+     */
+    private int rewriteFeedEntries(List<DBFeedEntry> entries) {
+        // Group the owners of the rows by status so each status is looked up and written once
+        Map<String, List<String>> ownersByStatus = new LinkedHashMap<>();
+        Map<String, String> posterByStatus = new HashMap<>();
+        for (DBFeedEntry entry : entries) {
+            if (entry.isDenormalized()) continue;
+            ownersByStatus.computeIfAbsent(entry.getStatusID(), id -> new ArrayList<>()).add(entry.getAlias());
+            posterByStatus.put(entry.getStatusID(), entry.getPosterAlias());
+        }
+        if (ownersByStatus.isEmpty()) return 0;
+
+        List<DBStatus> statusData = new ArrayList<>();
+        List<String> statusIDs = new ArrayList<>(ownersByStatus.keySet());
         try {
-            users = getUserDAO().batchGetUsers(userAliases);
-        } catch (Exception e) {
+            for (int i = 0; i < statusIDs.size(); i += MAX_BATCH_GET_SIZE) {
+                List<String> aliases = new ArrayList<>();
+                for (String statusID : statusIDs.subList(i, Math.min(statusIDs.size(), i + MAX_BATCH_GET_SIZE))) {
+                    aliases.add(posterByStatus.get(statusID));
+                    aliases.add(statusID);
+                }
+                statusData.addAll(getStatusDAO().getFeed(aliases));
+            }
+
+            List<String> posters = getAllUniqueUsers(statusData);
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < posters.size(); i += MAX_BATCH_GET_SIZE) {
+                users.addAll(getUserDAO().batchGetUsers(posters.subList(i, Math.min(posters.size(), i + MAX_BATCH_GET_SIZE))));
+            }
+
+            int rewritten = 0;
+            for (Status status : extractStatuses(statusData, generateUserMap(users))) {
+                // Statuses that were deleted or whose poster is gone keep their old rows
+                if (status.getUser() == null) continue;
+                List<String> owners = ownersByStatus.get(status.getID());
+                getStatusDAO().postStatusToFeeds(status, owners);
+                rewritten += owners.size();
+            }
+            return rewritten;
+        } catch (DAOException e) {
             e.printStackTrace();
-            throw new RuntimeException("[DB Error] Unable to get status users: " + e.getMessage());
+            throw new RuntimeException("[DB Error] Unable to backfill feeds: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the followees of the specified user whose statuses are not fanned out to feeds and so
+     * have to be pulled from their stories. These are the followees StatusService has marked, not
+     * those now over the threshold, so both sides agree on where each status is.
+     *
+     * @param alias the alias of the user reading their feed.
+     * @return the aliases of the followees.
+     */
+    private List<String> getPulledFollowees(String alias) {
+        if (PULL_FOLLOWER_THRESHOLD <= 0) return Collections.emptyList();
+
+        PulledFollowees cached = pulledFolloweesCache.get(alias);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt < PULLED_FOLLOWEES_TTL_MILLIS) {
+            return cached.aliases;
         }
-        statusData.sort(Collections.reverseOrder());
 
-        System.out.println("Got user info...");
+        List<String> pulled = new ArrayList<>();
+        try {
+            List<String> followees = getFollowDAO().getFollowees(alias, FOLLOWEE_PAGE_SIZE, null);
+            while (followees != null && !followees.isEmpty()) {
+                pulled.addAll(getUserDAO().filterPullFeeds(followees));
+                if (followees.size() < FOLLOWEE_PAGE_SIZE) break;
+                followees = getFollowDAO().getFollowees(alias, FOLLOWEE_PAGE_SIZE, followees.get(followees.size() - 1));
+            }
+        } catch (DAOException e) {
+            e.printStackTrace();
+            throw new RuntimeException("[DB Error] Unable to get high follower followees: " + e.getMessage());
+        }
 
-        return new GetFeedResponse(extractStatuses(statusData, generateUserMap(users)), statusData.size() == request.getLimit());
+        pulledFolloweesCache.put(alias, new PulledFollowees(pulled));
+        return pulled;
+    }
+
+    /**
+     * Merges lists of statuses that are each sorted newest first into one list sorted newest
+     * first, dropping statuses that appear in more than one list.
+     *
+     * @param sources the lists to merge.
+     * @param limit the maximum number of statuses to return.
+     * @return the merged statuses.
+     */
+    static List<DBStatus> mergeNewestFirst(List<List<DBStatus>> sources, int limit) {
+        PriorityQueue<Head> heads = new PriorityQueue<>();
+        for (List<DBStatus> source : sources) {
+            Iterator<DBStatus> iterator = source.iterator();
+            if (iterator.hasNext()) heads.add(new Head(iterator.next(), iterator));
+        }
+
+        List<DBStatus> merged = new ArrayList<>();
+        Set<String> seenIDs = new HashSet<>();
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Head head = heads.poll();
+            if (seenIDs.add(head.status.getStatus().getID())) {
+                merged.add(head.status);
+            }
+            if (head.rest.hasNext()) heads.add(new Head(head.rest.next(), head.rest));
+        }
+        return merged;
+    }
+
+    /**
+     * The next status of one of the lists being merged, ordered newest first.
+     */
+    private static class Head implements Comparable<Head> {
+        private final DBStatus status;
+        private final Iterator<DBStatus> rest;
+
+        Head(DBStatus status, Iterator<DBStatus> rest) {
+            this.status = status;
+            this.rest = rest;
+        }
+
+        @Override
+        public int compareTo(Head other) {
+            return other.status.compareTo(this.status);
+        }
+    }
+
+    private static class PulledFollowees {
+        private final List<String> aliases;
+        private final long loadedAt = System.currentTimeMillis();
+
+        PulledFollowees(List<String> aliases) {
+            this.aliases = aliases;
+        }
     }
 }
@@ -23,6 +23,7 @@ import edu.byu.cs.tweeter.server.dao.DAOException;
 import edu.byu.cs.tweeter.server.dao.FollowDAO;
 import edu.byu.cs.tweeter.server.dao.UserDAO;
 import edu.byu.cs.tweeter.server.dao.dynamo.FollowDynamoDAO;
+import edu.byu.cs.tweeter.server.metrics.Log;
 
 /**
  * Contains the business logic for getting the users a user is following.
@@ -66,16 +67,16 @@ public class FollowService extends Service {
             throw new RuntimeException("[Bad Request] Request needs to have a positive limit");
         }
 
-        System.out.println("Validating auth token...");
+        Log.debug("Validating auth token...");
 
         if (!authenticate(request.getAuthToken())) {
             return new GetFollowersResponse("Unable to authenticate! Your session may have expired. Please log out and log back in.");
         }
 
-        System.out.println("Valid auth token...");
-        System.out.println("Getting followers...");
+        Log.debug("Valid auth token...");
+        Log.debug("Getting followers...");
 
-        System.out.printf("Last alias: %s%n", request.getLastItem() != null ? request.getLastItem().getAlias() : "null");
+        Log.debug("Last alias: %s", request.getLastItem() != null ? request.getLastItem().getAlias() : "null");
         List<String> followerAliases;
         try {
             followerAliases = getFollowDAO().getFollowers(request.getTargetUser().getAlias(),
@@ -85,13 +86,13 @@ public class FollowService extends Service {
             throw new RuntimeException("[DB Error] Unable to get list of followers: " + e.getMessage());
         }
 
-        System.out.println("Successfully got followers...");
+        Log.debug("Successfully got followers...");
 
         if (followerAliases == null || followerAliases.isEmpty()) {
             return new GetFollowersResponse(new ArrayList<>(), false);
         }
 
-        System.out.println(followerAliases);
+        Log.debug("%s", followerAliases);
 
         try {
             return new GetFollowersResponse(getUserDAO().batchGetUsers(followerAliases),
@@ -117,15 +118,15 @@ public class FollowService extends Service {
             throw new RuntimeException("[Bad Request] Request needs to have a positive limit");
         }
 
-        System.out.println("Validating auth token...");
+        Log.debug("Validating auth token...");
 
         if (!authenticate(request.getAuthToken())) {
             return new GetFollowingResponse("Unable to authenticate! Your session may have expired. Please log out and log back in.");
         }
 
-        System.out.println("Valid auth token...");
+        Log.debug("Valid auth token...");
 
-        System.out.println("Getting followees...");
+        Log.debug("Getting followees...");
 
         List<String> followeeAliases;
         try {
@@ -136,7 +137,7 @@ public class FollowService extends Service {
             throw new RuntimeException("[DB Error] Unable to get list of followees: " + e.getMessage());
         }
 
-        System.out.println("Successfully got followees...");
+        Log.debug("Successfully got followees...");
 
         if (followeeAliases == null || followeeAliases.isEmpty()) {
             return new GetFollowingResponse(new ArrayList<>(), false);
@@ -168,43 +169,26 @@ public class FollowService extends Service {
             throw new RuntimeException("[Bad Request] Request needs to have an authToken");
         }
 
-        System.out.println("Validating auth token...");
+        Log.debug("Validating auth token...");
 
         if (!authenticate(request.getAuthToken())) {
             return new FollowResponse("Unable to authenticate! Your session may have expired. Please log out and log back in.");
         }
 
-        System.out.println("Valid auth token...");
+        Log.debug("Valid auth token...");
 
-        System.out.println("Following...");
+        Log.debug("Following and incrementing following and follower counts...");
 
         try {
-            getFollowDAO().putFollower(request.getFollowee().getAlias(), request.getLoggedInUser().getAlias());
+            if (!getFollowDAO().follow(request.getFollowee().getAlias(), request.getLoggedInUser().getAlias())) {
+                Log.debug("Already following...");
+            }
         } catch (Exception e) {
             e.printStackTrace();
             throw new RuntimeException("[DB Error] Unable to add follower: " + e.getMessage());
         }
 
-        System.out.println("Successfully followed...");
-
-        System.out.println("Incrementing following and follower counts...");
-
-        try {
-            getUserDAO().putFollowingCount(request.getLoggedInUser().getAlias(), 1);
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("[DB Error] Unable to update following count: " + e.getMessage());
-        }
-
-        try {
-            getUserDAO().putFollowerCount(request.getFollowee().getAlias(), 1);
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("[DB Error] Unable to update followers count for user \"" +
-                request.getFollowee().getAlias() + "\": " + e.getMessage());
-        }
-
-        System.out.println("Successfully updated following and follower counts...");
+        Log.debug("Successfully followed...");
 
         return new FollowResponse(true);
     }
@@ -226,43 +210,26 @@ public class FollowService extends Service {
             throw new RuntimeException("[Bad Request] Request needs to have an authToken");
         }
 
-        System.out.println("Validating auth token...");
+        Log.debug("Validating auth token...");
 
         if (!authenticate(request.getAuthToken())) {
             return new UnfollowResponse("Unable to authenticate! Your session may have expired. Please log out and log back in.");
         }
 
-        System.out.println("Valid auth token...");
+        Log.debug("Valid auth token...");
 
-        System.out.println("Unfollowing...");
+        Log.debug("Unfollowing and decrementing following and follower counts...");
 
         try {
-            getFollowDAO().deleteFollower(request.getUnfollowee().getAlias(), request.getLoggedInUser().getAlias());
+            if (!getFollowDAO().unfollow(request.getUnfollowee().getAlias(), request.getLoggedInUser().getAlias())) {
+                Log.debug("Already not following...");
+            }
         } catch (Exception e) {
             e.printStackTrace();
             throw new RuntimeException("[DB Error] Unable to delete follower: " + e.getMessage());
         }
 
-        System.out.println("Successfully unfollowed...");
-
-        System.out.println("Decrementing following and follower counts...");
-
-        try {
-            getUserDAO().putFollowingCount(request.getLoggedInUser().getAlias(), -1);
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("[DB Error] Unable to update following count: " + e.getMessage());
-        }
-
-        try {
-            getUserDAO().putFollowerCount(request.getUnfollowee().getAlias(), -1);
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("[DB Error] Unable to update followers count for user \"" +
-                    request.getUnfollowee().getAlias() + "\": " + e.getMessage());
-        }
-
-        System.out.println("Successfully updated following and follower counts...");
+        Log.debug("Successfully unfollowed...");
 
         return new UnfollowResponse(true);
     }
@@ -284,19 +251,19 @@ public class FollowService extends Service {
             throw new RuntimeException("[Bad Request] Request needs to have an authToken");
         }
 
-        System.out.println("Validating auth token...");
+        Log.debug("Validating auth token...");
 
         if (!authenticate(request.getAuthToken())) {
             return new IsFollowerResponse("Unable to authenticate! Your session may have expired. Please log out and log back in.");
         }
 
-        System.out.println("Valid auth token...");
+        Log.debug("Valid auth token...");
 
-        System.out.println("Checking is follower...");
+        Log.debug("Checking is follower...");
 
         try {
             boolean isFollower = getFollowDAO().isFollower(request.getFollowee().getAlias(), request.getFollower().getAlias());
-            System.out.println("isFollower is " + isFollower);
+            Log.debug("isFollower is " + isFollower);
             return new IsFollowerResponse(isFollower);
         } catch (Exception e) {
             e.printStackTrace();
@@ -304,26 +271,4 @@ public class FollowService extends Service {
                 request.getFollowee().getAlias() + "\" and \"" + request.getFollower().getAlias() + "\"");
         }
     }
-
-    public void followTestUser() {
-        List<String> followerAliases = new ArrayList<>();
-        int currentUserIndex = 0;
-
-        System.out.println("Following test user...");
-
-        for (int i = 0; i < 10000; i += 25) {
-            followerAliases.clear();
-            for (int j = 0; j < 25; j++) {
-                currentUserIndex = i + j;
-                followerAliases.add("@test" + currentUserIndex);
-            }
-            try {
-                getFollowDAO().batchPutFollowers("@gghansen", followerAliases);
-            } catch (DAOException e) {
-                throw new RuntimeException("Unable to batch put followers. Failed at " + i + "-" + (i+25));
-            }
-        }
-
-        System.out.println("Successfully followed test user...");
-    }
 }
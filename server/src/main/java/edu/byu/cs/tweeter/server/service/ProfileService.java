@@ -0,0 +1,94 @@
+package edu.byu.cs.tweeter.server.service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.inject.Inject;
+
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.net.request.GetProfileRequest;
+import edu.byu.cs.tweeter.model.net.response.GetProfileResponse;
+import edu.byu.cs.tweeter.server.dao.DAOFutures;
+import edu.byu.cs.tweeter.server.dao.FollowDAO;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.dao.model.DBCounts;
+import edu.byu.cs.tweeter.server.metrics.Log;
+
+/**
+ * Contains the business logic for getting everything the profile screen shows about a user in
+ * one request, instead of separate requests for the user, each count and the follow state.
+ */
+public class ProfileService extends Service {
+
+    private final UserDAO userDAO;
+    private final FollowDAO followDAO;
+
+    @Inject
+    public ProfileService(UserDAO userDAO, FollowDAO followDAO) {
+        this.userDAO = userDAO;
+        this.followDAO = followDAO;
+    }
+
+    @Override
+    public UserDAO getUserDAO() { return this.userDAO; }
+
+    public FollowDAO getFollowDAO() { return this.followDAO; }
+
+    /**
+     * Returns the target user, their follower and following counts and whether the current user
+     * follows them. The auth token is checked once and the three reads are then made at once.
+     *
+     * @param request contains the data required to fulfill the request.
+     * @return the profile.
+     */
+    public GetProfileResponse getProfile(GetProfileRequest request) {
+        if (request.getTargetUser() == null || request.getTargetUser().getAlias() == null) {
+            throw new RuntimeException("[Bad Request] Request needs to have a target user alias");
+        }
+        else if (request.getCurrentUser() == null || request.getCurrentUser().getAlias() == null) {
+            throw new RuntimeException("[Bad Request] Request needs to have a current user alias");
+        }
+        else if (request.getAuthToken() == null) {
+            throw new RuntimeException("[Bad Request] Request needs to have an authToken");
+        }
+
+        Log.debug("Validating auth token...");
+
+        if (!authenticate(request.getAuthToken())) {
+            return new GetProfileResponse("Unable to authenticate! Your session may have expired. Please log out and log back in.");
+        }
+
+        Log.debug("Valid auth token...");
+
+        Log.debug("Getting profile...");
+
+        String targetAlias = request.getTargetUser().getAlias();
+        String currentAlias = request.getCurrentUser().getAlias();
+        CompletableFuture<List<User>> user = getUserDAO().batchGetUsersAsync(Collections.singletonList(targetAlias));
+        CompletableFuture<DBCounts> counts = DAOFutures.supply(() -> getUserDAO().getCounts(targetAlias));
+        // Nobody follows themselves, so there is nothing to look up on the user's own profile
+        CompletableFuture<Boolean> isFollower = targetAlias.equals(currentAlias) ? CompletableFuture.completedFuture(false)
+                : DAOFutures.supply(() -> getFollowDAO().isFollower(targetAlias, currentAlias));
+
+        List<User> users;
+        DBCounts dbCounts;
+        boolean follows;
+        try {
+            users = DAOFutures.join(user);
+            dbCounts = DAOFutures.join(counts);
+            follows = DAOFutures.join(isFollower);
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException("[DB Error] Unable to get profile for \"" + targetAlias + "\": " + e.getMessage());
+        }
+
+        if (users == null || users.isEmpty() || dbCounts == null) {
+            return new GetProfileResponse("User \"" + targetAlias + "\" not found");
+        }
+
+        Log.debug("Successfully got profile...");
+
+        return new GetProfileResponse(users.get(0), dbCounts.getFollowers(), dbCounts.getFollowing(), follows);
+    }
+}
@@ -8,16 +8,68 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import edu.byu.cs.tweeter.model.domain.AuthToken;
 import edu.byu.cs.tweeter.model.domain.Status;
 import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.server.config.ServerConfig;
 import edu.byu.cs.tweeter.server.dao.DAOException;
 import edu.byu.cs.tweeter.server.dao.UserDAO;
 import edu.byu.cs.tweeter.server.dao.model.DBStatus;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
+import edu.byu.cs.tweeter.server.service.auth.SignedAuthTokens;
 
 public abstract class Service {
 
+    /**
+     * Posters who reach this many followers are marked, and the statuses of marked posters are
+     * not fanned out to their followers' feeds. They are merged into feeds from their stories
+     * when the feeds are read instead. Zero disables the hybrid model, fanning out every status,
+     * though the statuses marked posters made before then are then missing from feeds.
+     */
+    protected static final int PULL_FOLLOWER_THRESHOLD = ServerConfig.getInt("PULL_FEED_FOLLOWER_THRESHOLD", 5000);
+
+    /**
+     * Whether new statuses are copied into their followers' feed rows and feeds are read from
+     * those copies. Feeds may mix both row formats, so this can be switched either way at any time.
+     */
+    protected static final boolean DENORMALIZED_FEED = ServerConfig.getBoolean("DENORMALIZED_FEED", false);
+
+    /**
+     * Signs and verifies stateless auth tokens, or null if no AUTH_TOKEN_SECRET is configured.
+     * Signed tokens are checked without a database read whatever the mode; AUTH_TOKEN_MODE only
+     * decides which kind of token is issued.
+     */
+    protected static final SignedAuthTokens SIGNED_AUTH_TOKENS = SignedAuthTokens.fromConfig();
+    protected static final boolean ISSUE_SIGNED_AUTH_TOKENS =
+            "signed".equalsIgnoreCase(ServerConfig.getString("AUTH_TOKEN_MODE", "table")) && SIGNED_AUTH_TOKENS != null;
+
+    /**
+     * The token already checked for the request being served on this thread, if any. Set while
+     * a batch runs its operations so the token is checked once for the whole batch.
+     */
+    private static final ThreadLocal<AuthToken> authenticatedToken = new ThreadLocal<>();
+
+    /**
+     * Runs the call with the token treated as valid by {@link #authenticate(AuthToken)}. The
+     * token must already have been authenticated.
+     *
+     * @param token the authenticated token.
+     * @param call the call.
+     * @return the call's result.
+     */
+    protected static <T> T withAuthenticatedToken(AuthToken token, Supplier<T> call) {
+        AuthToken previous = authenticatedToken.get();
+        authenticatedToken.set(token);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) authenticatedToken.remove();
+            else authenticatedToken.set(previous);
+        }
+    }
+
     protected long generateDatetime() {
         return new Date().getTime();
     }
@@ -43,7 +95,9 @@ public abstract class Service {
     protected List<String> getAllUniqueUsers(List<DBStatus> statusData) {
         Set<String> uniqueUsers = new HashSet<>();
         for (DBStatus data : statusData) {
-            uniqueUsers.add(data.getPosterAlias());
+            if (data.getStatus().getUser() == null) {
+                uniqueUsers.add(data.getPosterAlias());
+            }
         }
         return new ArrayList<>(uniqueUsers);
     }
@@ -59,13 +113,52 @@ public abstract class Service {
     protected List<Status> extractStatuses(List<DBStatus> statusData, Map<String, User> userMap) {
         List<Status> statuses = new ArrayList<>();
         for (DBStatus data : statusData) {
-            data.getStatus().setUser(userMap.get(data.getPosterAlias()));
+            if (data.getStatus().getUser() == null) {
+                data.getStatus().setUser(userMap.get(data.getPosterAlias()));
+            }
             statuses.add(data.getStatus());
         }
         return statuses;
     }
 
+    /**
+     * Fills in the posters the statuses lack, timed as the hydrate stage. Cached statuses
+     * already carry their poster, so only the missing posters are fetched.
+     */
+    protected List<Status> hydrateStatuses(List<DBStatus> statusData) {
+        return RequestMetrics.time(RequestMetrics.HYDRATE, () -> {
+            List<String> userAliases = getAllUniqueUsers(statusData);
+            List<User> users = new ArrayList<>();
+            try {
+                if (!userAliases.isEmpty()) users = getUserDAO().batchGetUsers(userAliases);
+            } catch (Exception e) {
+                e.printStackTrace();
+                throw new RuntimeException("[DB Error] Unable to get status users: " + e.getMessage());
+            }
+            return extractStatuses(statusData, generateUserMap(users));
+        });
+    }
+
     protected boolean authenticate(AuthToken token) {
+        return RequestMetrics.time(RequestMetrics.AUTH, () -> checkAuthToken(token));
+    }
+
+    private boolean checkAuthToken(AuthToken token) {
+        AuthToken authenticated = authenticatedToken.get();
+        if (authenticated != null && token != null && authenticated.getToken() != null
+                && authenticated.getToken().equals(token.getToken())) {
+            return true;
+        }
+
+        if (SignedAuthTokens.isSigned(token)) {
+            if (SIGNED_AUTH_TOKENS == null) return false;
+            try {
+                return SIGNED_AUTH_TOKENS.authenticate(token, generateDatetime(), getUserDAO());
+            } catch (DAOException e) {
+                throw new RuntimeException("Unable to authenticate: " + e.getMessage());
+            }
+        }
+
         boolean success;
         try {
             success = getUserDAO().authenticate(token, generateDatetime());
@@ -1,40 +1,70 @@
 package edu.byu.cs.tweeter.server.service;
 
 import com.amazonaws.services.sqs.AmazonSQS;
-import com.amazonaws.services.sqs.AmazonSQSClientBuilder;
 import com.amazonaws.services.sqs.model.SendMessageRequest;
 import com.amazonaws.services.sqs.model.SendMessageResult;
 import com.google.gson.Gson;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.inject.Inject;
 
 import edu.byu.cs.tweeter.model.domain.Status;
 import edu.byu.cs.tweeter.model.net.request.PostStatusRequest;
 import edu.byu.cs.tweeter.model.net.response.PostStatusResponse;
+import edu.byu.cs.tweeter.server.config.ServerConfig;
 import edu.byu.cs.tweeter.server.dao.DAOException;
 import edu.byu.cs.tweeter.server.dao.FollowDAO;
 import edu.byu.cs.tweeter.server.dao.StatusDAO;
 import edu.byu.cs.tweeter.server.dao.UserDAO;
 import edu.byu.cs.tweeter.server.dao.dynamo.StatusDynamoDAO;
+import edu.byu.cs.tweeter.server.dao.model.DBUser;
+import edu.byu.cs.tweeter.server.metrics.Log;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
 import edu.byu.cs.tweeter.server.service.sqs.PostStatusSQSRequest;
+import edu.byu.cs.tweeter.server.service.sqs.SQSBatchSender;
 import edu.byu.cs.tweeter.server.service.sqs.UpdateFeedSQSRequest;
 
 public class StatusService extends Service {
-    private static final String POST_STATUS_QUEUE_URL = "https://sqs.us-west-1.amazonaws.com/144580955219/post-status-queue";
-    private static final String UPDATE_FEED_QUEUE_URL = "https://sqs.us-west-1.amazonaws.com/144580955219/update-feed-queue";
+    public static final String POST_STATUS_QUEUE_URL = "https://sqs.us-west-1.amazonaws.com/144580955219/post-status-queue";
+    public static final String UPDATE_FEED_QUEUE_URL = "https://sqs.us-west-1.amazonaws.com/144580955219/update-feed-queue";
+
+    /**
+     * The number of followers whose feeds are updated by each update feed message. The feed
+     * writer splits each message into concurrent 25 item batches.
+     */
+    private static final int FOLLOWER_PAGE_SIZE = ServerConfig.getInt("FAN_OUT_PAGE_SIZE", 100);
+
+    /**
+     * How many pages of followers may be loaded ahead of the messages being sent.
+     */
+    private static final int FOLLOWER_PAGES_AHEAD = 4;
+
+    private static final ExecutorService followerPager = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "follower-pager");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final StatusDAO statusDAO;
     private final UserDAO userDAO;
     private final FollowDAO followDAO;
+    private final AmazonSQS sqs;
 
     @Inject
-    public StatusService(StatusDAO statusDAO, UserDAO userDAO, FollowDAO followDAO) {
+    public StatusService(StatusDAO statusDAO, UserDAO userDAO, FollowDAO followDAO, AmazonSQS sqs) {
         this.statusDAO = statusDAO;
         this.userDAO = userDAO;
         this.followDAO = followDAO;
+        this.sqs = sqs;
     }
 
     /**
@@ -51,6 +81,13 @@ public class StatusService extends Service {
 
     public FollowDAO getFollowDAO() { return this.followDAO; }
 
+    /**
+     * Returns the shared SQS client. Allows mocking of the client for testing purposes.
+     *
+     * @return the client.
+     */
+    public AmazonSQS getSQS() { return this.sqs; }
+
     public PostStatusResponse postStatus(PostStatusRequest request) {
         if (request.getStatus() == null) {
             throw new RuntimeException("[Bad Request] Request requires a status");
@@ -62,15 +99,15 @@ public class StatusService extends Service {
             throw new RuntimeException("[Bad Request] Request requires an authToken");
         }
 
-        System.out.println("Validating auth token...");
+        Log.debug("Validating auth token...");
 
         if (!authenticate(request.getAuthToken())) {
             return new PostStatusResponse("Unable to authenticate! Your session may have expired. Please log out and log back in.");
         }
 
-        System.out.println("Valid auth token...");
+        Log.debug("Valid auth token...");
 
-        System.out.println("Posting status to story...");
+        Log.debug("Posting status to story...");
 
         Status status = request.getStatus();
         status.setID(generateDatetime() + " : " + UUID.randomUUID());
@@ -90,46 +127,139 @@ public class StatusService extends Service {
             throw new RuntimeException("[DB Error] Unable to post status to story: " + e.getMessage());
         }
 
-        System.out.println("Successfully posted to story...");
+        Log.debug("Successfully posted to story...");
 
-        System.out.println("Writing sqs messages...");
+        Log.debug("Writing sqs messages...");
 
-        Gson gson = new Gson();
-        PostStatusSQSRequest sqsRequest = new PostStatusSQSRequest(status.getID(), status.getUser().getAlias());
-        String messageBody = gson.toJson(sqsRequest);
+        String messageBody = RequestMetrics.time(RequestMetrics.SERIALIZE, () -> new Gson().toJson(DENORMALIZED_FEED
+                ? new PostStatusSQSRequest(status)
+                : new PostStatusSQSRequest(status.getID(), status.getUser().getAlias())));
 
         SendMessageResult sendMessageResult = sendSQSMessage(messageBody, POST_STATUS_QUEUE_URL);
-        System.out.printf("Successfully posted post status message %s for status %s by poster %s%n",
+        Log.info("Successfully posted post status message %s for status %s by poster %s",
                 sendMessageResult.getMessageId(), status.getID(), status.getUser().getAlias());
 
         return new PostStatusResponse(true);
     }
 
     public void postUpdateFeedMessages(String message) {
-        System.out.println("Message: " + message);
+        Log.debug("Message: " + message);
         Gson gson = new Gson();
-        PostStatusSQSRequest postStatusSQSRequest = gson.fromJson(message, PostStatusSQSRequest.class);
+        PostStatusSQSRequest postStatusSQSRequest = RequestMetrics.time(RequestMetrics.SERIALIZE,
+                () -> gson.fromJson(message, PostStatusSQSRequest.class));
+        String posterAlias = postStatusSQSRequest.getPosterAlias();
+
+        if (PULL_FOLLOWER_THRESHOLD > 0 && isPulledIntoFeeds(posterAlias)) {
+            Log.info("Not fanning out status %s: feeds pull the statuses of %s from their story",
+                    postStatusSQSRequest.getStatusID(), posterAlias);
+            return;
+        }
+
+        Status status = postStatusSQSRequest.getStatus();
+        if (status != null) {
+            // Copy the stored profile into the feed rows rather than whatever the client sent.
+            try {
+                DBUser poster = getUserDAO().getUser(posterAlias);
+                if (poster != null) status.setUser(poster.getUser());
+            } catch (DAOException e) {
+                e.printStackTrace();
+                throw new RuntimeException("[DB Error] Unable to get poster \"" + posterAlias + "\": " + e.getMessage());
+            }
+        }
+
+        // Page through the followers on another thread so the next pages are already loaded
+        // while the current ones are being sent. Started only once nothing else can fail before
+        // the pages are taken, as the pager blocks once the queue is full.
+        BlockingQueue<List<String>> pages = new ArrayBlockingQueue<>(FOLLOWER_PAGES_AHEAD);
+        Future<Void> pager = followerPager.submit(RequestMetrics.wrap(() -> pageFollowers(posterAlias, pages)));
+
+        SQSBatchSender sender = new SQSBatchSender(getSQS(), UPDATE_FEED_QUEUE_URL);
         try {
-            List<String> followers = getFollowDAO().getFollowers(postStatusSQSRequest.getPosterAlias(), 25, null);
-            while (followers != null && !followers.isEmpty()) {
-                UpdateFeedSQSRequest updateFeedSQSRequest = new UpdateFeedSQSRequest(postStatusSQSRequest.getStatusID(), postStatusSQSRequest.getPosterAlias(), followers);
-                String messageBody = gson.toJson(updateFeedSQSRequest);
-                sendSQSMessage(messageBody, UPDATE_FEED_QUEUE_URL);
-                followers = getFollowDAO().getFollowers(postStatusSQSRequest.getPosterAlias(), 25, followers.get(followers.size() - 1));
+            List<String> followers = pages.take();
+            while (!followers.isEmpty()) {
+                UpdateFeedSQSRequest updateFeedSQSRequest = status != null ? new UpdateFeedSQSRequest(status, followers)
+                        : new UpdateFeedSQSRequest(postStatusSQSRequest.getStatusID(), posterAlias, followers);
+                sender.add(gson.toJson(updateFeedSQSRequest));
+                followers = pages.take();
             }
+            sender.flush();
+            pager.get();
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+            throw new RuntimeException("[DB Error] Unable to get followers for update feed queue: " + e.getCause().getMessage());
         } catch (Exception e) {
+            pager.cancel(true);
             e.printStackTrace();
             throw new RuntimeException("[DB Error] Unable to send message to update feed queue: " + e.getMessage());
         }
 
+        Log.info("Sent %d update feed messages in %d batches (%d retried) at %.1f messages/sec",
+                sender.getMessagesSent(), sender.getBatchesSent(), sender.getRetriedEntries(), sender.getMessagesPerSecond());
+    }
+
+    /**
+     * Decides whether the poster's statuses are pulled into feeds rather than fanned out. A poster
+     * who reaches PULL_FOLLOWER_THRESHOLD followers is marked for good before their first status is
+     * skipped, and feeds pull from marked posters, so the skipped statuses stay in feeds even
+     * after the poster drops back below the threshold.
+     *
+     * @param posterAlias the alias of the poster.
+     * @return true if the status is not to be fanned out.
+     */
+    private boolean isPulledIntoFeeds(String posterAlias) {
+        try {
+            if (!getUserDAO().filterPullFeeds(Collections.singletonList(posterAlias)).isEmpty()) return true;
+
+            int followersCount = getUserDAO().getFollowersCount(posterAlias);
+            if (followersCount < PULL_FOLLOWER_THRESHOLD) return false;
+
+            Log.info("Marking %s, who has %d followers, to have their statuses pulled into feeds", posterAlias, followersCount);
+            getUserDAO().markPullFeed(posterAlias);
+            return true;
+        } catch (DAOException e) {
+            e.printStackTrace();
+            throw new RuntimeException("[DB Error] Unable to check whether to fan out: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads every page of the poster's followers into the queue, followed by an empty page to
+     * mark the end. No end is marked if the paging is cancelled, as the sender has stopped
+     * waiting for it.
+     *
+     * @param posterAlias the alias of the user whose followers are to be paged.
+     * @param pages the queue the pages are handed off through.
+     */
+    private Void pageFollowers(String posterAlias, BlockingQueue<List<String>> pages) throws DAOException, InterruptedException {
+        try {
+            List<String> followers = getFollowDAO().getFollowers(posterAlias, FOLLOWER_PAGE_SIZE, null);
+            while (followers != null && !followers.isEmpty()) {
+                pages.put(followers);
+                if (followers.size() < FOLLOWER_PAGE_SIZE) break;
+                followers = getFollowDAO().getFollowers(posterAlias, FOLLOWER_PAGE_SIZE, followers.get(followers.size() - 1));
+            }
+        } catch (InterruptedException e) {
+            // Cancelled by the sender, which has stopped taking pages, so there is no one to tell
+            throw e;
+        } catch (Throwable e) {
+            // Including errors, so the sender is never left waiting for the end
+            pages.put(Collections.emptyList());
+            throw e;
+        }
+        pages.put(Collections.emptyList());
+        return null;
     }
 
     public void updateFeeds(String message) {
-        System.out.println("Message: " + message);
-        Gson gson = new Gson();
-        UpdateFeedSQSRequest updateFeedSQSRequest = gson.fromJson(message, UpdateFeedSQSRequest.class);
+        Log.debug("Message: " + message);
+        UpdateFeedSQSRequest updateFeedSQSRequest = RequestMetrics.time(RequestMetrics.SERIALIZE,
+                () -> new Gson().fromJson(message, UpdateFeedSQSRequest.class));
         try {
-            getStatusDAO().postStatusToFeeds(updateFeedSQSRequest.getStatusID(), updateFeedSQSRequest.getFollowers(), updateFeedSQSRequest.getPosterAlias());
+            if (updateFeedSQSRequest.getStatus() != null) {
+                getStatusDAO().postStatusToFeeds(updateFeedSQSRequest.getStatus(), updateFeedSQSRequest.getFollowers());
+            } else {
+                getStatusDAO().postStatusToFeeds(updateFeedSQSRequest.getStatusID(), updateFeedSQSRequest.getFollowers(), updateFeedSQSRequest.getPosterAlias());
+            }
         } catch (DAOException e) {
             e.printStackTrace();
             throw new RuntimeException("[DB Error] Unable to update feeds: " + e.getMessage());
@@ -141,7 +271,6 @@ public class StatusService extends Service {
                 .withQueueUrl(url)
                 .withMessageBody(messageBody);
 
-        AmazonSQS sqs = AmazonSQSClientBuilder.defaultClient();
-        return sqs.sendMessage(send_msg_request);
+        return getSQS().sendMessage(send_msg_request);
     }
 }
@@ -5,13 +5,14 @@ import java.util.List;
 
 import javax.inject.Inject;
 
-import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.domain.Status;
 import edu.byu.cs.tweeter.model.net.request.GetStoryRequest;
 import edu.byu.cs.tweeter.model.net.response.GetStoryResponse;
 import edu.byu.cs.tweeter.server.dao.StatusDAO;
 import edu.byu.cs.tweeter.server.dao.UserDAO;
 import edu.byu.cs.tweeter.server.dao.dynamo.StatusDynamoDAO;
 import edu.byu.cs.tweeter.server.dao.model.DBStatus;
+import edu.byu.cs.tweeter.server.metrics.Log;
 
 public class StoryService extends Service {
 
@@ -36,15 +37,15 @@ public class StoryService extends Service {
             throw new RuntimeException("[Bad Request] Request needs to have a positive limit");
         }
 
-        System.out.println("Validating auth token...");
+        Log.debug("Validating auth token...");
 
         if (!authenticate(request.getAuthToken())) {
             return new GetStoryResponse("Unable to authenticate! Your session may have expired. Please log out and log back in.");
         }
 
-        System.out.println("Valid auth token...");
+        Log.debug("Valid auth token...");
 
-        System.out.println("Getting user story...");
+        Log.debug("Getting user story...");
 
         List<DBStatus> statusData;
         try {
@@ -56,20 +57,12 @@ public class StoryService extends Service {
         if (statusData == null || statusData.isEmpty()) {
             return new GetStoryResponse(new ArrayList<>(), false);
         }
-        System.out.printf("Received %d items from story query%n", statusData.size());
+        Log.debug("Received %d items from story query", statusData.size());
 
-        List<String> userAliases = getAllUniqueUsers(statusData);
-        List<User> users;
-        try {
-            users = getUserDAO().batchGetUsers(userAliases);
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("[DB Error] Unable to get status users: " + e.getMessage());
-        }
+        List<Status> statuses = hydrateStatuses(statusData);
 
-        System.out.println("Successfully got story...");
+        Log.debug("Successfully got story...");
 
-        return new GetStoryResponse(extractStatuses(statusData, generateUserMap(users)),
-                statusData.size() == request.getLimit());
+        return new GetStoryResponse(statuses, statusData.size() == request.getLimit());
     }
 }
@@ -7,8 +7,6 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.UUID;
 
 import javax.inject.Inject;
@@ -30,6 +28,8 @@ import edu.byu.cs.tweeter.model.net.response.UserResponse;
 import edu.byu.cs.tweeter.server.dao.DAOException;
 import edu.byu.cs.tweeter.server.dao.model.DBUser;
 import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.metrics.Log;
+import edu.byu.cs.tweeter.server.service.auth.SignedAuthTokens;
 
 public class UserService extends Service {
 
@@ -72,13 +72,7 @@ public class UserService extends Service {
             throw new RuntimeException("[Server Error] Unable to validate password: " + e.getMessage());
         }
 
-        AuthToken authToken = generateAuthToken();
-        try {
-            getUserDAO().putAuthToken(authToken);
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("[DB Error] Unable to put authToken in table: " + e.getMessage());
-        }
+        AuthToken authToken = generateAuthToken(request.getUsername());
 
         return new LoginResponse(userData.getUser(), authToken);
     }
@@ -88,17 +82,23 @@ public class UserService extends Service {
             throw new RuntimeException("[Bad Request] Missing an authToken");
         }
 
-        System.out.println("Deleting auth token...");
+        Log.debug("Deleting auth token...");
 
         try {
-            getUserDAO().deleteAuthToken(request.getAuthToken());
+            if (SignedAuthTokens.isSigned(request.getAuthToken())) {
+                if (SIGNED_AUTH_TOKENS != null) {
+                    SIGNED_AUTH_TOKENS.revoke(request.getAuthToken(), generateDatetime(), getUserDAO());
+                }
+            } else {
+                getUserDAO().deleteAuthToken(request.getAuthToken());
+            }
         } catch (Exception e) {
             e.printStackTrace();
             // Logout the user anyway, leaving dangling authToken
             return new LogoutResponse(true);
         }
 
-        System.out.println("Successfully deleted auth token...");
+        Log.debug("Successfully deleted auth token...");
 
         return new LogoutResponse(true);
     }
@@ -110,9 +110,9 @@ public class UserService extends Service {
             throw new RuntimeException("[Bad Request] Missing a password");
         }
 
-        System.out.println("Registering user: " + request.getUsername());
+        Log.debug("Registering user: " + request.getUsername());
         try {
-            if (getUserDAO().getUser(request.getUsername()) != null) {
+            if (getUserDAO().isRegistered(request.getUsername())) {
                 return new RegisterResponse("User already exists! Choose a different alias.");
             }
         } catch (Exception e) {
@@ -120,7 +120,7 @@ public class UserService extends Service {
             throw new RuntimeException("[DB Error] Unable to check if user already exists: " + e.getMessage());
         }
 
-        System.out.println("User does not exist. Putting password...");
+        Log.debug("User does not exist. Putting password...");
 
         String hashedPassword;
         String salt;
@@ -132,7 +132,7 @@ public class UserService extends Service {
             throw new RuntimeException("[Server Error] Unable to hash password: " + e.getMessage());
         }
 
-        System.out.println("Putting image...");
+        Log.debug("Putting image...");
 
         // Default image url
         String imageURL = "https://faculty.cs.byu.edu/~jwilkerson/cs340/tweeter/images/donald_duck.png";
@@ -147,27 +147,20 @@ public class UserService extends Service {
             }
         }
 
-        System.out.println("Putting user...");
+        Log.debug("Putting user...");
 
         try {
             getUserDAO().addUser(request.getUsername(), hashedPassword, salt, request.getFirstName(),
                     request.getLastName(), imageURL, 0, 0);
-            System.out.println("Successfully put user in table");
+            Log.debug("Successfully put user in table");
         } catch (Exception e) {
             e.printStackTrace();
             throw new RuntimeException("[DB Error] Unable to put user in table: " + e.getMessage());
         }
 
-        System.out.println("Putting token...");
+        Log.debug("Putting token...");
 
-        AuthToken authToken = generateAuthToken();
-        try {
-            getUserDAO().putAuthToken(authToken);
-            System.out.println("Successfully put authToken in table");
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("[DB Error] Unable to put authToken in table: " + e.getMessage());
-        }
+        AuthToken authToken = generateAuthToken(request.getUsername());
 
         return new RegisterResponse(new User(request.getFirstName(), request.getLastName(), request.getUsername(), imageURL), authToken);
     }
@@ -180,15 +173,15 @@ public class UserService extends Service {
             throw new RuntimeException("[Bad Request] Missing an authToken");
         }
 
-        System.out.println("Checking auth token...");
+        Log.debug("Checking auth token...");
 
         if (!authenticate(request.getAuthToken())) {
             return new UserResponse("Unable to authenticate! Your session may have expired. Please log out and log back in.");
         }
 
-        System.out.println("Valid auth token...");
+        Log.debug("Valid auth token...");
 
-        System.out.println("Getting user...");
+        Log.debug("Getting user...");
 
         DBUser userData;
         try {
@@ -202,7 +195,7 @@ public class UserService extends Service {
             return new UserResponse("User \"" + request.getUsername() + "\" not found!");
         }
 
-        System.out.println("Found user...");
+        Log.debug("Found user...");
         
         return new UserResponse(userData.getUser());
     }
@@ -221,15 +214,15 @@ public class UserService extends Service {
             throw new RuntimeException("[Bad Request] Request needs to have an authToken");
         }
 
-        System.out.println("Validating auth token...");
+        Log.debug("Validating auth token...");
 
         if (!authenticate(request.getAuthToken())) {
             return new GetFollowersCountResponse("Unable to authenticate! Your session may have expired. Please log out and log back in.");
         }
 
-        System.out.println("Valid auth token...");
+        Log.debug("Valid auth token...");
 
-        System.out.println("Getting followers count...");
+        Log.debug("Getting followers count...");
 
         try {
             return new GetFollowersCountResponse(getUserDAO().getFollowersCount(request.getTargetUser().getAlias()));
@@ -253,15 +246,15 @@ public class UserService extends Service {
             throw new RuntimeException("[Bad Request] Request needs to have an authToken");
         }
 
-        System.out.println("Validating auth token...");
+        Log.debug("Validating auth token...");
 
         if (!authenticate(request.getAuthToken())) {
             return new GetFollowingCountResponse("Unable to authenticate! Your session may have expired. Please log out and log back in.");
         }
 
-        System.out.println("Valid auth token...");
+        Log.debug("Valid auth token...");
 
-        System.out.println("Getting following count...");
+        Log.debug("Getting following count...");
 
         try {
             return new GetFollowingCountResponse(getUserDAO().getFollowingCount(request.getTargetUser().getAlias()));
@@ -271,62 +264,13 @@ public class UserService extends Service {
         }
     }
 
-    public void putTestUsers() {
-        List<DBUser> userData = new ArrayList<>();
-        String salt;
-        String hashedPassword;
-        int currentUserIndex = 0;
-        try {
-            salt = getSalt();
-            hashedPassword = hashPassword(salt + "password");
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Unable to get salt");
-        }
-
-        System.out.println("Putting gghansen...");
-
-        try {
-            getUserDAO().addUser("@gghansen", hashedPassword, salt, "Hunter", "Hansen", "https://hunter-profile-images.s3.us-west-1.amazonaws.com/hunter.JPG", 10000, 0);
-        } catch (DAOException e) {
-            throw new RuntimeException("Unable to batch put users. Failed at gghansen: " + e.getMessage());
-        }
-
-        System.out.println("Successfully put gghansen...");
-
-        System.out.println("Putting 10000 test users...");
-
-        for (int i = 0; i < 10000; i += 25) {
-            userData.clear();
-            for (int j = 0; j < 25; j++) {
-                currentUserIndex = i + j;
-                try {
-                    salt = getSalt();
-                    hashedPassword = hashPassword(salt + "test" + currentUserIndex);
-                } catch (NoSuchAlgorithmException e) {
-                    throw new RuntimeException("Unable to get salt");
-                }
-
-
-                userData.add(new DBUser(new User(
-                            "Test" + currentUserIndex,
-                            "Test" + currentUserIndex,
-                            "@test" + currentUserIndex,
-                            "https://faculty.cs.byu.edu/~jwilkerson/cs340/tweeter/images/donald_duck.png"),
-                        hashedPassword, salt));
-            }
-
-            try {
-                getUserDAO().batchAddUsers(userData);
-            } catch (DAOException e) {
-                throw new RuntimeException("Unable to batch put users. Failed at " + i + "-" + (i+25) +
-                        ": " + e.getMessage());
-            }
-        }
-
-        System.out.println("Successfully put 10000 test users...");
-    }
-
-    private String hashPassword(String passwordToHash) throws NoSuchAlgorithmException {
+    /**
+     * Hashes a salted password the way every stored password is hashed.
+     *
+     * @param passwordToHash the salt followed by the password.
+     * @return the hash, in hex.
+     */
+    public static String hashPassword(String passwordToHash) throws NoSuchAlgorithmException {
         MessageDigest md = MessageDigest.getInstance("MD5");
         md.update(passwordToHash.getBytes());
         byte[] bytes = md.digest();
@@ -349,7 +293,26 @@ public class UserService extends Service {
         return passwordFromDB.equals(hashedClientPassword);
     }
 
-    private AuthToken generateAuthToken() {
-        return new AuthToken(UUID.randomUUID().toString(), generateDatetime());
+    /**
+     * Issues a new auth token for the user. Signed tokens are not stored; other tokens are put in
+     * the auth token table.
+     *
+     * @param alias the alias of the user.
+     * @return the auth token.
+     */
+    private AuthToken generateAuthToken(String alias) {
+        if (ISSUE_SIGNED_AUTH_TOKENS) {
+            return SIGNED_AUTH_TOKENS.issue(alias, generateDatetime());
+        }
+
+        AuthToken authToken = new AuthToken(UUID.randomUUID().toString(), generateDatetime());
+        try {
+            getUserDAO().putAuthToken(authToken);
+            Log.debug("Successfully put authToken in table");
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException("[DB Error] Unable to put authToken in table: " + e.getMessage());
+        }
+        return authToken;
     }
 }
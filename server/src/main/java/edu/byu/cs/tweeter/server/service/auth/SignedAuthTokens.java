@@ -0,0 +1,220 @@
+package edu.byu.cs.tweeter.server.service.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+
+/**
+ * Issues and verifies auth tokens that carry their user's alias and expiry, signed with
+ * HMAC-SHA256, so checking one needs no database read. A token looks like
+ * {@code v1.<alias>.<expiry>.<id>.<signature>} with the alias and signature base64url encoded.
+ *
+ * Signed tokens cannot be deleted, so logging out revokes the token's ID instead. The IDs of
+ * revoked tokens that have not yet expired are read from the database at most every
+ * REVOCATION_REFRESH_MILLIS, which is how long a token logged out in another container can
+ * still be used. Only one request reads them; the others carry on with the ones read before.
+ */
+public class SignedAuthTokens {
+
+    private static final String VERSION = "v1";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final long REVOCATION_REFRESH_MILLIS = ServerConfig.getLong("AUTH_TOKEN_REVOCATION_REFRESH_MILLIS", 30_000);
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlMillis;
+
+    // Null until first read
+    private volatile Set<String> revokedIDs;
+    private final AtomicLong nextRevocationRefresh = new AtomicLong();
+    private final Set<String> locallyRevokedIDs = Collections.synchronizedSet(new HashSet<>());
+
+    /**
+     * @param secret the key the tokens are signed with.
+     * @param ttlMillis how long an issued token is valid for.
+     */
+    public SignedAuthTokens(byte[] secret, long ttlMillis) {
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Creates the signer configured by AUTH_TOKEN_SECRET and AUTH_TOKEN_TTL_MINUTES.
+     *
+     * @return the signer, or null if no secret is configured.
+     */
+    public static SignedAuthTokens fromConfig() {
+        String secret = ServerConfig.getString("AUTH_TOKEN_SECRET", null);
+        if (secret == null) return null;
+        long ttlMillis = ServerConfig.getLong("AUTH_TOKEN_TTL_MINUTES", 60) * 60_000;
+        return new SignedAuthTokens(secret.getBytes(StandardCharsets.UTF_8), ttlMillis);
+    }
+
+    /**
+     * @param token the auth token.
+     * @return whether the token has the format of a signed token. It may still be invalid.
+     */
+    public static boolean isSigned(AuthToken token) {
+        return token != null && token.getToken() != null && token.getToken().startsWith(VERSION + ".");
+    }
+
+    /**
+     * Issues a new token for the user.
+     *
+     * @param alias the alias of the user.
+     * @param currentDatetime the current datetime.
+     * @return the token.
+     */
+    public AuthToken issue(String alias, long currentDatetime) {
+        String payload = VERSION + "." + ENCODER.encodeToString(alias.getBytes(StandardCharsets.UTF_8)) + "." +
+                (currentDatetime + ttlMillis) + "." + UUID.randomUUID();
+        return new AuthToken(payload + "." + ENCODER.encodeToString(sign(payload)), currentDatetime);
+    }
+
+    /**
+     * Checks a token's signature and expiry, without checking whether it has been revoked.
+     *
+     * @param token the auth token.
+     * @param currentDatetime the current datetime.
+     * @return the token's claims, or null if the token is invalid or expired.
+     */
+    public Claims verify(AuthToken token, long currentDatetime) {
+        if (!isSigned(token)) return null;
+
+        String value = token.getToken();
+        int signatureStart = value.lastIndexOf('.');
+        String payload = value.substring(0, signatureStart);
+        String[] parts = payload.split("\\.");
+        if (parts.length != 4) return null;
+
+        try {
+            byte[] signature = DECODER.decode(value.substring(signatureStart + 1));
+            if (!MessageDigest.isEqual(signature, sign(payload))) return null;
+
+            long expiresAt = Long.parseLong(parts[2]);
+            if (currentDatetime >= expiresAt) return null;
+
+            return new Claims(new String(DECODER.decode(parts[1]), StandardCharsets.UTF_8), expiresAt, parts[3]);
+        } catch (IllegalArgumentException e) {
+            // Bad base64 or a bad expiry, so the token was not issued by us
+            return null;
+        }
+    }
+
+    /**
+     * Checks a token's signature and expiry, and that it has not been revoked.
+     *
+     * @param token the auth token.
+     * @param currentDatetime the current datetime.
+     * @param userDAO the DAO holding the revoked tokens.
+     * @return whether the token is valid.
+     * @throws DAOException if an error occurred in accessing the database.
+     */
+    public boolean authenticate(AuthToken token, long currentDatetime, UserDAO userDAO) throws DAOException {
+        Claims claims = verify(token, currentDatetime);
+        if (claims == null) return false;
+        if (locallyRevokedIDs.contains(claims.getID())) return false;
+
+        Set<String> revoked = revokedIDs;
+        if (revoked == null) {
+            revoked = readFirstRevokedIDs(currentDatetime, userDAO);
+        } else {
+            long refreshAt = nextRevocationRefresh.get();
+            long nextRefresh = currentDatetime + REVOCATION_REFRESH_MILLIS;
+            if (currentDatetime >= refreshAt && nextRevocationRefresh.compareAndSet(refreshAt, nextRefresh)) {
+                try {
+                    revoked = readRevokedIDs(currentDatetime, userDAO);
+                } catch (DAOException | RuntimeException e) {
+                    // Let the next request try again
+                    nextRevocationRefresh.compareAndSet(nextRefresh, refreshAt);
+                    throw e;
+                }
+            }
+        }
+        return !revoked.contains(claims.getID());
+    }
+
+    /**
+     * Revokes a token until it expires.
+     *
+     * @param token the auth token.
+     * @param currentDatetime the current datetime.
+     * @param userDAO the DAO holding the revoked tokens.
+     * @throws DAOException if an error occurred in accessing the database.
+     */
+    public void revoke(AuthToken token, long currentDatetime, UserDAO userDAO) throws DAOException {
+        Claims claims = verify(token, currentDatetime);
+        // Invalid and expired tokens are already unusable
+        if (claims == null) return;
+
+        locallyRevokedIDs.add(claims.getID());
+        userDAO.revokeAuthToken(claims.getID(), claims.getExpiresAt());
+    }
+
+    /**
+     * Reads the revoked IDs if no request has yet. Every request waits for the first read, as
+     * there is nothing older to check the tokens against.
+     */
+    private synchronized Set<String> readFirstRevokedIDs(long currentDatetime, UserDAO userDAO) throws DAOException {
+        if (revokedIDs == null) {
+            readRevokedIDs(currentDatetime, userDAO);
+            nextRevocationRefresh.set(currentDatetime + REVOCATION_REFRESH_MILLIS);
+        }
+        return revokedIDs;
+    }
+
+    private Set<String> readRevokedIDs(long currentDatetime, UserDAO userDAO) throws DAOException {
+        Set<String> revoked = new HashSet<>(userDAO.getRevokedAuthTokens(currentDatetime));
+        revokedIDs = revoked;
+        locallyRevokedIDs.removeAll(revoked);
+        return revoked;
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            // Mac instances are not thread safe, and are cheap to create
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign auth token: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * What a valid token says about itself.
+     */
+    public static class Claims {
+        private final String alias;
+        private final long expiresAt;
+        private final String id;
+
+        Claims(String alias, long expiresAt, String id) {
+            this.alias = alias;
+            this.expiresAt = expiresAt;
+            this.id = id;
+        }
+
+        public String getAlias() { return alias; }
+
+        public long getExpiresAt() { return expiresAt; }
+
+        public String getID() { return id; }
+    }
+}
@@ -0,0 +1,46 @@
+package edu.byu.cs.tweeter.server.service.backfill;
+
+/**
+ * Where a feed backfill run should start, and how much it should do before returning. A run
+ * with no last row starts at the beginning of the feeds table.
+ */
+public class BackfillFeedsRequest {
+    public static final int DEFAULT_MAX_ENTRIES = 5_000;
+
+    private String lastAlias;
+    private String lastStatusID;
+    private int maxEntries;
+
+    public BackfillFeedsRequest() {
+    }
+
+    public BackfillFeedsRequest(String lastAlias, String lastStatusID, int maxEntries) {
+        this.lastAlias = lastAlias;
+        this.lastStatusID = lastStatusID;
+        this.maxEntries = maxEntries;
+    }
+
+    public String getLastAlias() {
+        return lastAlias;
+    }
+
+    public void setLastAlias(String lastAlias) {
+        this.lastAlias = lastAlias;
+    }
+
+    public String getLastStatusID() {
+        return lastStatusID;
+    }
+
+    public void setLastStatusID(String lastStatusID) {
+        this.lastStatusID = lastStatusID;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+}
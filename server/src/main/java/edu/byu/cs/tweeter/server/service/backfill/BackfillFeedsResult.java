@@ -0,0 +1,68 @@
+package edu.byu.cs.tweeter.server.service.backfill;
+
+import edu.byu.cs.tweeter.server.dao.model.DBFeedEntry;
+
+/**
+ * What a feed backfill run did. The last row is null once the whole table has been scanned;
+ * otherwise it is passed as the start of the next run.
+ */
+public class BackfillFeedsResult {
+    private String lastAlias;
+    private String lastStatusID;
+    private int scanned;
+    private int rewritten;
+    private boolean done;
+
+    public BackfillFeedsResult() {
+    }
+
+    public BackfillFeedsResult(DBFeedEntry lastEntry, int scanned, int rewritten) {
+        if (lastEntry != null) {
+            this.lastAlias = lastEntry.getAlias();
+            this.lastStatusID = lastEntry.getStatusID();
+        }
+        this.scanned = scanned;
+        this.rewritten = rewritten;
+        this.done = lastEntry == null;
+    }
+
+    public String getLastAlias() {
+        return lastAlias;
+    }
+
+    public void setLastAlias(String lastAlias) {
+        this.lastAlias = lastAlias;
+    }
+
+    public String getLastStatusID() {
+        return lastStatusID;
+    }
+
+    public void setLastStatusID(String lastStatusID) {
+        this.lastStatusID = lastStatusID;
+    }
+
+    public int getScanned() {
+        return scanned;
+    }
+
+    public void setScanned(int scanned) {
+        this.scanned = scanned;
+    }
+
+    public int getRewritten() {
+        return rewritten;
+    }
+
+    public void setRewritten(int rewritten) {
+        this.rewritten = rewritten;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+}
@@ -0,0 +1,308 @@
+package edu.byu.cs.tweeter.server.service.seed;
+
+import com.google.inject.Inject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.FollowDAO;
+import edu.byu.cs.tweeter.server.dao.StatusDAO;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.dao.model.DBUser;
+import edu.byu.cs.tweeter.server.metrics.Log;
+import edu.byu.cs.tweeter.server.service.UserService;
+
+/**
+ * Writes the users, follows and stories described by a {@link SeedPlan}. The work is split into
+ * chunks of CHUNK_SIZE items that are generated and written concurrently on SEED_THREADS
+ * threads, each chunk in batches of 25, so the batches of different chunks are in flight at
+ * once. Nothing is held in memory beyond the chunks being written.
+ *
+ * Every item is derived from the plan, including the password salts, so writing a chunk twice
+ * changes nothing. When SEED_CHECKPOINT_DIR is set, finished chunks are recorded in a checkpoint
+ * file there, named for the plan and TWEETER_STORAGE, and seeding the same plan into the same
+ * storage again skips them, so a seed that failed or ran out of time carries on where it
+ * stopped. Without it every chunk is written each time. A lambda function can only use /tmp,
+ * which does not outlive its container, so it only carries on if invoked again while warm.
+ */
+public class BulkSeeder {
+
+    /**
+     * The number of items in each chunk of work.
+     */
+    public static final int CHUNK_SIZE = 1_000;
+
+    private static final int BATCH_SIZE = 25;
+    private static final String IMAGE_URL = "https://faculty.cs.byu.edu/~jwilkerson/cs340/tweeter/images/donald_duck.png";
+    private static final String HUB_IMAGE_URL = "https://hunter-profile-images.s3.us-west-1.amazonaws.com/hunter.JPG";
+
+    // The statuses are dated back from here, one minute apart
+    private static final long STORY_EPOCH = 1_600_000_000_000L;
+
+    private final UserDAO userDAO;
+    private final FollowDAO followDAO;
+    private final StatusDAO statusDAO;
+
+    private final AtomicLong users = new AtomicLong();
+    private final AtomicLong follows = new AtomicLong();
+    private final AtomicLong statuses = new AtomicLong();
+
+    @Inject
+    public BulkSeeder(UserDAO userDAO, FollowDAO followDAO, StatusDAO statusDAO) {
+        this.userDAO = userDAO;
+        this.followDAO = followDAO;
+        this.statusDAO = statusDAO;
+    }
+
+    /**
+     * Writes every chunk of the plan that has not been written already.
+     *
+     * @param plan the data to write.
+     * @return what was written.
+     */
+    public Report seed(SeedPlan plan) {
+        long start = System.nanoTime();
+        users.set(0);
+        follows.set(0);
+        statuses.set(0);
+        File checkpointFile = checkpointFile(plan);
+        Log.info("Seeding %s, checkpointing to %s", plan, checkpointFile == null ? "nowhere" : checkpointFile);
+
+        int threads = ServerConfig.getInt("SEED_THREADS", 16);
+        // When every thread is busy and the queue is full the caller writes the chunk itself,
+        // which keeps the generated data bounded.
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 2), runnable -> {
+                    Thread thread = new Thread(runnable, "bulk-seeder");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        int skipped = 0;
+        int chunks = 0;
+        String firstError = null;
+        int failedChunks = 0;
+        try (SeedCheckpoint checkpoint = new SeedCheckpoint(checkpointFile)) {
+            int[] followingCounts = plan.getFollowingCounts();
+
+            List<Chunk> work = new ArrayList<>();
+            if (plan.getHubAlias() != null) {
+                work.add(new Chunk("hub", () -> writeHub(plan)));
+            }
+            for (int first = 0; first < plan.getUsers(); first += CHUNK_SIZE) {
+                int from = first;
+                int to = Math.min(plan.getUsers(), first + CHUNK_SIZE);
+                work.add(new Chunk("users:" + from, () -> writeUsers(plan, followingCounts, from, to)));
+                if (plan.getHubAlias() != null) {
+                    work.add(new Chunk("hub-follows:" + from, () -> writeHubFollows(plan, from, to)));
+                }
+                if (plan.getStorySize() > 0) {
+                    work.add(new Chunk("stories:" + from, () -> writeStories(plan, from, to)));
+                }
+            }
+            for (int user = 0; user < plan.getPopularUsers(); user++) {
+                int followee = user;
+                for (int first = 0; first < plan.getPopularFollowers(user); first += CHUNK_SIZE) {
+                    int from = first;
+                    int to = Math.min(plan.getPopularFollowers(user), first + CHUNK_SIZE);
+                    work.add(new Chunk("follows:" + user + ":" + from, () -> writePopularFollows(plan, followee, from, to)));
+                }
+            }
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (Chunk chunk : work) {
+                if (checkpoint.isDone(chunk.name)) {
+                    skipped++;
+                    continue;
+                }
+                futures.add(executor.submit(() -> {
+                    chunk.task.write();
+                    checkpoint.markDone(chunk.name);
+                    return null;
+                }));
+            }
+            chunks = work.size();
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failedChunks++;
+                    if (firstError == null) firstError = e.getCause().getMessage();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("[Server Error] Interrupted while seeding");
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("[Server Error] Unable to use seed checkpoint " + checkpointFile + ": " + e.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+
+        if (failedChunks > 0) {
+            throw new RuntimeException("[DB Error] " + failedChunks + " of " + chunks + " seed chunks failed, " +
+                    "seed again to retry them: " + firstError);
+        }
+
+        Report report = new Report(chunks, skipped, users.get(), follows.get(), statuses.get(), System.nanoTime() - start);
+        Log.debug("%s", report);
+        return report;
+    }
+
+    /**
+     * @return the checkpoint file of the plan, or null if SEED_CHECKPOINT_DIR is not set.
+     */
+    private static File checkpointFile(SeedPlan plan) {
+        String directory = ServerConfig.getString("SEED_CHECKPOINT_DIR", null);
+        if (directory == null) return null;
+        String key = plan.getKey() + ";" + ServerConfig.getString("TWEETER_STORAGE", "dynamo");
+        return new File(directory, "tweeter-seed-" + UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)) + ".checkpoint");
+    }
+
+    private void writeHub(SeedPlan plan) throws DAOException {
+        String salt = salt(-1);
+        userDAO.addUser(plan.getHubAlias(), hash(salt, "password"), salt, "Hunter", "Hansen", HUB_IMAGE_URL,
+                plan.getUsers(), 0);
+        users.incrementAndGet();
+    }
+
+    private void writeUsers(SeedPlan plan, int[] followingCounts, int from, int to) throws DAOException {
+        List<DBUser> batch = new ArrayList<>(BATCH_SIZE);
+        for (int user = from; user < to; user++) {
+            String salt = salt(user);
+            batch.add(new DBUser(new User("Test" + user, "Test" + user, SeedPlan.alias(user), IMAGE_URL),
+                    hash(salt, "test" + user), salt, plan.getPopularFollowers(user), followingCounts[user]));
+            if (batch.size() == BATCH_SIZE || user == to - 1) {
+                userDAO.batchAddUsers(batch);
+                users.addAndGet(batch.size());
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+    }
+
+    private void writeHubFollows(SeedPlan plan, int from, int to) throws DAOException {
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        for (int user = from; user < to; user++) {
+            batch.add(SeedPlan.alias(user));
+            if (batch.size() == BATCH_SIZE || user == to - 1) {
+                followDAO.batchPutFollowers(plan.getHubAlias(), batch);
+                follows.addAndGet(batch.size());
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+    }
+
+    private void writePopularFollows(SeedPlan plan, int followee, int from, int to) throws DAOException {
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        for (int index = from; index < to; index++) {
+            batch.add(SeedPlan.alias(plan.getPopularFollower(followee, index)));
+            if (batch.size() == BATCH_SIZE || index == to - 1) {
+                followDAO.batchPutFollowers(SeedPlan.alias(followee), batch);
+                follows.addAndGet(batch.size());
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+    }
+
+    private void writeStories(SeedPlan plan, int from, int to) throws DAOException {
+        for (int user = from; user < to; user++) {
+            for (int i = 0; i < plan.getStorySize(); i++) {
+                long datetime = STORY_EPOCH - TimeUnit.MINUTES.toMillis(i);
+                statusDAO.postStatusToStory(SeedPlan.alias(user), "Test status " + i + " from " + SeedPlan.alias(user),
+                        "", "", Long.toString(datetime), datetime + " : seed-" + user + "-" + i);
+                statuses.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return a salt derived from the user's number, so the user is written the same every time.
+     */
+    private static String salt(int user) {
+        SplittableRandom random = new SplittableRandom(0x5eed_0000_0000L + user);
+        return Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong());
+    }
+
+    private static String hash(String salt, String password) {
+        try {
+            return UserService.hashPassword(salt + password);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("[Server Error] Unable to hash password: " + e.getMessage());
+        }
+    }
+
+    private interface ChunkTask {
+        void write() throws DAOException;
+    }
+
+    private static class Chunk {
+        final String name;
+        final ChunkTask task;
+
+        Chunk(String name, ChunkTask task) {
+            this.name = name;
+            this.task = task;
+        }
+    }
+
+    /**
+     * What one seed wrote.
+     */
+    public static class Report {
+        private final int chunks;
+        private final int skippedChunks;
+        private final long users;
+        private final long follows;
+        private final long statuses;
+        private final long nanos;
+
+        Report(int chunks, int skippedChunks, long users, long follows, long statuses, long nanos) {
+            this.chunks = chunks;
+            this.skippedChunks = skippedChunks;
+            this.users = users;
+            this.follows = follows;
+            this.statuses = statuses;
+            this.nanos = nanos;
+        }
+
+        public int getChunks() { return chunks; }
+
+        /**
+         * @return the number of chunks the checkpoint showed were already written.
+         */
+        public int getSkippedChunks() { return skippedChunks; }
+
+        public long getUsers() { return users; }
+
+        public long getFollows() { return follows; }
+
+        public long getStatuses() { return statuses; }
+
+        public double getSeconds() { return nanos / 1_000_000_000.0; }
+
+        @Override
+        public String toString() {
+            double seconds = getSeconds();
+            return String.format("Seeded %d users, %d follows and %d statuses in %.1f s (%.0f items/sec); " +
+                            "%d of %d chunks were already done",
+                    users, follows, statuses, seconds, seconds > 0 ? (users + follows + statuses) / seconds : 0,
+                    skippedChunks, chunks);
+        }
+    }
+}
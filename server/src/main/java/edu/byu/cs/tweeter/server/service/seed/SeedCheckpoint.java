@@ -0,0 +1,56 @@
+package edu.byu.cs.tweeter.server.service.seed;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which chunks of a seed have been written, in a file with one chunk per line, so a
+ * seed that stopped part way can carry on where it left off. A line cut short by a crash is
+ * ignored, and its chunk is written again, which is harmless because chunks are idempotent.
+ * Without a file nothing is remembered beyond the seed.
+ */
+class SeedCheckpoint implements AutoCloseable {
+
+    private final Set<String> done = ConcurrentHashMap.newKeySet();
+    private final BufferedWriter writer;
+
+    SeedCheckpoint(File file) throws IOException {
+        if (file == null) {
+            writer = null;
+            return;
+        }
+        if (file.exists()) {
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                if (line.endsWith(";")) done.add(line.substring(0, line.length() - 1));
+            }
+        }
+        writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    boolean isDone(String chunk) {
+        return done.contains(chunk);
+    }
+
+    int getDoneCount() {
+        return done.size();
+    }
+
+    synchronized void markDone(String chunk) throws IOException {
+        if (!done.add(chunk) || writer == null) return;
+        writer.write(chunk + ";");
+        writer.newLine();
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) writer.close();
+    }
+}
@@ -0,0 +1,125 @@
+package edu.byu.cs.tweeter.server.service.seed;
+
+import edu.byu.cs.tweeter.server.config.ServerConfig;
+
+/**
+ * Describes the test data the bulk seeder writes. Everything is derived from the plan, so
+ * seeding the same plan twice writes exactly the same items.
+ *
+ * There are {@code users} users, @test0 to @test(users - 1), whose passwords are "test" followed
+ * by their number. If there is a hub, it is followed by every user, as @gghansen always has
+ * been. On top of that the first {@code popularUsers} users have power-law follower counts: the
+ * user ranked r (from 1) is followed by maxFollowers / r^zipfExponent users, namely the users
+ * numbered just after it. Every user has {@code storySize} statuses in their story.
+ */
+public class SeedPlan {
+
+    private final int users;
+    private final String hubAlias;
+    private final int popularUsers;
+    private final int maxFollowers;
+    private final double zipfExponent;
+    private final int storySize;
+
+    public SeedPlan(int users, String hubAlias, int popularUsers, int maxFollowers, double zipfExponent, int storySize) {
+        this.users = users;
+        this.hubAlias = hubAlias == null || hubAlias.isEmpty() ? null : hubAlias;
+        this.popularUsers = Math.min(users, popularUsers);
+        this.maxFollowers = Math.min(users - 1, maxFollowers);
+        this.zipfExponent = zipfExponent;
+        this.storySize = storySize;
+    }
+
+    /**
+     * Reads the plan from SEED_USERS (10000), SEED_HUB_ALIAS (@gghansen, empty for none),
+     * SEED_POPULAR_USERS (0), SEED_MAX_FOLLOWERS (a tenth of the users), SEED_ZIPF_EXPONENT (1.0)
+     * and SEED_STORY_SIZE (0). The defaults are the data the test data handler has always written.
+     *
+     * @return the plan.
+     */
+    public static SeedPlan fromConfig() {
+        int users = ServerConfig.getInt("SEED_USERS", 10_000);
+        return new SeedPlan(users,
+                ServerConfig.getString("SEED_HUB_ALIAS", "@gghansen"),
+                ServerConfig.getInt("SEED_POPULAR_USERS", 0),
+                ServerConfig.getInt("SEED_MAX_FOLLOWERS", users / 10),
+                Double.parseDouble(ServerConfig.getString("SEED_ZIPF_EXPONENT", "1.0")),
+                ServerConfig.getInt("SEED_STORY_SIZE", 0));
+    }
+
+    public int getUsers() { return users; }
+
+    public String getHubAlias() { return hubAlias; }
+
+    public int getPopularUsers() { return popularUsers; }
+
+    public int getStorySize() { return storySize; }
+
+    public static String alias(int user) {
+        return "@test" + user;
+    }
+
+    /**
+     * @param user the number of a popular user.
+     * @return the number of users in the power-law graph following the user.
+     */
+    public int getPopularFollowers(int user) {
+        if (user >= popularUsers) return 0;
+        return (int) Math.max(1, Math.round(maxFollowers / Math.pow(user + 1, zipfExponent)));
+    }
+
+    /**
+     * @param user the number of a popular user.
+     * @param index the index of one of its followers.
+     * @return the number of that follower.
+     */
+    public int getPopularFollower(int user, int index) {
+        return (user + 1 + index) % users;
+    }
+
+    /**
+     * Works out how many users each user follows, without building the graph. Each popular user's
+     * followers are a run of users after it, so the counts are the prefix sums of where the runs
+     * start and end.
+     *
+     * @return the following count of every user.
+     */
+    public int[] getFollowingCounts() {
+        int[] counts = new int[users + 1];
+        for (int user = 0; user < popularUsers; user++) {
+            int first = getPopularFollower(user, 0);
+            int end = first + getPopularFollowers(user);
+            if (end <= users) {
+                counts[first]++;
+                counts[end]--;
+            } else {
+                // The run wraps around to the first users
+                counts[first]++;
+                counts[users]--;
+                counts[0]++;
+                counts[end - users]--;
+            }
+        }
+
+        int[] following = new int[users];
+        int running = 0;
+        for (int user = 0; user < users; user++) {
+            running += counts[user];
+            following[user] = running + (hubAlias != null ? 1 : 0);
+        }
+        return following;
+    }
+
+    /**
+     * @return a string that differs between any two plans that write different data.
+     */
+    public String getKey() {
+        return users + ";" + hubAlias + ";" + popularUsers + ";" + maxFollowers + ";" + zipfExponent + ";" + storySize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d users, hub %s, %d popular users (up to %d followers, exponent %.2f), %d statuses each",
+                users, hubAlias, popularUsers, maxFollowers, zipfExponent, storySize);
+    }
+}
@@ -1,9 +1,17 @@
 package edu.byu.cs.tweeter.server.service.sqs;
 
+import edu.byu.cs.tweeter.model.domain.Status;
+
 public class PostStatusSQSRequest {
     private String statusID;
     private String posterAlias;
 
+    /**
+     * The full status, for writing denormalized feed rows. Null in messages that only reference
+     * the status.
+     */
+    private Status status;
+
     public PostStatusSQSRequest() {}
 
     public PostStatusSQSRequest(String statusID, String posterAlias) {
@@ -11,6 +19,11 @@ public class PostStatusSQSRequest {
         this.posterAlias = posterAlias;
     }
 
+    public PostStatusSQSRequest(Status status) {
+        this(status.getID(), status.getUser().getAlias());
+        this.status = status;
+    }
+
     public String getStatusID() {
         return statusID;
     }
@@ -26,4 +39,12 @@ public class PostStatusSQSRequest {
     public void setPosterAlias(String posterAlias) {
         this.posterAlias = posterAlias;
     }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
 }
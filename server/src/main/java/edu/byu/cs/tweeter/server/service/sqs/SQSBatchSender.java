@@ -0,0 +1,130 @@
+package edu.byu.cs.tweeter.server.service.sqs;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulates message bodies for a single queue and sends them with SendMessageBatch, ten at a
+ * time. Entries that SQS fails to accept are retried with exponential backoff. Not thread safe;
+ * each fan-out uses its own sender.
+ */
+public class SQSBatchSender {
+
+    /**
+     * The largest number of entries SQS accepts in one SendMessageBatch call.
+     */
+    public static final int MAX_BATCH_SIZE = 10;
+
+    private static final int BASE_TIMEOUT = 10;
+    private static final int TOO_MANY_RETRIES = 5;
+
+    private final AmazonSQS sqs;
+    private final String queueUrl;
+    private final List<SendMessageBatchRequestEntry> pending = new ArrayList<>(MAX_BATCH_SIZE);
+
+    private final long startNanos = System.nanoTime();
+    private int nextEntryID;
+    private int messagesSent;
+    private int batchesSent;
+    private int retriedEntries;
+
+    public SQSBatchSender(AmazonSQS sqs, String queueUrl) {
+        this.sqs = sqs;
+        this.queueUrl = queueUrl;
+    }
+
+    /**
+     * Queues a message, sending the current batch once it is full.
+     *
+     * @param messageBody the body of the message.
+     */
+    public void add(String messageBody) {
+        pending.add(new SendMessageBatchRequestEntry(Integer.toString(nextEntryID++), messageBody));
+        if (pending.size() == MAX_BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends any queued messages.
+     *
+     * @throws RuntimeException if some messages could not be sent after retrying.
+     */
+    public void flush() {
+        if (pending.isEmpty()) return;
+
+        List<SendMessageBatchRequestEntry> entries = new ArrayList<>(pending);
+        pending.clear();
+
+        int retries = 0;
+        while (!entries.isEmpty()) {
+            SendMessageBatchResult result;
+            try {
+                result = sqs.sendMessageBatch(new SendMessageBatchRequest(queueUrl, entries));
+            } catch (AmazonServiceException e) {
+                throw new RuntimeException("[SQS Error] Unable to send message batch: " + e.getMessage());
+            }
+            batchesSent++;
+            messagesSent += result.getSuccessful().size();
+
+            if (result.getFailed().isEmpty()) return;
+
+            Map<String, SendMessageBatchRequestEntry> entriesByID = new HashMap<>();
+            for (SendMessageBatchRequestEntry entry : entries) {
+                entriesByID.put(entry.getId(), entry);
+            }
+            entries = new ArrayList<>();
+            for (BatchResultErrorEntry error : result.getFailed()) {
+                if (error.isSenderFault()) {
+                    throw new RuntimeException("[SQS Error] Message rejected: " + error.getMessage());
+                }
+                entries.add(entriesByID.get(error.getId()));
+            }
+
+            retries++;
+            if (retries > TOO_MANY_RETRIES) {
+                throw new RuntimeException("[SQS Error] Too many attempts to send " + entries.size() + " messages");
+            }
+            retriedEntries += entries.size();
+            expWait(retries);
+        }
+    }
+
+    public int getMessagesSent() {
+        return messagesSent;
+    }
+
+    public int getBatchesSent() {
+        return batchesSent;
+    }
+
+    public int getRetriedEntries() {
+        return retriedEntries;
+    }
+
+    /**
+     * @return the number of messages sent per second since the sender was created.
+     */
+    public double getMessagesPerSecond() {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        return seconds > 0 ? messagesSent / seconds : 0;
+    }
+
+    private void expWait(int retries) {
+        try {
+            TimeUnit.MILLISECONDS.sleep((long) (BASE_TIMEOUT * Math.pow(2, retries)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
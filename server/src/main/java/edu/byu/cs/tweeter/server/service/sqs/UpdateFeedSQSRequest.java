@@ -2,17 +2,30 @@ package edu.byu.cs.tweeter.server.service.sqs;
 
 import java.util.List;
 
+import edu.byu.cs.tweeter.model.domain.Status;
+
 public class UpdateFeedSQSRequest {
     private String statusID;
     private String posterAlias;
     private List<String> followers;
 
+    /**
+     * The full status, for writing denormalized feed rows. Null in messages that only reference
+     * the status.
+     */
+    private Status status;
+
     public UpdateFeedSQSRequest(String statusID, String posterAlias, List<String> followers) {
         this.statusID = statusID;
         this.posterAlias = posterAlias;
         this.followers = followers;
     }
 
+    public UpdateFeedSQSRequest(Status status, List<String> followers) {
+        this(status.getID(), status.getUser().getAlias(), followers);
+        this.status = status;
+    }
+
     public String getStatusID() {
         return statusID;
     }
@@ -36,4 +49,12 @@ public class UpdateFeedSQSRequest {
     public void setFollowers(List<String> followers) {
         this.followers = followers;
     }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
 }
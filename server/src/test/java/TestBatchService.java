@@ -0,0 +1,111 @@
+import com.google.gson.Gson;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.net.request.BatchOperation;
+import edu.byu.cs.tweeter.model.net.request.BatchRequest;
+import edu.byu.cs.tweeter.model.net.request.GetFollowersCountRequest;
+import edu.byu.cs.tweeter.model.net.request.GetFollowingCountRequest;
+import edu.byu.cs.tweeter.model.net.request.IsFollowerRequest;
+import edu.byu.cs.tweeter.model.net.response.BatchResponse;
+import edu.byu.cs.tweeter.model.net.response.GetFollowersCountResponse;
+import edu.byu.cs.tweeter.model.net.response.GetFollowingCountResponse;
+import edu.byu.cs.tweeter.model.net.response.IsFollowerResponse;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.FollowDAO;
+import edu.byu.cs.tweeter.server.dao.StatusDAO;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.service.BatchService;
+import edu.byu.cs.tweeter.server.service.FeedService;
+import edu.byu.cs.tweeter.server.service.FollowService;
+import edu.byu.cs.tweeter.server.service.ProfileService;
+import edu.byu.cs.tweeter.server.service.StoryService;
+import edu.byu.cs.tweeter.server.service.UserService;
+
+public class TestBatchService {
+    private final Gson gson = new Gson();
+    private UserDAO mockUserDAO;
+    private FollowDAO mockFollowDAO;
+    private BatchService batchService;
+    private User currentUser;
+    private User targetUser;
+    private AuthToken authToken;
+
+    @Before
+    public void setup() throws DAOException {
+        currentUser = new User("Current", "User", "@current", "current.png");
+        targetUser = new User("Target", "User", "@target", "target.png");
+        authToken = new AuthToken("token", System.currentTimeMillis());
+
+        mockUserDAO = Mockito.mock(UserDAO.class);
+        mockFollowDAO = Mockito.mock(FollowDAO.class);
+        StatusDAO mockStatusDAO = Mockito.mock(StatusDAO.class);
+        Mockito.when(mockUserDAO.authenticate(Mockito.any(), Mockito.anyLong())).thenReturn(true);
+        Mockito.when(mockUserDAO.getFollowersCount("@target")).thenReturn(7);
+        Mockito.when(mockUserDAO.getFollowingCount("@target")).thenReturn(3);
+        Mockito.when(mockFollowDAO.isFollower("@target", "@current")).thenReturn(true);
+
+        batchService = new BatchService(mockUserDAO, new UserService(mockUserDAO), new FollowService(mockFollowDAO, mockUserDAO),
+                new FeedService(mockStatusDAO, mockUserDAO, mockFollowDAO), new StoryService(mockStatusDAO, mockUserDAO),
+                new ProfileService(mockUserDAO, mockFollowDAO));
+    }
+
+    @Test
+    public void testOperationsShareOneAuthentication() throws DAOException {
+        // The sub-requests carry no token of their own; the batch's token is used
+        BatchRequest request = new BatchRequest(Arrays.asList(
+                new BatchOperation(BatchOperation.GET_FOLLOWERS_COUNT, gson.toJson(new GetFollowersCountRequest(targetUser, null))),
+                new BatchOperation(BatchOperation.GET_FOLLOWING_COUNT, gson.toJson(new GetFollowingCountRequest(targetUser, null))),
+                new BatchOperation(BatchOperation.IS_FOLLOWER, gson.toJson(new IsFollowerRequest(currentUser, targetUser, null)))),
+                authToken);
+
+        BatchResponse response = batchService.batch(request);
+
+        Assert.assertTrue(response.isSuccess());
+        Assert.assertEquals(3, response.getResults().size());
+        Assert.assertEquals(7, gson.fromJson(response.getResults().get(0), GetFollowersCountResponse.class).getCount());
+        Assert.assertEquals(3, gson.fromJson(response.getResults().get(1), GetFollowingCountResponse.class).getCount());
+        Assert.assertTrue(gson.fromJson(response.getResults().get(2), IsFollowerResponse.class).getIsFollower());
+        Mockito.verify(mockUserDAO, Mockito.times(1)).authenticate(Mockito.any(), Mockito.anyLong());
+    }
+
+    @Test
+    public void testFailedOperationDoesNotFailBatch() throws DAOException {
+        Mockito.when(mockUserDAO.getFollowingCount("@target")).thenThrow(new DAOException("boom"));
+        BatchRequest request = new BatchRequest(Arrays.asList(
+                new BatchOperation(BatchOperation.GET_FOLLOWERS_COUNT, gson.toJson(new GetFollowersCountRequest(targetUser, null))),
+                new BatchOperation(BatchOperation.GET_FOLLOWING_COUNT, gson.toJson(new GetFollowingCountRequest(targetUser, null))),
+                new BatchOperation("follow", "{}")),
+                authToken);
+
+        BatchResponse response = batchService.batch(request);
+
+        Assert.assertTrue(response.isSuccess());
+        Assert.assertTrue(gson.fromJson(response.getResults().get(0), GetFollowersCountResponse.class).isSuccess());
+        GetFollowingCountResponse failed = gson.fromJson(response.getResults().get(1), GetFollowingCountResponse.class);
+        Assert.assertFalse(failed.isSuccess());
+        Assert.assertTrue(failed.getMessage().startsWith("[DB Error]"));
+        Assert.assertTrue(gson.fromJson(response.getResults().get(2), GetFollowersCountResponse.class).getMessage().startsWith("[Bad Request]"));
+    }
+
+    @Test
+    public void testInvalidAuthTokenFailsBatch() throws DAOException {
+        Mockito.when(mockUserDAO.authenticate(Mockito.any(), Mockito.anyLong())).thenReturn(false);
+        BatchRequest request = new BatchRequest(Collections.singletonList(
+                new BatchOperation(BatchOperation.GET_FOLLOWERS_COUNT, gson.toJson(new GetFollowersCountRequest(targetUser, null)))),
+                authToken);
+
+        BatchResponse response = batchService.batch(request);
+
+        Assert.assertFalse(response.isSuccess());
+        Mockito.verify(mockUserDAO, Mockito.never()).getFollowersCount(Mockito.anyString());
+    }
+}
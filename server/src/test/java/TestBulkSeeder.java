@@ -0,0 +1,116 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.local.LocalFollowDAO;
+import edu.byu.cs.tweeter.server.dao.local.LocalStatusDAO;
+import edu.byu.cs.tweeter.server.dao.local.LocalStore;
+import edu.byu.cs.tweeter.server.dao.local.LocalUserDAO;
+import edu.byu.cs.tweeter.server.dao.model.DBUser;
+import edu.byu.cs.tweeter.server.service.UserService;
+import edu.byu.cs.tweeter.server.service.seed.BulkSeeder;
+import edu.byu.cs.tweeter.server.service.seed.SeedPlan;
+
+public class TestBulkSeeder {
+    private File directory;
+    private LocalUserDAO userDAO;
+    private LocalFollowDAO followDAO;
+    private BulkSeeder seeder;
+    private SeedPlan plan;
+
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("tweeter-seed-test").toFile();
+        System.setProperty("SEED_CHECKPOINT_DIR", directory.getPath());
+
+        LocalStore store = new LocalStore(directory);
+        userDAO = new LocalUserDAO(store);
+        followDAO = new LocalFollowDAO(store, userDAO);
+        seeder = new BulkSeeder(userDAO, followDAO, new LocalStatusDAO(store));
+
+        // Users 0 to 2 have 1000, 500 and 333 followers among the 2500 users
+        plan = new SeedPlan(2_500, "@hub", 3, 1_000, 1.0, 2);
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        System.clearProperty("SEED_CHECKPOINT_DIR");
+        Files.walk(directory.toPath()).map(java.nio.file.Path::toFile)
+                .sorted(Collections.reverseOrder()).forEach(File::delete);
+    }
+
+    @Test
+    public void testSeedWritesThePlan() throws Exception {
+        BulkSeeder.Report report = seeder.seed(plan);
+
+        Assert.assertEquals(2_501, report.getUsers());
+        Assert.assertEquals(2_500 + 1_000 + 500 + 333, report.getFollows());
+        Assert.assertEquals(5_000, report.getStatuses());
+
+        Assert.assertEquals(2_500, userDAO.getFollowersCount("@hub"));
+        Assert.assertEquals(1_000, userDAO.getFollowersCount("@test0"));
+        Assert.assertEquals(333, userDAO.getFollowersCount("@test2"));
+        Assert.assertTrue(followDAO.isFollower("@test0", "@test1000"));
+        Assert.assertFalse(followDAO.isFollower("@test0", "@test1001"));
+
+        // @test1 follows the hub and @test0; @test3 follows the hub and all three popular users
+        Assert.assertEquals(2, userDAO.getFollowingCount("@test1"));
+        Assert.assertEquals(4, userDAO.getFollowingCount("@test3"));
+        Assert.assertEquals(1, userDAO.getFollowingCount("@test2000"));
+
+        DBUser user = userDAO.getUser("@test7");
+        Assert.assertEquals(UserService.hashPassword(user.getSalt() + "test7"), user.getHashedPassword());
+    }
+
+    @Test
+    public void testSeedAgainSkipsFinishedChunks() {
+        seeder.seed(plan);
+        BulkSeeder.Report again = seeder.seed(plan);
+
+        Assert.assertEquals(again.getChunks(), again.getSkippedChunks());
+        Assert.assertEquals(0, again.getUsers());
+    }
+
+    @Test
+    public void testSeedIsIdempotent() throws DAOException {
+        seeder.seed(plan);
+        DBUser first = userDAO.getUser("@test42");
+
+        // Without the checkpoint everything is written again, the same as before
+        new File(directory, "unused").mkdir();
+        System.setProperty("SEED_CHECKPOINT_DIR", new File(directory, "unused").getPath());
+        BulkSeeder.Report again = seeder.seed(plan);
+
+        Assert.assertEquals(0, again.getSkippedChunks());
+        DBUser second = userDAO.getUser("@test42");
+        Assert.assertEquals(first.getSalt(), second.getSalt());
+        Assert.assertEquals(first.getHashedPassword(), second.getHashedPassword());
+        Assert.assertEquals(1_000, userDAO.getFollowersCount("@test0"));
+        Assert.assertEquals(2, userDAO.getFollowingCount("@test1"));
+    }
+
+    @Test
+    public void testCheckpointIsPerPlan() {
+        seeder.seed(plan);
+        BulkSeeder.Report other = seeder.seed(new SeedPlan(2_500, "@hub", 3, 1_000, 1.001, 2));
+
+        Assert.assertEquals(0, other.getSkippedChunks());
+    }
+
+    @Test
+    public void testNoCheckpointWithoutDirectory() {
+        System.clearProperty("SEED_CHECKPOINT_DIR");
+        seeder.seed(plan);
+        BulkSeeder.Report again = seeder.seed(plan);
+
+        Assert.assertEquals(0, again.getSkippedChunks());
+        Assert.assertEquals(2_501, again.getUsers());
+    }
+}
@@ -0,0 +1,142 @@
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.net.request.GetStoryRequest;
+import edu.byu.cs.tweeter.model.net.response.GetStoryResponse;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.StatusDAO;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.dao.cache.CachingStatusDAO;
+import edu.byu.cs.tweeter.server.dao.model.DBStatus;
+import edu.byu.cs.tweeter.server.service.StoryService;
+
+public class TestCachingStatusDAO {
+    private static final String ALIAS = "@poster";
+    private static final int CACHED_STATUSES = 25;
+
+    private StatusDAO mockStatusDAO;
+    private UserDAO mockUserDAO;
+    private CachingStatusDAO statusDAO;
+    private User poster;
+    private List<DBStatus> story;
+
+    @Before
+    public void setup() throws DAOException {
+        poster = new User("Poster", "User", ALIAS, "poster.png");
+        // The story's 40 statuses, newest first
+        story = new ArrayList<>();
+        for (int i = 40; i > 0; i--) {
+            story.add(status(String.format("%04d", i)));
+        }
+
+        mockStatusDAO = Mockito.mock(StatusDAO.class);
+        mockUserDAO = Mockito.mock(UserDAO.class);
+        Mockito.when(mockStatusDAO.getStory(Mockito.eq(ALIAS), Mockito.anyInt(), Mockito.any())).thenAnswer(invocation -> {
+            int limit = invocation.getArgument(1);
+            Status lastStatus = invocation.getArgument(2);
+            List<DBStatus> page = new ArrayList<>();
+            for (DBStatus status : story) {
+                if (page.size() == limit) break;
+                if (lastStatus == null || status.getStatus().getID().compareTo(lastStatus.getID()) < 0) {
+                    page.add(status(status.getStatus().getID()));
+                }
+            }
+            return page;
+        });
+        Mockito.when(mockUserDAO.batchGetUsers(Collections.singletonList(ALIAS))).thenReturn(Collections.singletonList(poster));
+
+        statusDAO = new CachingStatusDAO(mockStatusDAO, mockUserDAO);
+    }
+
+    private DBStatus status(String id) {
+        return new DBStatus(new Status("post " + id, null, "datetime", new ArrayList<>(), new ArrayList<>(), id), ALIAS);
+    }
+
+    private List<String> ids(List<DBStatus> statuses) {
+        List<String> ids = new ArrayList<>();
+        for (DBStatus status : statuses) {
+            ids.add(status.getStatus().getID());
+        }
+        return ids;
+    }
+
+    @Test
+    public void testFirstPageIsServedFromMemory() throws DAOException {
+        List<DBStatus> first = statusDAO.getStory(ALIAS, 10, null);
+        List<DBStatus> second = statusDAO.getStory(ALIAS, 10, null);
+
+        Assert.assertEquals(ids(first), ids(second));
+        Assert.assertEquals("0040", first.get(0).getStatus().getID());
+        Assert.assertEquals(poster, second.get(0).getStatus().getUser());
+        Mockito.verify(mockStatusDAO, Mockito.times(1)).getStory(Mockito.anyString(), Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    public void testLaterPagesContinueFromCachedCursor() throws DAOException {
+        List<DBStatus> first = statusDAO.getStory(ALIAS, 10, null);
+        List<DBStatus> second = statusDAO.getStory(ALIAS, 10, first.get(9).getStatus());
+        Assert.assertEquals("0030", second.get(0).getStatus().getID());
+        Mockito.verify(mockStatusDAO, Mockito.times(1)).getStory(Mockito.anyString(), Mockito.anyInt(), Mockito.any());
+
+        // The third page runs past the cached statuses, so it is read from the other StatusDAO
+        List<DBStatus> third = statusDAO.getStory(ALIAS, 10, second.get(9).getStatus());
+        Assert.assertEquals("0020", third.get(0).getStatus().getID());
+        Assert.assertEquals(10, third.size());
+        Mockito.verify(mockStatusDAO, Mockito.times(2)).getStory(Mockito.anyString(), Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    public void testPostedStatusIsWrittenThrough() throws DAOException {
+        statusDAO.getStory(ALIAS, 10, null);
+
+        statusDAO.postStatusToStory(ALIAS, "new post", "", "", "datetime", "0041");
+        List<DBStatus> page = statusDAO.getStory(ALIAS, CACHED_STATUSES, null);
+
+        Mockito.verify(mockStatusDAO).postStatusToStory(ALIAS, "new post", "", "", "datetime", "0041");
+        Assert.assertEquals("0041", page.get(0).getStatus().getID());
+        Assert.assertEquals(poster, page.get(0).getStatus().getUser());
+        Assert.assertEquals(CACHED_STATUSES, page.size());
+        Mockito.verify(mockStatusDAO, Mockito.times(1)).getStory(Mockito.anyString(), Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    public void testShortStoryIsComplete() throws DAOException {
+        story = new ArrayList<>(story.subList(35, 40));
+
+        Assert.assertEquals(5, statusDAO.getStory(ALIAS, 10, null).size());
+        Assert.assertEquals(2, statusDAO.getStory(ALIAS, 10, story.get(2).getStatus()).size());
+        Mockito.verify(mockStatusDAO, Mockito.times(1)).getStory(Mockito.anyString(), Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    public void testLargePagesBypassCache() throws DAOException {
+        Assert.assertEquals(30, statusDAO.getStory(ALIAS, 30, null).size());
+        Assert.assertEquals(30, statusDAO.getStory(ALIAS, 30, null).size());
+        Mockito.verify(mockStatusDAO, Mockito.times(2)).getStory(ALIAS, 30, null);
+    }
+
+    @Test
+    public void testCachedStoryNeedsNoUserLookup() throws DAOException {
+        Mockito.when(mockUserDAO.authenticate(Mockito.any(), Mockito.anyLong())).thenReturn(true);
+        StoryService storyService = new StoryService(statusDAO, mockUserDAO);
+        GetStoryRequest request = new GetStoryRequest(poster, new AuthToken("token"), 10, null);
+
+        storyService.getStory(request);
+        GetStoryResponse response = storyService.getStory(request);
+
+        Assert.assertEquals(10, response.getItems().size());
+        Assert.assertEquals(poster, response.getItems().get(0).getUser());
+        // Only the cache looked up the poster, when it first read the story
+        Mockito.verify(mockUserDAO, Mockito.times(1)).batchGetUsers(Mockito.anyList());
+        Mockito.verify(mockUserDAO, Mockito.never()).batchGetUsersAsync(Mockito.anyList());
+    }
+}
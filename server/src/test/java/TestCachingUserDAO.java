@@ -0,0 +1,160 @@
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.net.request.GetFollowersRequest;
+import edu.byu.cs.tweeter.model.net.response.GetFollowersResponse;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.FollowDAO;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.dao.cache.CachingUserDAO;
+import edu.byu.cs.tweeter.server.dao.cache.LruCache;
+import edu.byu.cs.tweeter.server.service.FollowService;
+
+public class TestCachingUserDAO {
+
+    private UserDAO mockUserDAO;
+    private CachingUserDAO cachingUserDAO;
+    private User allen;
+    private User amy;
+
+    @Before
+    public void setup() throws DAOException {
+        mockUserDAO = Mockito.mock(UserDAO.class);
+        cachingUserDAO = new CachingUserDAO(mockUserDAO);
+        allen = new User("Allen", "Anderson", "@allen", "https://faculty.cs.byu.edu/~jwilkerson/cs340/tweeter/images/donald_duck.png");
+        amy = new User("Amy", "Ames", "@amy", "https://faculty.cs.byu.edu/~jwilkerson/cs340/tweeter/images/daisy_duck.png");
+
+        Mockito.when(mockUserDAO.batchGetUsers(Mockito.anyList())).thenAnswer(invocation -> {
+            List<String> aliases = invocation.getArgument(0);
+            return aliases.contains("@allen") ? Collections.singletonList(allen) : Collections.emptyList();
+        });
+    }
+
+    @Test
+    public void testBatchGetUsersReadsEachAliasOnce() throws DAOException {
+        List<User> first = cachingUserDAO.batchGetUsers(Arrays.asList("@allen", "@missing"));
+        List<User> second = cachingUserDAO.batchGetUsers(Arrays.asList("@allen", "@missing"));
+
+        Assert.assertEquals(Collections.singletonList(allen), first);
+        Assert.assertEquals(Collections.singletonList(allen), second);
+        Mockito.verify(mockUserDAO, Mockito.times(1)).batchGetUsers(Mockito.anyList());
+        Assert.assertEquals(2, cachingUserDAO.getProfiles().getHits());
+    }
+
+    @Test
+    public void testAddUserInvalidatesMissingAlias() throws DAOException {
+        cachingUserDAO.batchGetUsers(Collections.singletonList("@amy"));
+        cachingUserDAO.addUser("@amy", "hash", "salt", "Amy", "Ames", amy.getImageUrl(), 0, 0);
+        Mockito.when(mockUserDAO.batchGetUsers(Mockito.anyList())).thenReturn(Collections.singletonList(amy));
+
+        Assert.assertEquals(Collections.singletonList(amy), cachingUserDAO.batchGetUsers(Collections.singletonList("@amy")));
+    }
+
+    @Test
+    public void testIsRegisteredOnlyTrustsCachedUsers() throws DAOException {
+        cachingUserDAO.batchGetUsers(Arrays.asList("@allen", "@missing"));
+        Mockito.when(mockUserDAO.isRegistered("@missing")).thenReturn(true);
+
+        Assert.assertTrue(cachingUserDAO.isRegistered("@allen"));
+        // Registered since it was cached as missing
+        Assert.assertTrue(cachingUserDAO.isRegistered("@missing"));
+        Mockito.verify(mockUserDAO, Mockito.never()).isRegistered("@allen");
+    }
+
+    @Test
+    public void testAuthenticateCachesValidTokensUntilLogout() throws DAOException {
+        AuthToken token = new AuthToken("token");
+        Mockito.when(mockUserDAO.authenticate(Mockito.eq(token), Mockito.anyLong())).thenReturn(true);
+
+        Assert.assertTrue(cachingUserDAO.authenticate(token, 1_000));
+        Assert.assertTrue(cachingUserDAO.authenticate(token, 2_000));
+        Mockito.verify(mockUserDAO, Mockito.times(1)).authenticate(Mockito.eq(token), Mockito.anyLong());
+
+        cachingUserDAO.deleteAuthToken(token);
+        Mockito.when(mockUserDAO.authenticate(Mockito.eq(token), Mockito.anyLong())).thenReturn(false);
+        Assert.assertFalse(cachingUserDAO.authenticate(token, 3_000));
+    }
+
+    @Test
+    public void testCacheEvictsLeastRecentlyUsed() {
+        LruCache<String, String> cache = new LruCache<>(2, 1_000, 1_000);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+
+        Assert.assertNotNull(cache.get("a"));
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testCacheEntriesExpire() {
+        AtomicLong now = new AtomicLong();
+        LruCache<String, String> cache = new LruCache<>(10, 1_000, 100, now::get);
+        cache.put("a", "1");
+        cache.putMissing("b");
+
+        now.set(500);
+        Assert.assertEquals("1", cache.get("a").getValue());
+        Assert.assertNull(cache.get("b"));
+
+        now.set(1_000);
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(2, cache.getExpirations());
+    }
+
+    @Test
+    public void testFollowerPagesWithCachedUsersVisitEachFollowerOnce() throws DAOException {
+        List<String> followers = Arrays.asList("@a", "@b", "@c", "@d", "@e", "@f", "@g");
+        Mockito.when(mockUserDAO.authenticate(Mockito.any(), Mockito.anyLong())).thenReturn(true);
+        Mockito.when(mockUserDAO.batchGetUsers(Mockito.anyList())).thenAnswer(invocation -> {
+            List<String> aliases = invocation.getArgument(0);
+            List<User> users = new ArrayList<>();
+            for (String alias : new TreeSet<>(aliases)) {
+                users.add(new User("First", "Last", alias, "image.png"));
+            }
+            return users;
+        });
+        FollowDAO mockFollowDAO = Mockito.mock(FollowDAO.class);
+        Mockito.when(mockFollowDAO.getFollowers(Mockito.eq("@target"), Mockito.anyInt(), Mockito.any())).thenAnswer(invocation -> {
+            int limit = invocation.getArgument(1);
+            String lastAlias = invocation.getArgument(2);
+            List<String> page = new ArrayList<>();
+            for (String alias : followers) {
+                if (page.size() < limit && (lastAlias == null || alias.compareTo(lastAlias) > 0)) page.add(alias);
+            }
+            return page;
+        });
+        FollowService followService = new FollowService(mockFollowDAO, cachingUserDAO);
+
+        // The later aliases of the first page are already cached
+        cachingUserDAO.batchGetUsers(Arrays.asList("@c", "@b"));
+
+        List<String> seen = new ArrayList<>();
+        User lastItem = null;
+        boolean hasMorePages = true;
+        while (hasMorePages) {
+            GetFollowersResponse response = followService.getFollowers(new GetFollowersRequest(
+                    new User("Target", "User", "@target", "image.png"), new AuthToken("token"), 3, lastItem));
+            for (User user : response.getItems()) {
+                seen.add(user.getAlias());
+            }
+            lastItem = response.getItems().isEmpty() ? null : response.getItems().get(response.getItems().size() - 1);
+            hasMorePages = response.getHasMorePages() && lastItem != null;
+        }
+
+        Assert.assertEquals(followers, seen);
+    }
+}
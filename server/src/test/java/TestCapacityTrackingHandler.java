@@ -0,0 +1,116 @@
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Response;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.CancellationReason;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.Put;
+import com.amazonaws.services.dynamodbv2.model.PutRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItem;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsRequest;
+import com.amazonaws.services.dynamodbv2.model.TransactionCanceledException;
+import com.amazonaws.services.dynamodbv2.model.Update;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import edu.byu.cs.tweeter.server.dao.dynamo.CapacityTrackingHandler;
+import edu.byu.cs.tweeter.server.metrics.CapacityMetrics;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
+
+public class TestCapacityTrackingHandler {
+    private CapacityTrackingHandler handler;
+
+    @Before
+    public void setup() {
+        handler = new CapacityTrackingHandler();
+        CapacityMetrics.reset();
+    }
+
+    @Test
+    public void testCallsAskForConsumedCapacity() {
+        QueryRequest query = new QueryRequest("feeds");
+        handler.beforeExecution(query);
+        Assert.assertEquals(ReturnConsumedCapacity.TOTAL.toString(), query.getReturnConsumedCapacity());
+    }
+
+    @Test
+    public void testReadsAreRecordedPerTable() {
+        QueryRequest query = new QueryRequest("feeds");
+        QueryResult result = new QueryResult().withConsumedCapacity(new ConsumedCapacity().withTableName("feeds").withCapacityUnits(1.5));
+
+        try (RequestMetrics metrics = RequestMetrics.begin("Test")) {
+            handler.afterResponse(new DefaultRequest<>(query, "DynamoDB"), new Response<>(result, null));
+            Assert.assertEquals(1.5, metrics.getTotal(CapacityMetrics.CONSUMED_RCU), 0);
+            Assert.assertEquals(1.5, metrics.getTotal(CapacityMetrics.CONSUMED_RCU + ".feeds"), 0);
+        }
+
+        List<CapacityMetrics.Usage> usage = CapacityMetrics.getUsage();
+        Assert.assertEquals(1, usage.size());
+        Assert.assertEquals("feeds", usage.get(0).getTable());
+        Assert.assertEquals("Query", usage.get(0).getOperation());
+        Assert.assertEquals(1, usage.get(0).getCalls());
+        Assert.assertEquals(1.5, usage.get(0).getReadUnits(), 0);
+        Assert.assertEquals(0, usage.get(0).getWriteUnits(), 0);
+    }
+
+    @Test
+    public void testUnprocessedBatchItemsAreRecordedAsRetries() {
+        List<WriteRequest> unprocessed = Arrays.asList(new WriteRequest(new PutRequest()), new WriteRequest(new PutRequest()));
+        BatchWriteItemRequest batch = new BatchWriteItemRequest(Collections.singletonMap("users", unprocessed));
+        BatchWriteItemResult result = new BatchWriteItemResult()
+                .withConsumedCapacity(new ConsumedCapacity().withTableName("users").withCapacityUnits(23.0))
+                .withUnprocessedItems(Collections.singletonMap("users", unprocessed));
+
+        try (RequestMetrics metrics = RequestMetrics.begin("Test")) {
+            handler.afterResponse(new DefaultRequest<>(batch, "DynamoDB"), new Response<>(result, null));
+            Assert.assertEquals(23, metrics.getCount(CapacityMetrics.CONSUMED_WCU));
+            Assert.assertEquals(2, metrics.getCount(CapacityMetrics.UNPROCESSED));
+            Assert.assertEquals(1, metrics.getCount(CapacityMetrics.RETRIES));
+        }
+
+        CapacityMetrics.Usage usage = CapacityMetrics.getUsage().get(0);
+        Assert.assertEquals("BatchWriteItem", usage.getOperation());
+        Assert.assertEquals(23.0, usage.getWriteUnits(), 0);
+        Assert.assertEquals(2, usage.getUnprocessed());
+        Assert.assertEquals(1, usage.getRetries());
+    }
+
+    @Test
+    public void testThrottlesAreRecorded() {
+        AmazonServiceException throttle = new AmazonServiceException("Rate exceeded");
+        throttle.setErrorCode("ProvisionedThroughputExceededException");
+
+        handler.afterError(new DefaultRequest<>(new QueryRequest("feeds"), "DynamoDB"), null, throttle);
+        handler.afterError(new DefaultRequest<>(new QueryRequest("feeds"), "DynamoDB"), null, new AmazonServiceException("Bad request"));
+
+        Assert.assertEquals(1, CapacityMetrics.getUsage().get(0).getThrottles());
+    }
+
+    @Test
+    public void testThrottledTransactionsAreRecordedForTheirFirstTable() {
+        TransactWriteItemsRequest transaction = new TransactWriteItemsRequest().withTransactItems(
+                new TransactWriteItem().withPut(new Put().withTableName("follows")),
+                new TransactWriteItem().withUpdate(new Update().withTableName("users")));
+        TransactionCanceledException cancelled = new TransactionCanceledException("Transaction cancelled");
+        cancelled.setCancellationReasons(Arrays.asList(new CancellationReason().withCode("None"),
+                new CancellationReason().withCode("ThrottlingError")));
+
+        handler.afterError(new DefaultRequest<>(transaction, "DynamoDB"), null, cancelled);
+
+        CapacityMetrics.Usage usage = CapacityMetrics.getUsage().get(0);
+        Assert.assertEquals("follows", usage.getTable());
+        Assert.assertEquals("TransactWriteItems", usage.getOperation());
+        Assert.assertEquals(1, usage.getThrottles());
+    }
+}
@@ -0,0 +1,177 @@
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.google.gson.Gson;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.net.request.GetFeedRequest;
+import edu.byu.cs.tweeter.model.net.response.GetFeedResponse;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.FollowDAO;
+import edu.byu.cs.tweeter.server.dao.StatusDAO;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.dao.model.DBStatus;
+import edu.byu.cs.tweeter.server.service.FeedService;
+import edu.byu.cs.tweeter.server.service.StatusService;
+import edu.byu.cs.tweeter.server.service.sqs.PostStatusSQSRequest;
+
+public class TestFeedService {
+    private static final String CELEBRITY = "@celebrity";
+    private static final String FRIEND = "@friend";
+
+    private FeedService feedService;
+    private StatusDAO mockStatusDAO;
+    private UserDAO mockUserDAO;
+    private FollowDAO mockFollowDAO;
+    private List<DBStatus> feedRows;
+    private List<DBStatus> celebrityStory;
+
+    @Before
+    public void setup() throws DAOException {
+        // The celebrity was marked after 0006 was fanned out, so 0006 is in both
+        feedRows = Arrays.asList(status("0009", FRIEND), status("0007", FRIEND), status("0006", CELEBRITY),
+                status("0004", FRIEND), status("0002", FRIEND));
+        celebrityStory = Arrays.asList(status("0008", CELEBRITY), status("0006", CELEBRITY),
+                status("0005", CELEBRITY), status("0001", CELEBRITY));
+
+        mockStatusDAO = Mockito.mock(StatusDAO.class);
+        mockUserDAO = Mockito.mock(UserDAO.class);
+        mockFollowDAO = Mockito.mock(FollowDAO.class);
+
+        Mockito.when(mockUserDAO.authenticate(Mockito.any(), Mockito.anyLong())).thenReturn(true);
+        Mockito.when(mockFollowDAO.getFollowees(Mockito.anyString(), Mockito.anyInt(), Mockito.any()))
+                .thenReturn(Arrays.asList(CELEBRITY, FRIEND));
+        Mockito.when(mockUserDAO.filterPullFeeds(Mockito.anyList())).thenAnswer(invocation -> {
+            List<String> aliases = invocation.getArgument(0);
+            return aliases.contains(CELEBRITY) ? Collections.singletonList(CELEBRITY) : Collections.emptyList();
+        });
+        Mockito.when(mockStatusDAO.getFeedAliases(Mockito.anyString(), Mockito.anyInt(), Mockito.any())).thenAnswer(invocation -> {
+            List<String> aliases = new ArrayList<>();
+            for (DBStatus row : page(feedRows, invocation.getArgument(1), invocation.getArgument(2))) {
+                aliases.add(row.getPosterAlias());
+                aliases.add(row.getStatus().getID());
+            }
+            return aliases;
+        });
+        Mockito.when(mockStatusDAO.getFeed(Mockito.anyList())).thenAnswer(invocation -> {
+            List<String> aliases = invocation.getArgument(0);
+            List<DBStatus> statuses = new ArrayList<>();
+            for (int i = 0; i < aliases.size(); i += 2) {
+                statuses.add(status(aliases.get(i + 1), aliases.get(i)));
+            }
+            return statuses;
+        });
+        Mockito.when(mockStatusDAO.getStoryAsync(Mockito.eq(CELEBRITY), Mockito.anyInt(), Mockito.any())).thenAnswer(invocation -> {
+            Status lastStatus = invocation.getArgument(2);
+            return CompletableFuture.completedFuture(page(celebrityStory, invocation.getArgument(1),
+                    lastStatus == null ? null : lastStatus.getID()));
+        });
+        Mockito.when(mockUserDAO.batchGetUsers(Mockito.anyList())).thenAnswer(invocation -> {
+            List<String> aliases = invocation.getArgument(0);
+            List<User> users = new ArrayList<>();
+            for (String alias : aliases) {
+                users.add(new User("First", "Last", alias, "image.png"));
+            }
+            return users;
+        });
+
+        feedService = new FeedService(mockStatusDAO, mockUserDAO, mockFollowDAO);
+    }
+
+    private DBStatus status(String id, String posterAlias) {
+        return new DBStatus(new Status("post " + id, null, "datetime", new ArrayList<>(), new ArrayList<>(), id), posterAlias);
+    }
+
+    private List<DBStatus> page(List<DBStatus> statuses, int limit, String lastStatusID) {
+        List<DBStatus> page = new ArrayList<>();
+        for (DBStatus status : statuses) {
+            if (page.size() == limit) break;
+            if (lastStatusID == null || status.getStatus().getID().compareTo(lastStatusID) < 0) {
+                page.add(status(status.getStatus().getID(), status.getPosterAlias()));
+            }
+        }
+        return page;
+    }
+
+    private GetFeedResponse getFeed(String readerAlias, Status lastItem) {
+        return feedService.getFeed(new GetFeedRequest(new User("Reader", "User", readerAlias, "image.png"),
+                new AuthToken("token"), 3, lastItem));
+    }
+
+    @Test
+    public void testPulledStoryIsMergedNewestFirst() {
+        GetFeedResponse response = getFeed("@firstPageReader", null);
+
+        Assert.assertTrue(response.isSuccess());
+        Assert.assertTrue(response.getHasMorePages());
+        Assert.assertEquals(3, response.getItems().size());
+        Assert.assertEquals("0009", response.getItems().get(0).getID());
+        Assert.assertEquals("0008", response.getItems().get(1).getID());
+        Assert.assertEquals(CELEBRITY, response.getItems().get(1).getUser().getAlias());
+        Assert.assertEquals("0007", response.getItems().get(2).getID());
+    }
+
+    @Test
+    public void testPagesVisitEveryStatusOnce() {
+        List<String> seen = new ArrayList<>();
+        Status lastItem = null;
+        boolean hasMorePages = true;
+        while (hasMorePages) {
+            GetFeedResponse response = getFeed("@pagingReader", lastItem);
+            for (Status status : response.getItems()) {
+                seen.add(status.getID());
+            }
+            lastItem = response.getItems().isEmpty() ? null : response.getItems().get(response.getItems().size() - 1);
+            hasMorePages = response.getHasMorePages() && lastItem != null;
+        }
+
+        Assert.assertEquals(Arrays.asList("0009", "0008", "0007", "0006", "0005", "0004", "0002", "0001"), seen);
+    }
+
+    @Test
+    public void testMarkedPosterStaysPulledBelowThreshold() throws DAOException {
+        AmazonSQS mockSQS = Mockito.mock(AmazonSQS.class);
+        StatusService statusService = new StatusService(mockStatusDAO, mockUserDAO, mockFollowDAO, mockSQS);
+        Mockito.when(mockUserDAO.getFollowersCount(CELEBRITY)).thenReturn(10);
+
+        statusService.postUpdateFeedMessages(new Gson().toJson(new PostStatusSQSRequest("0010", CELEBRITY)));
+
+        Mockito.verify(mockFollowDAO, Mockito.never()).getFollowers(Mockito.anyString(), Mockito.anyInt(), Mockito.any());
+        Mockito.verifyNoInteractions(mockSQS);
+    }
+
+    @Test
+    public void testPosterReachingThresholdIsMarked() throws DAOException {
+        AmazonSQS mockSQS = Mockito.mock(AmazonSQS.class);
+        StatusService statusService = new StatusService(mockStatusDAO, mockUserDAO, mockFollowDAO, mockSQS);
+        Mockito.when(mockUserDAO.getFollowersCount("@rising")).thenReturn(1_000_000);
+
+        statusService.postUpdateFeedMessages(new Gson().toJson(new PostStatusSQSRequest("0010", "@rising")));
+
+        Mockito.verify(mockUserDAO).markPullFeed("@rising");
+        Mockito.verifyNoInteractions(mockSQS);
+    }
+
+    @Test(timeout = 10_000)
+    public void testFollowerPagingErrorEndsFanOut() throws DAOException {
+        AmazonSQS mockSQS = Mockito.mock(AmazonSQS.class);
+        StatusService statusService = new StatusService(mockStatusDAO, mockUserDAO, mockFollowDAO, mockSQS);
+        Mockito.when(mockFollowDAO.getFollowers(Mockito.eq("@poster"), Mockito.anyInt(), Mockito.any()))
+                .thenThrow(new AssertionError("unexpected"));
+
+        String message = new Gson().toJson(new PostStatusSQSRequest("0010", "@poster"));
+        Assert.assertThrows(RuntimeException.class, () -> statusService.postUpdateFeedMessages(message));
+        Mockito.verifyNoInteractions(mockSQS);
+    }
+}
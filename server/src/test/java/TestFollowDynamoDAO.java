@@ -0,0 +1,100 @@
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.CancellationReason;
+import com.amazonaws.services.dynamodbv2.model.ConditionCheck;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItem;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsRequest;
+import com.amazonaws.services.dynamodbv2.model.TransactionCanceledException;
+import com.amazonaws.services.dynamodbv2.model.Update;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.dynamo.FollowDynamoDAO;
+import edu.byu.cs.tweeter.server.dao.dynamo.ShardedFollowerCounter;
+
+public class TestFollowDynamoDAO {
+    private AmazonDynamoDB mockClient;
+
+    @Before
+    public void setup() {
+        mockClient = Mockito.mock(AmazonDynamoDB.class);
+    }
+
+    private List<TransactWriteItem> followTransaction(ShardedFollowerCounter counter) throws DAOException {
+        new FollowDynamoDAO(mockClient, counter).follow("@allen", "@amy");
+        ArgumentCaptor<TransactWriteItemsRequest> request = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        Mockito.verify(mockClient).transactWriteItems(request.capture());
+        return request.getValue().getTransactItems();
+    }
+
+    private void assertUserMustExist(String alias, Update update) {
+        Assert.assertEquals("users", update.getTableName());
+        Assert.assertEquals(alias, update.getKey().get("alias").getS());
+        Assert.assertEquals("attribute_exists(#a)", update.getConditionExpression());
+        Assert.assertEquals("alias", update.getExpressionAttributeNames().get("#a"));
+    }
+
+    @Test
+    public void testCountUpdatesRequireBothUsers() throws DAOException {
+        List<TransactWriteItem> items = followTransaction(new ShardedFollowerCounter(mockClient, false, 10_000, 10));
+
+        Assert.assertEquals(3, items.size());
+        Assert.assertEquals("follows", items.get(0).getPut().getTableName());
+        assertUserMustExist("@allen", items.get(1).getUpdate());
+        Assert.assertEquals("num_followers", items.get(1).getUpdate().getExpressionAttributeNames().get("#c"));
+        assertUserMustExist("@amy", items.get(2).getUpdate());
+        Assert.assertEquals("num_following", items.get(2).getUpdate().getExpressionAttributeNames().get("#c"));
+    }
+
+    @Test
+    public void testShardedCountChecksFolloweeExists() throws DAOException {
+        Mockito.when(mockClient.getItem(Mockito.any(GetItemRequest.class))).thenReturn(new GetItemResult()
+                .withItem(Collections.singletonMap("counter_shards", new AttributeValue().withN("4"))));
+
+        List<TransactWriteItem> items = followTransaction(new ShardedFollowerCounter(mockClient, true, 10_000, 10));
+
+        Assert.assertEquals(4, items.size());
+        Update shard = items.get(1).getUpdate();
+        Assert.assertEquals("follower-count-shards", shard.getTableName());
+        Assert.assertEquals("@allen", shard.getKey().get("alias").getS());
+        ConditionCheck followeeExists = items.get(2).getConditionCheck();
+        Assert.assertEquals("users", followeeExists.getTableName());
+        Assert.assertEquals("@allen", followeeExists.getKey().get("alias").getS());
+        Assert.assertEquals("attribute_exists(#a)", followeeExists.getConditionExpression());
+        assertUserMustExist("@amy", items.get(3).getUpdate());
+    }
+
+    @Test
+    public void testFollowingMissingUserIsAnError() {
+        TransactionCanceledException cancelled = new TransactionCanceledException("cancelled");
+        cancelled.setCancellationReasons(Arrays.asList(new CancellationReason().withCode("None"),
+                new CancellationReason().withCode("ConditionalCheckFailed"), new CancellationReason().withCode("None")));
+        Mockito.when(mockClient.transactWriteItems(Mockito.any())).thenThrow(cancelled);
+        FollowDynamoDAO followDAO = new FollowDynamoDAO(mockClient, new ShardedFollowerCounter(mockClient, false, 10_000, 10));
+
+        DAOException e = Assert.assertThrows(DAOException.class, () -> followDAO.follow("@allen", "@amy"));
+        Assert.assertTrue(e.getMessage().contains("@allen"));
+    }
+
+    @Test
+    public void testExistingFollowIsNotAnError() throws DAOException {
+        TransactionCanceledException cancelled = new TransactionCanceledException("cancelled");
+        cancelled.setCancellationReasons(Arrays.asList(new CancellationReason().withCode("ConditionalCheckFailed"),
+                new CancellationReason().withCode("None"), new CancellationReason().withCode("None")));
+        Mockito.when(mockClient.transactWriteItems(Mockito.any())).thenThrow(cancelled);
+        FollowDynamoDAO followDAO = new FollowDynamoDAO(mockClient, new ShardedFollowerCounter(mockClient, false, 10_000, 10));
+
+        Assert.assertFalse(followDAO.follow("@allen", "@amy"));
+    }
+}
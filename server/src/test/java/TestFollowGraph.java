@@ -0,0 +1,206 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.net.request.GetFollowersRequest;
+import edu.byu.cs.tweeter.model.net.response.GetFollowersResponse;
+
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.FollowDAO;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.dao.graph.CachingFollowDAO;
+import edu.byu.cs.tweeter.server.dao.graph.FollowGraph;
+import edu.byu.cs.tweeter.server.dao.graph.GraphFollowDAO;
+import edu.byu.cs.tweeter.server.service.FollowService;
+
+public class TestFollowGraph {
+    private File directory;
+    private FollowGraph graph;
+
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("tweeter-graph-test").toFile();
+        graph = FollowGraph.open(directory);
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        graph.close();
+        Files.walk(directory.toPath()).map(java.nio.file.Path::toFile)
+                .sorted(Collections.reverseOrder()).forEach(File::delete);
+    }
+
+    @Test
+    public void testAddAndRemoveEdges() throws IOException {
+        Assert.assertTrue(graph.addEdge("@allen", "@amy"));
+        Assert.assertFalse(graph.addEdge("@allen", "@amy"));
+        graph.addEdge("@allen", "@bob");
+        graph.addEdge("@bob", "@amy");
+
+        Assert.assertTrue(graph.isFollower("@allen", "@amy"));
+        Assert.assertFalse(graph.isFollower("@amy", "@allen"));
+        Assert.assertEquals(2, graph.getFollowerCount("@allen"));
+        Assert.assertEquals(Arrays.asList("@allen", "@bob"), graph.getFollowees("@amy", 10, null));
+
+        Assert.assertTrue(graph.removeEdge("@allen", "@amy"));
+        Assert.assertFalse(graph.removeEdge("@allen", "@amy"));
+        Assert.assertFalse(graph.isFollower("@allen", "@amy"));
+        Assert.assertEquals(Collections.singletonList("@bob"), graph.getFollowees("@amy", 10, null));
+    }
+
+    @Test
+    public void testPagesVisitEveryFollowerOnce() throws IOException, DAOException {
+        // Interned out of alias order, so the IDs are not in alias order either
+        List<String> expected = new ArrayList<>();
+        for (int i = 24; i >= 0; i--) {
+            graph.addEdge("@allen", "@user" + i);
+            expected.add("@user" + i);
+        }
+        Collections.sort(expected);
+
+        UserDAO userDAO = Mockito.mock(UserDAO.class);
+        Mockito.when(userDAO.authenticate(Mockito.any(), Mockito.anyLong())).thenReturn(true);
+        Mockito.when(userDAO.batchGetUsers(Mockito.anyList())).thenAnswer(invocation -> {
+            List<String> aliases = invocation.getArgument(0);
+            List<User> users = new ArrayList<>();
+            for (String alias : new TreeSet<>(aliases)) {
+                users.add(new User("First", "Last", alias, "image.png"));
+            }
+            return users;
+        });
+        FollowService followService = new FollowService(new GraphFollowDAO(graph, userDAO), userDAO);
+
+        // The service takes the cursor from the users it returns, which are in alias order
+        List<String> seen = new ArrayList<>();
+        User lastItem = null;
+        boolean hasMorePages = true;
+        while (hasMorePages) {
+            GetFollowersResponse response = followService.getFollowers(new GetFollowersRequest(
+                    new User("Allen", "Anderson", "@allen", "image.png"), new AuthToken("token"), 10, lastItem));
+            for (User user : response.getItems()) {
+                seen.add(user.getAlias());
+            }
+            lastItem = response.getItems().isEmpty() ? null : response.getItems().get(response.getItems().size() - 1);
+            hasMorePages = response.getHasMorePages() && lastItem != null;
+        }
+
+        Assert.assertEquals(expected, seen);
+    }
+
+    @Test
+    public void testPageResumesAfterRemovedFollower() throws IOException {
+        graph.addEdge("@allen", "@zed");
+        graph.addEdge("@allen", "@amy");
+        graph.addEdge("@allen", "@bob");
+
+        Assert.assertEquals(Arrays.asList("@amy", "@bob"), graph.getFollowers("@allen", 2, null));
+        graph.removeEdge("@allen", "@bob");
+        Assert.assertEquals(Collections.singletonList("@zed"), graph.getFollowers("@allen", 2, "@bob"));
+    }
+
+    @Test
+    public void testSnapshotAndLogAreReplayed() throws IOException {
+        graph.addEdge("@allen", "@amy");
+        graph.addEdge("@allen", "@bob");
+        graph.snapshot();
+        graph.removeEdge("@allen", "@amy");
+        graph.addEdge("@bob", "@bonnie");
+
+        // Reopen without closing, as after a crash, so the changes since the snapshot are only in the log
+        FollowGraph reopened = FollowGraph.open(directory);
+
+        Assert.assertFalse(reopened.isFollower("@allen", "@amy"));
+        Assert.assertTrue(reopened.isFollower("@allen", "@bob"));
+        Assert.assertTrue(reopened.isFollower("@bob", "@bonnie"));
+        Assert.assertEquals(Collections.singletonList("@allen"), reopened.getFollowees("@bob", 10, null));
+        reopened.close();
+    }
+
+    @Test
+    public void testTornLogRecordIsNotReplayed() throws IOException {
+        graph.addEdge("@allen", "@amy");
+        graph.close();
+
+        // A crash cut the last change short after its tab
+        Files.write(new File(directory, "follow-graph.log").toPath(), "+@allen\t@bo".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+        graph = FollowGraph.open(directory);
+        graph.addEdge("@allen", "@bonnie");
+        graph.close();
+
+        graph = FollowGraph.open(directory);
+        Assert.assertEquals(Arrays.asList("@amy", "@bonnie"), graph.getFollowers("@allen", 10, null));
+    }
+
+    @Test
+    public void testCachingFollowDAOReadsDelegateOnce() throws DAOException {
+        FollowDAO delegate = Mockito.mock(FollowDAO.class);
+        Mockito.when(delegate.getFollowers("@allen", 1_000, null)).thenReturn(Arrays.asList("@amy", "@bob"));
+        Mockito.when(delegate.follow("@allen", "@bonnie")).thenReturn(true);
+        CachingFollowDAO followDAO = new CachingFollowDAO(delegate);
+
+        Assert.assertEquals(Arrays.asList("@amy", "@bob"), followDAO.getFollowers("@allen", 10, null));
+        Assert.assertEquals(Collections.singletonList("@bob"), followDAO.getFollowers("@allen", 10, "@amy"));
+        Assert.assertTrue(followDAO.isFollower("@allen", "@amy"));
+
+        Assert.assertTrue(followDAO.follow("@allen", "@bonnie"));
+        Assert.assertTrue(followDAO.isFollower("@allen", "@bonnie"));
+
+        Mockito.verify(delegate, Mockito.times(1)).getFollowers(Mockito.anyString(), Mockito.anyInt(), Mockito.any());
+        Mockito.verify(delegate, Mockito.never()).isFollower(Mockito.anyString(), Mockito.anyString());
+    }
+
+    @Test
+    public void testCachingFollowDAOKeepsFollowDuringLoad() throws DAOException {
+        FollowDAO delegate = Mockito.mock(FollowDAO.class);
+        List<String> stored = new ArrayList<>(Arrays.asList("@amy", "@bob"));
+        CachingFollowDAO followDAO = new CachingFollowDAO(delegate);
+        Mockito.when(delegate.getFollowers(Mockito.eq("@allen"), Mockito.anyInt(), Mockito.isNull())).thenAnswer(invocation -> {
+            List<String> read = new ArrayList<>(stored);
+            if (!stored.contains("@carl")) {
+                // Another request follows while the followers are being read
+                stored.add("@carl");
+                followDAO.follow("@allen", "@carl");
+            }
+            return read;
+        });
+        Mockito.when(delegate.follow("@allen", "@carl")).thenReturn(true);
+        Mockito.when(delegate.isFollower("@allen", "@carl")).thenAnswer(invocation -> stored.contains("@carl"));
+
+        // The raced load is not kept, so this page is read from the delegate
+        Assert.assertEquals(Arrays.asList("@amy", "@bob", "@carl"), followDAO.getFollowers("@allen", 10, null));
+        Assert.assertTrue(followDAO.isFollower("@allen", "@carl"));
+        Assert.assertEquals(Arrays.asList("@amy", "@bob", "@carl"), followDAO.getFollowers("@allen", 10, null));
+        Assert.assertTrue(followDAO.isFollower("@allen", "@carl"));
+    }
+
+    @Test
+    public void testCachingFollowDAOEvictsExpiredUsers() throws DAOException {
+        FollowDAO delegate = Mockito.mock(FollowDAO.class);
+        Mockito.when(delegate.getFollowers("@allen", 1_000, null)).thenReturn(Arrays.asList("@amy", "@bob"));
+        Mockito.when(delegate.getFollowers("@bob", 1_000, null)).thenReturn(Collections.singletonList("@carl"));
+        CachingFollowDAO followDAO = new CachingFollowDAO(delegate, 0, 100_000);
+
+        followDAO.getFollowers("@allen", 10, null);
+        Assert.assertEquals(2, followDAO.getGraph().getFollowerCount("@allen"));
+
+        followDAO.getFollowers("@bob", 10, null);
+        Assert.assertEquals(0, followDAO.getGraph().getFollowerCount("@allen"));
+        Assert.assertEquals(1, followDAO.getGraph().getFollowerCount("@bob"));
+    }
+}
@@ -0,0 +1,136 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.local.LocalFollowDAO;
+import edu.byu.cs.tweeter.server.dao.local.LocalStatusDAO;
+import edu.byu.cs.tweeter.server.dao.local.LocalStore;
+import edu.byu.cs.tweeter.server.dao.local.LocalUserDAO;
+import edu.byu.cs.tweeter.server.dao.model.DBCounts;
+import edu.byu.cs.tweeter.server.dao.model.DBFeedEntry;
+import edu.byu.cs.tweeter.server.dao.model.DBStatus;
+
+public class TestLocalDAOs {
+    private File directory;
+    private LocalStore store;
+    private LocalUserDAO userDAO;
+    private LocalFollowDAO followDAO;
+    private LocalStatusDAO statusDAO;
+
+    @Before
+    public void setup() throws IOException, DAOException {
+        directory = Files.createTempDirectory("tweeter-local-test").toFile();
+        open();
+
+        for (String alias : Arrays.asList("@allen", "@amy", "@bob", "@bonnie")) {
+            userDAO.addUser(alias, "hash", "salt", "First", "Last", "image", 0, 0);
+        }
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        Files.walk(directory.toPath()).map(java.nio.file.Path::toFile)
+                .sorted(Collections.reverseOrder()).forEach(File::delete);
+    }
+
+    private void open() {
+        store = new LocalStore(directory);
+        userDAO = new LocalUserDAO(store);
+        followDAO = new LocalFollowDAO(store, userDAO);
+        statusDAO = new LocalStatusDAO(store);
+    }
+
+    @Test
+    public void testFollowersArePagedInAliasOrder() throws DAOException {
+        followDAO.follow("@allen", "@bonnie");
+        followDAO.follow("@allen", "@amy");
+        followDAO.follow("@allen", "@bob");
+
+        Assert.assertEquals(Arrays.asList("@amy", "@bob"), followDAO.getFollowers("@allen", 2, null));
+        Assert.assertEquals(Collections.singletonList("@bonnie"), followDAO.getFollowers("@allen", 2, "@bob"));
+        Assert.assertEquals(Collections.singletonList("@allen"), followDAO.getFollowees("@amy", 10, null));
+    }
+
+    @Test
+    public void testFollowIsIdempotent() throws DAOException {
+        Assert.assertTrue(followDAO.follow("@allen", "@amy"));
+        Assert.assertFalse(followDAO.follow("@allen", "@amy"));
+        Assert.assertEquals(1, userDAO.getFollowersCount("@allen"));
+        Assert.assertEquals(1, userDAO.getFollowingCount("@amy"));
+
+        Assert.assertTrue(followDAO.unfollow("@allen", "@amy"));
+        Assert.assertFalse(followDAO.unfollow("@allen", "@amy"));
+        Assert.assertEquals(0, userDAO.getFollowersCount("@allen"));
+        Assert.assertFalse(followDAO.isFollower("@allen", "@amy"));
+    }
+
+    @Test
+    public void testStoriesAndFeedsArePagedNewestFirst() throws DAOException {
+        for (int i = 1; i <= 3; i++) {
+            statusDAO.postStatusToStory("@allen", "post " + i, "", "", "datetime", "status" + i);
+        }
+        statusDAO.postStatusToFeeds("status1", Arrays.asList("@amy", "@bob"), "@allen");
+        statusDAO.postStatusToFeeds("status2", Collections.singletonList("@amy"), "@allen");
+        User allen = new User("Allen", "Anderson", "@allen", "image");
+        statusDAO.postStatusToFeeds(new Status("post 3", allen, "datetime", new ArrayList<>(), new ArrayList<>(), "status3"),
+                Collections.singletonList("@amy"));
+
+        List<DBStatus> story = statusDAO.getStory("@allen", 2, null);
+        Assert.assertEquals("status3", story.get(0).getStatus().getID());
+        Assert.assertEquals("status2", story.get(1).getStatus().getID());
+        Assert.assertEquals("status1", statusDAO.getStory("@allen", 2, story.get(1).getStatus()).get(0).getStatus().getID());
+
+        Assert.assertEquals(Arrays.asList("@allen", "status2", "@allen", "status1"), statusDAO.getFeedAliases("@amy", 2, "status3"));
+
+        List<DBStatus> feed = statusDAO.getFeedPage("@amy", 10, null);
+        Assert.assertEquals(3, feed.size());
+        Assert.assertEquals("post 3", feed.get(0).getStatus().getPost());
+        Assert.assertNull(feed.get(1).getStatus().getPost());
+
+        List<DBFeedEntry> entries = statusDAO.scanFeedEntries(2, null);
+        Assert.assertEquals(2, entries.size());
+        List<DBFeedEntry> rest = statusDAO.scanFeedEntries(10, entries.get(1));
+        Assert.assertEquals(2, rest.size());
+        Assert.assertEquals("@bob", rest.get(1).getAlias());
+    }
+
+    @Test
+    public void testCountsAreReadTogether() throws DAOException {
+        followDAO.follow("@allen", "@amy");
+        followDAO.follow("@allen", "@bob");
+        followDAO.follow("@bob", "@amy");
+
+        DBCounts counts = userDAO.getCounts("@amy");
+        Assert.assertEquals(0, counts.getFollowers());
+        Assert.assertEquals(2, counts.getFollowing());
+        Assert.assertEquals(2, userDAO.getCounts("@allen").getFollowers());
+        Assert.assertNull(userDAO.getCounts("@missing"));
+        Assert.assertTrue(userDAO.isRegistered("@bob"));
+        Assert.assertFalse(userDAO.isRegistered("@missing"));
+    }
+
+    @Test
+    public void testStoreSurvivesReopening() throws DAOException, IOException {
+        followDAO.follow("@allen", "@amy");
+        statusDAO.postStatusToStory("@allen", "post", "", "", "datetime", "status1");
+        store.flush();
+        open();
+
+        Assert.assertNotNull(userDAO.getUser("@bob"));
+        Assert.assertEquals(1, userDAO.getFollowersCount("@allen"));
+        Assert.assertTrue(followDAO.isFollower("@allen", "@amy"));
+        Assert.assertEquals("post", statusDAO.getStory("@allen", 10, null).get(0).getStatus().getPost());
+    }
+}
@@ -0,0 +1,85 @@
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.document.Item;
+import com.amazonaws.services.dynamodbv2.model.AmazonDynamoDBException;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.dynamo.ParallelBatchWriter;
+
+public class TestParallelBatchWriter {
+    private static final String TABLE_NAME = "feeds";
+
+    private AmazonDynamoDB mockClient;
+    private ParallelBatchWriter batchWriter;
+    private List<Item> items;
+    private AtomicInteger calls;
+    private AtomicInteger written;
+
+    @Before
+    public void setup() {
+        mockClient = Mockito.mock(AmazonDynamoDB.class);
+        batchWriter = new ParallelBatchWriter(mockClient);
+        calls = new AtomicInteger();
+        written = new AtomicInteger();
+
+        items = new ArrayList<>();
+        for (int i = 0; i < 110; i++) {
+            items.add(new Item().withPrimaryKey("alias", "@test" + i, "status_id", "status"));
+        }
+
+        // Every third call leaves the last item of the batch unprocessed.
+        Mockito.when(mockClient.batchWriteItem(Mockito.any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            BatchWriteItemRequest request = invocation.getArgument(0);
+            List<WriteRequest> writes = request.getRequestItems().get(TABLE_NAME);
+            BatchWriteItemResult result = new BatchWriteItemResult().withUnprocessedItems(new HashMap<>());
+            if (calls.incrementAndGet() % 3 == 0 && writes.size() > 1) {
+                written.addAndGet(writes.size() - 1);
+                result.setUnprocessedItems(Collections.singletonMap(TABLE_NAME, writes.subList(writes.size() - 1, writes.size())));
+            } else {
+                written.addAndGet(writes.size());
+            }
+            return result;
+        });
+    }
+
+    @Test
+    public void testWriteSplitsIntoBatches() throws DAOException {
+        ParallelBatchWriter.Report report = batchWriter.write(TABLE_NAME, items);
+
+        Assert.assertEquals(5, report.getBatches().size());
+        Assert.assertEquals(110, report.getItems());
+        Assert.assertEquals(110, written.get());
+        for (ParallelBatchWriter.BatchStats batch : report.getBatches()) {
+            Assert.assertTrue(batch.getItems() <= ParallelBatchWriter.MAX_BATCH_SIZE);
+        }
+    }
+
+    @Test
+    public void testWriteRetriesUnprocessedItems() throws DAOException {
+        ParallelBatchWriter.Report report = batchWriter.write(TABLE_NAME, items);
+
+        Assert.assertTrue(report.getRetries() > 0);
+        Assert.assertEquals(report.getBatches().size() + report.getRetries(), calls.get());
+    }
+
+    @Test
+    public void testFailedBatchThrows() {
+        Mockito.when(mockClient.batchWriteItem(Mockito.any(BatchWriteItemRequest.class)))
+                .thenThrow(new AmazonDynamoDBException("Table not found"));
+
+        Assert.assertThrows(DAOException.class, () -> batchWriter.write(TABLE_NAME, items));
+    }
+}
@@ -0,0 +1,83 @@
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.net.request.GetProfileRequest;
+import edu.byu.cs.tweeter.model.net.response.GetProfileResponse;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.FollowDAO;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.dao.model.DBCounts;
+import edu.byu.cs.tweeter.server.service.ProfileService;
+
+public class TestProfileService {
+    private UserDAO mockUserDAO;
+    private FollowDAO mockFollowDAO;
+    private ProfileService profileService;
+    private User currentUser;
+    private User targetUser;
+    private AuthToken authToken;
+
+    @Before
+    public void setup() throws DAOException {
+        currentUser = new User("Current", "User", "@current", "current.png");
+        targetUser = new User("Target", "User", "@target", "target.png");
+        authToken = new AuthToken("token", System.currentTimeMillis());
+
+        mockUserDAO = Mockito.mock(UserDAO.class);
+        mockFollowDAO = Mockito.mock(FollowDAO.class);
+        Mockito.when(mockUserDAO.authenticate(Mockito.any(), Mockito.anyLong())).thenReturn(true);
+        Mockito.when(mockUserDAO.batchGetUsers(Collections.singletonList("@target")))
+                .thenReturn(Collections.singletonList(targetUser));
+        Mockito.when(mockUserDAO.batchGetUsersAsync(Mockito.anyList())).thenCallRealMethod();
+        Mockito.when(mockUserDAO.getCounts("@target")).thenReturn(new DBCounts(7, 3));
+        Mockito.when(mockFollowDAO.isFollower("@target", "@current")).thenReturn(true);
+
+        profileService = new ProfileService(mockUserDAO, mockFollowDAO);
+    }
+
+    @Test
+    public void testProfileIsReadInOneRequest() throws DAOException {
+        GetProfileResponse response = profileService.getProfile(new GetProfileRequest(currentUser, targetUser, authToken));
+
+        Assert.assertTrue(response.isSuccess());
+        Assert.assertEquals(targetUser, response.getUser());
+        Assert.assertEquals(7, response.getFollowersCount());
+        Assert.assertEquals(3, response.getFollowingCount());
+        Assert.assertTrue(response.getIsFollower());
+        Mockito.verify(mockUserDAO, Mockito.times(1)).authenticate(Mockito.any(), Mockito.anyLong());
+    }
+
+    @Test
+    public void testOwnProfileSkipsFollowCheck() throws DAOException {
+        GetProfileResponse response = profileService.getProfile(new GetProfileRequest(targetUser, targetUser, authToken));
+
+        Assert.assertTrue(response.isSuccess());
+        Assert.assertFalse(response.getIsFollower());
+        Mockito.verify(mockFollowDAO, Mockito.never()).isFollower(Mockito.anyString(), Mockito.anyString());
+    }
+
+    @Test
+    public void testMissingUserFails() throws DAOException {
+        Mockito.when(mockUserDAO.getCounts("@target")).thenReturn(null);
+
+        GetProfileResponse response = profileService.getProfile(new GetProfileRequest(currentUser, targetUser, authToken));
+
+        Assert.assertFalse(response.isSuccess());
+    }
+
+    @Test
+    public void testInvalidAuthTokenFails() throws DAOException {
+        Mockito.when(mockUserDAO.authenticate(Mockito.any(), Mockito.anyLong())).thenReturn(false);
+
+        GetProfileResponse response = profileService.getProfile(new GetProfileRequest(currentUser, targetUser, authToken));
+
+        Assert.assertFalse(response.isSuccess());
+        Mockito.verify(mockUserDAO, Mockito.never()).getCounts(Mockito.anyString());
+    }
+}
@@ -0,0 +1,116 @@
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.dao.local.LocalModule;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
+
+public class TestRequestMetrics {
+    private File directory;
+
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("tweeter-metrics-test").toFile();
+        System.setProperty("LOCAL_STORE_DIR", directory.getPath());
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        System.clearProperty("LOCAL_STORE_DIR");
+        Files.walk(directory.toPath()).map(java.nio.file.Path::toFile)
+                .sorted(Collections.reverseOrder()).forEach(File::delete);
+    }
+
+    @Test
+    public void testStagesAreOnlyRecordedDuringARequest() {
+        Assert.assertEquals("result", RequestMetrics.time(RequestMetrics.QUERY, () -> "result"));
+        Assert.assertNull(RequestMetrics.current());
+
+        RequestMetrics recorded = RequestMetrics.measure("Test", () -> {
+            RequestMetrics.time(RequestMetrics.QUERY, () -> {
+                RequestMetrics.count("items", 3);
+                return null;
+            });
+            return RequestMetrics.current();
+        });
+        Assert.assertTrue(recorded.getStageMillis().containsKey(RequestMetrics.QUERY));
+        Assert.assertEquals(3, recorded.getCount("items"));
+        Assert.assertNull(RequestMetrics.current());
+    }
+
+    @Test
+    public void testWrappedTasksCountTowardsTheRequest() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (RequestMetrics metrics = RequestMetrics.begin("Test")) {
+            executor.submit(RequestMetrics.wrap(() -> RequestMetrics.count("items", 1))).get();
+            executor.submit(() -> RequestMetrics.count("items", 1)).get();
+            Assert.assertEquals(1, metrics.getCount("items"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testEmfNamesEveryMetric() {
+        try (RequestMetrics metrics = RequestMetrics.begin("GetFeed")) {
+            metrics.record(RequestMetrics.HYDRATE, 2.5);
+            metrics.add("items", 10);
+
+            JsonObject emf = JsonParser.parseString(metrics.toEmf(1234)).getAsJsonObject();
+            Assert.assertEquals("GetFeed", emf.get("Operation").getAsString());
+            Assert.assertEquals(2.5, emf.getAsJsonArray(RequestMetrics.HYDRATE).get(0).getAsDouble(), 0);
+            Assert.assertEquals(10, emf.get("items").getAsLong());
+
+            JsonObject aws = emf.getAsJsonObject("_aws");
+            Assert.assertEquals(1234, aws.get("Timestamp").getAsLong());
+            JsonObject directive = aws.getAsJsonArray("CloudWatchMetrics").get(0).getAsJsonObject();
+            Assert.assertEquals("Operation", directive.getAsJsonArray("Dimensions").get(0).getAsJsonArray().get(0).getAsString());
+            Assert.assertEquals(3, directive.getAsJsonArray("Metrics").size());
+        }
+    }
+
+    @Test
+    public void testEmfKeepsAtMostOneHundredValuesAStage() {
+        try (RequestMetrics metrics = RequestMetrics.begin("UpdateFeeds")) {
+            for (int i = 0; i < 250; i++) {
+                metrics.record(RequestMetrics.WRITE, 2);
+            }
+
+            JsonObject emf = JsonParser.parseString(metrics.toEmf(1234)).getAsJsonObject();
+            Assert.assertEquals(100, emf.getAsJsonArray(RequestMetrics.WRITE).size());
+            Assert.assertEquals(500, metrics.getStageMillis().get(RequestMetrics.WRITE), 0);
+        }
+    }
+
+    @Test
+    public void testDAOCallsAreTimedByKind() throws DAOException {
+        Injector injector = Guice.createInjector(new LocalModule());
+        UserDAO userDAO = injector.getInstance(UserDAO.class);
+
+        try (RequestMetrics metrics = RequestMetrics.begin("Test")) {
+            userDAO.addUser("@amy", "hash", "salt", "Amy", "Ames", "image", 0, 0);
+            userDAO.getUser("@amy");
+            userDAO.batchGetUsers(Collections.singletonList("@amy"));
+
+            Assert.assertTrue(metrics.getStageMillis().containsKey(RequestMetrics.WRITE));
+            Assert.assertTrue(metrics.getStageMillis().containsKey(RequestMetrics.QUERY));
+            Assert.assertTrue(metrics.getStageMillis().containsKey(RequestMetrics.BATCH_GET));
+            Assert.assertEquals(3, metrics.getCount("dao-calls"));
+        }
+    }
+}
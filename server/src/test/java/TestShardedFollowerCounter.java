@@ -0,0 +1,94 @@
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsRequest;
+import com.amazonaws.services.dynamodbv2.model.Update;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.dynamo.ShardedFollowerCounter;
+
+public class TestShardedFollowerCounter {
+    private AmazonDynamoDB mockClient;
+    private ShardedFollowerCounter counter;
+
+    @Before
+    public void setup() {
+        mockClient = Mockito.mock(AmazonDynamoDB.class);
+        Mockito.when(mockClient.updateItem(Mockito.any(UpdateItemRequest.class))).thenReturn(new UpdateItemResult());
+        counter = new ShardedFollowerCounter(mockClient, true, 10_000, 4);
+    }
+
+    private void givenUserItem(int numFollowers, Integer counterShards) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("num_followers", new AttributeValue().withN(Integer.toString(numFollowers)));
+        item.put("num_following", new AttributeValue().withN("0"));
+        if (counterShards != null) item.put("counter_shards", new AttributeValue().withN(counterShards.toString()));
+        Mockito.when(mockClient.getItem(Mockito.any(GetItemRequest.class))).thenReturn(new GetItemResult().withItem(item));
+    }
+
+    private Map<String, AttributeValue> shard(int count) {
+        return Collections.singletonMap("count", new AttributeValue().withN(Integer.toString(count)));
+    }
+
+    @Test
+    public void testReachingThresholdShardsIncrements() throws DAOException {
+        givenUserItem(10_000, null);
+
+        Assert.assertEquals(10_000, counter.getCount("@viral"));
+        ArgumentCaptor<UpdateItemRequest> enable = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        Mockito.verify(mockClient).updateItem(enable.capture());
+        Assert.assertEquals("4", enable.getValue().getExpressionAttributeValues().get(":n").getN());
+
+        counter.increment("@viral", 1);
+        ArgumentCaptor<TransactWriteItemsRequest> increment = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        Mockito.verify(mockClient).transactWriteItems(increment.capture());
+        Update update = increment.getValue().getTransactItems().get(0).getUpdate();
+        Assert.assertEquals("follower-count-shards", update.getTableName());
+        int shard = Integer.parseInt(update.getKey().get("shard").getN());
+        Assert.assertTrue(shard >= 0 && shard < 4);
+        Assert.assertEquals("users", increment.getValue().getTransactItems().get(1).getConditionCheck().getTableName());
+    }
+
+    @Test
+    public void testShardedCountSumsShards() throws DAOException {
+        givenUserItem(10_000, 4);
+        Mockito.when(mockClient.query(Mockito.any(QueryRequest.class)))
+                .thenReturn(new QueryResult().withItems(Arrays.asList(shard(3), shard(2))));
+
+        Assert.assertEquals(10_005, counter.getCount("@viral"));
+        Assert.assertEquals(10_005, counter.getCounts("@viral").getFollowers());
+        // The total is cached, so the shards are only summed once
+        Mockito.verify(mockClient, Mockito.times(1)).query(Mockito.any(QueryRequest.class));
+    }
+
+    @Test
+    public void testDisabledCountersStayOnUserItem() throws DAOException {
+        counter = new ShardedFollowerCounter(mockClient, false, 10_000, 4);
+        givenUserItem(20_000, null);
+
+        Assert.assertEquals(20_000, counter.getCount("@viral"));
+        counter.increment("@viral", 1);
+
+        ArgumentCaptor<UpdateItemRequest> increment = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        Mockito.verify(mockClient).updateItem(increment.capture());
+        Assert.assertEquals("users", increment.getValue().getTableName());
+        Assert.assertEquals("attribute_exists(#a)", increment.getValue().getConditionExpression());
+        Mockito.verify(mockClient, Mockito.never()).transactWriteItems(Mockito.any());
+    }
+}
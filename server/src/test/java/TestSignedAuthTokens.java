@@ -0,0 +1,104 @@
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.service.auth.SignedAuthTokens;
+
+public class TestSignedAuthTokens {
+    private static final long TTL_MILLIS = 60_000;
+
+    private SignedAuthTokens signedAuthTokens;
+    private UserDAO mockUserDAO;
+
+    @Before
+    public void setup() throws DAOException {
+        signedAuthTokens = new SignedAuthTokens("secret".getBytes(StandardCharsets.UTF_8), TTL_MILLIS);
+        mockUserDAO = Mockito.mock(UserDAO.class);
+        Mockito.when(mockUserDAO.getRevokedAuthTokens(Mockito.anyLong())).thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    public void testIssuedTokenVerifies() {
+        AuthToken token = signedAuthTokens.issue("@allen", 1_000);
+
+        Assert.assertTrue(SignedAuthTokens.isSigned(token));
+        SignedAuthTokens.Claims claims = signedAuthTokens.verify(token, 2_000);
+        Assert.assertNotNull(claims);
+        Assert.assertEquals("@allen", claims.getAlias());
+        Assert.assertEquals(1_000 + TTL_MILLIS, claims.getExpiresAt());
+    }
+
+    @Test
+    public void testExpiredTokenFails() {
+        AuthToken token = signedAuthTokens.issue("@allen", 1_000);
+
+        Assert.assertNull(signedAuthTokens.verify(token, 1_000 + TTL_MILLIS));
+    }
+
+    @Test
+    public void testTamperedTokenFails() {
+        AuthToken token = signedAuthTokens.issue("@allen", 1_000);
+        String[] parts = token.getToken().split("\\.");
+        parts[2] = String.valueOf(Long.parseLong(parts[2]) + TTL_MILLIS);
+        AuthToken extended = new AuthToken(String.join(".", parts));
+
+        Assert.assertNull(signedAuthTokens.verify(extended, 2_000));
+        Assert.assertNull(new SignedAuthTokens("other".getBytes(StandardCharsets.UTF_8), TTL_MILLIS).verify(token, 2_000));
+        Assert.assertFalse(SignedAuthTokens.isSigned(new AuthToken("1c8e0f1e-9a4f-4b59-8d61-3c2f5b7a2d10")));
+    }
+
+    @Test
+    public void testRevokedTokenFails() throws DAOException {
+        AuthToken token = signedAuthTokens.issue("@allen", 1_000);
+        Assert.assertTrue(signedAuthTokens.authenticate(token, 2_000, mockUserDAO));
+
+        signedAuthTokens.revoke(token, 3_000, mockUserDAO);
+
+        String tokenID = signedAuthTokens.verify(token, 3_000).getID();
+        Mockito.verify(mockUserDAO).revokeAuthToken(tokenID, 1_000 + TTL_MILLIS);
+        Assert.assertFalse(signedAuthTokens.authenticate(token, 4_000, mockUserDAO));
+
+        // Another container learns of the revocation from the database
+        SignedAuthTokens otherContainer = new SignedAuthTokens("secret".getBytes(StandardCharsets.UTF_8), TTL_MILLIS);
+        Mockito.when(mockUserDAO.getRevokedAuthTokens(Mockito.anyLong())).thenReturn(Collections.singletonList(tokenID));
+        Assert.assertFalse(otherContainer.authenticate(token, 4_000, mockUserDAO));
+    }
+
+    @Test
+    public void testOnlyOneRequestRefreshesRevocations() throws Exception {
+        AuthToken token = signedAuthTokens.issue("@allen", 1_000);
+        Assert.assertTrue(signedAuthTokens.authenticate(token, 2_000, mockUserDAO));
+
+        CountDownLatch refreshing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(mockUserDAO.getRevokedAuthTokens(Mockito.anyLong())).thenAnswer(invocation -> {
+            refreshing.countDown();
+            release.await();
+            return Collections.emptyList();
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> refresh = executor.submit(() -> signedAuthTokens.authenticate(token, 40_000, mockUserDAO));
+            refreshing.await();
+            // Answered from the revocations already read while the refresh is in flight
+            Assert.assertTrue(signedAuthTokens.authenticate(token, 40_001, mockUserDAO));
+            release.countDown();
+            Assert.assertTrue(refresh.get());
+        } finally {
+            executor.shutdown();
+        }
+        Mockito.verify(mockUserDAO, Mockito.times(2)).getRevokedAuthTokens(Mockito.anyLong());
+    }
+}
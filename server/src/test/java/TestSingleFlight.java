@@ -0,0 +1,140 @@
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.server.dao.DAOException;
+import edu.byu.cs.tweeter.server.dao.UserDAO;
+import edu.byu.cs.tweeter.server.dao.cache.SingleFlight;
+import edu.byu.cs.tweeter.server.dao.cache.SingleFlightUserDAO;
+import edu.byu.cs.tweeter.server.metrics.RequestMetrics;
+
+public class TestSingleFlight {
+    private static final int CALLERS = 8;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    /**
+     * Starts the callers and lets the first read finish once all the others are waiting on it.
+     */
+    private <T> List<T> callConcurrently(SingleFlight<?, ?> flight, CountDownLatch release, Callable<T> call) throws Exception {
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(executor.submit(call));
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (flight.getDeduplicated() < CALLERS - 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get(5, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    @Test
+    public void testConcurrentReadsOfOneKeyAreCollapsed() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test");
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger reads = new AtomicInteger();
+
+        List<Integer> results = callConcurrently(flight, release, () -> flight.get("@a", () -> {
+            reads.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new DAOException(e.getMessage());
+            }
+            return 42;
+        }));
+
+        Assert.assertEquals(1, reads.get());
+        Assert.assertEquals(Collections.nCopies(CALLERS, 42), results);
+        Assert.assertEquals(CALLERS, flight.getCalls());
+        Assert.assertEquals(CALLERS - 1, flight.getDeduplicated());
+    }
+
+    @Test
+    public void testFailureIsSharedAndNotKept() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test");
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<String> results = callConcurrently(flight, release, () -> {
+            try {
+                flight.get("@a", () -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new DAOException(e.getMessage());
+                    }
+                    throw new DAOException("throttled");
+                });
+                return "no exception";
+            } catch (DAOException e) {
+                return e.getMessage();
+            }
+        });
+
+        Assert.assertEquals(Collections.nCopies(CALLERS, "throttled"), results);
+        // The failed read is not remembered, so the next call reads again
+        Assert.assertEquals(Integer.valueOf(7), flight.get("@a", () -> 7));
+    }
+
+    @Test
+    public void testDifferentKeysAreNotCollapsed() throws DAOException {
+        SingleFlight<String, String> flight = new SingleFlight<>("test");
+
+        Assert.assertEquals("@a", flight.get("@a", () -> "@a"));
+        Assert.assertEquals("@b", flight.get("@b", () -> "@b"));
+        Assert.assertEquals(0, flight.getDeduplicated());
+    }
+
+    @Test
+    public void testUserDAOCollapsesProfileReads() throws Exception {
+        UserDAO delegate = Mockito.mock(UserDAO.class);
+        User user = new User("First", "Last", "@a", "a.png");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(delegate.batchGetUsers(Collections.singletonList("@a"))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new ArrayList<>(Collections.singletonList(user));
+        });
+        SingleFlightUserDAO userDAO = new SingleFlightUserDAO(delegate);
+
+        Future<List<User>> first = executor.submit(() -> userDAO.batchGetUsers(Collections.singletonList("@a")));
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<List<User>> second;
+        try (RequestMetrics metrics = RequestMetrics.begin("Test")) {
+            second = executor.submit(RequestMetrics.wrap(() -> userDAO.batchGetUsers(Collections.singletonList("@a"))));
+            // Let the first read finish once the second has joined it
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (metrics.getCount(SingleFlight.DEDUPLICATED) == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            List<User> secondUsers = second.get(5, TimeUnit.SECONDS);
+            List<User> firstUsers = first.get(5, TimeUnit.SECONDS);
+
+            Assert.assertEquals(Collections.singletonList(user), firstUsers);
+            Assert.assertEquals(Collections.singletonList(user), secondUsers);
+            // Callers can change their lists without affecting each other
+            Assert.assertNotSame(firstUsers, secondUsers);
+            Assert.assertEquals(1, metrics.getCount(SingleFlight.DEDUPLICATED));
+        }
+        Mockito.verify(delegate, Mockito.times(1)).batchGetUsers(Mockito.anyList());
+    }
+}
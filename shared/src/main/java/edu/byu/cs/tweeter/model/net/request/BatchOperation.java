@@ -0,0 +1,46 @@
+package edu.byu.cs.tweeter.model.net.request;
+
+/**
+ * One sub-request of a {@link BatchRequest}: the name of the operation to run and its request,
+ * serialized as Json. The batch's auth token is used in place of any token in the body.
+ */
+public class BatchOperation {
+    public static final String GET_USER = "getUser";
+    public static final String GET_FOLLOWERS_COUNT = "getFollowersCount";
+    public static final String GET_FOLLOWING_COUNT = "getFollowingCount";
+    public static final String IS_FOLLOWER = "isFollower";
+    public static final String GET_FOLLOWERS = "getFollowers";
+    public static final String GET_FOLLOWING = "getFollowing";
+    public static final String GET_FEED = "getFeed";
+    public static final String GET_STORY = "getStory";
+    public static final String GET_PROFILE = "getProfile";
+
+    private String operation;
+    private String body;
+
+    /**
+     * Allows construction of the object from Json. Private so it won't be called in normal code.
+     */
+    private BatchOperation() {}
+
+    public BatchOperation(String operation, String body) {
+        this.operation = operation;
+        this.body = body;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+}
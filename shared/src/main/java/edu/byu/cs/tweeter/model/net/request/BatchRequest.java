@@ -0,0 +1,40 @@
+package edu.byu.cs.tweeter.model.net.request;
+
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+
+/**
+ * Carries several read requests to the server in one call. The auth token is checked once for
+ * the whole batch.
+ */
+public class BatchRequest implements Request {
+    private List<BatchOperation> operations;
+    private AuthToken authToken;
+
+    /**
+     * Allows construction of the object from Json. Private so it won't be called in normal code.
+     */
+    private BatchRequest() {}
+
+    public BatchRequest(List<BatchOperation> operations, AuthToken authToken) {
+        this.operations = operations;
+        this.authToken = authToken;
+    }
+
+    public List<BatchOperation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<BatchOperation> operations) {
+        this.operations = operations;
+    }
+
+    public AuthToken getAuthToken() {
+        return authToken;
+    }
+
+    public void setAuthToken(AuthToken authToken) {
+        this.authToken = authToken;
+    }
+}
@@ -0,0 +1,56 @@
+package edu.byu.cs.tweeter.model.net.request;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * Contains all the information needed to get a user's profile: the user, their follower and
+ * following counts and whether the current user follows them.
+ */
+public class GetProfileRequest implements Request {
+    private User currentUser;
+    private User targetUser;
+    private AuthToken authToken;
+
+    /**
+     * Allows construction of the object from Json. Private so it won't be called in normal code.
+     */
+    private GetProfileRequest() {}
+
+    /**
+     * Creates an instance.
+     *
+     * @param currentUser the logged in user, who may or may not follow the target user.
+     * @param targetUser the user whose profile is to be returned.
+     * @param authToken the auth token of the logged in user.
+     */
+    public GetProfileRequest(User currentUser, User targetUser, AuthToken authToken) {
+        this.currentUser = currentUser;
+        this.targetUser = targetUser;
+        this.authToken = authToken;
+    }
+
+    public User getCurrentUser() {
+        return currentUser;
+    }
+
+    public void setCurrentUser(User currentUser) {
+        this.currentUser = currentUser;
+    }
+
+    public User getTargetUser() {
+        return targetUser;
+    }
+
+    public void setTargetUser(User targetUser) {
+        this.targetUser = targetUser;
+    }
+
+    public AuthToken getAuthToken() {
+        return authToken;
+    }
+
+    public void setAuthToken(AuthToken authToken) {
+        this.authToken = authToken;
+    }
+}
@@ -0,0 +1,38 @@
+package edu.byu.cs.tweeter.model.net.response;
+
+import java.util.List;
+
+/**
+ * A response for a {@link edu.byu.cs.tweeter.model.net.request.BatchRequest}.
+ */
+public class BatchResponse extends Response {
+
+    /**
+     * The response to each operation, serialized as Json, in the order the operations were sent.
+     * An operation that failed has an unsuccessful response with the failure as its message.
+     */
+    private List<String> results;
+
+    /**
+     * Creates a response indicating that the whole batch was unsuccessful.
+     *
+     * @param message a message describing why the request was unsuccessful.
+     */
+    public BatchResponse(String message) {
+        super(false, message);
+    }
+
+    /**
+     * Creates a response indicating that the batch was run.
+     *
+     * @param results the response to each operation.
+     */
+    public BatchResponse(List<String> results) {
+        super(true, null);
+        this.results = results;
+    }
+
+    public List<String> getResults() {
+        return results;
+    }
+}
@@ -0,0 +1,55 @@
+package edu.byu.cs.tweeter.model.net.response;
+
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * A response for a {@link edu.byu.cs.tweeter.model.net.request.GetProfileRequest}.
+ */
+public class GetProfileResponse extends Response {
+    private User user;
+    private int followersCount;
+    private int followingCount;
+    private boolean isFollower;
+
+    /**
+     * Creates a response indicating that the corresponding request was unsuccessful.
+     *
+     * @param message a message describing why the request was unsuccessful.
+     */
+    public GetProfileResponse(String message) {
+        super(false, message);
+    }
+
+    /**
+     * Creates a response indicating that the corresponding request was successful.
+     *
+     * @param user the user.
+     * @param followersCount the number of users following the user.
+     * @param followingCount the number of users the user is following.
+     * @param isFollower whether the current user follows the user. Always false for the current
+     *                   user's own profile.
+     */
+    public GetProfileResponse(User user, int followersCount, int followingCount, boolean isFollower) {
+        super(true, null);
+        this.user = user;
+        this.followersCount = followersCount;
+        this.followingCount = followingCount;
+        this.isFollower = isFollower;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public int getFollowersCount() {
+        return followersCount;
+    }
+
+    public int getFollowingCount() {
+        return followingCount;
+    }
+
+    public boolean getIsFollower() {
+        return isFollower;
+    }
+}